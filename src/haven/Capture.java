@@ -0,0 +1,314 @@
+/*
+ *  This file is part of the Haven & Hearth game client.
+ *  Copyright (C) 2009 Fredrik Tolf <fredrik@dolda2000.com>, and
+ *                     Björn Johannessen <johannessen.bjorn@gmail.com>
+ *
+ *  Redistribution and/or modification of this file is subject to the
+ *  terms of the GNU Lesser General Public License, version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  Other parts of this source tree adhere to other copying
+ *  rights. Please see the file `COPYING' in the root directory of the
+ *  source tree for details.
+ *
+ *  A copy the GNU Lesser General Public License is distributed along
+ *  with the source tree of which this file is a part in the file
+ *  `doc/LPGL-3'. If it is missing for any reason, please see the Free
+ *  Software Foundation's website at <http://www.fsf.org/>, or write
+ *  to the Free Software Foundation, Inc., 59 Temple Place, Suite 330,
+ *  Boston, MA 02111-1307 USA
+ */
+
+package haven;
+
+import java.io.*;
+import java.nio.file.*;
+import java.text.SimpleDateFormat;
+import java.util.*;
+import java.util.zip.*;
+
+/* Binary record of what a Connection delivers to its callbacks,
+ * for replaying sessions without a server (see
+ * nurgling.headless.ReplayMain). A capture is a gzip stream of
+ * the magic "HCAP" and a version byte, followed by events: a type
+ * byte, the time since the previous event in microseconds as an
+ * unsigned varint, and the payload, being for
+ *   REL:   message type (uint8), length (varint), bytes
+ *   OBJD:  flags (uint8), id (int64), frame, initframe (int32),
+ *          removed (uint8), attribute count (varint), and per
+ *          attribute its type (uint8), length (varint), bytes
+ *   MAP:   length (varint), bytes
+ *   CLOSE: nothing
+ * Setting haven.capture to a directory records every session
+ * into a new file there. */
+public class Capture {
+    public static final Config.Variable<Path> dir = Config.Variable.propp("haven.capture", "");
+    public static final byte[] MAGIC = {'H', 'C', 'A', 'P'};
+    public static final int VERSION = 1;
+    public static final int EV_REL = 1, EV_OBJD = 2, EV_MAP = 3, EV_CLOSE = 4;
+
+    private static void uvar(OutputStream out, long v) throws IOException {
+	while((v & ~0x7fL) != 0) {
+	    out.write((int)((v & 0x7f) | 0x80));
+	    v >>>= 7;
+	}
+	out.write((int)v);
+    }
+
+    private static long uvar(InputStream in) throws IOException {
+	long ret = 0;
+	for(int sh = 0; ; sh += 7) {
+	    int b = in.read();
+	    if(b < 0)
+		throw(new EOFException());
+	    ret |= (long)(b & 0x7f) << sh;
+	    if((b & 0x80) == 0)
+		return(ret);
+	}
+    }
+
+    public static class Writer implements Connection.Callback {
+	public final Path path;
+	private final DataOutputStream out;
+	private double last;
+	private boolean broken = false;
+
+	public Writer(Path path) throws IOException {
+	    this.path = path;
+	    this.out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(path, StandardOpenOption.CREATE_NEW), 65536), 65536));
+	    out.write(MAGIC);
+	    out.write(VERSION);
+	    this.last = Utils.rtime();
+	}
+
+	/* A writer for a new file in haven.capture, or null if
+	 * capturing is off or the file cannot be made. */
+	public static Writer open() {
+	    Path dir = Capture.dir.get();
+	    if((dir == null) || dir.toString().isEmpty())
+		return(null);
+	    try {
+		Files.createDirectories(dir);
+		String nm = new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date());
+		/* Never reuse a file, which may be the capture of a
+		 * session that ended within the same second. */
+		for(int i = 0; ; i++) {
+		    try {
+			return(new Writer(dir.resolve("session-" + nm + ((i == 0) ? "" : "-" + i) + ".hcap")));
+		    } catch(FileAlreadyExistsException e) {
+			if(i >= 100)
+			    throw(e);
+		    }
+		}
+	    } catch(IOException e) {
+		new Warning(e, "could not start session capture").issue();
+		return(null);
+	    }
+	}
+
+	private void head(int type) throws IOException {
+	    double now = Utils.rtime();
+	    out.write(type);
+	    uvar(out, Math.max(0, Math.round((now - last) * 1e6)));
+	    last = now;
+	}
+
+	private void blob(Message msg) throws IOException {
+	    byte[] data = (msg instanceof MessageBuf) ? ((MessageBuf)msg).whole() : new MessageBuf(msg).bytes();
+	    uvar(out, data.length);
+	    out.write(data);
+	}
+
+	private void fail(IOException e) {
+	    broken = true;
+	    new Warning(e, "session capture stopped").issue();
+	    try {
+		out.close();
+	    } catch(IOException e2) {
+	    }
+	}
+
+	public synchronized void handle(PMessage msg) {
+	    if(broken)
+		return;
+	    try {
+		head(EV_REL);
+		out.write(msg.type);
+		blob(msg);
+	    } catch(IOException e) {
+		fail(e);
+	    }
+	}
+
+	public synchronized void handle(OCache.ObjDelta msg) {
+	    if(broken)
+		return;
+	    try {
+		head(EV_OBJD);
+		out.write(msg.fl);
+		out.writeLong(msg.id);
+		out.writeInt(msg.frame);
+		out.writeInt(msg.initframe);
+		out.write(msg.rem ? 1 : 0);
+		uvar(out, msg.attrs.size());
+		for(OCache.AttrDelta attr : msg.attrs) {
+		    out.write(attr.type);
+		    blob(attr);
+		}
+	    } catch(IOException e) {
+		fail(e);
+	    }
+	}
+
+	public synchronized void mapdata(Message msg) {
+	    if(broken)
+		return;
+	    try {
+		head(EV_MAP);
+		blob(msg);
+	    } catch(IOException e) {
+		fail(e);
+	    }
+	}
+
+	public synchronized void closed() {
+	    if(broken)
+		return;
+	    try {
+		head(EV_CLOSE);
+		out.close();
+		broken = true;
+	    } catch(IOException e) {
+		fail(e);
+	    }
+	}
+    }
+
+    public static class Event {
+	public final int type;
+	/* Seconds since the start of the capture */
+	public final double time;
+	public final PMessage rel;
+	public final OCache.ObjDelta objd;
+	public final MessageBuf map;
+
+	private Event(int type, double time, PMessage rel, OCache.ObjDelta objd, MessageBuf map) {
+	    this.type = type;
+	    this.time = time;
+	    this.rel = rel;
+	    this.objd = objd;
+	    this.map = map;
+	}
+
+	/* Bytes of payload, for throughput figures */
+	public int size() {
+	    switch(type) {
+	    case EV_REL:
+		return(rel.rt - rel.rh);
+	    case EV_MAP:
+		return(map.rt - map.rh);
+	    case EV_OBJD:
+		int ret = 0;
+		for(OCache.AttrDelta attr : objd.attrs)
+		    ret += attr.rt - attr.rh;
+		return(ret);
+	    }
+	    return(0);
+	}
+
+	/* Hand the event to a callback, as Connection would have */
+	public void deliver(Connection.Callback cb) {
+	    switch(type) {
+	    case EV_REL:
+		cb.handle(rel);
+		break;
+	    case EV_OBJD:
+		cb.handle(objd);
+		break;
+	    case EV_MAP:
+		cb.mapdata(map);
+		break;
+	    case EV_CLOSE:
+		cb.closed();
+		break;
+	    }
+	}
+    }
+
+    public static class Reader implements AutoCloseable {
+	private final DataInputStream in;
+	private long time = 0;
+	private boolean done = false;
+
+	public Reader(Path path) throws IOException {
+	    this.in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(Files.newInputStream(path), 65536), 65536));
+	    byte[] magic = new byte[MAGIC.length];
+	    in.readFully(magic);
+	    if(!Arrays.equals(magic, MAGIC))
+		throw(new IOException("not a session capture: " + path));
+	    int ver = in.read();
+	    if(ver != VERSION)
+		throw(new IOException("unsupported capture version " + ver + ": " + path));
+	}
+
+	private byte[] blob() throws IOException {
+	    byte[] ret = new byte[(int)uvar(in)];
+	    in.readFully(ret);
+	    return(ret);
+	}
+
+	/* The next event, or null at the end. A capture cut off
+	 * by a crash ends with its last complete event, and one
+	 * without a CLOSE event gets one made up. */
+	public Event next() throws IOException {
+	    if(done)
+		return(null);
+	    try {
+		int type = in.read();
+		if(type < 0)
+		    throw(new EOFException());
+		time += uvar(in);
+		double t = time / 1e6;
+		switch(type) {
+		case EV_REL: {
+		    int mtype = in.readUnsignedByte();
+		    return(new Event(type, t, new PMessage(mtype, blob()), null, null));
+		}
+		case EV_OBJD: {
+		    int fl = in.readUnsignedByte();
+		    long id = in.readLong();
+		    int frame = in.readInt();
+		    OCache.ObjDelta delta = new OCache.ObjDelta(fl, id, frame);
+		    delta.initframe = in.readInt();
+		    delta.rem = in.readUnsignedByte() != 0;
+		    for(int i = (int)uvar(in); i > 0; i--) {
+			int atype = in.readUnsignedByte();
+			byte[] data = blob();
+			delta.attrs.add(new OCache.AttrDelta(delta, atype, new MessageBuf(data), data.length));
+		    }
+		    return(new Event(type, t, null, delta, null));
+		}
+		case EV_MAP:
+		    return(new Event(type, t, null, null, new MessageBuf(blob())));
+		case EV_CLOSE:
+		    done = true;
+		    return(new Event(type, t, null, null, null));
+		default:
+		    throw(new IOException("unknown capture event type " + type));
+		}
+	    } catch(EOFException e) {
+		done = true;
+		return(new Event(EV_CLOSE, time / 1e6, null, null, null));
+	    }
+	}
+
+	public void close() throws IOException {
+	    in.close();
+	}
+    }
+}
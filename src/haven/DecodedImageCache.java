@@ -0,0 +1,182 @@
+/*
+ *  This file is part of the Haven & Hearth game client.
+ *  Copyright (C) 2009 Fredrik Tolf <fredrik@dolda2000.com>, and
+ *                     Björn Johannessen <johannessen.bjorn@gmail.com>
+ *
+ *  Redistribution and/or modification of this file is subject to the
+ *  terms of the GNU Lesser General Public License, version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  Other parts of this source tree adhere to other copying
+ *  rights. Please see the file `COPYING' in the root directory of the
+ *  source tree for details.
+ *
+ *  A copy the GNU Lesser General Public License is distributed along
+ *  with the source tree of which this file is a part in the file
+ *  `doc/LPGL-3'. If it is missing for any reason, please see the Free
+ *  Software Foundation's website at <http://www.fsf.org/>, or write
+ *  to the Free Software Foundation, Inc., 59 Temple Place, Suite 330,
+ *  Boston, MA 02111-1307 USA
+ */
+
+package haven;
+
+import java.io.*;
+import java.awt.image.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.*;
+
+/* Decoded pixels of Resource.Image layers, kept in the resource
+ * cache next to the resources themselves so that starting the
+ * client does not run every image through ImageIO again. Entries
+ * are keyed by resource name, version, layer id and a CRC of the
+ * encoded image, and hold the image type, size, palette and pixel
+ * bytes, deflated at the fastest level. Only the byte-per-sample
+ * types ImageIO makes of 8-bit PNGs are cached, since those can be
+ * rebuilt exactly. */
+public class DecodedImageCache {
+    public static final Config.Variable<Boolean> enabled = Config.Variable.propb("haven.imgcache", true);
+    private static final int MAGIC = 0x48494d31;
+    private static final int MAXPENDING = 64;
+    private static final AtomicInteger pending = new AtomicInteger(0);
+    private static final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+	    Thread t = new HackThread(r, "Image cache writer");
+	    t.setDaemon(true);
+	    return(t);
+	});
+
+    private static String key(Resource res, int id, byte[] enc) {
+	CRC32 crc = new CRC32();
+	crc.update(enc);
+	return(String.format("decimg/%s/%d/%d-%08x", res.name, res.ver, id, crc.getValue()));
+    }
+
+    private static int bands(int type) {
+	switch(type) {
+	case BufferedImage.TYPE_4BYTE_ABGR:
+	    return(4);
+	case BufferedImage.TYPE_3BYTE_BGR:
+	    return(3);
+	case BufferedImage.TYPE_BYTE_GRAY:
+	case BufferedImage.TYPE_BYTE_INDEXED:
+	    return(1);
+	}
+	return(0);
+    }
+
+    /* The pixel bytes of img if it is of a cacheable kind */
+    private static byte[] pixels(BufferedImage img) {
+	int bands = bands(img.getType());
+	if(bands == 0)
+	    return(null);
+	if((img.getType() == BufferedImage.TYPE_BYTE_INDEXED) && (img.getColorModel().getPixelSize() != 8))
+	    return(null);
+	WritableRaster ras = img.getRaster();
+	if(!(ras.getDataBuffer() instanceof DataBufferByte) || (ras.getParent() != null))
+	    return(null);
+	DataBufferByte buf = (DataBufferByte)ras.getDataBuffer();
+	if((buf.getNumBanks() != 1) || (buf.getOffset() != 0))
+	    return(null);
+	byte[] data = buf.getData();
+	if(data.length != img.getWidth() * img.getHeight() * bands)
+	    return(null);
+	return(data);
+    }
+
+    private static BufferedImage fetch(ResCache cache, String key) throws IOException {
+	try(DataInputStream in = new DataInputStream(new BufferedInputStream(cache.fetch(key)))) {
+	    if(in.readInt() != MAGIC)
+		return(null);
+	    DataInputStream zin = new DataInputStream(new BufferedInputStream(new InflaterInputStream(in), 65536));
+	    int type = zin.readInt();
+	    int w = zin.readInt(), h = zin.readInt();
+	    BufferedImage ret;
+	    if(type == BufferedImage.TYPE_BYTE_INDEXED) {
+		int n = zin.readInt();
+		byte[] r = new byte[n], g = new byte[n], b = new byte[n], a = new byte[n];
+		zin.readFully(r); zin.readFully(g); zin.readFully(b); zin.readFully(a);
+		ret = new BufferedImage(w, h, type, new IndexColorModel(8, n, r, g, b, a));
+	    } else if(bands(type) > 0) {
+		ret = new BufferedImage(w, h, type);
+	    } else {
+		return(null);
+	    }
+	    zin.readFully(((DataBufferByte)ret.getRaster().getDataBuffer()).getData());
+	    return(ret);
+	}
+    }
+
+    private static void store(ResCache cache, String key, int type, int w, int h, IndexColorModel cm, byte[] data) throws IOException {
+	try(OutputStream fp = cache.store(key)) {
+	    DataOutputStream out = new DataOutputStream(fp);
+	    out.writeInt(MAGIC);
+	    DeflaterOutputStream zfp = new DeflaterOutputStream(out, new Deflater(Deflater.BEST_SPEED), 65536);
+	    DataOutputStream zout = new DataOutputStream(zfp);
+	    zout.writeInt(type);
+	    zout.writeInt(w);
+	    zout.writeInt(h);
+	    if(cm != null) {
+		int n = cm.getMapSize();
+		byte[] c = new byte[n];
+		zout.writeInt(n);
+		cm.getReds(c);   zout.write(c);
+		cm.getGreens(c); zout.write(c);
+		cm.getBlues(c);  zout.write(c);
+		cm.getAlphas(c); zout.write(c);
+	    }
+	    zout.write(data);
+	    zout.flush();
+	    zfp.finish();
+	    out.flush();
+	}
+    }
+
+    private static void storelater(ResCache cache, String key, BufferedImage img) {
+	byte[] data = pixels(img);
+	if(data == null)
+	    return;
+	if(pending.incrementAndGet() > MAXPENDING) {
+	    /* Whatever is dropped will be stored on a later start */
+	    pending.decrementAndGet();
+	    return;
+	}
+	int type = img.getType(), w = img.getWidth(), h = img.getHeight();
+	IndexColorModel cm = (type == BufferedImage.TYPE_BYTE_INDEXED) ? (IndexColorModel)img.getColorModel() : null;
+	byte[] copy = data.clone();
+	writer.execute(() -> {
+		try {
+		    store(cache, key, type, w, h, cm, copy);
+		} catch(IOException e) {
+		    new Warning(e, "could not cache decoded image " + key).issue();
+		} finally {
+		    pending.decrementAndGet();
+		}
+	    });
+    }
+
+    /* Decodes the rest of buf as the image of layer id of res. */
+    public static BufferedImage read(Resource res, int id, Message buf) throws IOException {
+	ResCache cache = Resource.cache();
+	if((cache == null) || !enabled.get())
+	    return(Resource.readimage(new MessageInputStream(buf)));
+	byte[] enc = buf.bytes();
+	String key = key(res, id, enc);
+	try {
+	    BufferedImage ret = fetch(cache, key);
+	    if(ret != null)
+		return(ret);
+	} catch(FileNotFoundException e) {
+	} catch(IOException e) {
+	    /* A damaged entry is written over below */
+	}
+	BufferedImage ret = Resource.readimage(new ByteArrayInputStream(enc));
+	storelater(cache, key, ret);
+	return(ret);
+    }
+}
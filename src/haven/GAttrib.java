@@ -39,6 +39,27 @@ public abstract class GAttrib {
 	
     public void ctick(double dt) {
     }
+
+    private static final ClassValue<Class<?>> tickcl = new ClassValue<Class<?>>() {
+	protected Class<?> computeValue(Class<?> cl) {
+	    try {
+		return(cl.getMethod("ctick", Double.TYPE).getDeclaringClass());
+	    } catch(NoSuchMethodException e) {
+		return(cl);
+	    }
+	}
+    };
+
+    /* The class whose ctick method instances of cl use. */
+    protected static Class<?> tickclass(Class<?> cl) {
+	return(tickcl.get(cl));
+    }
+
+    /* Whether ctick may currently have any effect; see
+     * Gob.ticking(). */
+    public boolean ticks() {
+	return(tickclass(getClass()) != GAttrib.class);
+    }
     
     public void dispose() {
     }
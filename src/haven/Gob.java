@@ -50,6 +50,9 @@ public class Gob implements RenderTree.Node, Sprite.Owner, Skeleton.ModOwner, Eq
     private final LinkedList<Runnable> deferred = new LinkedList<>();
     private Loader.Future<?> deferral = null;
     public NGob ngob;
+    /* Guarded by the OCache; see OCache.wake(). */
+    boolean inoc = false;
+    int wakeseq = 0;
 
 	public void changedPose(String currentPose) {
 		ngob.changedPose(currentPose);
@@ -127,6 +130,7 @@ public class Gob implements RenderTree.Node, Sprite.Owner, Skeleton.ModOwner, Eq
 	    gob.ols.remove(this);
 		gob.ngob.removeol(this);
 	    removed();
+	    gob.wake();
 	}
 
 	public void remove() {
@@ -455,10 +459,22 @@ public class Gob implements RenderTree.Node, Sprite.Owner, Skeleton.ModOwner, Eq
 	this(glob, c, -1);
     }
 
+    private static final ThreadLocal<ArrayList<GAttrib>> tickattrs = ThreadLocal.withInitial(ArrayList::new);
     public void ctick(double dt) {
-	for(GAttrib a : new ArrayList<>(attr.values()))
-		a.ctick(dt);
-	List<Overlay> toRemove = new ArrayList<>();
+	/* Attributes may remove themselves while ticking, so tick a
+	 * copy, kept in a per-thread buffer. */
+	ArrayList<GAttrib> attrs = tickattrs.get();
+	int base = attrs.size();
+	for(GAttrib a : attr.values())
+	    attrs.add(a);
+	try {
+	    for(int i = base; i < attrs.size(); i++)
+		attrs.get(i).ctick(dt);
+	} finally {
+	    while(attrs.size() > base)
+		attrs.remove(attrs.size() - 1);
+	}
+	List<Overlay> toRemove = null;
 	for(Overlay ol : ols) {
 	    if(ol.slots == null) {
 		try {
@@ -468,11 +484,14 @@ public class Gob implements RenderTree.Node, Sprite.Owner, Skeleton.ModOwner, Eq
 		boolean done = ol.tick(dt);
 		if((!ol.delign || (ol.spr instanceof Sprite.CDel)) && done) {
 		    ol.remove0();
+		    if(toRemove == null)
+			toRemove = new ArrayList<>(1);
 		    toRemove.add(ol);
 		}
 	    }
 	}
-	ols.removeAll(toRemove);
+	if(toRemove != null)
+	    ols.removeAll(toRemove);
 	updstate();
 	if(virtual && ols.isEmpty() && (getattr(Drawable.class) == null))
 	    glob.oc.remove(this);
@@ -480,6 +499,26 @@ public class Gob implements RenderTree.Node, Sprite.Owner, Skeleton.ModOwner, Eq
 		ngob.tick(dt);
     }
 
+    /* Whether ctick has anything to do for this gob at the moment.
+     * OCache stops ticking gobs for which this is false until they
+     * are woken again. */
+    public boolean ticking() {
+	if(virtual || !ols.isEmpty() || statepending)
+	    return(true);
+	for(GAttrib a : attr.values()) {
+	    if(a.ticks())
+		return(true);
+	}
+	return(!ngob.effector && ngob.ticking());
+    }
+
+    /* Have OCache tick this gob again; to be called whenever
+     * something changes that may make ticking() true. */
+    public void wake() {
+	if(glob != null)
+	    glob.oc.wake(this);
+    }
+
     public void gtick(Render g) {
 	Drawable d = getattr(Drawable.class);
 	if(d != null)
@@ -550,6 +589,7 @@ public class Gob implements RenderTree.Node, Sprite.Owner, Skeleton.ModOwner, Eq
 	ol.add0();
 	ols.add(ol);
 	ngob.addol(ol);
+	wake();
     }
     public void addol(Overlay ol) {
 	addol(ol, true);
@@ -604,6 +644,8 @@ public class Gob implements RenderTree.Node, Sprite.Owner, Skeleton.ModOwner, Eq
 	if(m != null)
 	    m.move(c);
 	this.rc = c;
+	if(glob != null)
+	    glob.oc.index.moved(this);
 	if(NUtils.playerID()!=-1 && id == NUtils.playerID())  {
 		new Thread(new CheckGridsState(), "plgob_move").start();
 	}
@@ -690,6 +732,7 @@ public class Gob implements RenderTree.Node, Sprite.Owner, Skeleton.ModOwner, Eq
 		}
 		prev.dispose();
 	}
+	wake();
     }
 
     public void setattr(GAttrib a) {
@@ -782,19 +825,25 @@ public class Gob implements RenderTree.Node, Sprite.Owner, Skeleton.ModOwner, Eq
 	return(curstate);
     }
 
+    /* Set while the state could not be built for something still
+     * loading, to keep the gob ticking until it can. */
+    private boolean statepending = false;
     public void updstate() {
 	GobState nst;
 	try {
 	    nst = new GobState();
 	} catch(Loading l) {
+	    statepending = true;
 	    return;
 	}
+	statepending = false;
 	if(!Utils.eq(nst, curstate)) {
 	    try {
 		for(RenderTree.Slot slot : slots)
 		    slot.ostate(nst);
 		this.curstate = nst;
 	    } catch(Loading l) {
+		statepending = true;
 	    }
 	}
     }
@@ -0,0 +1,184 @@
+package haven;
+
+import java.util.*;
+import java.util.function.*;
+
+/* Uniform grid over the positions of the gobs in an OCache, for
+ * area and radius queries that would otherwise scan every gob.
+ * Gobs are bucketed by their rc; OCache.add/remove and Gob.move
+ * keep it current. It has its own lock, so queries neither take
+ * nor wait for the OCache monitor. Predicates passed to the
+ * queries run after the lock is released. */
+public class GobIndex {
+    public static final double CELL = MCache.tilesz.x * 4;
+    private static final long NOWHERE = Long.MIN_VALUE;
+    private final Map<Long, List<Gob>> cells = new HashMap<>();
+    private final Map<Gob, Long> where = new IdentityHashMap<>();
+
+    private static long key(int x, int y) {
+	return(((long)x << 32) | (y & 0xffffffffL));
+    }
+
+    private static int cell(double v) {
+	return((int)Math.floor(v / CELL));
+    }
+
+    private static long key(Coord2d c) {
+	return((c == null) ? NOWHERE : key(cell(c.x), cell(c.y)));
+    }
+
+    private void link(Gob gob, long k) {
+	where.put(gob, k);
+	if(k != NOWHERE)
+	    cells.computeIfAbsent(k, x -> new ArrayList<>(4)).add(gob);
+    }
+
+    private void unlink(Gob gob, long k) {
+	if(k == NOWHERE)
+	    return;
+	List<Gob> c = cells.get(k);
+	if(c == null)
+	    return;
+	for(int i = 0; i < c.size(); i++) {
+	    if(c.get(i) == gob) {
+		c.set(i, c.get(c.size() - 1));
+		c.remove(c.size() - 1);
+		break;
+	    }
+	}
+	if(c.isEmpty())
+	    cells.remove(k);
+    }
+
+    private static double sqdist(Coord2d a, Coord2d b) {
+	double dx = a.x - b.x, dy = a.y - b.y;
+	return((dx * dx) + (dy * dy));
+    }
+
+    public synchronized void add(Gob gob) {
+	Long cur = where.get(gob);
+	if(cur != null)
+	    unlink(gob, cur);
+	link(gob, key(gob.rc));
+    }
+
+    public synchronized void remove(Gob gob) {
+	Long cur = where.remove(gob);
+	if(cur != null)
+	    unlink(gob, cur);
+    }
+
+    /* Called when the rc of a gob changes; ignored for gobs not
+     * in the index. */
+    public synchronized void moved(Gob gob) {
+	Long cur = where.get(gob);
+	if(cur == null)
+	    return;
+	long nk = key(gob.rc);
+	if(nk != cur) {
+	    unlink(gob, cur);
+	    link(gob, nk);
+	}
+    }
+
+    public synchronized int size() {
+	return(where.size());
+    }
+
+    /* Gobs in all cells touching [ul, br], unfiltered. */
+    private List<Gob> candidates(double ulx, double uly, double brx, double bry) {
+	List<Gob> ret = new ArrayList<>();
+	int cx0 = cell(ulx), cy0 = cell(uly), cx1 = cell(brx), cy1 = cell(bry);
+	synchronized(this) {
+	    long span = ((long)cx1 - cx0 + 1) * ((long)cy1 - cy0 + 1);
+	    if(span > cells.size()) {
+		/* Large query: cheaper to walk the occupied cells */
+		for(Map.Entry<Long, List<Gob>> e : cells.entrySet()) {
+		    long k = e.getKey();
+		    int x = (int)(k >> 32), y = (int)k;
+		    if((x >= cx0) && (x <= cx1) && (y >= cy0) && (y <= cy1))
+			ret.addAll(e.getValue());
+		}
+	    } else {
+		for(int x = cx0; x <= cx1; x++) {
+		    for(int y = cy0; y <= cy1; y++) {
+			List<Gob> c = cells.get(key(x, y));
+			if(c != null)
+			    ret.addAll(c);
+		    }
+		}
+	    }
+	}
+	return(ret);
+    }
+
+    /* Gobs with ul <= rc <= br that pass the filter (which may be
+     * null). */
+    public List<Gob> area(Coord2d ul, Coord2d br, Predicate<? super Gob> filter) {
+	List<Gob> ret = new ArrayList<>();
+	for(Gob gob : candidates(ul.x, ul.y, br.x, br.y)) {
+	    Coord2d rc = gob.rc;
+	    if((rc == null) || (rc.x < ul.x) || (rc.y < ul.y) || (rc.x > br.x) || (rc.y > br.y))
+		continue;
+	    if((filter == null) || filter.test(gob))
+		ret.add(gob);
+	}
+	return(ret);
+    }
+
+    public List<Gob> area(Coord2d ul, Coord2d br) {
+	return(area(ul, br, null));
+    }
+
+    /* Gobs strictly closer to c than r that pass the filter. */
+    public List<Gob> radius(Coord2d c, double r, Predicate<? super Gob> filter) {
+	List<Gob> ret = new ArrayList<>();
+	double r2 = r * r;
+	for(Gob gob : candidates(c.x - r, c.y - r, c.x + r, c.y + r)) {
+	    Coord2d rc = gob.rc;
+	    if((rc == null) || (sqdist(rc, c) >= r2))
+		continue;
+	    if((filter == null) || filter.test(gob))
+		ret.add(gob);
+	}
+	return(ret);
+    }
+
+    public List<Gob> radius(Coord2d c, double r) {
+	return(radius(c, r, null));
+    }
+
+    /* The gob closest to c within r that passes the filter. */
+    public Gob nearest(Coord2d c, double r, Predicate<? super Gob> filter) {
+	Gob ret = null;
+	double best = r * r;
+	for(Gob gob : candidates(c.x - r, c.y - r, c.x + r, c.y + r)) {
+	    Coord2d rc = gob.rc;
+	    if(rc == null)
+		continue;
+	    double d = sqdist(rc, c);
+	    if((d < best) && ((filter == null) || filter.test(gob))) {
+		best = d;
+		ret = gob;
+	    }
+	}
+	return(ret);
+    }
+
+    private static Predicate<Gob> named(Predicate<? super String> name, Predicate<? super Gob> filter) {
+	return(gob -> {
+		String nm = (gob.ngob == null) ? null : gob.ngob.name;
+		return((nm != null) && name.test(nm) && ((filter == null) || filter.test(gob)));
+	    });
+    }
+
+    /* Name-filtered variants, matching on the resource name of
+     * the gob; gobs without a known name never match. */
+    public List<Gob> area(Coord2d ul, Coord2d br, Predicate<? super String> name, Predicate<? super Gob> filter) {
+	return(area(ul, br, named(name, filter)));
+    }
+
+    public List<Gob> radius(Coord2d c, double r, Predicate<? super String> name, Predicate<? super Gob> filter) {
+	return(radius(c, r, named(name, filter)));
+    }
+}
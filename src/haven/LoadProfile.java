@@ -0,0 +1,199 @@
+/*
+ *  This file is part of the Haven & Hearth game client.
+ *  Copyright (C) 2009 Fredrik Tolf <fredrik@dolda2000.com>, and
+ *                     Björn Johannessen <johannessen.bjorn@gmail.com>
+ *
+ *  Redistribution and/or modification of this file is subject to the
+ *  terms of the GNU Lesser General Public License, version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  Other parts of this source tree adhere to other copying
+ *  rights. Please see the file `COPYING' in the root directory of the
+ *  source tree for details.
+ *
+ *  A copy the GNU Lesser General Public License is distributed along
+ *  with the source tree of which this file is a part in the file
+ *  `doc/LPGL-3'. If it is missing for any reason, please see the Free
+ *  Software Foundation's website at <http://www.fsf.org/>, or write
+ *  to the Free Software Foundation, Inc., 59 Temple Place, Suite 330,
+ *  Boston, MA 02111-1307 USA
+ */
+
+package haven;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+/* Counts Loading throws, and while someone is looking, samples
+ * every RATE:th of them for where it was thrown from and what it
+ * waits for. */
+public class LoadProfile {
+    public static final Config.Variable<Boolean> stacks = Config.Variable.propb("haven.loadstacks", false);
+    public static final int RATE = 16;
+    private static final AtomicLong thrown = new AtomicLong();
+    private static final AtomicInteger users = new AtomicInteger();
+    private static final BlockingQueue<Sample> samples = new ArrayBlockingQueue<>(1024);
+
+    private static class Sample {
+	final Loading l;
+	final StackTraceElement site;
+
+	Sample(Loading l, StackTraceElement site) {
+	    this.l = l;
+	    this.site = site;
+	}
+    }
+
+    public static class Site {
+	public final String site, what;
+	public long total;
+	public double rate;
+	private long cur;
+
+	Site(String site, String what) {
+	    this.site = site;
+	    this.what = what;
+	}
+    }
+
+    /* Called for every constructed Loading, before its subclass
+     * fields are set. Returns whether it should be sampled. */
+    static boolean thrown() {
+	long n = thrown.incrementAndGet();
+	return((users.get() > 0) && ((n % RATE) == 0));
+    }
+
+    /* Records a sampled throw, attributed to the first frame not
+     * in a constructor of the thrown class or its superclasses. */
+    static void sample(Loading l, StackTraceElement[] trace) {
+	Set<String> own = new HashSet<>();
+	for(Class<?> c = l.getClass(); c != null; c = c.getSuperclass())
+	    own.add(c.getName());
+	StackTraceElement site = null;
+	for(StackTraceElement el : trace) {
+	    if(own.contains(el.getClassName()) && (el.getMethodName().equals("<init>") || el.getMethodName().equals("fillInStackTrace")))
+		continue;
+	    site = el;
+	    break;
+	}
+	samples.offer(new Sample(l, site));
+    }
+
+    public static long total() {
+	return(thrown.get());
+    }
+
+    private static final Map<String, Site> sites = new HashMap<>();
+    private static double lastroll = 0;
+    private static long lasttotal = 0;
+    private static double totalrate = 0;
+
+    /* Collected sites with their estimated throws per second,
+     * busiest first. */
+    public static List<Site> sites() {
+	synchronized(sites) {
+	    Sample s;
+	    while((s = samples.poll()) != null) {
+		String site = (s.site == null) ? "?" : s.site.toString();
+		String what = String.valueOf(s.l);
+		Site e = sites.computeIfAbsent(site + "\0" + what, k -> new Site(site, what));
+		e.total += RATE;
+		e.cur += RATE;
+	    }
+	    double now = Utils.rtime();
+	    if(now - lastroll >= 1.0) {
+		double dt = now - lastroll;
+		for(Iterator<Site> i = sites.values().iterator(); i.hasNext();) {
+		    Site e = i.next();
+		    if((e.cur == 0) && (sites.size() > 4096)) {
+			i.remove();
+			continue;
+		    }
+		    e.rate = e.cur / dt;
+		    e.cur = 0;
+		}
+		long total = thrown.get();
+		totalrate = (total - lasttotal) / dt;
+		lasttotal = total;
+		lastroll = now;
+	    }
+	    List<Site> ret = new ArrayList<>(sites.values());
+	    ret.sort((a, b) -> (a.rate != b.rate) ? Double.compare(b.rate, a.rate) : Long.compare(b.total, a.total));
+	    return(ret);
+	}
+    }
+
+    public static double rate() {
+	synchronized(sites) {
+	    return(totalrate);
+	}
+    }
+
+    public static class Display extends Widget {
+	public static final int lines = 20;
+	private final Tex[] text = new Tex[lines + 1];
+	private double last = 0;
+	private boolean counted = false;
+
+	public Display() {
+	    super(UI.scale(600, 15 * (lines + 1)));
+	}
+
+	protected void added() {
+	    super.added();
+	    if(!counted) {
+		counted = true;
+		users.incrementAndGet();
+	    }
+	}
+
+	/* Reached through the parent's rdispose as well, unlike destroy */
+	public void dispose() {
+	    if(counted) {
+		counted = false;
+		users.decrementAndGet();
+	    }
+	    for(int i = 0; i < text.length; i++) {
+		if(text[i] != null)
+		    text[i].dispose();
+		text[i] = null;
+	    }
+	    super.dispose();
+	}
+
+	public void tick(double dt) {
+	    double now = Utils.rtime();
+	    if(now - last < 1.0)
+		return;
+	    last = now;
+	    List<Site> cur = sites();
+	    String[] ln = new String[text.length];
+	    ln[0] = String.format("%,.0f/s, %,d in all (1 in %d sampled, stacks %s)", rate(), total(), RATE, Loading.stacks ? "on" : "off");
+	    for(int i = 0; (i < lines) && (i < cur.size()); i++) {
+		Site e = cur.get(i);
+		ln[i + 1] = String.format("%,8.0f/s %,10d  %s  %s", e.rate, e.total, e.site, e.what);
+	    }
+	    for(int i = 0; i < text.length; i++) {
+		if(text[i] != null)
+		    text[i].dispose();
+		text[i] = (ln[i] == null) ? null : Text.render(ln[i]).tex();
+	    }
+	}
+
+	public void draw(GOut g) {
+	    int y = 0;
+	    for(Tex t : text) {
+		if(t == null)
+		    break;
+		g.image(t, Coord.of(0, y));
+		y += t.sz().y;
+	    }
+	}
+    }
+}
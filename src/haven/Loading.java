@@ -30,6 +30,9 @@ import java.util.function.Consumer;
 import java.util.function.Supplier;
 
 public class Loading extends RuntimeException implements Waitable {
+    /* Loadings are thrown by the thousand as plain control flow, so
+     * their stack traces are only filled in when asked for. */
+    public static final boolean stacks = LoadProfile.stacks.get();
     public final Loading rec;
 
     public Loading() {
@@ -62,6 +65,18 @@ public class Loading extends RuntimeException implements Waitable {
 	this.rec = rec;
     }
 
+    public Throwable fillInStackTrace() {
+	boolean sample = LoadProfile.thrown();
+	if(stacks) {
+	    super.fillInStackTrace();
+	    if(sample)
+		LoadProfile.sample(this, getStackTrace());
+	} else if(sample) {
+	    LoadProfile.sample(this, new Throwable().getStackTrace());
+	}
+	return(this);
+    }
+
     public String getMessage() {
 	if(rec != null)
 	    return(rec.getMessage());
@@ -458,60 +458,63 @@ public class MapFile {
 	}
 
 	public BufferedImage render(Coord off) {
+	    return(render(off, renderopts()));
+	}
+
+	public BufferedImage render(Coord off, int opts) {
 	    BufferedImage[] texes = new BufferedImage[tilesets.length];
 	    boolean[] cached = new boolean[tilesets.length];
-	    WritableRaster buf = PUtils.imgraster(cmaps);
-	    Coord c = new Coord();
-	    
-	    // Cache for biome colors (for uniformBiomeColors)
-	    int[] biomeColors = null;
-	    if((Boolean) NConfig.get(NConfig.Key.uniformBiomeColors)) {
-		biomeColors = new int[tilesets.length];
-		Arrays.fill(biomeColors, -1); // -1 means "not loaded yet"
-	    }
-	    
-	    for(c.y = 0; c.y < cmaps.y; c.y++) {
-		for(c.x = 0; c.x < cmaps.x; c.x++) {
-		    int t = gettile(c);
+	    int[][] texpx = new int[tilesets.length][];
+	    boolean uniform = (opts & RO_UNIFORM) != 0;
+	    int[] px = new int[cmaps.x * cmaps.y];
+	    for(int y = 0, i = 0; y < cmaps.y; y++) {
+		for(int x = 0; x < cmaps.x; x++, i++) {
+		    int t = tiles[i];
 		    BufferedImage tex = tiletex(t, texes, cached);
-		    int rgb = 0;
-		    if(tex != null) {
-			if((Boolean) NConfig.get(NConfig.Key.uniformBiomeColors)) {
-			    // Get cached color or load it from position (0,0)
-			    if(biomeColors[t] == -1) {
-				int color = tex.getRGB(0, 0);
-				// Force alpha channel to maximum (opaque)
-				biomeColors[t] = (color & 0x00FFFFFF) | 0xFF000000;
-			    }
-			    rgb = biomeColors[t];
-			} else {
-			    // Normal behavior - get color from current texture coordinates
-			    rgb = tex.getRGB(Utils.floormod(c.x + off.x, tex.getWidth()),
-					     Utils.floormod(c.y + off.y, tex.getHeight()));
-			}
+		    if(tex == null)
+			continue;
+		    if(uniform) {
+			// Color of pixel (0,0), forced opaque
+			if(texpx[t] == null)
+			    texpx[t] = new int[] {(tex.getRGB(0, 0) & 0x00ffffff) | 0xff000000};
+			px[i] = texpx[t][0];
+		    } else {
+			if(texpx[t] == null)
+			    texpx[t] = PUtils.argb(tex);
+			int w = tex.getWidth();
+			px[i] = texpx[t][Utils.floormod(x + off.x, w) + (Utils.floormod(y + off.y, tex.getHeight()) * w)];
 		    }
-		    buf.setSample(c.x, c.y, 0, (rgb & 0x00ff0000) >>> 16);
-		    buf.setSample(c.x, c.y, 1, (rgb & 0x0000ff00) >>>  8);
-		    buf.setSample(c.x, c.y, 2, (rgb & 0x000000ff) >>>  0);
-		    buf.setSample(c.x, c.y, 3, (rgb & 0xff000000) >>> 24);
 		}
 	    }
-	    for(c.y = 1; c.y < cmaps.y - 1; c.y++) {
-		for(c.x = 1; c.x < cmaps.x - 1; c.x++) {
-		    int p = tilesets[gettile(c)].prio;
-		    if((tilesets[gettile(c.add(-1, 0))].prio > p) ||
-		       (tilesets[gettile(c.add( 1, 0))].prio > p) ||
-		       (tilesets[gettile(c.add(0, -1))].prio > p) ||
-		       (tilesets[gettile(c.add(0,  1))].prio > p))
-		    {
-			buf.setSample(c.x, c.y, 0, 0);
-			buf.setSample(c.x, c.y, 1, 0);
-			buf.setSample(c.x, c.y, 2, 0);
-			buf.setSample(c.x, c.y, 3, 255);
-		    }
+	    for(int y = 1; y < cmaps.y - 1; y++) {
+		for(int x = 1; x < cmaps.x - 1; x++) {
+		    int i = x + (y * cmaps.x);
+		    int p = tilesets[tiles[i]].prio;
+		    if((tilesets[tiles[i - 1]].prio > p) ||
+		       (tilesets[tiles[i + 1]].prio > p) ||
+		       (tilesets[tiles[i - cmaps.x]].prio > p) ||
+		       (tilesets[tiles[i + cmaps.x]].prio > p))
+			px[i] = 0xff000000;
 		}
 	    }
-	    return(PUtils.rasterimg(buf));
+	    return(PUtils.argbimg(cmaps, px));
+	}
+
+	private long stamp = 0;
+	/* A hash of everything the rendered image of this grid
+	 * depends on, telling cached renders of it apart. */
+	public long stamp() {
+	    if(stamp == 0) {
+		long h = 0xcbf29ce484222325L;
+		for(TileInfo ti : tilesets)
+		    h = (h ^ ti.res.name.hashCode() ^ ((long)ti.res.ver << 32) ^ ((long)ti.prio << 48)) * 0x100000001b3L;
+		for(int t : tiles)
+		    h = (h ^ t) * 0x100000001b3L;
+		for(float z : zmap)
+		    h = (h ^ Float.floatToIntBits(z)) * 0x100000001b3L;
+		stamp = (h == 0) ? 1 : h;
+	    }
+	    return(stamp);
 	}
 
 	private static Color olcol(MCache.OverlayInfo olid) {
@@ -1117,6 +1120,68 @@ public class MapFile {
 	}
     }
 
+    /* Rendered map images are kept in the store next to the grids
+     * they were drawn from, stamped with the data and render
+     * options they were drawn with, so that changed grids simply
+     * miss and get drawn again. */
+    public static final int RO_UNIFORM = 1;
+
+    public static int renderopts() {
+	return(NConfig.getBool(NConfig.Key.uniformBiomeColors) ? RO_UNIFORM : 0);
+    }
+
+    public BufferedImage loadimg(long seg, int lvl, Coord sc, long stamp, int opts) {
+	InputStream fp;
+	try {
+	    fp = sfetch("img-%x-%d-%d-%d", seg, lvl, sc.x, sc.y);
+	} catch(IOException e) {
+	    return(null);
+	}
+	try(StreamMessage data = new StreamMessage(fp)) {
+	    if(data.eom() || (data.uint8() != 1))
+		return(null);
+	    ZMessage z = new ZMessage(data);
+	    if((z.int64() != stamp) || (z.int32() != opts))
+		return(null);
+	    Coord sz = z.coord();
+	    if((sz.x <= 0) || (sz.y <= 0) || (sz.x > 4096) || (sz.y > 4096))
+		return(null);
+	    BufferedImage img = TexI.mkbuf(sz);
+	    byte[] buf = ((java.awt.image.DataBufferByte)img.getRaster().getDataBuffer()).getData();
+	    z.bytes(buf);
+	    return(img);
+	} catch(Message.BinError e) {
+	    warn(e, "could not load map image for (%d, %d) in %x@%d: %s", sc.x, sc.y, seg, lvl, e);
+	    return(null);
+	}
+    }
+
+    public void saveimg(long seg, int lvl, Coord sc, long stamp, int opts, BufferedImage img) {
+	if(!(img.getRaster().getDataBuffer() instanceof java.awt.image.DataBufferByte))
+	    return;
+	byte[] buf = ((java.awt.image.DataBufferByte)img.getRaster().getDataBuffer()).getData();
+	if(buf.length != img.getWidth() * img.getHeight() * 4)
+	    return;
+	OutputStream fp;
+	try {
+	    fp = sstore("img-%x-%d-%d-%d", seg, lvl, sc.x, sc.y);
+	} catch(IOException e) {
+	    warn(e, "could not store map image for (%d, %d) in %x@%d: %s", sc.x, sc.y, seg, lvl, e);
+	    return;
+	}
+	try(StreamMessage out = new StreamMessage(fp)) {
+	    out.adduint8(1);
+	    ZMessage z = new ZMessage(out);
+	    z.addint64(stamp);
+	    z.addint32(opts);
+	    z.addcoord(PUtils.imgsz(img));
+	    z.addbytes(buf);
+	    z.finish();
+	} catch(RuntimeException e) {
+	    warn(e, "could not store map image for (%d, %d) in %x@%d: %s", sc.x, sc.y, seg, lvl, e);
+	}
+    }
+
     public static class ZoomCoord {
 	public final int lvl;
 	public final Coord c;
@@ -1391,6 +1456,16 @@ public class MapFile {
 	    return(cached);
 	}
 
+	/* Identifies the data of the grids added to this view. */
+	public long stamp() {
+	    long h = 0;
+	    for(Map.Entry<Coord, GridMap> e : grids.entrySet()) {
+		long gh = (e.getValue() == null) ? 0 : e.getValue().grid.stamp();
+		h += (gh ^ e.getKey().hashCode()) * 0x9e3779b97f4a7c15L;
+	    }
+	    return(h);
+	}
+
 	public int gettile(Coord tc) {
 	    Coord gc = tc.div(cmaps);
 	    Coord ul = gc.mul(cmaps);
@@ -26,9 +26,6 @@
 
 package haven;
 
-import nurgling.NConfig;
-
-import java.awt.Color;
 import java.awt.image.BufferedImage;
 
 public interface MapSource {
@@ -56,52 +53,61 @@ public interface MapSource {
     }
 
     public static BufferedImage drawmap(MapSource m, Area a) {
+	return(drawmap(m, a, MapFile.renderopts()));
+    }
+
+    public static BufferedImage drawmap(MapSource m, Area a, int opts) {
 	Coord sz = a.sz();
+	boolean uniform = (opts & MapFile.RO_UNIFORM) != 0;
 	BufferedImage[] texes = new BufferedImage[256];
-	BufferedImage buf = TexI.mkbuf(sz);
-	Coord c = new Coord();
-	for(c.y = 0; c.y < sz.y; c.y++) {
-	    for(c.x = 0; c.x < sz.x; c.x++) {
-		int t = m.gettile(a.ul.add(c));
-		if(t < 0) {
-		    buf.setRGB(c.x, c.y, 0);
+	int[][] texpx = new int[256][];
+	int[] px = new int[sz.x * sz.y];
+	/* Tiles of the area and a one-tile border around it */
+	int tw = sz.x + 2;
+	int[] tl = new int[tw * (sz.y + 2)];
+	for(int y = -1; y <= sz.y; y++) {
+	    for(int x = -1; x <= sz.x; x++)
+		tl[(x + 1) + ((y + 1) * tw)] = m.gettile(a.ul.add(x, y));
+	}
+	for(int y = 0; y < sz.y; y++) {
+	    for(int x = 0; x < sz.x; x++) {
+		int t = tl[(x + 1) + ((y + 1) * tw)];
+		if(t < 0)
 		    continue;
-		}
 		BufferedImage tex = tileimg(m, texes, t);
 		int rgb = 0;
 		if(tex != null) {
-		    // Check if uniform biome colors is enabled
-		    boolean uniformColors = false;
-		    if(NConfig.get(NConfig.Key.uniformBiomeColors) instanceof Boolean) {
-		        uniformColors = (Boolean) NConfig.get(NConfig.Key.uniformBiomeColors);
-		    }
-		    if(uniformColors) {
-		        // Always use color from pixel (0,0) for uniform biome colors
-		        int color = tex.getRGB(0, 0);
-		        // Force full opacity
-		        rgb = (color & 0x00FFFFFF) | 0xFF000000;
+		    if(uniform) {
+			// Always use color from pixel (0,0) for uniform biome colors, at full opacity
+			rgb = (tex.getRGB(0, 0) & 0x00ffffff) | 0xff000000;
 		    } else {
-		        // Use normal texture coordinates
-		        rgb = tex.getRGB(Utils.floormod(c.x + a.ul.x, tex.getWidth()),
-		                         Utils.floormod(c.y + a.ul.y, tex.getHeight()));
+			if(texpx[t] == null)
+			    texpx[t] = PUtils.argb(tex);
+			int w = tex.getWidth();
+			rgb = texpx[t][Utils.floormod(x + a.ul.x, w) + (Utils.floormod(y + a.ul.y, tex.getHeight()) * w)];
 		    }
 		}
-		buf.setRGB(c.x, c.y, rgb);
+		px[x + (y * sz.x)] = rgb;
 	    }
 	}
-	for(c.y = 1; c.y < sz.y - 1; c.y++) {
-	    for(c.x = 1; c.x < sz.x - 1; c.x++) {
-		int t = m.gettile(a.ul.add(c));
+	for(int cy = 1; cy < sz.y - 1; cy++) {
+	    for(int cx = 1; cx < sz.x - 1; cx++) {
+		int t = tl[(cx + 1) + ((cy + 1) * tw)];
 		if(t < 0)
 		    continue;
 		try {
-		    Tiler tl = m.tiler(t);
-		    if(tl instanceof haven.resutil.Ridges.RidgeTile) {
-			if(haven.resutil.Ridges.brokenp(m, a.ul.add(c))) {
-			    for(int y = c.y - 1; y <= c.y + 1; y++) {
-				for(int x = c.x - 1; x <= c.x + 1; x++) {
-				    Color cc = new Color(buf.getRGB(x, y));
-				    buf.setRGB(x, y, Utils.blendcol(cc, Color.BLACK, ((x == c.x) && (y == c.y))?1:0.1).getRGB());
+		    Tiler tiler = m.tiler(t);
+		    if(tiler instanceof haven.resutil.Ridges.RidgeTile) {
+			if(haven.resutil.Ridges.brokenp(m, a.ul.add(cx, cy))) {
+			    for(int y = cy - 1; y <= cy + 1; y++) {
+				for(int x = cx - 1; x <= cx + 1; x++) {
+				    /* Blend towards opaque black: fully at the break, a tenth around it */
+				    int f = ((x == cx) && (y == cy)) ? 0 : 230;
+				    int p = px[x + (y * sz.x)];
+				    px[x + (y * sz.x)] = 0xff000000 |
+					(((((p >> 16) & 0xff) * f) / 255) << 16) |
+					(((((p >>  8) & 0xff) * f) / 255) <<  8) |
+					((((p >>  0) & 0xff) * f) / 255);
 				}
 			    }
 			}
@@ -113,16 +119,14 @@ public interface MapSource {
 		}
 	    }
 	}
-	for(c.y = 0; c.y < sz.y; c.y++) {
-	    for(c.x = 0; c.x < sz.x; c.x++) {
-		int t = m.gettile(a.ul.add(c));
-		if((m.gettile(a.ul.add(c).add(-1, 0)) > t) ||
-		   (m.gettile(a.ul.add(c).add( 1, 0)) > t) ||
-		   (m.gettile(a.ul.add(c).add(0, -1)) > t) ||
-		   (m.gettile(a.ul.add(c).add(0,  1)) > t))
-		    buf.setRGB(c.x, c.y, Color.BLACK.getRGB());
+	for(int y = 0; y < sz.y; y++) {
+	    for(int x = 0; x < sz.x; x++) {
+		int i = (x + 1) + ((y + 1) * tw);
+		int t = tl[i];
+		if((tl[i - 1] > t) || (tl[i + 1] > t) || (tl[i - tw] > t) || (tl[i + tw] > t))
+		    px[x + (y * sz.x)] = 0xff000000;
 	    }
 	}
-	return(buf);
+	return(PUtils.argbimg(sz, px));
     }
 }
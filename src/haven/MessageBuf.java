@@ -102,6 +102,11 @@ public class MessageBuf extends Message implements java.io.Serializable {
 	rh = oh;
     }
 
+    /* All of the message, however much of it has been read */
+    public byte[] whole() {
+	return(java.util.Arrays.copyOfRange(rbuf, oh, rt));
+    }
+
     public MessageBuf clone() {
 	return(new MessageBuf(rbuf, oh, rt - oh));
     }
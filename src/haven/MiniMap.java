@@ -30,6 +30,7 @@ import haven.render.*;
 import java.util.*;
 import java.util.function.*;
 import java.awt.Color;
+import java.awt.image.BufferedImage;
 import haven.MapFile.Segment;
 import haven.MapFile.DataGrid;
 import haven.MapFile.Grid;
@@ -404,6 +405,7 @@ public class MiniMap extends Widget
 	public final MapFile file;
 	public final Segment seg;
 	public final Coord sc;
+	public final int lvl;
 	public final Area mapext;
 	public final Indir<? extends DataGrid> gref;
 	private DataGrid cgrid = null;
@@ -414,6 +416,7 @@ public class MiniMap extends Widget
 	    this.file = seg.file();
 	    this.seg = seg;
 	    this.sc = sc;
+	    this.lvl = lvl;
 	    this.gref = gref;
 	    mapext = Area.sized(sc.mul(cmaps.mul(1 << lvl)), cmaps.mul(1 << lvl));
 	}
@@ -450,21 +453,40 @@ public class MiniMap extends Widget
 	    if(img_c == null) {
 		img_c = new CachedImage(grid -> {
 			if(grid instanceof MapFile.ZoomGrid) {
-			    return(Defer.later(() -> new TexI(grid.render(sc.mul(cmaps)))));
+			    return(Defer.later(() -> {
+				    int opts = MapFile.renderopts();
+				    long stamp = grid.stamp();
+				    BufferedImage img = file.loadimg(seg.id, lvl, sc, stamp, opts);
+				    if(img == null) {
+					img = grid.render(sc.mul(cmaps), opts);
+					file.saveimg(seg.id, lvl, sc, stamp, opts, img);
+				    }
+				    return(new TexI(img));
+				}));
 			} else {
 			    return(Defer.later(new Defer.Callable<Tex>() {
 				    MapFile.View view = new MapFile.View(seg);
 
 				    public TexI call() {
+					int opts = MapFile.renderopts();
+					long stamp;
 					try(Locked lk = new Locked(file.lock.readLock())) {
 					    for(int y = -1; y <= 1; y++) {
 						for(int x = -1; x <= 1; x++) {
 						    view.addgrid(sc.add(x, y));
 						}
 					    }
-					    view.fin();
-					    return(new TexI(MapSource.drawmap(view, Area.sized(sc.mul(cmaps), cmaps))));
+					    stamp = view.stamp();
+					}
+					BufferedImage img = file.loadimg(seg.id, 0, sc, stamp, opts);
+					if(img == null) {
+					    try(Locked lk = new Locked(file.lock.readLock())) {
+						view.fin();
+						img = MapSource.drawmap(view, Area.sized(sc.mul(cmaps), cmaps), opts);
+					    }
+					    file.saveimg(seg.id, 0, sc, stamp, opts, img);
 					}
+					return(new TexI(img));
 				    }
 				}));
 			}
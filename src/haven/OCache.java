@@ -27,7 +27,7 @@
 package haven;
 
 import java.util.*;
-import java.util.function.Consumer;
+import java.util.function.*;
 import java.lang.annotation.*;
 import java.lang.reflect.*;
 import haven.render.*;
@@ -61,12 +61,23 @@ public class OCache implements Iterable<Gob> {
     /* XXX: Use weak refs */
     private Collection<Collection<Gob>> local = new LinkedList<Collection<Gob>>();
     private MultiMap<Long, Gob> objs = new HashMultiMap<Long, Gob>();
+    public final GobIndex index = new GobIndex();
+    /* Gobs that ctick visits; the others sleep until woken. */
+    private final Set<Gob> awake = Collections.newSetFromMap(new IdentityHashMap<>());
+    private boolean wakeall = false;
+    /* Scratch space for ctick, which only the render loop calls. */
+    private final ArrayList<Gob> ticking = new ArrayList<>();
+    private int[] tickseq = new int[64];
+    private boolean[] tickidle = new boolean[64];
     private Glob glob;
     private final Collection<ChangeCallback> cbs = new WeakList<ChangeCallback>();
 	public final NPathVisualizer paths = new NPathVisualizer();
     public interface ChangeCallback {
 	public void added(Gob ob);
 	public void removed(Gob ob);
+	/* Called when deltas have been applied to a gob that was
+	 * already added. */
+	public default void changed(Gob ob) {}
     }
 
     public OCache(Glob glob) {
@@ -87,12 +98,29 @@ public class OCache implements Iterable<Gob> {
 	    synchronized(this) {
 		cbs = new ArrayList<>(this.cbs);
 		objs.put(ob.id, ob);
+		index.add(ob);
+		ob.inoc = true;
+		ob.wakeseq++;
+		awake.add(ob);
 	    }
 	    for(ChangeCallback cb : cbs)
 		cb.added(ob);
 	}
     }
 
+    private void changed(Gob ob) {
+	synchronized(ob) {
+	    Collection<ChangeCallback> cbs;
+	    synchronized(this) {
+		if(this.cbs.isEmpty())
+		    return;
+		cbs = new ArrayList<>(this.cbs);
+	    }
+	    for(ChangeCallback cb : cbs)
+		cb.changed(ob);
+	}
+    }
+
     public void remove(Gob ob) {
 	Gob old;
 	Collection<ChangeCallback> cbs;
@@ -100,6 +128,11 @@ public class OCache implements Iterable<Gob> {
 	    old = objs.remove(ob.id, ob);
 	    if((old != null) && (old != ob))
 		throw(new RuntimeException(String.format("object %d removed wrong object", ob.id)));
+	    if(old != null) {
+		index.remove(old);
+		old.inoc = false;
+		awake.remove(old);
+	    }
 	    cbs = new ArrayList<>(this.cbs);
 	}
 	if(old != null) {
@@ -111,21 +144,72 @@ public class OCache implements Iterable<Gob> {
 	}
     }
 
+    /* Make ctick visit a gob again. Gobs not in the cache are
+     * ignored; gobs in local collections are always ticked. */
+    public synchronized void wake(Gob ob) {
+	if(ob.inoc) {
+	    ob.wakeseq++;
+	    awake.add(ob);
+	}
+    }
+
+    /* Make ctick visit every gob once, for changes that gobs cannot
+     * notice on their own while asleep. */
+    public synchronized void wakeall() {
+	wakeall = true;
+    }
+
     public void ctick(double dt) {
-	ArrayList<Gob> copy = new ArrayList<Gob>();
+	ArrayList<Gob> copy = ticking;
+	int n;
 	synchronized(this) {
-	    for(Gob g : this)
+	    if(wakeall) {
+		for(Gob g : objs.values()) {
+		    g.wakeseq++;
+		    awake.add(g);
+		}
+		wakeall = false;
+	    }
+	    for(Gob g : awake)
 		copy.add(g);
-	}
-	Consumer<Gob> task = g -> {
+	    n = copy.size();
+	    if(tickseq.length < n) {
+		tickseq = new int[n * 2];
+		tickidle = new boolean[n * 2];
+	    }
+	    for(int i = 0; i < n; i++)
+		tickseq[i] = copy.get(i).wakeseq;
+	    for(Collection<Gob> gc : local)
+		copy.addAll(gc);
+	}
+	boolean[] idle = tickidle;
+	IntConsumer task = i -> {
+	    Gob g = copy.get(i);
 	    synchronized(g) {
 		g.ctick(dt);
+		if(i < n)
+		    idle[i] = !g.ticking();
 	    }
 	};
-	if(!Config.par.get())
-	    copy.forEach(task);
-	else
-	    copy.parallelStream().forEach(task);
+	try {
+	    if(!Config.par.get()) {
+		for(int i = 0; i < copy.size(); i++)
+		    task.accept(i);
+	    } else {
+		java.util.stream.IntStream.range(0, copy.size()).parallel().forEach(task);
+	    }
+	    /* Put gobs with nothing left to do to sleep, unless they
+	     * were woken while being ticked. */
+	    synchronized(this) {
+		for(int i = 0; i < n; i++) {
+		    Gob g = copy.get(i);
+		    if(idle[i] && (g.wakeseq == tickseq[i]))
+			awake.remove(g);
+		}
+	    }
+	} finally {
+	    copy.clear();
+	}
 	paths.tick(dt);
     }
 
@@ -403,6 +487,9 @@ public class OCache implements Iterable<Gob> {
 		if(!added) {
 		    add(gob);
 		    added = true;
+		} else {
+		    wake(gob);
+		    changed(gob);
 		}
 		gob.updated();
 	    }
@@ -30,6 +30,7 @@ import java.awt.Color;
 import java.awt.Graphics;
 import java.awt.color.*;
 import java.awt.image.*;
+import java.util.*;
 
 public class PUtils {
     public static final ComponentColorModel cm_rgb = new ComponentColorModel(ColorSpace.getInstance(ColorSpace.CS_sRGB), new int[] {8, 8, 8}, false, false, ComponentColorModel.OPAQUE, java.awt.image.DataBuffer.TYPE_BYTE);
@@ -72,6 +73,34 @@ public class PUtils {
 	return(new BufferedImage(cm_rgba, img, false, null));
     }
 
+    /* An RGBA image, as rasterimg(imgraster()) makes, from packed
+     * ARGB pixels in row order. */
+    public static BufferedImage argbimg(Coord sz, int[] px) {
+	WritableRaster buf = imgraster(sz);
+	byte[] data = ((DataBufferByte)buf.getDataBuffer()).getData();
+	for(int i = 0, o = 0; i < px.length; i++, o += 4) {
+	    int p = px[i];
+	    data[o + 0] = (byte)(p >>> 16);
+	    data[o + 1] = (byte)(p >>>  8);
+	    data[o + 2] = (byte)(p >>>  0);
+	    data[o + 3] = (byte)(p >>> 24);
+	}
+	return(rasterimg(buf));
+    }
+
+    private static final Map<BufferedImage, int[]> argbcache = Collections.synchronizedMap(new WeakHashMap<>());
+    /* The pixels of an image as packed ARGB in row order, kept for
+     * as long as the image lives. Must not be modified. */
+    public static int[] argb(BufferedImage img) {
+	int[] ret = argbcache.get(img);
+	if(ret == null) {
+	    int w = img.getWidth(), h = img.getHeight();
+	    ret = img.getRGB(0, 0, w, h, null, 0, w);
+	    argbcache.put(img, ret);
+	}
+	return(ret);
+    }
+
     public static BufferedImage coercergba(BufferedImage img) {
 	int w = img.getWidth(), h = img.getHeight();
 	WritableRaster buf = Raster.createInterleavedRaster(DataBuffer.TYPE_BYTE, w, h, 4, null);
@@ -44,6 +44,16 @@ public class Profwnd extends Window {
 	this(prof, title, true);
     }
 
+    /* A window for another kind of profile display, without a
+     * Profile to capture. */
+    public Profwnd(Widget disp, String title) {
+	super(Coord.z, title);
+	this.prof = null;
+	this.live = false;
+	add(disp, Coord.z);
+	pack();
+    }
+
     public void reqclose() {
 	ui.destroy(this);
     }
@@ -69,6 +69,12 @@ public class ResDrawable extends Drawable implements Sprite.Owner, EquipTarget {
 	spr.tick(dt);
     }
 
+    public boolean ticks() {
+	if(tickclass(getClass()) != ResDrawable.class)
+	    return(true);
+	return(spr.ticks());
+    }
+
     public void gtick(Render g) {
 	spr.gtick(g);
     }
@@ -28,6 +28,7 @@ package haven;
 
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.ParameterizedType;
 import java.lang.annotation.*;
 import java.util.*;
 import java.util.function.*;
@@ -45,7 +46,13 @@ public class Resource implements Serializable {
     public static final Config.Variable<Path> resdir = Config.Variable.propp("haven.resdir", System.getenv("HAFEN_RESDIR"));
     private static ResCache prscache;
     public static ThreadGroup loadergroup = null;
+    public static final Config.Variable<Boolean> lazylayers = Config.Variable.propb("haven.lazylayers", true);
     private static Map<String, LayerFactory<?>> ltypes = new TreeMap<String, LayerFactory<?>>();
+    /* The class each layer type is declared to make */
+    private static Map<String, Class<?>> lclasses = new TreeMap<String, Class<?>>();
+    /* Types decoded when loaded even with lazylayers, since making
+     * them starts loading other resources. */
+    private static final Set<String> eagertypes = new HashSet<String>(Arrays.asList("code", "codeentry"));
     public static Class<Image> imgc = Image.class;
     public static Class<Neg> negc = Neg.class;
     public static Class<Props> props = Props.class;
@@ -56,8 +63,10 @@ public class Resource implements Serializable {
     public static Class<Audio> audio = Audio.class;
     public static Class<Tooltip> tooltip = Tooltip.class;
 
-    protected Collection<Layer> layers = new LinkedList<Layer>();
-	public final Collection<Layer> getLayers() { return layers;}
+    private volatile Slot[] slots = {};
+    /* Slots that may hold a layer of a class, copied on write */
+    private transient volatile Map<Class<?>, Slot[]> lindex = Collections.emptyMap();
+	public final Collection<Layer> getLayers() { return layers(Layer.class);}
     public final String name;
     public int ver;
     public ResSource source;
@@ -256,7 +265,7 @@ public class Resource implements Serializable {
 	}
 
 	public void add(Layer layer) {
-	    layers.add(layer);
+	    addlayer(layer);
 	}
     }
 
@@ -264,6 +273,10 @@ public class Resource implements Serializable {
 	prscache = cache;
     }
 
+    static ResCache cache() {
+	return(prscache);
+    }
+
     public String basename() {
 	int p = name.lastIndexOf('/');
 	if(p < 0)
@@ -502,12 +515,114 @@ public class Resource implements Serializable {
 	}
     }
 
+    /* Queue-wait and decode times per layer type, across all pools. */
+    public static class LoadStats {
+	public static class Entry {
+	    public int layers, res;
+	    public long decode, dmax, wait, wmax;
+
+	    Entry copy() {
+		Entry ret = new Entry();
+		ret.layers = layers; ret.res = res;
+		ret.decode = decode; ret.dmax = dmax;
+		ret.wait = wait; ret.wmax = wmax;
+		return(ret);
+	    }
+	}
+
+	private final Map<String, Entry> types = new TreeMap<String, Entry>();
+
+	private Entry get(String type) {
+	    Entry e = types.get(type);
+	    if(e == null)
+		types.put(type, e = new Entry());
+	    return(e);
+	}
+
+	/* Decode and init time of one layer, can be counted twice */
+	synchronized void decoded(String type, long ns) {
+	    Entry e = get(type);
+	    e.decode += ns;
+	    if(ns > e.dmax)
+		e.dmax = ns;
+	}
+
+	/* Queue wait of a resource, counted for each layer type in it */
+	synchronized void waited(Collection<String> rtypes, long ns) {
+	    for(String type : new HashSet<String>(rtypes)) {
+		Entry e = get(type);
+		e.res++;
+		e.wait += ns;
+		if(ns > e.wmax)
+		    e.wmax = ns;
+	    }
+	    for(String type : rtypes)
+		get(type).layers++;
+	}
+
+	public synchronized Map<String, Entry> snapshot() {
+	    Map<String, Entry> ret = new TreeMap<String, Entry>();
+	    for(Map.Entry<String, Entry> e : types.entrySet())
+		ret.put(e.getKey(), e.getValue().copy());
+	    return(ret);
+	}
+
+	public synchronized void reset() {
+	    types.clear();
+	}
+
+	public String toString() {
+	    StringBuilder buf = new StringBuilder();
+	    buf.append(String.format("%-12s %6s %6s %10s %8s %10s %8s\n", "type", "res", "layers", "wait avg", "max", "decode avg", "max"));
+	    for(Map.Entry<String, Entry> e : snapshot().entrySet()) {
+		Entry s = e.getValue();
+		buf.append(String.format("%-12s %6d %6d %8.2fms %6.1fms %8.3fms %6.1fms\n", e.getKey(), s.res, s.layers,
+					 (s.res == 0) ? 0.0 : s.wait * 1e-6 / s.res, s.wmax * 1e-6,
+					 (s.layers == 0) ? 0.0 : s.decode * 1e-6 / s.layers, s.dmax * 1e-6));
+	    }
+	    return(buf.toString());
+	}
+    }
+    public static final LoadStats loadstats = new LoadStats();
+
+    static {
+	Console.setscmd("resstats", new Console.Command() {
+		public void run(Console cons, String[] args) {
+		    if((args.length > 1) && args[1].equals("reset"))
+			loadstats.reset();
+		    else
+			System.err.print(loadstats);
+		}
+	    });
+    }
+
+    /* Loader threads per pool: the haven.resloaders property, or
+     * one less than the number of cores. */
+    private static int defloaders() {
+	String p = Utils.getprop("haven.resloaders", null);
+	if(p != null) {
+	    try {
+		return(Math.max(1, Integer.parseInt(p)));
+	    } catch(NumberFormatException e) {
+	    }
+	}
+	return(Math.max(2, Math.min(8, Runtime.getRuntime().availableProcessors() - 1)));
+    }
+
     public static class Pool {
-	public int nloaders = 2;
+	/* Most entries a loader moves from the shared queue into
+	 * its own deque at a time. */
+	private static final int BATCH = 4;
+	public int nloaders = defloaders();
 	private final Collection<Loader> loaders = new LinkedList<Loader>();
 	private final List<ResSource> sources = new LinkedList<ResSource>();
 	private final Map<String, Resource> cache = new CacheMap<String, Resource>();
-	private final PrioQueue<Queued> queue = new PrioQueue<Queued>();
+	/* Shared queue, bucketed by priority and FIFO within a
+	 * bucket. Also guards queued. */
+	private final TreeMap<Integer, ArrayDeque<Queued>> queue = new TreeMap<Integer, ArrayDeque<Queued>>();
+	private int qsize = 0;
+	private volatile int topprio = Integer.MIN_VALUE;
+	private final java.util.concurrent.atomic.AtomicInteger nlocal = new java.util.concurrent.atomic.AtomicInteger();
 	private final Map<String, Queued> queued = new HashMap<String, Queued>();
 	private final Pool parent;
 
@@ -529,6 +644,9 @@ public class Resource implements Serializable {
 	    transient final Collection<Queued> rdep = new LinkedList<Queued>();
 	    final Waitable.Queue wq = new Waitable.Queue();
 	    volatile int prio;
+	    volatile boolean inq = false;
+	    int qprio;
+	    long qtime;
 	    Queued awaiting;
 	    volatile boolean done = false;
 	    Resource res;
@@ -545,8 +663,11 @@ public class Resource implements Serializable {
 	    }
 
 	    public void boostprio(int prio) {
-		if(this.prio < prio)
+		if(this.prio < prio) {
 		    this.prio = prio;
+		    if(inq)
+			rebucket(this);
+		}
 		Queued p = awaiting;
 		if(p != null)
 		    p.boostprio(prio);
@@ -587,8 +708,7 @@ public class Resource implements Serializable {
 		if((res = prior.res) == null) {
 		    error = prior.error;
 		    synchronized(queue) {
-			queue.add(this);
-			queue.notify();
+			enqueue(this);
 		    }
 		    ckld();
 		} else {
@@ -606,7 +726,107 @@ public class Resource implements Serializable {
 	    }
 	}
 
+	/* The following five require the queue lock. */
+	private void enqueue(Queued q) {
+	    q.qtime = System.nanoTime();
+	    bucket(q);
+	    qsize++;
+	    queue.notify();
+	}
+
+	private void bucket(Queued q) {
+	    q.qprio = q.prio;
+	    ArrayDeque<Queued> b = queue.get(q.qprio);
+	    if(b == null)
+		queue.put(q.qprio, b = new ArrayDeque<Queued>());
+	    b.add(q);
+	    q.inq = true;
+	    topprio = queue.lastKey();
+	}
+
+	private boolean unbucket(Queued q) {
+	    if(!q.inq)
+		return(false);
+	    ArrayDeque<Queued> b = queue.get(q.qprio);
+	    for(Iterator<Queued> i = b.iterator(); i.hasNext();) {
+		if(i.next() == q) {
+		    i.remove();
+		    break;
+		}
+	    }
+	    if(b.isEmpty())
+		queue.remove(q.qprio);
+	    q.inq = false;
+	    topprio = queue.isEmpty() ? Integer.MIN_VALUE : queue.lastKey();
+	    return(true);
+	}
+
+	private Queued pollq() {
+	    if(queue.isEmpty())
+		return(null);
+	    Queued q = queue.lastEntry().getValue().peekFirst();
+	    unbucket(q);
+	    qsize--;
+	    return(q);
+	}
+
+	/* Move part of a deep bucket into a loader's own deque, so
+	 * it can take them without touching the shared queue. Idle
+	 * loaders are woken to steal from it. */
+	private void fill(Loader l, int prio) {
+	    ArrayDeque<Queued> b = queue.get(prio);
+	    if(b == null)
+		return;
+	    int n = Math.min(BATCH, b.size() / (nloaders + 1));
+	    if(n <= 0)
+		return;
+	    synchronized(l.local) {
+		for(int i = 0; i < n; i++) {
+		    Queued q = b.peekFirst();
+		    unbucket(q);
+		    l.local.add(q);
+		}
+	    }
+	    qsize -= n;
+	    nlocal.addAndGet(n);
+	    queue.notifyAll();
+	}
+
+	private void rebucket(Queued q) {
+	    synchronized(queue) {
+		if(q.inq && (q.qprio != q.prio)) {
+		    unbucket(q);
+		    bucket(q);
+		}
+	    }
+	}
+
+	private boolean removeq(Queued q) {
+	    if(unbucket(q)) {
+		qsize--;
+		return(true);
+	    }
+	    List<Loader> ls;
+	    synchronized(loaders) {
+		ls = new ArrayList<Loader>(loaders);
+	    }
+	    for(Loader l : ls) {
+		synchronized(l.local) {
+		    for(Iterator<Queued> i = l.local.iterator(); i.hasNext();) {
+			if(i.next() == q) {
+			    i.remove();
+			    nlocal.decrementAndGet();
+			    return(true);
+			}
+		    }
+		}
+	    }
+	    return(false);
+	}
+
 	private void handle(Queued res) {
+	    long start = System.nanoTime();
+	    long wait = start - res.qtime;
 	    for(ResSource src : sources) {
 		try(InputStream in = src.get(res.name)) {
 		    Message msg = new StreamMessage(in);
@@ -620,7 +840,8 @@ public class Resource implements Serializable {
 		    res.found = true;
 		    Resource ret = new Resource(this, res.name, res.ver);
 		    ret.source = src;
-		    ret.load(msg);
+		    Collection<String> types = ret.load(msg);
+		    loadstats.waited(types, wait);
 		    res.res = ret;
 		    res.error = null;
 		    break;
@@ -673,13 +894,12 @@ public class Resource implements Serializable {
 			    }
 			}
 			queued.remove(name);
-			queue.removeid(cq);
+			removeq(cq);
 		    }
 		    Queued nq = new Queued(name, ver, prio);
 		    if(parent == null) {
 			queued.put(name, nq);
-			queue.add(nq);
-			queue.notify();
+			enqueue(nq);
 		    } else {
 			Indir<Resource> pr = parent.load(name, ver, prio);
 			if(pr instanceof Queued) {
@@ -719,7 +939,7 @@ public class Resource implements Serializable {
 	private void ckld() {
 	    int qsz;
 	    synchronized(queue) {
-		qsz = queue.size();
+		qsz = qsize + nlocal.get();
 	    }
 	    synchronized(loaders) {
 		while(loaders.size() < Math.min(nloaders, qsz)) {
@@ -741,6 +961,77 @@ public class Resource implements Serializable {
 
 	public class Loader implements Runnable {
 	    private boolean added = false;
+	    private final ArrayDeque<Queued> local = new ArrayDeque<Queued>();
+
+	    /* Next entry to load: from the own deque unless the shared
+	     * queue has something of higher priority, then the shared
+	     * queue, then stolen from the tail of another loader's
+	     * deque. Returns null after ten idle seconds. */
+	    private Queued next() throws InterruptedException {
+		long start = System.currentTimeMillis();
+		while(true) {
+		    Queued cur;
+		    synchronized(local) {
+			cur = local.peekFirst();
+			if((cur != null) && (cur.prio >= topprio)) {
+			    local.pollFirst();
+			    nlocal.decrementAndGet();
+			    return(cur);
+			}
+		    }
+		    synchronized(queue) {
+			if((cur = pollq()) != null) {
+			    fill(this, cur.qprio);
+			    return(cur);
+			}
+		    }
+		    synchronized(local) {
+			if(!local.isEmpty())
+			    continue;
+		    }
+		    if((cur = steal()) != null)
+			return(cur);
+		    synchronized(queue) {
+			if(qsize == 0) {
+			    long now = System.currentTimeMillis();
+			    if(now - start >= 10000)
+				return(null);
+			    queue.wait(10000 - (now - start));
+			}
+		    }
+		}
+	    }
+
+	    private Queued steal() {
+		List<Loader> ls;
+		synchronized(loaders) {
+		    ls = new ArrayList<Loader>(loaders);
+		}
+		while(true) {
+		    Loader from = null;
+		    int mp = 0;
+		    for(Loader l : ls) {
+			if(l == this)
+			    continue;
+			synchronized(l.local) {
+			    Queued q = l.local.peekLast();
+			    if((q != null) && ((from == null) || (q.prio > mp))) {
+				from = l;
+				mp = q.prio;
+			    }
+			}
+		    }
+		    if(from == null)
+			return(null);
+		    synchronized(from.local) {
+			Queued q = from.local.pollLast();
+			if(q != null) {
+			    nlocal.decrementAndGet();
+			    return(q);
+			}
+		    }
+		}
+	    }
 
 	    public void run() {
 		synchronized(loaders) {
@@ -751,24 +1042,29 @@ public class Resource implements Serializable {
 		boolean intd = false;
 		try {
 		    while(true) {
-			Queued cur;
-			synchronized(queue) {
-			    long start = System.currentTimeMillis(), now = start;
-			    while((cur = queue.poll()) == null) {
-				queue.wait(10000 - (now - start));
-				now = System.currentTimeMillis();
-				if(now - start >= 10000)
-				    return;
-			    }
-			}
+			Queued cur = next();
+			if(cur == null)
+			    return;
 			handle(cur);
 			cur = null;
 		    }
 		} catch(InterruptedException e) {
 		    intd = true;
 		} finally {
-		    synchronized(loaders) {
-			loaders.remove(this);
+		    /* Hand back anything not stolen yet */
+		    synchronized(queue) {
+			synchronized(local) {
+			    for(Queued q : local) {
+				bucket(q);
+				qsize++;
+			    }
+			    nlocal.addAndGet(-local.size());
+			    local.clear();
+			}
+			synchronized(loaders) {
+			    loaders.remove(this);
+			}
+			queue.notifyAll();
 		    }
 		    if(!intd)
 			ckld();
@@ -779,7 +1075,7 @@ public class Resource implements Serializable {
 	public int qdepth() {
 	    int ret = (parent == null)?0:parent.qdepth();
 	    synchronized(queue) {
-		ret += queue.size();
+		ret += qsize + nlocal.get();
 	    }
 	    return(ret);
 	}
@@ -1020,6 +1316,22 @@ public class Resource implements Serializable {
     public static void addltype(String name, LayerFactory<?> cons) {
 	if(ltypes.put(name, cons) != null)
 	   Warning.warn("duplicated layer name: " + name);
+	lclasses.put(name, layerclass(cons));
+    }
+
+    private static Class<?> layerclass(LayerFactory<?> cons) {
+	if(cons instanceof LayerConstructor)
+	    return(((LayerConstructor<?>)cons).cl);
+	for(Class<?> c = cons.getClass(); c != null; c = c.getSuperclass()) {
+	    for(java.lang.reflect.Type t : c.getGenericInterfaces()) {
+		if((t instanceof ParameterizedType) && (((ParameterizedType)t).getRawType() == LayerFactory.class)) {
+		    java.lang.reflect.Type arg = ((ParameterizedType)t).getActualTypeArguments()[0];
+		    if(arg instanceof Class)
+			return((Class<?>)arg);
+		}
+	    }
+	}
+	return(Layer.class);
     }
     
     public static <T extends Layer> void addltype(String name, Class<T> cl) {
@@ -1124,7 +1436,7 @@ public class Resource implements Serializable {
 		}
 		this.info = info.isEmpty() ? Collections.emptyMap() : info;
 		try {
-		    img = readimage(new MessageInputStream(buf));
+		    img = DecodedImageCache.read(Resource.this, id, buf);
 		} catch(IOException e) {
 		    throw(new LoadException(e, Resource.this));
 		}
@@ -1151,7 +1463,7 @@ public class Resource implements Serializable {
 		    }
 		    this.info = info.isEmpty() ? Collections.emptyMap() : info;
 		    try {
-			img = readimage(new MessageInputStream(buf));
+			img = DecodedImageCache.read(Resource.this, id, buf);
 		    } catch(IOException e) {
 			throw(new LoadException(e, Resource.this));
 		    }
@@ -1940,11 +2252,165 @@ public class Resource implements Serializable {
 	}
     }
 
+    /* A layer as found in the resource file, made and initialized
+     * the first time it is asked for. */
+    private class Slot {
+	final String type;
+	final Class<?> decl;
+	private LayerFactory<?> fact;
+	private byte[] data;
+	private Layer layer;
+	/* 0: undecoded, 1: made, 2: initialized or failed */
+	private volatile int state = 0;
+	private boolean init = false;
+	private RuntimeException error = null;
+
+	Slot(String type, Class<?> decl, LayerFactory<?> fact, byte[] data) {
+	    this.type = type;
+	    this.decl = decl;
+	    this.fact = fact;
+	    this.data = data;
+	}
+
+	Slot(Layer layer) {
+	    this.type = null;
+	    this.decl = layer.getClass();
+	    this.layer = layer;
+	    this.state = 2;
+	}
+
+	boolean mayhold(Class<?> cl) {
+	    return(cl.isAssignableFrom(decl) || decl.isAssignableFrom(cl));
+	}
+
+	synchronized void make() {
+	    if(state != 0)
+		return;
+	    long st = System.nanoTime();
+	    try {
+		Message buf = new MessageBuf(data);
+		layer = fact.cons(Resource.this, buf);
+		buf.skip();
+	    } catch(Loading l) {
+		throw(l);
+	    } catch(RuntimeException e) {
+		fail(e);
+	    }
+	    state = 1;
+	    loadstats.decoded(type, System.nanoTime() - st);
+	}
+
+	Layer get() {
+	    if((state == 2) && (error == null))
+		return(layer);
+	    return(sget());
+	}
+
+	private synchronized Layer sget() {
+	    if(state == 0)
+		make();
+	    if(state == 1) {
+		/* Asked for again by its own init(), or by that of a
+		 * layer it asked for; as when all layers were made
+		 * before any was initialized. */
+		if(init)
+		    return(layer);
+		init = true;
+		long st = System.nanoTime();
+		try {
+		    if(layer != null)
+			layer.init();
+		} catch(Loading l) {
+		    init = false;
+		    throw(l);
+		} catch(RuntimeException e) {
+		    fail(e);
+		}
+		state = 2;
+		fact = null;
+		data = null;
+		loadstats.decoded(type, System.nanoTime() - st);
+	    }
+	    if(error != null)
+		throw(error);
+	    return(layer);
+	}
+
+	private void fail(RuntimeException e) {
+	    error = (e instanceof LoadException) ? e : new LoadException(String.format("Failed to decode %s layer of %s", type, name), e, Resource.this);
+	    layer = null;
+	    state = 2;
+	    fact = null;
+	    data = null;
+	    throw(error);
+	}
+    }
+
+    void addlayer(Layer layer) {
+	synchronized(this) {
+	    Slot[] n = Arrays.copyOf(slots, slots.length + 1);
+	    n[slots.length] = new Slot(layer);
+	    slots = n;
+	    lindex = Collections.emptyMap();
+	}
+    }
+
+    private Slot[] slots(Class<?> cl) {
+	Slot[] ret = lindex.get(cl);
+	if(ret != null)
+	    return(ret);
+	synchronized(this) {
+	    List<Slot> buf = new ArrayList<Slot>();
+	    for(Slot slot : slots) {
+		if(slot.mayhold(cl))
+		    buf.add(slot);
+	    }
+	    ret = buf.toArray(new Slot[0]);
+	    Map<Class<?>, Slot[]> n = new HashMap<Class<?>, Slot[]>(lindex);
+	    n.put(cl, ret);
+	    lindex = n;
+	}
+	return(ret);
+    }
+
+    private <L> Iterator<L> iterate(Class<L> cl) {
+	Slot[] sl = slots(cl);
+	return(new Iterator<L>() {
+		int i = 0;
+		L next = null;
+
+		public boolean hasNext() {
+		    while((next == null) && (i < sl.length)) {
+			Layer l = sl[i++].get();
+			if(cl.isInstance(l))
+			    next = cl.cast(l);
+		    }
+		    return(next != null);
+		}
+
+		public L next() {
+		    if(!hasNext())
+			throw(new NoSuchElementException());
+		    L ret = next;
+		    next = null;
+		    return(ret);
+		}
+	    });
+    }
+
+    /* The declared classes of the layers, without decoding any */
+    public List<Class<?>> layerclasses() {
+	List<Class<?>> ret = new ArrayList<>();
+	for(Slot slot : slots)
+	    ret.add(slot.decl);
+	return(ret);
+    }
+
     public <L extends Layer> Collection<L> layers(final Class<L> cl) {
 	used = true;
 	return(new DefaultCollection<L>() {
 		public Iterator<L> iterator() {
-		    return(Utils.filter(layers.iterator(), cl));
+		    return(iterate(cl));
 		}
 	    });
     }
@@ -1957,7 +2423,8 @@ public class Resource implements Serializable {
 
     public <L extends Layer> L layer(Class<L> cl) {
 	used = true;
-	for(Layer l : layers) {
+	for(Slot slot : slots(cl)) {
+	    Layer l = slot.get();
 	    if(cl.isInstance(l))
 		return(cl.cast(l));
 	}
@@ -1976,14 +2443,15 @@ public class Resource implements Serializable {
 	Predicate<? super L> dsel = sel;
 	return(new DefaultCollection<L>() {
 		public Iterator<L> iterator() {
-		    return(Utils.filter(Utils.filter(layers.iterator(), cl), dsel));
+		    return(Utils.filter(iterate(cl), dsel));
 		}
 	    });
     }
 
     public <L> L layer(Class<L> cl, Predicate<? super L> sel) {
 	used = true;
-	for(Layer l : layers) {
+	for(Slot slot : slots(cl)) {
+	    Layer l = slot.get();
 	    if(cl.isInstance(l)) {
 		L lc = cl.cast(l);
 		if((sel == null) || sel.test(lc))
@@ -2003,7 +2471,8 @@ public class Resource implements Serializable {
 	used = true;
 	if(nurgling.tools.CustomizeResLayer.needReturnNull(this, cl, id))
 	    return null;
-	for(Layer l : layers) {
+	for(Slot slot : slots(cl)) {
+	    Layer l = slot.get();
 	    if(cl.isInstance(l)) {
 		L ll = cl.cast(l);
 		if(ll.layerid().equals(id))
@@ -2026,32 +2495,41 @@ public class Resource implements Serializable {
     }
 
     private static final byte[] RESOURCE_SIG = "Haven Resource 1".getBytes(Utils.ascii);
-    private void load(Message in) {
+    /* Returns the names of the layer types decoded. */
+    private Collection<String> load(Message in) {
 	if(!Arrays.equals(RESOURCE_SIG, in.bytes(RESOURCE_SIG.length)))
 	    throw(new LoadException("Invalid res signature", this));
 	int ver = in.uint16();
-	List<Layer> layers = new LinkedList<Layer>();
+	List<Slot> slots = new ArrayList<Slot>();
 	if(this.ver == -1)
 	    this.ver = ver;
 	else if(ver != this.ver)
 	    throw(new LoadException("Wrong res version (" + ver + " != " + this.ver + ")", this));
+	List<String> types = new ArrayList<String>();
 	while(!in.eom()) {
-	    LayerFactory<?> lc = ltypes.get(in.string());
+	    String type = in.string();
+	    LayerFactory<?> lc = ltypes.get(type);
 	    int len = in.int32();
 	    if(lc == null) {
 		in.skip(len);
 		continue;
 	    }
-	    Message buf = new LimitMessage(in, len);
-	    Layer l = lc.cons(this, buf);
-	    if(l != null)
-		layers.add(l);
-	    buf.skip();
+	    slots.add(new Slot(type, lclasses.get(type), lc, in.bytes(len)));
+	    types.add(type);
+	}
+	this.slots = slots.toArray(new Slot[0]);
+	/* Without lazylayers, make all layers before initializing any */
+	boolean lazy = lazylayers.get();
+	for(Slot slot : this.slots) {
+	    if(!lazy || eagertypes.contains(slot.type))
+		slot.make();
+	}
+	for(Slot slot : this.slots) {
+	    if(!lazy || eagertypes.contains(slot.type))
+		slot.get();
 	}
-	this.layers = layers;
-	for(Layer l : layers)
-	    l.init();
 	used = false;
+	return(types);
     }
 
     private transient Named indir = null;
@@ -60,6 +60,7 @@ public class RootWidget extends ConsoleHost implements UI.Notice.Handler, Widget
 	    if(UIPanel.profile.get()) {
 		add(new Profwnd(guprof, "UI profile"), UI.scale(100, 100));
 		add(new Profwnd(grprof, "GL profile"), UI.scale(500, 100));
+		add(new Profwnd(new LoadProfile.Display(), "Loading profile"), UI.scale(100, 400));
 		/* XXXRENDER
 		   GameUI gi = findchild(GameUI.class);
 		   if((gi != null) && (gi.map != null))
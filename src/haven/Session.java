@@ -290,18 +290,39 @@ public class Session implements Resource.Resolver {
 	this.conn = new Connection(server);
 	this.user = user;
 	this.glob = new Glob(this);
+	/* Ahead of conncb, so that it sees every message before
+	 * anything reads it. */
+	Capture.Writer capture = Capture.Writer.open();
+	if(capture != null)
+	    conn.add(capture);
 	conn.add(conncb);
 	conn.connect((user.alias != null) ? user.alias : user.name, encrypt, cookie, args);
 	sesskey = SignKey.JWK.ES256.generate();
 	queuemsg((PMessage)new PMessage(RMessage.RMSG_SESSKEY).addtto(SignKey.JWK.format(sesskey, true)));
     }
 
+    /* A session without a connection, fed by a capture replay
+     * through feed(). Outgoing messages are dropped. */
+    public Session(User user) {
+	this.conn = null;
+	this.user = user;
+	this.glob = new Glob(this);
+    }
+
+    public Connection.Callback feed() {
+	return(conncb);
+    }
+
     public void close() {
-	conn.close();
+	if(conn != null)
+	    conn.close();
+	else
+	    conncb.closed();
     }
 
     public void queuemsg(PMessage pmsg) {
-	conn.queuemsg(pmsg);
+	if(conn != null)
+	    conn.queuemsg(pmsg);
     }
 
     public void postuimsg(PMessage msg) {
@@ -324,10 +345,12 @@ public class Session implements Resource.Resolver {
     }
 
     public void sendmsg(PMessage msg) {
-	conn.send(msg);
+	if(conn != null)
+	    conn.send(msg);
     }
 
     public void sendmsg(byte[] msg) {
-	conn.send(ByteBuffer.wrap(msg));
+	if(conn != null)
+	    conn.send(ByteBuffer.wrap(msg));
     }
 }
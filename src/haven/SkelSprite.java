@@ -307,6 +307,12 @@ public class SkelSprite extends Sprite implements Sprite.CUpd, EquipTarget, Spri
 	return(false);
     }
 
+    public boolean ticks() {
+	if(tickclass(getClass()) != SkelSprite.class)
+	    return(true);
+	return(!stat || (ipold > 0) || (manims.length > 0) || !tickparts.isEmpty());
+    }
+
     public void gtick(Render g) {
 	for(Consumer<Render> gpart : gtickparts)
 	    gpart.accept(g);
@@ -56,6 +56,12 @@ public class SprDrawable extends Drawable implements Sprite.Owner {
 	spr.tick(dt);
     }
 
+    public boolean ticks() {
+	if(tickclass(getClass()) != SprDrawable.class)
+	    return(true);
+	return(spr.ticks());
+    }
+
     public void gtick(Render g) {
 	spr.gtick(g);
     }
@@ -184,6 +184,29 @@ public abstract class Sprite implements RenderTree.Node {
 	return(false);
     }
 
+    private static final ClassValue<Class<?>> tickcl = new ClassValue<Class<?>>() {
+	protected Class<?> computeValue(Class<?> cl) {
+	    try {
+		return(cl.getMethod("tick", Double.TYPE).getDeclaringClass());
+	    } catch(NoSuchMethodException e) {
+		return(cl);
+	    }
+	}
+    };
+
+    /* The class whose tick method instances of cl use. */
+    protected static Class<?> tickclass(Class<?> cl) {
+	return(tickcl.get(cl));
+    }
+
+    /* Whether tick may currently have any effect. Gobs stop being
+     * ticked while this is false for all their sprites, until
+     * something about them changes, so this must err on the side
+     * of true. */
+    public boolean ticks() {
+	return(tickclass(getClass()) != Sprite.class);
+    }
+
     public void gtick(Render g) {
     }
 
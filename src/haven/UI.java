@@ -44,6 +44,7 @@ import static haven.Utils.el;
 import haven.render.Environment;
 import haven.render.Render;
 import nurgling.*;
+import nurgling.tasks.NTask;
 
 public class UI {
 
@@ -440,6 +441,7 @@ public class UI {
 			UI.this.gui = (NGameUI) wdg;
 		bind(wdg, id);
 	    }
+	    signal(NTask.WIDGET);
 	}
 
 	public String toString() {
@@ -469,15 +471,17 @@ public class UI {
 	}
 
 	public void run() {
+	    Widget pwdg;
 	    synchronized(UI.this) {
 		Widget wdg = getwidget(id);
-		Widget pwdg = getwidget(parent);
+		pwdg = getwidget(parent);
 		if(wdg == null)
 		    throw(new UIException(String.format("Null child widget %d added to %d (%s)", id, parent, pwdg), null, pargs));
 		if(pwdg == null)
 		    throw(new UIException(String.format("Null parent widget %d for %d (%s)", parent, id, wdg), null, pargs));
 		pwdg.addchild(wdg, pargs);
 	    }
+	    signal(NTask.WIDGET | (invwdg(pwdg) ? NTask.INVENTORY : 0));
 	}
 
 	public String toString() {
@@ -604,8 +608,22 @@ public class UI {
     }
 
     public void destroy(Widget wdg) {
+	boolean inv = invwdg(wdg) || invwdg(wdg.parent);
 	removeid(wdg);
 	wdg.reqdestroy();
+	signal(NTask.WIDGET | (inv ? NTask.INVENTORY : 0));
+    }
+
+    /* Tell the bot tasks waiting in the core that something they
+     * may depend on changed. */
+    public void signal(int events) {
+	NCore core = this.core;
+	if(core != null)
+	    core.signal(events);
+    }
+
+    private static boolean invwdg(Widget wdg) {
+	return((wdg instanceof Inventory) || (wdg instanceof GItem) || (wdg instanceof ISBox));
     }
 
     public boolean dispatch(Widget to, Event ev) {
@@ -691,6 +709,8 @@ public class UI {
 		synchronized(UI.this) {
 		    dispatch(wdg, new Widget.MessageEvent(msg, args));
 		}
+		if(invwdg(wdg))
+		    signal(NTask.INVENTORY);
 	    } else {
 		throw(new UIException("Uimsg to non-existent widget " + id, msg, args));
 	    }
@@ -158,4 +158,11 @@ public class Tree extends Sprite {
 	}
 	return(false);
     }
+
+    public boolean ticks() {
+	if(tickclass(getClass()) != Tree.class)
+	    return(true);
+	/* Only trees still dropping leaves do anything in tick. */
+	return((leaves != null) && (fscale >= 0.75));
+    }
 }
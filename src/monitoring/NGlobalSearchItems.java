@@ -1,18 +1,26 @@
 package monitoring;
 
 import nurgling.NConfig;
+import nurgling.NGob;
 import nurgling.db.DatabaseManager;
 import nurgling.tools.NSearchItem;
 
+import nurgling.tools.IdentityKey;
+
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
 
 public class NGlobalSearchItems implements Runnable {
     private final NSearchItem item;
     private final DatabaseManager databaseManager;
 
-    public static final ArrayList<String> containerHashes = new ArrayList<>();
-    public static volatile long updateVersion = 0; // Incremented when containerHashes changes
+    // Identity keys of the found containers, sorted
+    private static volatile long[] containerKeys = new long[0];
+    public static volatile long updateVersion = 0; // Incremented when containerKeys changes
     
     // Cache for last search query to avoid duplicate DB queries
     private static volatile String lastSearchQuery = "";
@@ -29,6 +37,13 @@ public class NGlobalSearchItems implements Runnable {
         if (item.name.isEmpty() && item.q.isEmpty()) {
             return;
         }
+
+        // Answer from the in-memory index once it is loaded
+        Set<String> found = databaseManager.getStorageItemIndex().search(item.name, new ArrayList<>(item.q));
+        if (found != null) {
+            setFound(found);
+            return;
+        }
         
         // Build search signature for deduplication
         String searchSignature = buildSearchSignature();
@@ -84,13 +99,11 @@ public class NGlobalSearchItems implements Runnable {
                 }
 
                 try (java.sql.ResultSet resultSet = adapter.executeQuery(dynamicSql.toString(), params)) {
-                    synchronized (containerHashes) {
-                        containerHashes.clear();
-                        while (resultSet.next()) {
-                            containerHashes.add(resultSet.getString("hash"));
-                        }
-                        updateVersion++;
+                    List<String> hashes = new ArrayList<>();
+                    while (resultSet.next()) {
+                        hashes.add(resultSet.getString("hash"));
                     }
+                    setFound(hashes);
                 }
 
                 return null;
@@ -104,6 +117,33 @@ public class NGlobalSearchItems implements Runnable {
         }
     }
     
+    private static synchronized void setFound(Collection<String> hashes) {
+        long[] keys = new long[hashes.size()];
+        int n = 0;
+        for (String hash : hashes) {
+            long key = IdentityKey.parse(hash);
+            if (key != 0) keys[n++] = key;
+        }
+        keys = Arrays.copyOf(keys, n);
+        Arrays.sort(keys);
+        containerKeys = keys;
+        updateVersion++;
+        // The highlight is part of the gob state, which sleeping gobs do not recheck
+        NGob.wakeAll();
+    }
+
+    public static synchronized void clearFound() {
+        containerKeys = new long[0];
+        NGob.wakeAll();
+    }
+
+    /**
+     * Whether the container with the given identity key matched the last search
+     */
+    public static boolean isFound(long containerKey) {
+        return containerKey != 0 && Arrays.binarySearch(containerKeys, containerKey) >= 0;
+    }
+
     /**
      * Build a signature representing the current search parameters
      */
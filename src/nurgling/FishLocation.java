@@ -2,12 +2,13 @@ package nurgling;
 
 import org.json.JSONObject;
 import haven.Coord;
+import nurgling.tools.PoiStore;
 
 /**
  * Represents a saved fish location on the map
  * Follows the same pattern as LocalizedResourceTimer for consistency
  */
-public class FishLocation {
+public class FishLocation implements PoiStore.Poi {
     private final String locationId;  // Unique ID combining segment + coordinates + fish name
     private final long segmentId;
     private final Coord tileCoords;
@@ -109,4 +110,8 @@ public class FishLocation {
     public String getHook() { return hook; }
     public String getLine() { return line; }
     public String getBait() { return bait; }
+
+    @Override public String poiId() { return locationId; }
+    @Override public long poiSegment() { return segmentId; }
+    @Override public Coord poiTile() { return tileCoords; }
 }
@@ -3,21 +3,12 @@ package nurgling;
 import haven.*;
 import nurgling.profiles.ConfigFactory;
 import nurgling.profiles.ProfileAwareService;
+import nurgling.tools.PoiStore;
 import nurgling.tools.VSpec;
 import nurgling.widgets.NEquipory;
-import org.json.JSONArray;
 import org.json.JSONObject;
 
-import java.io.File;
-import java.io.FileWriter;
-import java.io.IOException;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
-import java.nio.file.Paths;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
-import java.util.stream.Stream;
 
 /**
  * Service for managing saved fish locations
@@ -25,8 +16,7 @@ import java.util.stream.Stream;
  * Supports world-specific profiles via ProfileAwareService
  */
 public class FishLocationService implements ProfileAwareService {
-    private final Map<String, FishLocation> fishLocations = new ConcurrentHashMap<>();
-    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final PoiStore<FishLocation> fishLocations = new PoiStore<>("fishLocations", FishLocation::new);
     private String dataFile;
     private final NGameUI gui;
     private String genus;
@@ -34,7 +24,7 @@ public class FishLocationService implements ProfileAwareService {
     public FishLocationService(NGameUI gui) {
         this.gui = gui;
         this.dataFile = NUtils.getDataFile("fish_locations.nurgling.json");
-        loadFishLocations();
+        load();
     }
 
     /**
@@ -63,17 +53,12 @@ public class FishLocationService implements ProfileAwareService {
 
     @Override
     public void load() {
-        loadFishLocations();
+        fishLocations.open(dataFile);
     }
 
     @Override
     public void save() {
-        lock.writeLock().lock();
-        try {
-            saveFishLocations();
-        } finally {
-            lock.writeLock().unlock();
-        }
+        fishLocations.save();
     }
 
     /**
@@ -127,16 +112,10 @@ public class FishLocationService implements ProfileAwareService {
                 System.err.println("Error getting time/moon phase: " + e);
             }
 
-            lock.writeLock().lock();
-            try {
-                FishLocation location = new FishLocation(segmentId, segmentCoord, fishName, fishResource,
-                    percentage, gameTime, moonPhase, equipment.fishingRod, equipment.hook, equipment.line, equipment.bait);
-                fishLocations.put(location.getLocationId(), location);
-                saveFishLocations();
-                gui.msg("Saved " + fishName + " location (" + percentage + ")", java.awt.Color.GREEN);
-            } finally {
-                lock.writeLock().unlock();
-            }
+            FishLocation location = new FishLocation(segmentId, segmentCoord, fishName, fishResource,
+                percentage, gameTime, moonPhase, equipment.fishingRod, equipment.hook, equipment.line, equipment.bait);
+            fishLocations.put(location);
+            gui.msg("Saved " + fishName + " location (" + percentage + ")", java.awt.Color.GREEN);
 
         } catch (Exception e) {
             System.err.println("Error saving fish location: " + e);
@@ -164,119 +143,38 @@ public class FishLocationService implements ProfileAwareService {
     }
 
     /**
-     * Get all fish locations for a segment (for map rendering)
+     * Get all fish locations for a segment
      */
     public List<FishLocation> getFishLocationsForSegment(long segmentId) {
-        lock.readLock().lock();
-        try {
-            List<FishLocation> result = new ArrayList<>();
-            for (FishLocation loc : fishLocations.values()) {
-                if (loc.getSegmentId() == segmentId) {
-                    result.add(loc);
-                }
-            }
-            return result;
-        } finally {
-            lock.readLock().unlock();
-        }
-    }
-
-    /**
-     * Get all fish locations
-     */
-    public Collection<FishLocation> getAllFishLocations() {
-        lock.readLock().lock();
-        try {
-            return new ArrayList<>(fishLocations.values());
-        } finally {
-            lock.readLock().unlock();
-        }
+        return fishLocations.segment(segmentId);
     }
 
     /**
-     * Remove a fish location
+     * Get the fish locations of a segment within a tile rectangle (for map rendering)
      */
-    public boolean removeFishLocation(String locationId) {
-        lock.writeLock().lock();
-        try {
-            boolean removed = fishLocations.remove(locationId) != null;
-            if (removed) {
-                saveFishLocations();
-            }
-            return removed;
-        } finally {
-            lock.writeLock().unlock();
-        }
+    public List<FishLocation> getFishLocationsInRange(long segmentId, Coord ul, Coord br) {
+        return fishLocations.range(segmentId, ul, br);
     }
 
     /**
-     * Load fish locations from JSON
+     * Get all fish locations
      */
-    private void loadFishLocations() {
-        lock.writeLock().lock();
-        try {
-            fishLocations.clear();
-            File file = new File(dataFile);
-            if (file.exists()) {
-                StringBuilder contentBuilder = new StringBuilder();
-                try (Stream<String> stream = Files.lines(Paths.get(dataFile), StandardCharsets.UTF_8)) {
-                    stream.forEach(s -> contentBuilder.append(s).append("\n"));
-                } catch (IOException e) {
-                    System.err.println("Failed to load fish locations: " + e.getMessage());
-                    return;
-                }
-
-                if (!contentBuilder.toString().trim().isEmpty()) {
-                    try {
-                        JSONObject main = new JSONObject(contentBuilder.toString());
-                        JSONArray array = main.getJSONArray("fishLocations");
-                        for (int i = 0; i < array.length(); i++) {
-                            FishLocation location = new FishLocation(array.getJSONObject(i));
-                            fishLocations.put(location.getLocationId(), location);
-                        }
-                    } catch (Exception e) {
-                        System.err.println("Failed to parse fish locations JSON: " + e.getMessage());
-                    }
-                }
-            }
-        } finally {
-            lock.writeLock().unlock();
-        }
+    public Collection<FishLocation> getAllFishLocations() {
+        return fishLocations.all();
     }
 
     /**
-     * Save fish locations to JSON
+     * Remove a fish location
      */
-    private void saveFishLocations() {
-        // Called within write lock - don't lock again
-        try {
-            JSONObject main = new JSONObject();
-            JSONArray jLocations = new JSONArray();
-            for (FishLocation location : fishLocations.values()) {
-                jLocations.put(location.toJson());
-            }
-            main.put("fishLocations", jLocations);
-            main.put("version", 1);
-            main.put("lastSaved", java.time.Instant.now().toString());
-
-            try (FileWriter writer = new FileWriter(dataFile, StandardCharsets.UTF_8)) {
-                writer.write(main.toString(2)); // Pretty print with indent
-            }
-        } catch (IOException e) {
-            System.err.println("Failed to save fish locations: " + e.getMessage());
-        }
+    public boolean removeFishLocation(String locationId) {
+        return fishLocations.remove(locationId);
     }
 
     /**
      * Dispose the service and cleanup resources
      */
     public void dispose() {
-        lock.writeLock().lock();
-        try {
-            saveFishLocations();
-        } finally {
-            lock.writeLock().unlock();
-        }
+        fishLocations.save();
     }
 
     /**
@@ -3,20 +3,10 @@ package nurgling;
 import haven.*;
 import nurgling.profiles.ConfigFactory;
 import nurgling.profiles.ProfileAwareService;
+import nurgling.tools.PoiStore;
 import nurgling.widgets.LabeledMinimapMark;
-import org.json.JSONArray;
-import org.json.JSONObject;
-
-import java.io.File;
-import java.io.FileWriter;
-import java.io.IOException;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
-import java.nio.file.Paths;
+
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
-import java.util.stream.Stream;
 import java.awt.image.BufferedImage;
 
 /**
@@ -24,8 +14,7 @@ import java.awt.image.BufferedImage;
  * Supports persistence and world-specific profiles via ProfileAwareService.
  */
 public class LabeledMarkService implements ProfileAwareService {
-    private final Map<String, LabeledMinimapMark> labeledMarks = new ConcurrentHashMap<>();
-    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final PoiStore<LabeledMinimapMark> labeledMarks = new PoiStore<>("labeledMarks", LabeledMinimapMark::new);
     private String dataFile;
     private final NGameUI gui;
     private String genus;
@@ -33,7 +22,7 @@ public class LabeledMarkService implements ProfileAwareService {
     public LabeledMarkService(NGameUI gui) {
         this.gui = gui;
         this.dataFile = NUtils.getDataFile("labeled_marks.nurgling.json");
-        loadLabeledMarks();
+        load();
     }
 
     /**
@@ -62,17 +51,12 @@ public class LabeledMarkService implements ProfileAwareService {
 
     @Override
     public void load() {
-        loadLabeledMarks();
+        labeledMarks.open(dataFile);
     }
 
     @Override
     public void save() {
-        lock.writeLock().lock();
-        try {
-            saveLabeledMarks();
-        } finally {
-            lock.writeLock().unlock();
-        }
+        labeledMarks.save();
     }
 
     /**
@@ -81,66 +65,40 @@ public class LabeledMarkService implements ProfileAwareService {
      */
     public void addLabeledMark(String label, String resourceType, long segmentId, 
                                Coord tileCoords, BufferedImage iconImage) {
-        lock.writeLock().lock();
-        try {
-            // Remove any existing mark at similar location
-            final Coord tc = tileCoords;
-            final long segId = segmentId;
-            labeledMarks.entrySet().removeIf(e -> e.getValue().isNear(segId, tc, 2));
-            
-            // Create and add new mark
-            LabeledMinimapMark mark = new LabeledMinimapMark(label, resourceType, segmentId, tileCoords, iconImage);
-            labeledMarks.put(mark.getLocationId(), mark);
-            saveLabeledMarks();
-        } finally {
-            lock.writeLock().unlock();
-        }
+        // Remove any existing mark at similar location
+        labeledMarks.removeNear(segmentId, tileCoords, 2, m -> true);
+
+        // Create and add new mark
+        LabeledMinimapMark mark = new LabeledMinimapMark(label, resourceType, segmentId, tileCoords, iconImage);
+        labeledMarks.put(mark);
     }
 
     /**
-     * Get all labeled marks for a segment (for map rendering).
+     * Get all labeled marks for a segment.
      */
     public List<LabeledMinimapMark> getMarksForSegment(long segmentId) {
-        lock.readLock().lock();
-        try {
-            List<LabeledMinimapMark> result = new ArrayList<>();
-            for (LabeledMinimapMark mark : labeledMarks.values()) {
-                if (mark.isInSegment(segmentId)) {
-                    result.add(mark);
-                }
-            }
-            return result;
-        } finally {
-            lock.readLock().unlock();
-        }
+        return labeledMarks.segment(segmentId);
+    }
+
+    /**
+     * Get the labeled marks of a segment within a tile rectangle (for map rendering).
+     */
+    public List<LabeledMinimapMark> getMarksInRange(long segmentId, Coord ul, Coord br) {
+        return labeledMarks.range(segmentId, ul, br);
     }
 
     /**
      * Get all labeled marks.
      */
     public Collection<LabeledMinimapMark> getAllMarks() {
-        lock.readLock().lock();
-        try {
-            return new ArrayList<>(labeledMarks.values());
-        } finally {
-            lock.readLock().unlock();
-        }
+        return labeledMarks.all();
     }
 
     /**
      * Remove a labeled mark by location ID.
      */
     public boolean removeMark(String locationId) {
-        lock.writeLock().lock();
-        try {
-            boolean removed = labeledMarks.remove(locationId) != null;
-            if (removed) {
-                saveLabeledMarks();
-            }
-            return removed;
-        } finally {
-            lock.writeLock().unlock();
-        }
+        return labeledMarks.remove(locationId);
     }
 
     /**
@@ -155,91 +113,19 @@ public class LabeledMarkService implements ProfileAwareService {
      * Find a mark at given segment and tile coordinates.
      */
     public LabeledMinimapMark findMarkAt(long segmentId, Coord tileCoords, int radiusTiles) {
-        lock.readLock().lock();
-        try {
-            for (LabeledMinimapMark mark : labeledMarks.values()) {
-                if (mark.isNear(segmentId, tileCoords, radiusTiles)) {
-                    return mark;
-                }
-            }
-            return null;
-        } finally {
-            lock.readLock().unlock();
-        }
-    }
-
-    /**
-     * Load labeled marks from JSON.
-     */
-    private void loadLabeledMarks() {
-        lock.writeLock().lock();
-        try {
-            labeledMarks.clear();
-            File file = new File(dataFile);
-            if (file.exists()) {
-                StringBuilder contentBuilder = new StringBuilder();
-                try (Stream<String> stream = Files.lines(Paths.get(dataFile), StandardCharsets.UTF_8)) {
-                    stream.forEach(s -> contentBuilder.append(s).append("\n"));
-                } catch (IOException e) {
-                    System.err.println("Failed to load labeled marks: " + e.getMessage());
-                    return;
-                }
-
-                if (!contentBuilder.toString().trim().isEmpty()) {
-                    try {
-                        JSONObject main = new JSONObject(contentBuilder.toString());
-                        JSONArray array = main.getJSONArray("labeledMarks");
-                        for (int i = 0; i < array.length(); i++) {
-                            try {
-                                LabeledMinimapMark mark = new LabeledMinimapMark(array.getJSONObject(i));
-                                labeledMarks.put(mark.getLocationId(), mark);
-                            } catch (Exception e) {
-                                System.err.println("Failed to parse labeled mark: " + e.getMessage());
-                            }
-                        }
-                    } catch (Exception e) {
-                        System.err.println("Failed to parse labeled marks JSON: " + e.getMessage());
-                    }
-                }
+        Coord r = Coord.of(radiusTiles, radiusTiles);
+        for (LabeledMinimapMark mark : labeledMarks.range(segmentId, tileCoords.sub(r), tileCoords.add(r))) {
+            if (mark.isNear(segmentId, tileCoords, radiusTiles)) {
+                return mark;
             }
-        } finally {
-            lock.writeLock().unlock();
-        }
-    }
-
-    /**
-     * Save labeled marks to JSON.
-     */
-    private void saveLabeledMarks() {
-        // Called within write lock - don't lock again
-        try {
-            JSONObject main = new JSONObject();
-            JSONArray jMarks = new JSONArray();
-            for (LabeledMinimapMark mark : labeledMarks.values()) {
-                jMarks.put(mark.toJson());
-            }
-            main.put("labeledMarks", jMarks);
-            main.put("version", 1);
-            main.put("lastSaved", java.time.Instant.now().toString());
-
-            try (FileWriter writer = new FileWriter(dataFile, StandardCharsets.UTF_8)) {
-                writer.write(main.toString(2)); // Pretty print with indent
-            }
-        } catch (IOException e) {
-            System.err.println("Failed to save labeled marks: " + e.getMessage());
         }
+        return null;
     }
 
     /**
      * Dispose the service and cleanup resources.
      */
     public void dispose() {
-        lock.writeLock().lock();
-        try {
-            saveLabeledMarks();
-        } finally {
-            lock.writeLock().unlock();
-        }
+        labeledMarks.save();
     }
 }
-
@@ -1,12 +1,13 @@
 package nurgling;
 
+import nurgling.tools.PoiStore;
 import org.json.JSONObject;
 import java.time.Instant;
 
 /**
  * Represents a timer for a localized resource node
  */
-public class LocalizedResourceTimer {
+public class LocalizedResourceTimer implements PoiStore.Poi {
     private final String resourceId;  // Unique ID combining segment + coordinates + resource type
     private final long segmentId;
     private final haven.Coord tileCoords;
@@ -97,4 +98,8 @@ public class LocalizedResourceTimer {
     public long getSegmentId() { return segmentId; }
     public haven.Coord getTileCoords() { return tileCoords; }
     public String getDescription() { return description; }
+
+    @Override public String poiId() { return resourceId; }
+    @Override public long poiSegment() { return segmentId; }
+    @Override public haven.Coord poiTile() { return tileCoords; }
 }
\ No newline at end of file
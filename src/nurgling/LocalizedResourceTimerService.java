@@ -4,20 +4,10 @@ import haven.*;
 import haven.Locked;
 import nurgling.profiles.ConfigFactory;
 import nurgling.profiles.ProfileAwareService;
+import nurgling.tools.PoiStore;
 import nurgling.widgets.LocalizedResourceTimerDialog;
-import org.json.JSONArray;
-import org.json.JSONObject;
 
-import java.io.File;
-import java.io.FileWriter;
-import java.io.IOException;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
-import java.nio.file.Paths;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
-import java.util.stream.Stream;
 
 /**
  * Centralized service for all resource timer operations
@@ -25,8 +15,8 @@ import java.util.stream.Stream;
  * Supports world-specific profiles via ProfileAwareService
  */
 public class LocalizedResourceTimerService implements ProfileAwareService {
-    private final Map<String, LocalizedResourceTimer> timers = new ConcurrentHashMap<>();
-    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Expired timers stay until removed but are not kept on disk
+    private final PoiStore<LocalizedResourceTimer> timers = new PoiStore<>("timers", LocalizedResourceTimer::new, t -> !t.isExpired());
     private String dataFile;
     private final NGameUI gui;
     private String genus;
@@ -34,7 +24,7 @@ public class LocalizedResourceTimerService implements ProfileAwareService {
     public LocalizedResourceTimerService(NGameUI gui) {
         this.gui = gui;
         this.dataFile = NUtils.getDataFile("resource_timers.nurgling.json");
-        loadTimers();
+        load();
     }
 
     /**
@@ -63,17 +53,12 @@ public class LocalizedResourceTimerService implements ProfileAwareService {
 
     @Override
     public void load() {
-        loadTimers();
+        timers.open(dataFile);
     }
 
     @Override
     public void save() {
-        lock.writeLock().lock();
-        try {
-            saveTimers();
-        } finally {
-            lock.writeLock().unlock();
-        }
+        timers.save();
     }
 
     /**
@@ -104,33 +89,21 @@ public class LocalizedResourceTimerService implements ProfileAwareService {
      */
     public void createTimer(long segmentId, haven.Coord tileCoords, String resourceName, 
                            String resourceType, long duration, String description) {
-        lock.writeLock().lock();
-        try {
-            LocalizedResourceTimer timer = new LocalizedResourceTimer(segmentId, tileCoords, resourceName,
-                                                   resourceType, duration, description);
-            timers.put(timer.getResourceId(), timer);
-            saveTimers();
-            refreshTimerWindow();
-        } finally {
-            lock.writeLock().unlock();
-        }
+        LocalizedResourceTimer timer = new LocalizedResourceTimer(segmentId, tileCoords, resourceName,
+                                               resourceType, duration, description);
+        timers.put(timer);
+        refreshTimerWindow();
     }
     
     /**
      * Remove a timer
      */
     public boolean removeTimer(String resourceId) {
-        lock.writeLock().lock();
-        try {
-            boolean removed = timers.remove(resourceId) != null;
-            if (removed) {
-                saveTimers();
-                refreshTimerWindow();
-            }
-            return removed;
-        } finally {
-            lock.writeLock().unlock();
+        boolean removed = timers.remove(resourceId);
+        if (removed) {
+            refreshTimerWindow();
         }
+        return removed;
     }
     
     /**
@@ -145,38 +118,28 @@ public class LocalizedResourceTimerService implements ProfileAwareService {
      * Get timer by resource ID
      */
     public LocalizedResourceTimer getTimer(String resourceId) {
-        lock.readLock().lock();
-        try {
-            return timers.get(resourceId);
-        } finally {
-            lock.readLock().unlock();
-        }
+        return timers.get(resourceId);
     }
     
     /**
      * Get all timers for display
      */
     public java.util.Collection<LocalizedResourceTimer> getAllTimers() {
-        lock.readLock().lock();
-        try {
-            return new ArrayList<>(timers.values());
-        } finally {
-            lock.readLock().unlock();
-        }
+        return timers.all();
     }
     
     /**
      * Get timers for a specific segment (for map display)
      */
     public java.util.List<LocalizedResourceTimer> getTimersForSegment(long segmentId) {
-        lock.readLock().lock();
-        try {
-            return timers.values().stream()
-                    .filter(timer -> timer.getSegmentId() == segmentId)
-                    .collect(ArrayList::new, ArrayList::add, ArrayList::addAll);
-        } finally {
-            lock.readLock().unlock();
-        }
+        return timers.segment(segmentId);
+    }
+
+    /**
+     * Get the timers of a segment within a tile rectangle (for map display)
+     */
+    public java.util.List<LocalizedResourceTimer> getTimersInRange(long segmentId, haven.Coord ul, haven.Coord br) {
+        return timers.range(segmentId, ul, br);
     }
     
     private static String generateResourceId(long segmentId, haven.Coord tileCoords, String resourceType) {
@@ -261,80 +224,10 @@ public class LocalizedResourceTimerService implements ProfileAwareService {
         gui.msg(message);
     }
     
-    /**
-     * Load timers from JSON file
-     */
-    private void loadTimers() {
-        lock.writeLock().lock();
-        try {
-            timers.clear();
-            File file = new File(dataFile);
-            if (file.exists()) {
-                StringBuilder contentBuilder = new StringBuilder();
-                try (Stream<String> stream = Files.lines(Paths.get(dataFile), StandardCharsets.UTF_8)) {
-                    stream.forEach(s -> contentBuilder.append(s).append("\n"));
-                } catch (IOException e) {
-                    System.err.println("Failed to load resource timers: " + e.getMessage());
-                    return;
-                }
-                
-                if (!contentBuilder.toString().trim().isEmpty()) {
-                    try {
-                        JSONObject main = new JSONObject(contentBuilder.toString());
-                        JSONArray array = main.getJSONArray("timers");
-                        for (int i = 0; i < array.length(); i++) {
-                            LocalizedResourceTimer timer = new LocalizedResourceTimer(array.getJSONObject(i));
-                            // Only load non-expired timers
-                            if (!timer.isExpired()) {
-                                timers.put(timer.getResourceId(), timer);
-                            }
-                        }
-                    } catch (Exception e) {
-                        System.err.println("Failed to parse resource timers JSON: " + e.getMessage());
-                    }
-                }
-            }
-        } finally {
-            lock.writeLock().unlock();
-        }
-    }
-    
-    /**
-     * Save timers to JSON file
-     */
-    private void saveTimers() {
-        // Called within write lock - don't lock again
-        try {
-            JSONObject main = new JSONObject();
-            JSONArray jTimers = new JSONArray();
-            for (LocalizedResourceTimer timer : timers.values()) {
-                // Only save non-expired timers
-                if (!timer.isExpired()) {
-                    jTimers.put(timer.toJson());
-                }
-            }
-            main.put("timers", jTimers);
-            main.put("version", 1);
-            main.put("lastSaved", java.time.Instant.now().toString());
-            
-            try (FileWriter writer = new FileWriter(dataFile, StandardCharsets.UTF_8)) {
-                writer.write(main.toString(2)); // Pretty print with indent
-            }
-        } catch (IOException e) {
-            System.err.println("Failed to save resource timers: " + e.getMessage());
-        }
-    }
-    
     /**
      * Dispose the service and cleanup resources
      */
     public void dispose() {
-        // Save any remaining timers
-        lock.writeLock().lock();
-        try {
-            saveTimers();
-        } finally {
-            lock.writeLock().unlock();
-        }
+        timers.save();
     }
 }
@@ -504,11 +504,14 @@ public class NConfig
         conf.put(Key.starvationVignetteCriticalThreshold, 2000);  // Vignette intensifies (0 to disable)
         conf.put(Key.starvationSoundThreshold, 2000);  // Sound alarm threshold (0 to disable)
         conf.put(Key.starvationSoundInterval, 10000);  // Sound interval in milliseconds
+        resnap();
     }
 
 
     HashMap<Key, Object> conf = new HashMap<>();
-    private boolean isUpd = false;
+    // The values of conf by Key.ordinal(), replaced as a whole on every change so reads need no lock
+    private volatile Object[] snap = new Object[KEYS.length];
+    private volatile boolean isUpd = false;
     private boolean isAreasUpd = false;
     private long lastAreasChangeTime = 0;
     private static final long AREAS_DEBOUNCE_MS = 3000; // 3 seconds debounce for area changes
@@ -553,20 +556,118 @@ public class NConfig
         return false;
     }
 
+    private static final Key[] KEYS = Key.values();
+
+    /**
+     * Called after a setting of the current config was set, or for all settings when another config became current
+     */
+    public interface Listener
+    {
+        void changed(Key key, Object val);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static final java.util.List<Listener>[] listeners = new java.util.List[KEYS.length];
+
     public static Object get(Key key)
     {
-        if (current == null)
+        NConfig cur = current;
+        if (cur == null)
             return null;
         else
-            return current.conf.get(key);
+            return cur.snap[key.ordinal()];
+    }
+
+    public static boolean getBool(Key key)
+    {
+        Object val = get(key);
+        return (val instanceof Boolean) && (Boolean) val;
+    }
+
+    public static int getInt(Key key, int def)
+    {
+        Object val = get(key);
+        return (val instanceof Number) ? ((Number) val).intValue() : def;
+    }
+
+    public static double getDouble(Key key, double def)
+    {
+        Object val = get(key);
+        return (val instanceof Number) ? ((Number) val).doubleValue() : def;
+    }
+
+    public static String getString(Key key)
+    {
+        Object val = get(key);
+        return (val instanceof String) ? (String) val : null;
     }
 
     public static void set(Key key, Object val)
     {
-        if (current != null)
+        NConfig cur = current;
+        if (cur != null)
         {
-            current.isUpd = true;
-            current.conf.put(key, val);
+            synchronized (cur)
+            {
+                cur.conf.put(key, val);
+                Object[] next = cur.snap.clone();
+                next[key.ordinal()] = val;
+                cur.snap = next;
+                cur.isUpd = true;
+            }
+            fire(key, val);
+        }
+    }
+
+    /**
+     * Listen to changes of a setting. The listener runs on the thread that changed it.
+     */
+    public static void listen(Key key, Listener listener)
+    {
+        synchronized (listeners)
+        {
+            java.util.List<Listener> ls = listeners[key.ordinal()];
+            if (ls == null)
+                listeners[key.ordinal()] = ls = new java.util.concurrent.CopyOnWriteArrayList<>();
+            ls.add(listener);
+        }
+    }
+
+    public static void unlisten(Key key, Listener listener)
+    {
+        java.util.List<Listener> ls = listeners[key.ordinal()];
+        if (ls != null)
+            ls.remove(listener);
+    }
+
+    private static void fire(Key key, Object val)
+    {
+        java.util.List<Listener> ls = listeners[key.ordinal()];
+        if (ls == null)
+            return;
+        for (Listener l : ls)
+        {
+            try {
+                l.changed(key, val);
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private void resnap()
+    {
+        Object[] next = new Object[KEYS.length];
+        synchronized (this)
+        {
+            for (Map.Entry<Key, Object> entry : conf.entrySet())
+                next[entry.getKey().ordinal()] = entry.getValue();
+            snap = next;
+        }
+        if (current == this)
+        {
+            for (Key key : KEYS)
+                fire(key, next[key.ordinal()]);
         }
     }
 
@@ -735,6 +836,14 @@ public class NConfig
         return getProfileAwarePath("explored.nurgling.json");
     }
 
+    /**
+     * Gets the dynamic path for the explored area journal, which replaced the
+     * file of getExploredPath() (still read once to migrate)
+     */
+    public String getExploredJournalPath() {
+        return getProfileAwarePath("explored.nurgling.bin");
+    }
+
     /**
      * Gets the dynamic path for session explored configuration file
      */
@@ -1017,6 +1126,7 @@ public class NConfig
 
         conf.put(Key.showCSprite,conf.get(Key.nextshowCSprite));
         conf.put(Key.flatsurface,conf.get(Key.nextflatsurface));
+        resnap();
     }
 
     @SuppressWarnings("unchecked")
@@ -1048,50 +1158,115 @@ public class NConfig
         return objs;
     }
 
+    private static final java.util.concurrent.ExecutorService writer = java.util.concurrent.Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "NConfig-Writer");
+        t.setDaemon(true);
+        return t;
+    });
+    private static final Set<NConfig> unwritten = Collections.synchronizedSet(new HashSet<>());
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(NConfig::flushWrites, "NConfig-Flush"));
+    }
+    // The newest settings not yet written to disk; later writes replace it
+    private final java.util.concurrent.atomic.AtomicReference<JSONObject> pendingWrite = new java.util.concurrent.atomic.AtomicReference<>();
+
+    /**
+     * Save the settings. They are converted to JSON here, the file is written on a background
+     * thread; writes requested before the previous one got to run are merged into one.
+     */
     @SuppressWarnings("unchecked")
     public void write()
     {
         Map<String, Object> prep = new HashMap<>();
-        for (Map.Entry<Key, Object> entry : conf.entrySet())
+        synchronized (this)
         {
-            if (entry.getValue() instanceof JConf)
-            {
-                prep.put(entry.getKey().toString(), ((JConf) entry.getValue()).toJson());
-            }
-            else if (entry.getValue() instanceof ArrayList<?>)
+            isUpd = false;
+            for (Map.Entry<Key, Object> entry : conf.entrySet())
             {
-                prep.put(entry.getKey().toString(), prepareArray((ArrayList<Object>) entry.getValue()));
-            }
-            else if (entry.getValue() instanceof Color)
-            {
-                // Convert Color objects back to Map format for JSON serialization
-                Color color = (Color) entry.getValue();
-                Map<String, Object> colorMap = new HashMap<>();
-                colorMap.put("type", "Color");
-                colorMap.put("red", color.getRed());
-                colorMap.put("green", color.getGreen());
-                colorMap.put("blue", color.getBlue());
-                colorMap.put("alpha", color.getAlpha());
-                prep.put(entry.getKey().toString(), colorMap);
-            }
-            else
-            {
-                prep.put(entry.getKey().toString(), entry.getValue());
+                if (entry.getValue() instanceof JConf)
+                {
+                    prep.put(entry.getKey().toString(), ((JConf) entry.getValue()).toJson());
+                }
+                else if (entry.getValue() instanceof ArrayList<?>)
+                {
+                    prep.put(entry.getKey().toString(), prepareArray((ArrayList<Object>) entry.getValue()));
+                }
+                else if (entry.getValue() instanceof Color)
+                {
+                    // Convert Color objects back to Map format for JSON serialization
+                    Color color = (Color) entry.getValue();
+                    Map<String, Object> colorMap = new HashMap<>();
+                    colorMap.put("type", "Color");
+                    colorMap.put("red", color.getRed());
+                    colorMap.put("green", color.getGreen());
+                    colorMap.put("blue", color.getBlue());
+                    colorMap.put("alpha", color.getAlpha());
+                    prep.put(entry.getKey().toString(), colorMap);
+                }
+                else
+                {
+                    prep.put(entry.getKey().toString(), entry.getValue());
+                }
             }
         }
 
+        // JSONObject copies nested maps and lists, so the writer does not see later changes
         JSONObject main = new JSONObject(prep);
+        if (pendingWrite.getAndSet(main) == null)
+        {
+            unwritten.add(this);
+            writer.execute(this::flushWrite);
+        }
+    }
+
+    private void flushWrite()
+    {
+        synchronized (pendingWrite)
+        {
+            JSONObject main = pendingWrite.getAndSet(null);
+            unwritten.remove(this);
+            if (main == null)
+                return;
+            writeFile(main);
+        }
+    }
+
+    private void writeFile(JSONObject main)
+    {
+        Path file = Paths.get(path);
+        Path tmp = Paths.get(path + ".tmp");
         try
         {
-            FileWriter f = new FileWriter(path, StandardCharsets.UTF_8);
-            main.write(f);
-            f.close();
-            current.isUpd = false;
+            try (Writer f = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8))
+            {
+                main.write(f);
+            }
+            try {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
         }
         catch (IOException e)
         {
-            throw new RuntimeException(e);
+            System.err.println("NConfig: Failed to write " + path + ": " + e.getMessage());
+            // Try again on the next tick
+            isUpd = true;
+        }
+    }
+
+    /**
+     * Write out everything still waiting to be saved, on the calling thread
+     */
+    public static void flushWrites()
+    {
+        NConfig[] pending;
+        synchronized (unwritten)
+        {
+            pending = unwritten.toArray(new NConfig[0]);
         }
+        for (NConfig cfg : pending)
+            cfg.flushWrite();
     }
 
 
@@ -1177,11 +1352,18 @@ public class NConfig
         {
             try
             {
-                String filePath = customPath == null ? getExploredPath() : customPath;
+                String filePath = customPath == null ? getExploredJournalPath() : customPath;
                 // Merge with existing data on disk to prevent data loss when multiple clients run
-                ((NCornerMiniMap)NUtils.getGameUI().mmap).exploredArea.mergeAndSaveToFile(filePath);
-                this.isExploredUpd = false;
-                this.lastExploredChangeTime = 0;
+                if(((NCornerMiniMap)NUtils.getGameUI().mmap).exploredArea.mergeAndSaveToFile(filePath))
+                {
+                    this.isExploredUpd = false;
+                    this.lastExploredChangeTime = 0;
+                }
+                else
+                {
+                    // Another client is saving, try again after the debounce period
+                    this.lastExploredChangeTime = System.currentTimeMillis();
+                }
             }
             catch (Exception e)
             {
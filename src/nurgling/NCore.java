@@ -10,6 +10,7 @@ import monitoring.ItemWatcher;
 import monitoring.NGlobalSearchItems;
 import nurgling.actions.AutoDrink;
 import nurgling.actions.AutoSaveTableware;
+import nurgling.actions.BotRuntime;
 import nurgling.iteminfo.NFoodInfo;
 import nurgling.equipment.EquipmentPresetManager;
 import nurgling.scenarios.ScenarioManager;
@@ -22,6 +23,7 @@ import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.locks.LockSupport;
 
 public class NCore extends Widget
 {
@@ -61,7 +63,7 @@ public class NCore extends Widget
             {
                 for (final NTask task : tasks)
                 {
-                    task.notify();
+                    task.release();
                 }
                 tasks.clear();
             }
@@ -149,6 +151,67 @@ public class NCore extends Widget
 
     private final LinkedList<NTask> for_remove = new LinkedList<>();
     private final ConcurrentLinkedQueue<NTask> tasks = new ConcurrentLinkedQueue<>();
+    // Tasks waiting on events are still checked every this many ticks
+    private static final int TASK_POLL_TICKS = 10;
+    // NTask events signalled since the tasks were last checked
+    private final java.util.concurrent.atomic.AtomicInteger signalled = new java.util.concurrent.atomic.AtomicInteger();
+    private int taskTicks = 0;
+
+    /**
+     * Note that something tasks may wait for happened, see the NTask event constants
+     */
+    public void signal(int events)
+    {
+        if ((signalled.get() & events) != events)
+            signalled.getAndAccumulate(events, (a, b) -> a | b);
+    }
+
+    // Gobs with a Moving attribute, to tell when one starts or stops
+    private final Set<Gob> moving = ConcurrentHashMap.newKeySet();
+    private OCache watched = null;
+    private final OCache.ChangeCallback gobEvents = new OCache.ChangeCallback()
+    {
+        @Override
+        public void added(Gob ob)
+        {
+            movement(ob);
+            signal(NTask.GOB);
+        }
+
+        @Override
+        public void removed(Gob ob)
+        {
+            if (moving.remove(ob))
+                signal(NTask.MOVEMENT);
+            signal(NTask.GOB);
+        }
+
+        @Override
+        public void changed(Gob ob)
+        {
+            movement(ob);
+            signal(NTask.GOB);
+        }
+    };
+
+    private void movement(Gob ob)
+    {
+        boolean mv = ob.getattr(Moving.class) != null;
+        if (mv ? moving.add(ob) : moving.remove(ob))
+            signal(NTask.MOVEMENT);
+    }
+
+    private void watch(OCache oc)
+    {
+        if (oc == watched)
+            return;
+        if (watched != null)
+            watched.uncallback(gobEvents);
+        moving.clear();
+        watched = oc;
+        if (oc != null)
+            oc.callback(gobEvents);
+    }
     
     /**
      * Get list of active task names for debug display
@@ -159,25 +222,7 @@ public class NCore extends Widget
                 return new String[0];
             }
             return tasks.stream()
-                .map(t -> {
-                    String name = t.getClass().getName();
-                    // Shorten package names
-                    name = name.replace("nurgling.actions.", "");
-                    name = name.replace("nurgling.tasks.", "");
-                    // For anonymous classes, show parent class
-                    if (name.contains("$")) {
-                        int dollarIdx = name.indexOf('$');
-                        String parent = name.substring(0, dollarIdx);
-                        String suffix = name.substring(dollarIdx);
-                        // Get just class name from parent
-                        int lastDot = parent.lastIndexOf('.');
-                        if (lastDot > 0) {
-                            parent = parent.substring(lastDot + 1);
-                        }
-                        name = parent + suffix;
-                    }
-                    return name;
-                })
+                .map(t -> TaskStats.name(t.getClass()))
                 .toArray(String[]::new);
         }
     }
@@ -310,18 +355,19 @@ public class NCore extends Widget
         {
             config.writeScenarios(null);
         }
+        watch((ui.sess != null) ? ui.sess.glob.oc : null);
+        int events = signalled.getAndSet(0);
+        boolean poll = (++taskTicks % TASK_POLL_TICKS) == 0;
         synchronized (tasks)
         {
             for(final NTask task: tasks)
             {
                 try
                 {
-                    if(task.baseCheck())
+                    if(task.tick(events, poll))
                     {
-                        synchronized (task)
-                        {
-                            task.notify();
-                        }
+                        TaskStats.record(task);
+                        task.release();
                         for_remove.add(task);
                     }
                 }
@@ -340,16 +386,24 @@ public class NCore extends Widget
 
     public void addTask(final NTask task) throws InterruptedException
     {
-        if(!task.check())
+        BotRuntime.Bot bot = BotRuntime.current();
+        long start = System.nanoTime();
+        try
         {
-            synchronized (tasks)
-            {
-                tasks.add(task);
-            }
-            synchronized (task)
+            if(!task.check())
             {
+                task.queued();
+                synchronized (tasks)
+                {
+                    tasks.add(task);
+                }
                 try {
-                    task.wait();
+                    while(!task.released)
+                    {
+                        LockSupport.park(task);
+                        if(Thread.interrupted())
+                            throw new InterruptedException();
+                    }
                     if(task.criticalExit)
                     {
                         ui.gui.error("Incorrect final of task " + task.getClass().toString());
@@ -363,9 +417,13 @@ public class NCore extends Widget
                         throw e;
                     }
                 }
-
             }
         }
+        finally
+        {
+            if(bot != null)
+                bot.task(System.nanoTime() - start);
+        }
         if(task.criticalExit)
         {
             new InterruptedException();
@@ -375,6 +433,7 @@ public class NCore extends Widget
     @Override
     public void dispose() {
         mappingClient.done.set(true);
+        watch(null);
         // Don't shutdown databaseManager here - it's static and should persist across UI/session changes
         // It will be shutdown only when the application exits or database is disabled
         super.dispose();
@@ -9,6 +9,8 @@ import haven.res.ui.tt.stackn.StackName;
 import monitoring.ItemWatcher;
 import nurgling.iteminfo.NCuriosity;
 import nurgling.iteminfo.NFoodInfo;
+import nurgling.tasks.NTask;
+import nurgling.tools.IdentityKey;
 import nurgling.tools.VSpec;
 import nurgling.widgets.NQuestInfo;
 
@@ -143,6 +145,8 @@ public class NGItem extends GItem
             }
             if(name!=null)
             {
+                if(ui != null)
+                    ui.signal(NTask.INVENTORY);
                 if(NUtils.getGameUI().map.clickedGob!=null)
                 {
                     // Exclude tools from LPExplorer tracking
@@ -510,7 +514,7 @@ public class NGItem extends GItem
     
     /**
      * Generate a hash for this item for database identification
-     * Must match ItemWatcher.generateItemHash() format
+     * Must match ItemWatcher.ItemInfo.getHash() format
      */
     private String generateItemHash() {
         if (name == null || wi == null) return null;
@@ -519,7 +523,7 @@ public class NGItem extends GItem
         double q = (quality != null && quality > 0) ? quality : 0;
         q = Double.parseDouble(Utils.odformat2(q, 2));
         String data = name + wi.c.toString() + q;
-        return NUtils.calculateSHA256(data);
+        return IdentityKey.text(IdentityKey.of(data));
     }
 
     public static boolean validateItem(WItem item)
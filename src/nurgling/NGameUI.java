@@ -734,7 +734,7 @@ public class NGameUI extends GameUI
                         .setThumbnail(settings.webhookIcon)
                         .setAuthor("Nurgling2", "https://github.com/Katodiy/nurgling2", "https://raw.githubusercontent.com/Katodiy/nurgling2/master/resources/src/nurgling/hud/dragmode/title.res/image/image_0.png")
                         .setUrl("https://github.com/Katodiy/nurgling2"));
-                new Thread(webhook).start();
+                nurgling.actions.BotRuntime.thread(webhook, "Webhook").start();
 
             }
             else
@@ -1140,7 +1140,7 @@ public class NGameUI extends GameUI
                 int preferredSpeed = ((Number) speedPref).intValue();
                 if (preferredSpeed >= 0 && preferredSpeed <= 3) { // Valid range
                     // Small delay to ensure speedget is fully initialized
-                    new Thread(() -> {
+                    nurgling.actions.BotRuntime.thread(() -> {
                         try {
                             Thread.sleep(100); // Brief pause
                             NUtils.setSpeed(preferredSpeed);
@@ -1149,7 +1149,7 @@ public class NGameUI extends GameUI
                         } catch (Exception e) {
                             System.err.println("[NGameUI] Failed to set preferred speed: " + e.getMessage());
                         }
-                    }).start();
+                    }, "PreferredSpeed").start();
                 }
             }
         } catch (Exception e) {
@@ -19,6 +19,7 @@ import nurgling.gattrr.NCustomScale;
 import nurgling.overlays.*;
 import nurgling.overlays.NSpeedometerOverlay;
 import nurgling.pf.*;
+import nurgling.tasks.NTask;
 import nurgling.tools.*;
 import nurgling.widgets.NAlarmWdg;
 import nurgling.widgets.NMiniMap;
@@ -54,6 +55,8 @@ public class NGob
     public int lastUpdate = 0;
 
     public String hash;
+    // First 64 bits of hash, see IdentityKey
+    public long key;
     public long grid_id;
     public Coord gcoord;
     private final Queue<DelayedOverlayTask> delayedOverlayTasks = new ConcurrentLinkedQueue<>();
@@ -76,13 +79,29 @@ public class NGob
     private static final NAlias GATE_ALIAS = new NAlias("gate");
     private static final NAlias BADGER_WOLVERINE_WOLF_ALIAS = new NAlias("badger", "wolverine", "wolf");
     
-    // Config cache to reduce NConfig.get calls
-    private boolean cachedShowCropStage = false;
-    private boolean cachedShortCupboards = false;
-    private boolean cachedQuestNotified = false;
-    private boolean cachedLpassistent = false;
-    private int configCacheCounter = 0;
-    private static final int CONFIG_CACHE_INTERVAL = 30;
+    // Settings checked by every gob, kept current by NConfig listeners
+    private static volatile boolean cachedShowCropStage = false;
+    private static volatile boolean cachedShortCupboards = false;
+    private static volatile boolean cachedQuestNotified = false;
+    private static volatile boolean cachedLpassistent = false;
+    static {
+        NConfig.Listener reload = (key, val) -> {
+            loadConfigCache();
+            wakeAll();
+        };
+        NConfig.listen(NConfig.Key.showCropStage, reload);
+        NConfig.listen(NConfig.Key.shortCupboards, reload);
+        NConfig.listen(NConfig.Key.questNotified, reload);
+        NConfig.listen(NConfig.Key.lpassistent, reload);
+        loadConfigCache();
+    }
+
+    private static void loadConfigCache() {
+        cachedShowCropStage = NConfig.getBool(NConfig.Key.showCropStage);
+        cachedShortCupboards = NConfig.getBool(NConfig.Key.shortCupboards);
+        cachedQuestNotified = NConfig.getBool(NConfig.Key.questNotified);
+        cachedLpassistent = NConfig.getBool(NConfig.Key.lpassistent);
+    }
     
     // Flag to track if crop marker was already added
     private boolean cropMarkerAdded = false;
@@ -91,6 +110,9 @@ public class NGob
 
     public void changedPose(String currentPose)
     {
+        UI ui = UI.getInstance();
+        if (ui != null)
+            ui.signal(NTask.MOVEMENT);
         if (name != null)
         {
             if (currentPose.contains("fgtidle"))
@@ -141,27 +163,16 @@ public class NGob
     public NGob(Gob parent)
     {
         this.parent = parent;
-        updateConfigCache(); // Initialize config cache
     }
-    
-    /**
-     * Updates cached configuration values to reduce NConfig.get calls.
-     */
-    public void updateConfigCache() {
-        updateConfigCache(false);
-    }
-    
+
     /**
-     * Updates cached configuration values.
-     * @param force if true, forces cache update regardless of counter
+     * Re-reads the cached configuration values and lets the gob pick them up.
+     * @param force if false, nothing needs doing; the values follow the settings by themselves
      */
     public void updateConfigCache(boolean force) {
-        if (force || configCacheCounter <= 0 || ++configCacheCounter >= CONFIG_CACHE_INTERVAL) {
-            cachedShowCropStage = (Boolean) NConfig.get(NConfig.Key.showCropStage);
-            cachedShortCupboards = (Boolean) NConfig.get(NConfig.Key.shortCupboards);
-            cachedQuestNotified = (Boolean) NConfig.get(NConfig.Key.questNotified);
-            cachedLpassistent = (Boolean) NConfig.get(NConfig.Key.lpassistent);
-            configCacheCounter = 1;
+        if (force) {
+            loadConfigCache();
+            parent.wake();
         }
     }
 
@@ -456,6 +467,22 @@ public class NGob
         }
     }
     
+    /**
+     * Takes the hit box from the Neg or Obstacle layer of res, without decoding its other layers
+     */
+    private void setHitBox(Resource res)
+    {
+        boolean force = name != null && NParser.checkName(name, WALL_TRELLIS_ALIAS);
+        for (Resource.Neg neg : res.layers(Resource.Neg.class))
+        {
+            hitBox = new NHitBox(neg.ac, neg.bc, force);
+        }
+        for (Resource.Obstacle obst : res.layers(Resource.Obstacle.class))
+        {
+            hitBox = NHitBox.fromObstacle(obst.p, force);
+        }
+    }
+
     /**
      * Checks if temporary ring should be added (for objects without GobIcon)
      */
@@ -507,9 +534,6 @@ public class NGob
                         parent.setattr(new NCustomScale(parent));
                 }
 
-                // Update config cache periodically
-                updateConfigCache();
-                
                 if (name.contains("cupboard") && cachedShortCupboards)
                 {
                     if (parent.getattr(NCustomScale.class) == null)
@@ -520,7 +544,7 @@ public class NGob
                 checkTempRing();
             }
 
-            if (drawable.getres().getLayers() != null)
+            if (drawable.getres() != null)
             {
                 if (drawable instanceof ResDrawable && ((ResDrawable) drawable).spr instanceof Consobj)
                 {
@@ -533,28 +557,7 @@ public class NGob
                             hitBox = custom;
                         } else
                         {
-                            for (Resource.Layer lay : ((Session.CachedRes.Ref) consobj.built.res).res.getLayers())
-                            {
-                                if (lay instanceof Resource.Neg)
-                                {
-                                    if (name != null && NParser.checkName(name, WALL_TRELLIS_ALIAS))
-                                    {
-                                        hitBox = new NHitBox(((Resource.Neg) lay).ac, ((Resource.Neg) lay).bc, true);
-                                    } else
-                                    {
-                                        hitBox = new NHitBox(((Resource.Neg) lay).ac, ((Resource.Neg) lay).bc);
-                                    }
-                                } else if (lay instanceof Resource.Obstacle)
-                                {
-                                    if (name != null && NParser.checkName(name, WALL_TRELLIS_ALIAS))
-                                    {
-                                        hitBox = NHitBox.fromObstacle(((Resource.Obstacle) lay).p, true);
-                                    } else
-                                    {
-                                        hitBox = NHitBox.fromObstacle(((Resource.Obstacle) lay).p);
-                                    }
-                                }
-                            }
+                            setHitBox(((Session.CachedRes.Ref) consobj.built.res).res);
                         }
                     } else
                     {
@@ -590,28 +593,7 @@ public class NGob
                     }
                 } else
                 {
-                    for (Resource.Layer lay : drawable.getres().getLayers())
-                    {
-                        if (lay instanceof Resource.Neg)
-                        {
-                            if (name != null && NParser.checkName(name, WALL_TRELLIS_ALIAS))
-                            {
-                                hitBox = new NHitBox(((Resource.Neg) lay).ac, ((Resource.Neg) lay).bc, true);
-                            } else
-                            {
-                                hitBox = new NHitBox(((Resource.Neg) lay).ac, ((Resource.Neg) lay).bc);
-                            }
-                        } else if (lay instanceof Resource.Obstacle)
-                        {
-                            if (name != null && NParser.checkName(name, WALL_TRELLIS_ALIAS))
-                            {
-                                hitBox = NHitBox.fromObstacle(((Resource.Obstacle) lay).p, true);
-                            } else
-                            {
-                                hitBox = NHitBox.fromObstacle(((Resource.Obstacle) lay).p);
-                            }
-                        }
-                    }
+                    setHitBox(drawable.getres());
                 }
                 if (name != null)
                 {
@@ -884,7 +866,9 @@ public class NGob
                         StringBuilder hashInput = new StringBuilder();
                         Coord coord = (parent.rc.sub(g.ul.mul(Coord2d.of(11, 11)))).floor(posres);
                         hashInput.append(name).append(g.id).append(coord.toString());
-                        hash = NUtils.calculateSHA256(hashInput.toString());
+                        byte[] digest = IdentityKey.sha256(hashInput.toString());
+                        key = IdentityKey.of(digest);
+                        hash = IdentityKey.hex(digest);
                         grid_id = g.id;
                         gcoord = coord;
                         parent.setattr(new NGlobalSearch(parent));
@@ -939,23 +923,51 @@ public class NGob
                 }
                 lastUpdate = nlu;
             }
-            if (cachedLpassistent)
+            if (lpPending())
             {
-                if (name != null && name.startsWith("gfx/terobjs"))
-                {
-                    if (NUtils.getGameUI() != null && NUtils.getGameUI().getCharInfo() != null)
-                    {
-                        if (VSpec.object.containsKey(name))
-                            if (VSpec.object.get(name).size() != NUtils.getGameUI().getCharInfo().LpExplorerGetSize(name))
-                            {
-                                parent.addcustomol(new NLPassistant(parent));
-                            }
-                    }
-                }
+                parent.addcustomol(new NLPassistant(parent));
             }
         }
     }
 
+    /**
+     * True if the LP assistant overlay should be shown on this object
+     */
+    private boolean lpPending()
+    {
+        if (cachedLpassistent && name != null && name.startsWith("gfx/terobjs"))
+        {
+            if (NUtils.getGameUI() != null && NUtils.getGameUI().getCharInfo() != null)
+            {
+                if (VSpec.object.containsKey(name))
+                    return VSpec.object.get(name).size() != NUtils.getGameUI().getCharInfo().LpExplorerGetSize(name);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Whether tick still has work to do: delayed overlays, the hash, or quest and
+     * LP assistant changes not handled yet. Quest and LP changes wake all gobs.
+     */
+    public boolean ticking()
+    {
+        if (NUtils.getGameUI() == null)
+            return true;
+        return !delayedOverlayTasks.isEmpty() || hash == null
+            || NQuestInfo.lastUpdate.get() > lastUpdate || lpPending();
+    }
+
+    /**
+     * Tick all gobs again, for changes that sleeping gobs cannot notice by themselves
+     */
+    public static void wakeAll()
+    {
+        NGameUI gui = NUtils.getGameUI();
+        if (gui != null && gui.ui != null && gui.ui.sess != null)
+            gui.ui.sess.glob.oc.wakeall();
+    }
+
     public static Gob getDummy(Coord2d rc, double a, String resName)
     {
         Gob res = new Gob(null, rc, -1);
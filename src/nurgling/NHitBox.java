@@ -8,6 +8,18 @@ public class NHitBox
 {
     public Coord2d begin;
     public Coord2d end;
+
+    // Largest distance from a gob's position to a corner of any hitbox made so far
+    private static volatile double maxReach = 0;
+
+    /**
+     * How far a hitbox can extend from its gob's position in any direction,
+     * for widening position queries so they catch every overlapping gob.
+     */
+    public static double maxReach()
+    {
+        return maxReach;
+    }
     public NHitBox(Coord begin, Coord end, boolean force)
     {
         this(new Coord2d(begin),new Coord2d(end), force);
@@ -34,6 +46,10 @@ public class NHitBox
             this.begin = new Coord2d(Math.min(begin.x, -3), Math.min(begin.y, -3));
             this.end = new Coord2d(Math.max(end.x, 3), Math.max(end.y, 3));
         }
+        double reach = Math.max(Math.hypot(this.begin.x, this.begin.y), Math.hypot(this.end.x, this.end.y));
+        reach = Math.max(reach, Math.max(Math.hypot(this.begin.x, this.end.y), Math.hypot(this.end.x, this.begin.y)));
+        if (reach > maxReach)
+            maxReach = reach;
     }
 
     private final static HashMap<String, NHitBox> custom = new HashMap<String, NHitBox>()
@@ -591,7 +591,7 @@ public class NInventory extends Inventory
         
         // Process pending cache removals - items consumed while inventory stays open
         // These are only processed if the timer expired (container didn't close)
-        if (!pendingCacheRemovals.isEmpty() && (Boolean) NConfig.get(NConfig.Key.ndbenable)) {
+        if (!pendingCacheRemovals.isEmpty() && NConfig.getBool(NConfig.Key.ndbenable)) {
             long currentTick = NUtils.getTickId();
             java.util.Iterator<PendingCacheRemoval> it = pendingCacheRemovals.iterator();
             int removedCount = 0;
@@ -624,7 +624,7 @@ public class NInventory extends Inventory
         if(NUtils.getGameUI() == null)
             return;
         super.tick(dt);
-        if((Boolean)NConfig.get(NConfig.Key.showInventoryNums)) {
+        if(NConfig.getBool(NConfig.Key.showInventoryNums)) {
             short[][] newInv = containerMatrix();
             boolean isDiffrent = false;
             if (newInv != null)
@@ -2004,8 +2004,7 @@ public class NInventory extends Inventory
      */
     public String generateItemHash(ItemWatcher.ItemInfo item) {
         if (item == null || item.name == null) return null;
-        String data = item.name + item.c.toString() + item.q + "_" + item.stackIndex;
-        return NUtils.calculateSHA256(data);
+        return item.getHash();
     }
 
     @Override
@@ -9,6 +9,7 @@ import static haven.MCache.tilesz;
 import haven.Composite;
 import haven.res.ui.gobcp.Gobcopy;
 import haven.BuddyWnd;
+import nurgling.actions.BotRuntime;
 import nurgling.actions.QuickActionBot;
 import nurgling.actions.bots.ScenarioRunner;
 import nurgling.areas.*;
@@ -631,10 +632,10 @@ public class NMapView extends MapView
                                                 ttip.put("pose", currentPose);
                                             }
                                         }
-                                        if (((Drawable) attr).getres().getLayers() != null) {
+                                        if (((Drawable) attr).getres() != null) {
                                             isPrinted = true;
-                                            for (Resource.Layer lay : ((Drawable) attr).getres().getLayers()) {
-                                                String res = lay.getClass().toString();
+                                            for (Class<?> lay : ((Drawable) attr).getres().layerclasses()) {
+                                                String res = lay.toString();
                                                 tlays.add(res.replace("$","_") + " ");
                                             }
                                         }
@@ -786,8 +787,7 @@ public class NMapView extends MapView
             if (scenario != null || !(NUtils.getGameUI() == null)) {
                 System.out.println("[NMapView] Starting bot thread, scenario=" + (scenario != null));
                 botsInit = true;
-                Thread t;
-                t = new Thread(() -> {
+                BotRuntime.Bot bot = BotRuntime.create("Autorunner", NUtils.getGameUI(), gui -> {
                     try {
                         System.out.println("[NMapView] Bot thread started, waiting " + BOT_DELAY_MS + "ms...");
                         Thread.sleep(BOT_DELAY_MS);
@@ -832,8 +832,8 @@ public class NMapView extends MapView
                         e.printStackTrace();
                     }
                 });
-                NUtils.getGameUI().biw.addObserve(t);
-                t.start();
+                NUtils.getGameUI().biw.addObserve(bot.thread);
+                bot.start();
             }
         }
     }
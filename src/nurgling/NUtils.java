@@ -18,8 +18,6 @@ import nurgling.widgets.options.QuickActions;
 
 import java.awt.*;
 import java.awt.event.KeyEvent;
-import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
 import java.text.*;
 import java.util.*;
 import java.util.List;
@@ -685,21 +683,7 @@ public class NUtils
     }
 
     public static String calculateSHA256(String input) {
-        try {
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            byte[] hashBytes = digest.digest(input.getBytes(StandardCharsets.UTF_8));
-            StringBuilder hexString = new StringBuilder();
-
-            for (byte b : hashBytes) {
-                String hex = Integer.toHexString(0xff & b);
-                if (hex.length() == 1) hexString.append('0');
-                hexString.append(hex);
-            }
-
-            return hexString.toString();
-        } catch (Exception e) {
-            throw new RuntimeException("Ошибка при вычислении хэша SHA-256", e);
-        }
+        return IdentityKey.hex(IdentityKey.sha256(input));
     }
 
     public static void openDoor(NGameUI gui) throws InterruptedException {
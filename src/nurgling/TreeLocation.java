@@ -2,12 +2,13 @@ package nurgling;
 
 import org.json.JSONObject;
 import haven.Coord;
+import nurgling.tools.PoiStore;
 
 /**
  * Represents a saved tree location on the map
  * Simplified version of FishLocation - no percentage, moon, time, or equipment
  */
-public class TreeLocation {
+public class TreeLocation implements PoiStore.Poi {
     private final String locationId;  // Unique ID combining segment + coordinates + tree name
     private final long segmentId;
     private final Coord tileCoords;
@@ -62,4 +63,8 @@ public class TreeLocation {
     public String getTreeResource() { return treeResource; }
     public long getTimestamp() { return timestamp; }
     public int getQuantity() { return quantity; }
+
+    @Override public String poiId() { return locationId; }
+    @Override public long poiSegment() { return segmentId; }
+    @Override public Coord poiTile() { return tileCoords; }
 }
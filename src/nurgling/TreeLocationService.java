@@ -5,19 +5,9 @@ import nurgling.profiles.ConfigFactory;
 import nurgling.profiles.ProfileAwareService;
 import nurgling.tools.Finder;
 import nurgling.tools.NAlias;
-import org.json.JSONArray;
-import org.json.JSONObject;
-
-import java.io.File;
-import java.io.FileWriter;
-import java.io.IOException;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
-import java.nio.file.Paths;
+import nurgling.tools.PoiStore;
+
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
-import java.util.stream.Stream;
 
 /**
  * Service for managing saved tree locations
@@ -25,8 +15,7 @@ import java.util.stream.Stream;
  * Supports world-specific profiles via ProfileAwareService
  */
 public class TreeLocationService implements ProfileAwareService {
-    private final Map<String, TreeLocation> treeLocations = new ConcurrentHashMap<>();
-    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final PoiStore<TreeLocation> treeLocations = new PoiStore<>("treeLocations", TreeLocation::new);
     private String dataFile;
     private final NGameUI gui;
     private String genus;
@@ -34,7 +23,7 @@ public class TreeLocationService implements ProfileAwareService {
     public TreeLocationService(NGameUI gui) {
         this.gui = gui;
         this.dataFile = NUtils.getDataFile("tree_locations.nurgling.json");
-        loadTreeLocations();
+        load();
     }
 
     /**
@@ -63,17 +52,12 @@ public class TreeLocationService implements ProfileAwareService {
 
     @Override
     public void load() {
-        loadTreeLocations();
+        treeLocations.open(dataFile);
     }
 
     @Override
     public void save() {
-        lock.writeLock().lock();
-        try {
-            saveTreeLocations();
-        } finally {
-            lock.writeLock().unlock();
-        }
+        treeLocations.save();
     }
 
     /**
@@ -110,15 +94,9 @@ public class TreeLocationService implements ProfileAwareService {
             // Count nearby trees/bushes of the same type
             int quantity = countNearbyTrees(treeGob, treeResource);
 
-            lock.writeLock().lock();
-            try {
-                TreeLocation location = new TreeLocation(segmentId, segmentCoord, treeName, treeResource, quantity);
-                treeLocations.put(location.getLocationId(), location);
-                saveTreeLocations();
-                gui.msg("Saved " + treeName + " location (quantity: " + quantity + ")", java.awt.Color.GREEN);
-            } finally {
-                lock.writeLock().unlock();
-            }
+            TreeLocation location = new TreeLocation(segmentId, segmentCoord, treeName, treeResource, quantity);
+            treeLocations.put(location);
+            gui.msg("Saved " + treeName + " location (quantity: " + quantity + ")", java.awt.Color.GREEN);
 
         } catch (Exception e) {
             System.err.println("Error saving tree location: " + e);
@@ -192,118 +170,37 @@ public class TreeLocationService implements ProfileAwareService {
     }
 
     /**
-     * Get all tree locations for a segment (for map rendering)
+     * Get all tree locations for a segment
      */
     public List<TreeLocation> getTreeLocationsForSegment(long segmentId) {
-        lock.readLock().lock();
-        try {
-            List<TreeLocation> result = new ArrayList<>();
-            for (TreeLocation loc : treeLocations.values()) {
-                if (loc.getSegmentId() == segmentId) {
-                    result.add(loc);
-                }
-            }
-            return result;
-        } finally {
-            lock.readLock().unlock();
-        }
+        return treeLocations.segment(segmentId);
     }
 
     /**
-     * Get all tree locations
+     * Get the tree locations of a segment within a tile rectangle (for map rendering)
      */
-    public Collection<TreeLocation> getAllTreeLocations() {
-        lock.readLock().lock();
-        try {
-            return new ArrayList<>(treeLocations.values());
-        } finally {
-            lock.readLock().unlock();
-        }
+    public List<TreeLocation> getTreeLocationsInRange(long segmentId, Coord ul, Coord br) {
+        return treeLocations.range(segmentId, ul, br);
     }
 
     /**
-     * Remove a tree location
-     */
-    public boolean removeTreeLocation(String locationId) {
-        lock.writeLock().lock();
-        try {
-            boolean removed = treeLocations.remove(locationId) != null;
-            if (removed) {
-                saveTreeLocations();
-            }
-            return removed;
-        } finally {
-            lock.writeLock().unlock();
-        }
-    }
-
-    /**
-     * Load tree locations from JSON
+     * Get all tree locations
      */
-    private void loadTreeLocations() {
-        lock.writeLock().lock();
-        try {
-            treeLocations.clear();
-            File file = new File(dataFile);
-            if (file.exists()) {
-                StringBuilder contentBuilder = new StringBuilder();
-                try (Stream<String> stream = Files.lines(Paths.get(dataFile), StandardCharsets.UTF_8)) {
-                    stream.forEach(s -> contentBuilder.append(s).append("\n"));
-                } catch (IOException e) {
-                    System.err.println("Failed to load tree locations: " + e.getMessage());
-                    return;
-                }
-
-                if (!contentBuilder.toString().trim().isEmpty()) {
-                    try {
-                        JSONObject main = new JSONObject(contentBuilder.toString());
-                        JSONArray array = main.getJSONArray("treeLocations");
-                        for (int i = 0; i < array.length(); i++) {
-                            TreeLocation location = new TreeLocation(array.getJSONObject(i));
-                            treeLocations.put(location.getLocationId(), location);
-                        }
-                    } catch (Exception e) {
-                        System.err.println("Failed to parse tree locations JSON: " + e.getMessage());
-                    }
-                }
-            }
-        } finally {
-            lock.writeLock().unlock();
-        }
+    public Collection<TreeLocation> getAllTreeLocations() {
+        return treeLocations.all();
     }
 
     /**
-     * Save tree locations to JSON
+     * Remove a tree location
      */
-    private void saveTreeLocations() {
-        // Called within write lock - don't lock again
-        try {
-            JSONObject main = new JSONObject();
-            JSONArray jLocations = new JSONArray();
-            for (TreeLocation location : treeLocations.values()) {
-                jLocations.put(location.toJson());
-            }
-            main.put("treeLocations", jLocations);
-            main.put("version", 1);
-            main.put("lastSaved", java.time.Instant.now().toString());
-
-            try (FileWriter writer = new FileWriter(dataFile, StandardCharsets.UTF_8)) {
-                writer.write(main.toString(2)); // Pretty print with indent
-            }
-        } catch (IOException e) {
-            System.err.println("Failed to save tree locations: " + e.getMessage());
-        }
+    public boolean removeTreeLocation(String locationId) {
+        return treeLocations.remove(locationId);
     }
 
     /**
      * Dispose the service and cleanup resources
      */
     public void dispose() {
-        lock.writeLock().lock();
-        try {
-            saveTreeLocations();
-        } finally {
-            lock.writeLock().unlock();
-        }
+        treeLocations.save();
     }
 }
@@ -0,0 +1,268 @@
+package nurgling.actions;
+
+import haven.Config;
+import nurgling.NGameUI;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs bots. A bot is a scope: its body runs on one thread and each support
+ * action on a child thread, and the children are cancelled and joined when the
+ * body returns or the bot is cancelled. Threads are virtual where the JVM has
+ * them (and nurgling.vthreads is not off), daemon platform threads otherwise.
+ * Every bot counts the CPU time of its threads, the time they spent in
+ * NCore.addTask and the number of tasks.
+ */
+public class BotRuntime {
+    public static final Config.Variable<Boolean> vthreads = Config.Variable.propb("nurgling.vthreads", true);
+
+    public interface Body {
+        void run(NGameUI gui) throws InterruptedException;
+    }
+
+    // How long a finished bot waits for its supports to stop
+    private static final long JOIN_MS = 2000;
+
+    // Set by each bot thread itself; not inherited, so that pool threads first made from a bot stay out of it
+    private static final ThreadLocal<Bot> current = new ThreadLocal<>();
+    private static final Map<Thread, Bot> running = new ConcurrentHashMap<>();
+    private static final ThreadMXBean mx = ManagementFactory.getThreadMXBean();
+    private static ThreadFactory factory = null;
+    // Whether the factory makes virtual threads, whose CPU time the JVM does not report
+    private static volatile boolean virtual = false;
+
+    public static class Bot {
+        public final String name;
+        public final Thread thread;
+        public final long started = System.nanoTime();
+        // Threads of the bot that have not finished yet, the main one included
+        private final List<Thread> threads = new CopyOnWriteArrayList<>();
+        private final List<Thread> children = new CopyOnWriteArrayList<>();
+        private final AtomicLong cpu = new AtomicLong();
+        private final AtomicLong waited = new AtomicLong();
+        private final AtomicLong tasks = new AtomicLong();
+        private volatile boolean cancelled = false;
+        private volatile long ended = 0;
+
+        private Bot(String name, NGameUI gui, List<Action> supports, Body body) {
+            this.name = name;
+            this.thread = thread(name, () -> run(gui, supports, body));
+        }
+
+        private Thread thread(String name, Runnable r) {
+            Thread t = factory().newThread(() -> {
+                current.set(this);
+                try {
+                    r.run();
+                } finally {
+                    long c = cputime();
+                    if (c > 0)
+                        cpu.addAndGet(c);
+                    threads.remove(Thread.currentThread());
+                }
+            });
+            t.setName(name);
+            threads.add(t);
+            return t;
+        }
+
+        private void run(NGameUI gui, List<Action> supports, Body body) {
+            try {
+                for (Action sup : supports) {
+                    Thread st = thread(name + "-support", () -> {
+                        try {
+                            sup.run(gui);
+                        } catch (InterruptedException e) {
+                        }
+                    });
+                    children.add(st);
+                    st.start();
+                }
+                body.run(gui);
+            } catch (InterruptedException e) {
+                cancelled = true;
+            } finally {
+                close();
+            }
+        }
+
+        /* Cancels the supports and gives them a moment to finish */
+        private void close() {
+            for (Thread st : children)
+                st.interrupt();
+            long deadline = System.currentTimeMillis() + JOIN_MS;
+            boolean interrupted = false;
+            for (Thread st : children) {
+                long left = deadline - System.currentTimeMillis();
+                if (left <= 0)
+                    break;
+                try {
+                    st.join(left);
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            ended = System.nanoTime();
+            running.remove(thread);
+            System.out.println("[BotRuntime] " + name + (cancelled ? " cancelled: " : " done: ") + summary());
+            if (interrupted)
+                Thread.currentThread().interrupt();
+        }
+
+        /**
+         * Starts the bot; callers register it (e.g. with BotsInterruptWidget) before this
+         */
+        public Bot start() {
+            running.put(thread, this);
+            thread.start();
+            return this;
+        }
+
+        /**
+         * Interrupts the bot and its supports
+         */
+        public void cancel() {
+            cancelled = true;
+            thread.interrupt();
+            for (Thread st : children)
+                st.interrupt();
+        }
+
+        public boolean isAlive() {
+            return ended == 0;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        /** Called by NCore.addTask on the bot's threads */
+        public void task(long waitNanos) {
+            tasks.incrementAndGet();
+            waited.addAndGet(waitNanos);
+        }
+
+        public long tasks() {
+            return tasks.get();
+        }
+
+        public long waitNanos() {
+            return waited.get();
+        }
+
+        /**
+         * CPU time of the bot's threads so far, or -1 if the JVM does not measure it
+         * (as for virtual threads)
+         */
+        public long cpuNanos() {
+            if (virtual || !cputimed())
+                return -1;
+            long ret = cpu.get();
+            for (Thread t : threads) {
+                long c = mx.getThreadCpuTime(t.getId());
+                if (c > 0)
+                    ret += c;
+            }
+            return ret;
+        }
+
+        public long wallNanos() {
+            return ((ended == 0) ? System.nanoTime() : ended) - started;
+        }
+
+        public String summary() {
+            long cpu = cpuNanos();
+            return String.format("%.1fs, cpu %s, waited %.1fs on %d tasks",
+                    wallNanos() / 1e9, (cpu < 0) ? "n/a" : String.format("%.2fs", cpu / 1e9),
+                    waitNanos() / 1e9, tasks());
+        }
+    }
+
+    /**
+     * A bot running body, with supports as its children, to be started with Bot.start
+     */
+    public static Bot create(String name, NGameUI gui, List<Action> supports, Body body) {
+        return new Bot(name, gui, new ArrayList<>(supports), body);
+    }
+
+    public static Bot create(String name, NGameUI gui, Body body) {
+        return create(name, gui, Collections.emptyList(), body);
+    }
+
+    /**
+     * The bot the calling thread belongs to, or null
+     */
+    public static Bot current() {
+        Bot bot = current.get();
+        return ((bot != null) && bot.isAlive()) ? bot : null;
+    }
+
+    /**
+     * The running bot whose main thread is t, or null
+     */
+    public static Bot of(Thread t) {
+        return running.get(t);
+    }
+
+    /**
+     * A thread for short jobs outside any bot, from the same factory as bot threads
+     */
+    public static Thread thread(Runnable r, String name) {
+        Thread t = factory().newThread(r);
+        t.setName(name);
+        return t;
+    }
+
+    private static boolean cputimed() {
+        try {
+            return mx.isThreadCpuTimeSupported() && mx.isThreadCpuTimeEnabled();
+        } catch (UnsupportedOperationException e) {
+            return false;
+        }
+    }
+
+    private static long cputime() {
+        if (virtual || !cputimed())
+            return -1;
+        try {
+            return mx.getCurrentThreadCpuTime();
+        } catch (UnsupportedOperationException e) {
+            return -1;
+        }
+    }
+
+    private static synchronized ThreadFactory factory() {
+        if (factory == null) {
+            if (vthreads.get()) {
+                factory = virtual();
+                virtual = (factory != null);
+            }
+            if (factory == null) {
+                factory = r -> {
+                    Thread t = new Thread(r);
+                    t.setDaemon(true);
+                    return t;
+                };
+            }
+        }
+        return factory;
+    }
+
+    /* Thread.ofVirtual().factory(), on JVMs that have it */
+    private static ThreadFactory virtual() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Method fac = Class.forName("java.lang.Thread$Builder").getMethod("factory");
+            return (ThreadFactory) fac.invoke(builder);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+}
@@ -127,23 +127,31 @@ public class PathFinder implements Action {
     public LinkedList<Graph.Vertex> construct(boolean test) throws InterruptedException {
         LinkedList<Graph.Vertex> path = new LinkedList<>();
         int mul = 1;
+        NPFMap grown = null;
         while (path.isEmpty() && mul < 200) {
             if(pfmap!=null && pfmap.lastMul)
                 return null;
-            pfmap = new NPFMap(begin, end, mul);
-            pfmap.getBegin();
-            pfmap.getEnd();
-            if(pfmap.bad) {
-                if (test) {
-                    return null;
-                } else {
-                    NUtils.getGameUI().error("Unable to build grid of required size");
-                    throw new InterruptedException();
+            if (grown == null) {
+                pfmap = new NPFMap(begin, end, mul);
+                if (pfmap.bad) {
+                    if (test) {
+                        return null;
+                    } else {
+                        NUtils.getGameUI().error("Unable to build grid of required size");
+                        throw new InterruptedException();
+                    }
+                }
+                pfmap.waterMode = waterMode;
+                pfmap.gatesAlwaysClosed = gatesAlwaysClosed;
+                pfmap.build();
+            } else {
+                // Same layout as the previous step would give the same result
+                if ((pfmap = grown.grow(mul)) == grown) {
+                    mul++;
+                    continue;
                 }
             }
-            pfmap.waterMode = waterMode;
-            pfmap.gatesAlwaysClosed = gatesAlwaysClosed;
-            pfmap.build();
+            grown = pfmap;
             CellsArray dca = null;
             if (dummy != null)
                 dca = pfmap.addGob(dummy);
@@ -165,35 +173,13 @@ public class PathFinder implements Action {
 
             Graph res = null;
             if (pfmap.getCells()[end_pos.x][end_pos.y].val == 7) {
-                Thread th = new Thread(res = new Graph(pfmap, start_pos, end_pos));
-                th.start();
-                th.join();
+                res = Graph.search(new Graph(pfmap, start_pos, end_pos));
             } else {
                 switch (mode) {
                     case NEAREST:
                     {
-                        LinkedList<Graph> graphs = new LinkedList<>();
-                        for (Coord ep : end_poses) {
-                            graphs.add(new Graph(pfmap, start_pos, ep));
-                        }
-                        LinkedList<Thread> threads = new LinkedList<>();
-                        for (Graph graph : graphs) {
-                            Thread th;
-                            threads.add(th = new Thread(graph));
-                            th.start();
-                        }
-                        for (Thread t : threads) {
-                            t.join();
-                        }
-
-                        graphs.sort(new Comparator<Graph>() {
-                            @Override
-                            public int compare(Graph o1, Graph o2) {
-                                return (Integer.compare(o1.getPathLen(), o2.getPathLen()));
-                            }
-                        });
-                        if (!graphs.isEmpty())
-                            res = graphs.get(0);
+                        if (end_poses != null && !end_poses.isEmpty())
+                            res = Graph.search(new Graph(pfmap, start_pos, end_poses));
                         break;
                     }
                     case Y_MAX:
@@ -223,9 +209,7 @@ public class PathFinder implements Action {
                         };
 
                         end_poses.sort(comp);
-                        Thread th = new Thread(res = new Graph(pfmap, start_pos, end_poses.get(0)));
-                        th.start();
-                        th.join();
+                        res = Graph.search(new Graph(pfmap, start_pos, end_poses.get(0)));
                     }
                 }
             }
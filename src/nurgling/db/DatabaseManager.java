@@ -27,6 +27,12 @@ public class DatabaseManager {
     private StorageItemService storageItemService;
     private AreaService areaService;
 
+    // Write-behind queue for container contents
+    private final StorageItemWriteQueue storageItemWriteQueue;
+
+    // In-memory search index over stored items
+    private final StorageItemIndex storageItemIndex = new StorageItemIndex();
+
     // Task queue for retry logic
     private final BlockingQueue<QueuedTask<?>> taskQueue = new LinkedBlockingQueue<>(1000);
     private ScheduledExecutorService queueProcessor;
@@ -60,6 +66,7 @@ public class DatabaseManager {
         public int skippedSearch;
         public int queueSize;
         public boolean isReady;
+        public StorageItemWriteQueue.Stats writeQueue;
         
         @Override
         public String toString() {
@@ -86,6 +93,8 @@ public class DatabaseManager {
             nurgling.NCore.databaseManager.getQueuedTaskCount() : 0;
         stats.isReady = nurgling.NCore.databaseManager != null && 
             nurgling.NCore.databaseManager.isReady();
+        stats.writeQueue = nurgling.NCore.databaseManager != null ?
+            nurgling.NCore.databaseManager.getStorageItemWriteQueue().getStats() : new StorageItemWriteQueue.Stats();
         return stats;
     }
     
@@ -166,6 +175,8 @@ public class DatabaseManager {
             t.setDaemon(true);  // Daemon threads don't prevent JVM shutdown
             return t;
         });
+        this.storageItemWriteQueue = new StorageItemWriteQueue(this);
+        this.storageItemWriteQueue.setCommitListener(monitoring.ItemWatcher::onContainersWritten);
         startQueueProcessor();
         initialize();
         
@@ -197,6 +208,12 @@ public class DatabaseManager {
                 System.err.println("[DatabaseManager] Queue processor error: " + e.getMessage());
             }
         }, 1, 1, TimeUnit.SECONDS);
+
+        // Pick up other clients' writes to a shared database
+        queueProcessor.scheduleWithFixedDelay(() -> {
+            if (shutdown || !initialized) return;
+            submitTask(() -> storageItemIndex.refreshIfShared(this));
+        }, 1, 1, TimeUnit.MINUTES);
     }
     
     /**
@@ -281,6 +298,15 @@ public class DatabaseManager {
                 connectionPoolManager.returnConnection(conn);
                 initialized = true;
 
+                // Build the search index in the background; searches use SQL until it is ready
+                submitTask(() -> {
+                    try {
+                        storageItemIndex.load(this);
+                    } catch (SQLException e) {
+                        System.err.println("Failed to load storage item index: " + e.getMessage());
+                    }
+                });
+
                 System.out.println("DatabaseManager initialized successfully with " +
                                  DatabaseAdapterFactory.getDatabaseType());
             } else {
@@ -510,6 +536,20 @@ public class DatabaseManager {
         return areaService;
     }
 
+    /**
+     * Get in-memory search index over stored items
+     */
+    public StorageItemIndex getStorageItemIndex() {
+        return storageItemIndex;
+    }
+
+    /**
+     * Get write-behind queue for container contents
+     */
+    public StorageItemWriteQueue getStorageItemWriteQueue() {
+        return storageItemWriteQueue;
+    }
+
     /**
      * Reconnect to database
      */
@@ -566,6 +606,9 @@ public class DatabaseManager {
         if (cancelled > 0) {
             System.out.println("[DatabaseManager] Cancelled " + cancelled + " queued tasks on shutdown");
         }
+
+        // Write queued container contents while the pool is still up
+        storageItemWriteQueue.shutdown();
         
         if (executorService != null) {
             executorService.shutdown();
@@ -0,0 +1,324 @@
+package nurgling.db;
+
+import nurgling.tools.NSearchItem;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory search index over the storageitems and containers tables.
+ * Item names are deduplicated and indexed by lowercase trigrams; each name keeps
+ * its items grouped by container, so a search only touches items whose name matches.
+ * The index is loaded once from the database and then kept current by the writes
+ * of this client. With a shared (PostgreSQL) database it is reloaded periodically
+ * to pick up writes of other clients.
+ */
+public class StorageItemIndex {
+    // Reload interval for databases that other clients may write to
+    public static final long SHARED_REFRESH_MS = 5 * 60 * 1000;
+
+    private static class Item {
+        final String hash;
+        final String container;
+        final NameEntry name;
+        final double quality;
+
+        Item(String hash, String container, NameEntry name, double quality) {
+            this.hash = hash;
+            this.container = container;
+            this.name = name;
+            this.quality = quality;
+        }
+    }
+
+    private static class NameEntry {
+        final String lower;
+        final Map<String, List<Item>> containers = new HashMap<>();
+        int count = 0;
+
+        NameEntry(String lower) {
+            this.lower = lower;
+        }
+    }
+
+    /**
+     * Index contents, rebuilt as a whole on (re)load
+     */
+    private static class Data {
+        final Map<String, Item> items = new HashMap<>();
+        final Map<String, Set<Item>> byContainer = new HashMap<>();
+        final Map<String, NameEntry> names = new HashMap<>();
+        final Map<Long, Set<NameEntry>> trigrams = new HashMap<>();
+        final Set<String> containers = new HashSet<>();
+
+        void put(String hash, String name, double quality, String container) {
+            remove(hash);
+            String lower = name == null ? "" : name.toLowerCase();
+            NameEntry entry = names.get(lower);
+            if (entry == null) {
+                entry = new NameEntry(lower);
+                names.put(lower, entry);
+                for (int i = 0; i + 3 <= lower.length(); i++) {
+                    trigrams.computeIfAbsent(trigram(lower, i), k -> new HashSet<>()).add(entry);
+                }
+            }
+            Item item = new Item(hash, container, entry, quality);
+            items.put(hash, item);
+            byContainer.computeIfAbsent(container, k -> new HashSet<>()).add(item);
+            entry.containers.computeIfAbsent(container, k -> new ArrayList<>(2)).add(item);
+            entry.count++;
+        }
+
+        void remove(String hash) {
+            Item item = items.remove(hash);
+            if (item == null) return;
+            Set<Item> inContainer = byContainer.get(item.container);
+            if (inContainer != null) {
+                inContainer.remove(item);
+                if (inContainer.isEmpty()) byContainer.remove(item.container);
+            }
+            NameEntry entry = item.name;
+            List<Item> postings = entry.containers.get(item.container);
+            if (postings != null) {
+                postings.remove(item);
+                if (postings.isEmpty()) entry.containers.remove(item.container);
+            }
+            if (--entry.count == 0) {
+                names.remove(entry.lower);
+                for (int i = 0; i + 3 <= entry.lower.length(); i++) {
+                    long key = trigram(entry.lower, i);
+                    Set<NameEntry> set = trigrams.get(key);
+                    if (set != null) {
+                        set.remove(entry);
+                        if (set.isEmpty()) trigrams.remove(key);
+                    }
+                }
+            }
+        }
+
+        void clearContainer(String container) {
+            Set<Item> inContainer = byContainer.get(container);
+            if (inContainer == null) return;
+            for (Item item : new ArrayList<>(inContainer)) {
+                remove(item.hash);
+            }
+        }
+    }
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Data data = new Data();
+    private volatile boolean ready = false;
+    private volatile long loadedAt = 0;
+    private volatile boolean shared = false;
+
+    // Changes made while a load is running, replayed on top of the loaded data
+    private List<java.util.function.Consumer<Data>> backlog = null;
+
+    /**
+     * True once the index has been loaded and can answer searches
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Load the index from the database, replacing its contents
+     */
+    public void load(DatabaseManager databaseManager) throws SQLException {
+        lock.writeLock().lock();
+        try {
+            if (backlog != null) return; // Already loading
+            backlog = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Data loaded = new Data();
+        try {
+            databaseManager.executeOperation(adapter -> {
+                shared = adapter instanceof PostgresAdapter;
+                try (ResultSet rs = adapter.executeQuery("SELECT hash FROM containers")) {
+                    while (rs.next()) {
+                        loaded.containers.add(rs.getString(1));
+                    }
+                }
+                try (ResultSet rs = adapter.executeQuery("SELECT item_hash, name, quality, container FROM storageitems")) {
+                    while (rs.next()) {
+                        loaded.put(rs.getString(1), rs.getString(2), rs.getDouble(3), rs.getString(4));
+                    }
+                }
+                return null;
+            });
+        } catch (SQLException e) {
+            lock.writeLock().lock();
+            try {
+                backlog = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            for (java.util.function.Consumer<Data> change : backlog) {
+                change.accept(loaded);
+            }
+            backlog = null;
+            data = loaded;
+            loadedAt = System.currentTimeMillis();
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        System.out.println("StorageItemIndex: Loaded " + loaded.items.size() + " items in " +
+            loaded.byContainer.size() + " containers");
+    }
+
+    /**
+     * Reload if the database is shared with other clients and the index is getting old
+     */
+    public void refreshIfShared(DatabaseManager databaseManager) {
+        if (!ready || !shared || System.currentTimeMillis() - loadedAt < SHARED_REFRESH_MS) return;
+        try {
+            load(databaseManager);
+        } catch (SQLException e) {
+            System.err.println("StorageItemIndex: Refresh failed: " + e.getMessage());
+        }
+    }
+
+    private void apply(java.util.function.Consumer<Data> change) {
+        lock.writeLock().lock();
+        try {
+            change.accept(data);
+            if (backlog != null) {
+                backlog.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replace the items of a container with committed rows
+     */
+    public void putContainer(String container, Collection<StorageItemWriteQueue.Row> rows) {
+        List<StorageItemWriteQueue.Row> copy = new ArrayList<>(rows);
+        apply(d -> {
+            d.clearContainer(container);
+            for (StorageItemWriteQueue.Row row : copy) {
+                d.put(row.itemHash, row.name, row.quality, container);
+            }
+        });
+    }
+
+    public void putItem(String itemHash, String name, double quality, String container) {
+        apply(d -> d.put(itemHash, name, quality, container));
+    }
+
+    public void removeItem(String itemHash) {
+        apply(d -> d.remove(itemHash));
+    }
+
+    public void clearContainer(String container) {
+        apply(d -> d.clearContainer(container));
+    }
+
+    public void addContainer(String container) {
+        apply(d -> d.containers.add(container));
+    }
+
+    /**
+     * Remove a container and, as the foreign key cascade does, its items
+     */
+    public void removeContainer(String container) {
+        apply(d -> {
+            d.containers.remove(container);
+            d.clearContainer(container);
+        });
+    }
+
+    /**
+     * Hashes of known containers holding an item whose name contains the given
+     * text (case-insensitive) and whose quality matches any of the conditions.
+     * @return the matching containers, or null if the index is not loaded yet
+     */
+    public Set<String> search(String name, List<NSearchItem.Quality> qualities) {
+        if (!ready) return null;
+        String lower = name.toLowerCase();
+        Set<String> result = new HashSet<>();
+
+        lock.readLock().lock();
+        try {
+            for (NameEntry entry : candidates(lower)) {
+                if (!entry.lower.contains(lower)) continue;
+                for (Map.Entry<String, List<Item>> e : entry.containers.entrySet()) {
+                    String container = e.getKey();
+                    if (result.contains(container) || !data.containers.contains(container)) continue;
+                    for (Item item : e.getValue()) {
+                        if (matches(item.quality, qualities)) {
+                            result.add(container);
+                            break;
+                        }
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    /**
+     * Names that may contain the query: the names sharing its rarest trigram,
+     * or all names for queries shorter than a trigram
+     */
+    private Collection<NameEntry> candidates(String lower) {
+        if (lower.length() < 3) {
+            return data.names.values();
+        }
+        Set<NameEntry> best = null;
+        for (int i = 0; i + 3 <= lower.length(); i++) {
+            Set<NameEntry> set = data.trigrams.get(trigram(lower, i));
+            if (set == null) return Collections.emptySet();
+            if (best == null || set.size() < best.size()) best = set;
+        }
+        return best;
+    }
+
+    private static boolean matches(double quality, List<NSearchItem.Quality> qualities) {
+        if (qualities.isEmpty()) return true;
+        for (NSearchItem.Quality q : qualities) {
+            switch (q.type) {
+                case MORE:
+                    if (quality > q.val) return true;
+                    break;
+                case LOW:
+                    if (quality < q.val) return true;
+                    break;
+                case EQ:
+                    if (quality == q.val) return true;
+                    break;
+            }
+        }
+        return false;
+    }
+
+    private static long trigram(String s, int i) {
+        return ((long) s.charAt(i) << 32) | ((long) s.charAt(i + 1) << 16) | s.charAt(i + 2);
+    }
+
+    /**
+     * Number of indexed items
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return data.items.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
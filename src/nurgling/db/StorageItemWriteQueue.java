@@ -0,0 +1,314 @@
+package nurgling.db;
+
+import nurgling.db.dao.StorageItemDao;
+
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Write-behind queue for container contents.
+ * Snapshots of the same container replace each other while queued, and the
+ * queued containers are written together in one transaction. The committed
+ * contents of recently written containers are kept in memory, so unchanged
+ * containers are skipped and changed ones are written as a delta.
+ */
+public class StorageItemWriteQueue {
+    private static final long LINGER_MS = 250;              // Wait for more snapshots before writing
+    private static final int MAX_BATCH_CONTAINERS = 64;
+    private static final int MAX_WRITTEN_CONTAINERS = 1000;
+    private static final long RETRY_DELAY_MS = 2000;
+    private static final int MAX_RETRIES = 3;
+
+    /**
+     * One item row of a container snapshot
+     */
+    public static class Row {
+        public final String itemHash;
+        public final String name;
+        public final double quality;
+        public final String coordinates;
+
+        public Row(String itemHash, String name, double quality, String coordinates) {
+            this.itemHash = itemHash;
+            this.name = name;
+            this.quality = quality;
+            this.coordinates = coordinates;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Row)) return false;
+            Row r = (Row) o;
+            return quality == r.quality && itemHash.equals(r.itemHash)
+                && Objects.equals(name, r.name) && Objects.equals(coordinates, r.coordinates);
+        }
+
+        @Override
+        public int hashCode() {
+            return itemHash.hashCode();
+        }
+    }
+
+    /**
+     * Statistics for the debug overlay
+     */
+    public static class Stats {
+        public int queued;
+        public int written;
+        public int coalesced;
+        public int lastBatch;
+        public long lastCommitMs;
+        public long avgCommitMs;
+        public int failed;
+    }
+
+    private final DatabaseManager databaseManager;
+    private final StorageItemDao storageItemDao = new StorageItemDao();
+    private final ScheduledExecutorService flusher;
+    private volatile Runnable commitListener;
+
+    // Guarded by this
+    private final LinkedHashMap<String, Map<String, Row>> pending = new LinkedHashMap<>();
+    private final LinkedHashMap<String, Map<String, Row>> written =
+        new LinkedHashMap<String, Map<String, Row>>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Map<String, Row>> eldest) {
+                return size() > MAX_WRITTEN_CONTAINERS;
+            }
+        };
+    private Map<String, Map<String, Row>> inflight = Collections.emptyMap();  // Batch being written
+    private boolean flushScheduled = false;
+    // Failed writes of the queued snapshot, per container
+    private final Map<String, Integer> attempts = new HashMap<>();
+    private boolean lastFailed = false;
+
+    private final AtomicInteger coalesced = new AtomicInteger(0);
+    private final AtomicInteger failed = new AtomicInteger(0);
+    private volatile int lastBatch = 0;
+    private volatile long lastCommitMs = 0;
+    private volatile long avgCommitMs = 0;
+
+    public StorageItemWriteQueue(DatabaseManager databaseManager) {
+        this.databaseManager = databaseManager;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "DB-WriteBehind");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Set a callback run after each committed batch
+     */
+    public void setCommitListener(Runnable listener) {
+        this.commitListener = listener;
+    }
+
+    /**
+     * Queue the current contents of a container, replacing any queued snapshot of it.
+     * @return false if the contents match what was last written and nothing was queued
+     */
+    public synchronized boolean submit(String containerHash, Collection<Row> rows) {
+        Map<String, Row> snapshot = new HashMap<>(rows.size() * 2);
+        for (Row row : rows) {
+            snapshot.put(row.itemHash, row);
+        }
+
+        Map<String, Row> queued = pending.remove(containerHash);
+        // A new snapshot gets its own retries
+        attempts.remove(containerHash);
+        if (queued != null) {
+            coalesced.incrementAndGet();
+        }
+        Map<String, Row> committed = inflight.containsKey(containerHash) ? inflight.get(containerHash) : written.get(containerHash);
+        if (snapshot.equals(committed)) {
+            // Back to the committed state; any queued snapshot is obsolete
+            return false;
+        }
+        pending.put(containerHash, snapshot);
+        scheduleFlush(LINGER_MS);
+        return true;
+    }
+
+    /**
+     * Forget the committed contents of a container, so the next snapshot rewrites it completely
+     */
+    public synchronized void invalidate(String containerHash) {
+        written.remove(containerHash);
+    }
+
+    private void scheduleFlush(long delayMs) {
+        if (flushScheduled || flusher.isShutdown()) return;
+        flushScheduled = true;
+        flusher.schedule(this::flush, delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void flush() {
+        LinkedHashMap<String, Map<String, Row>> batch = new LinkedHashMap<>();
+        Map<String, Map<String, Row>> bases = new HashMap<>();
+        synchronized (this) {
+            flushScheduled = false;
+            Iterator<Map.Entry<String, Map<String, Row>>> it = pending.entrySet().iterator();
+            while (it.hasNext() && batch.size() < MAX_BATCH_CONTAINERS) {
+                Map.Entry<String, Map<String, Row>> e = it.next();
+                batch.put(e.getKey(), e.getValue());
+                bases.put(e.getKey(), written.get(e.getKey()));
+                it.remove();
+            }
+            inflight = batch;
+        }
+        if (batch.isEmpty()) return;
+
+        long start = System.nanoTime();
+        try {
+            databaseManager.executeOperation(adapter -> {
+                write(adapter, batch, bases);
+                return null;
+            });
+        } catch (Exception e) {
+            failed.incrementAndGet();
+            synchronized (this) {
+                inflight = Collections.emptyMap();
+                lastFailed = true;
+                int requeued = 0, dropped = 0;
+                for (Map.Entry<String, Map<String, Row>> entry : batch.entrySet()) {
+                    String containerHash = entry.getKey();
+                    if (pending.containsKey(containerHash)) {
+                        // A newer snapshot arrived meanwhile and replaces this one
+                        continue;
+                    }
+                    if (attempts.merge(containerHash, 1, Integer::sum) <= MAX_RETRIES) {
+                        pending.put(containerHash, entry.getValue());
+                        requeued++;
+                    } else {
+                        // Give up on this snapshot; the container is rewritten completely next time
+                        attempts.remove(containerHash);
+                        written.remove(containerHash);
+                        dropped++;
+                    }
+                }
+                System.out.println("[StorageItemWriteQueue] Write of " + batch.size() + " containers failed, " +
+                    requeued + " requeued, " + dropped + " dropped after " + MAX_RETRIES + " retries: " + e.getMessage());
+                if (!pending.isEmpty()) {
+                    scheduleFlush(RETRY_DELAY_MS);
+                }
+            }
+            return;
+        }
+
+        long ms = (System.nanoTime() - start) / 1000000;
+        lastCommitMs = ms;
+        avgCommitMs = avgCommitMs == 0 ? ms : (avgCommitMs * 7 + ms) / 8;
+        lastBatch = batch.size();
+        StorageItemIndex index = databaseManager.getStorageItemIndex();
+        for (Map.Entry<String, Map<String, Row>> entry : batch.entrySet()) {
+            index.putContainer(entry.getKey(), entry.getValue().values());
+        }
+        synchronized (this) {
+            lastFailed = false;
+            attempts.keySet().removeAll(batch.keySet());
+            written.putAll(batch);
+            inflight = Collections.emptyMap();
+            if (!pending.isEmpty()) {
+                scheduleFlush(pending.size() >= MAX_BATCH_CONTAINERS ? 0 : LINGER_MS);
+            }
+        }
+
+        Runnable listener = commitListener;
+        if (listener != null) {
+            listener.run();
+        }
+    }
+
+    /**
+     * Write a batch of snapshots. Containers with known committed contents get a
+     * delta, the others are deleted and rewritten. Deletes run before upserts so an
+     * item that moved between containers of the same batch ends up in its new one.
+     */
+    private void write(DatabaseAdapter adapter, Map<String, Map<String, Row>> batch,
+                       Map<String, Map<String, Row>> bases) throws SQLException {
+        List<String> cleared = new ArrayList<>();
+        List<Object[]> removed = new ArrayList<>();
+        List<Object[]> upserts = new ArrayList<>();
+
+        for (Map.Entry<String, Map<String, Row>> entry : batch.entrySet()) {
+            String containerHash = entry.getKey();
+            Map<String, Row> rows = entry.getValue();
+            Map<String, Row> base = bases.get(containerHash);
+            if (base == null) {
+                cleared.add(containerHash);
+            } else {
+                for (String itemHash : base.keySet()) {
+                    if (!rows.containsKey(itemHash)) {
+                        removed.add(new Object[]{containerHash, itemHash});
+                    }
+                }
+            }
+            for (Row row : rows.values()) {
+                if (base == null || !row.equals(base.get(row.itemHash))) {
+                    upserts.add(new Object[]{row.itemHash, row.name, row.quality, row.coordinates, containerHash});
+                }
+            }
+        }
+
+        storageItemDao.deleteStorageItemsByContainers(adapter, cleared);
+        storageItemDao.deleteContainerItems(adapter, removed);
+        storageItemDao.upsertStorageItems(adapter, upserts);
+    }
+
+    /**
+     * Number of containers with a snapshot waiting to be written
+     */
+    public synchronized int getQueuedCount() {
+        return pending.size();
+    }
+
+    /**
+     * Number of containers whose committed contents are cached
+     */
+    public synchronized int getWrittenCount() {
+        return written.size();
+    }
+
+    public Stats getStats() {
+        Stats stats = new Stats();
+        synchronized (this) {
+            stats.queued = pending.size();
+            stats.written = written.size();
+        }
+        stats.coalesced = coalesced.get();
+        stats.lastBatch = lastBatch;
+        stats.lastCommitMs = lastCommitMs;
+        stats.avgCommitMs = avgCommitMs;
+        stats.failed = failed.get();
+        return stats;
+    }
+
+    /**
+     * Write everything still queued and stop the writer thread
+     */
+    public void shutdown() {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(2, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            flusher.shutdownNow();
+        }
+        boolean more;
+        synchronized (this) {
+            more = !pending.isEmpty();
+        }
+        int rounds = 0;
+        while (more && rounds++ < 10) {
+            flush();
+            synchronized (this) {
+                more = !pending.isEmpty() && !lastFailed;
+            }
+        }
+    }
+}
@@ -130,6 +130,39 @@ public class StorageItemDao {
         adapter.executeUpdate("DELETE FROM storageitems WHERE container = ?", containerHash);
     }
 
+    /**
+     * Delete all storage items of several containers in one batch
+     */
+    public void deleteStorageItemsByContainers(DatabaseAdapter adapter, List<String> containerHashes) throws SQLException {
+        if (containerHashes.isEmpty()) return;
+        List<Object[]> paramList = new ArrayList<>(containerHashes.size());
+        for (String containerHash : containerHashes) {
+            paramList.add(new Object[]{containerHash});
+        }
+        adapter.executeBatch("DELETE FROM storageitems WHERE container = ?", paramList);
+    }
+
+    /**
+     * Delete single items of containers in one batch, each param row being {container, item_hash}
+     */
+    public void deleteContainerItems(DatabaseAdapter adapter, List<Object[]> paramList) throws SQLException {
+        if (paramList.isEmpty()) return;
+        adapter.executeBatch("DELETE FROM storageitems WHERE container = ? AND item_hash = ?", paramList);
+    }
+
+    /**
+     * Insert or update storage items in one batch,
+     * each param row being {item_hash, name, quality, coordinates, container}
+     */
+    public void upsertStorageItems(DatabaseAdapter adapter, List<Object[]> paramList) throws SQLException {
+        if (paramList.isEmpty()) return;
+        java.util.List<String> columns = java.util.Arrays.asList("item_hash", "name", "quality", "coordinates", "container");
+        java.util.List<String> conflictColumns = java.util.Collections.singletonList("item_hash");
+        java.util.List<String> updateColumns = java.util.Arrays.asList("name", "quality", "coordinates", "container");
+        String sql = adapter.getBatchUpsertSql("storageitems", columns, conflictColumns, updateColumns);
+        adapter.executeBatch(sql, paramList);
+    }
+
     /**
      * Check if storage item exists
      */
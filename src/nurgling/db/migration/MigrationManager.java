@@ -269,6 +269,18 @@ public class MigrationManager {
             }
         });
 
+        migrations.add(new Migration(6, "Shorten storage item hashes to 64-bit identity keys") {
+            @Override
+            public void run(DatabaseAdapter adapter) throws SQLException {
+                if (adapter.tableExists("storageitems")) {
+                    // The key of a legacy SHA-256 hex hash is its first 16 characters (see IdentityKey)
+                    int updated = adapter.executeUpdate("UPDATE storageitems SET item_hash = SUBSTR(item_hash, 1, 16) " +
+                            "WHERE LENGTH(item_hash) = 64");
+                    System.out.println("Shortened " + updated + " storage item hashes");
+                }
+            }
+        });
+
         return migrations;
     }
 
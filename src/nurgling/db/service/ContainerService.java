@@ -40,6 +40,7 @@ public class ContainerService {
             containerDao.saveContainer(adapter, hash, gridId, coord);
             return null;
         });
+        databaseManager.getStorageItemIndex().addContainer(hash);
     }
 
     /**
@@ -103,6 +104,7 @@ public class ContainerService {
             containerDao.deleteContainer(adapter, hash);
             return null;
         });
+        databaseManager.getStorageItemIndex().removeContainer(hash);
     }
 
     /**
@@ -42,6 +42,7 @@ public class StorageItemService {
             storageItemDao.saveStorageItem(adapter, itemHash, name, quality, coordinates, container);
             return null;
         });
+        databaseManager.getStorageItemIndex().putItem(itemHash, name, quality != null ? quality : 0, container);
     }
 
     /**
@@ -125,6 +126,7 @@ public class StorageItemService {
             storageItemDao.deleteStorageItem(adapter, itemHash);
             return null;
         });
+        databaseManager.getStorageItemIndex().removeItem(itemHash);
     }
 
     /**
@@ -148,6 +150,7 @@ public class StorageItemService {
             storageItemDao.deleteStorageItemsByContainer(adapter, containerHash);
             return null;
         });
+        databaseManager.getStorageItemIndex().clearContainer(containerHash);
     }
 
     /**
@@ -18,7 +18,7 @@ public class HeadlessPanel implements UIPanel, UI.Context {
 
     // Tick rate for headless mode (20 ticks per second matches server tick rate)
     private static final double TICK_RATE = 20.0;
-    private static final double TICK_DURATION = 1.0 / TICK_RATE;
+    static final double TICK_DURATION = 1.0 / TICK_RATE;
 
     public HeadlessPanel(Coord size) {
         this.size = size;
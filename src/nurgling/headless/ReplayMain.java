@@ -0,0 +1,155 @@
+package nurgling.headless;
+
+import haven.*;
+import nurgling.NConfig;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Replays a session capture (see haven.Capture) into a headless client without a
+ * server, for benchmarking the client side of a session. Events are fed at the
+ * recorded pace, or with -fast as quickly as the client takes them, ticking the
+ * UI once per 50 ms of recorded time.
+ */
+public class ReplayMain {
+
+    private final Path file;
+    private final boolean fast;
+    private HeadlessPanel panel;
+
+    private final long[] count = new long[Capture.EV_CLOSE + 1];
+    private final long[] bytes = new long[Capture.EV_CLOSE + 1];
+
+    public ReplayMain(Path file, boolean fast) {
+        this.file = file;
+        this.fast = fast;
+    }
+
+    public static void main(String[] args) {
+        Path file = null;
+        boolean fast = false;
+        for (String arg : args) {
+            if (arg.equals("-fast")) {
+                fast = true;
+            } else if (file == null) {
+                file = Paths.get(arg);
+            }
+        }
+        if (file == null) {
+            System.err.println("Usage: ReplayMain <capture.hcap> [-fast]");
+            System.exit(HeadlessMain.EXIT_CONFIG_ERROR);
+            return;
+        }
+
+        Headless.setHeadless(true);
+        MainFrame.setupres();
+        NConfig nconfig = new NConfig();
+        nconfig.read();
+        MainFrame.config = nconfig;
+        Widget.initnames();
+
+        int exitCode;
+        try {
+            exitCode = new ReplayMain(file, fast).run();
+        } catch (Exception e) {
+            System.err.println("Replay failed: " + e);
+            e.printStackTrace();
+            exitCode = HeadlessMain.EXIT_BOT_ERROR;
+        }
+        System.exit(exitCode);
+    }
+
+    public int run() throws Exception {
+        Session session = new Session(new Session.User("replay"));
+        Connection.Callback feed = session.feed();
+        panel = new HeadlessPanel();
+
+        Thread uiThread = new HackThread(() -> {
+            try {
+                UI.Runner runner = new RemoteUI(session);
+                while (runner != null) {
+                    UI ui = panel.newui(runner);
+                    runner.init(ui);
+                    runner = runner.run(ui);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "ReplayUI");
+        uiThread.start();
+
+        Thread tickThread = null;
+        if (!fast) {
+            tickThread = new HackThread(panel, "ReplayTick");
+            tickThread.start();
+        }
+
+        log("Replaying " + file + (fast ? " (fast)" : ""));
+        double start = Utils.rtime();
+        double lastTick = 0;
+        double recorded = 0;
+        try (Capture.Reader reader = new Capture.Reader(file)) {
+            Capture.Event ev;
+            while ((ev = reader.next()) != null) {
+                recorded = ev.time;
+                if (fast) {
+                    while (ev.time - lastTick >= HeadlessPanel.TICK_DURATION) {
+                        panel.tick();
+                        lastTick += HeadlessPanel.TICK_DURATION;
+                    }
+                } else {
+                    double wait = ev.time - (Utils.rtime() - start);
+                    if (wait > 0) {
+                        Thread.sleep((long) (wait * 1000));
+                    }
+                }
+                count[ev.type]++;
+                bytes[ev.type] += ev.size();
+                if (ev.type == Capture.EV_CLOSE) {
+                    break;
+                }
+                ev.deliver(feed);
+            }
+        }
+        session.close();
+        uiThread.join();
+        double elapsed = Utils.rtime() - start;
+
+        panel.stop();
+        if (tickThread != null) {
+            tickThread.interrupt();
+            tickThread.join(5000);
+        }
+
+        report(session, recorded, elapsed);
+        return HeadlessMain.EXIT_SUCCESS;
+    }
+
+    private void report(Session session, double recorded, double elapsed) {
+        log(String.format("Recorded %.1f s, replayed in %.1f s (%.1fx)", recorded, elapsed, (elapsed > 0) ? recorded / elapsed : 0));
+        String[] names = {null, "rel", "objd", "map"};
+        for (int i = Capture.EV_REL; i <= Capture.EV_MAP; i++) {
+            log(String.format("%-5s %8d events %10d bytes  %9.0f events/s %9.1f kB/s",
+                    names[i], count[i], bytes[i], count[i] / elapsed, bytes[i] / elapsed / 1024));
+        }
+        int gobs = 0;
+        synchronized (session.glob.oc) {
+            for (Gob gob : session.glob.oc) {
+                gobs++;
+            }
+        }
+        int widgets = 0;
+        UI ui = panel.getUI();
+        if (ui != null) {
+            for (Widget w = ui.root; w != null; w = w.rnext()) {
+                widgets++;
+            }
+        }
+        log("Final state: " + gobs + " gobs, " + widgets + " widgets");
+    }
+
+    private static void log(String message) {
+        System.out.println("[Replay] " + message);
+    }
+}
@@ -0,0 +1,298 @@
+package nurgling.navigation;
+
+import haven.Coord;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static nurgling.navigation.ChunkNavConfig.*;
+import static nurgling.navigation.ChunkNavData.Direction;
+
+/**
+ * Abstract graph over the recorded chunks, used for hierarchical path planning.
+ * Nodes are chunk entrances: the walkable runs along each chunk border and the
+ * walkable tile next to each portal. Intra-chunk edges are the tile-level distances
+ * between the entrances of a chunk. They are computed per entrance the first time a
+ * search expands it, and kept until the chunk changes, so recording a chunk only
+ * finds its entrances. Tiles are indexed x * CHUNK_SIZE + y throughout.
+ */
+public class ChunkNavAbstractGraph {
+    public static final int TILES = CHUNK_SIZE * CHUNK_SIZE;
+
+    // Longest border run covered by a single entrance
+    private static final int MAX_RUN = 20;
+    // Per-chunk caches for distance rows of non-entrance tiles and refined legs
+    private static final int MAX_EXTRA_ROWS = 32;
+    private static final int MAX_LEGS = 128;
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Get the entrances of a chunk, building them if missing or stale.
+     */
+    public Entry get(ChunkNavData chunk) {
+        Entry entry = entries.get(chunk.gridId);
+        if (entry == null || entry.isStale(chunk)) {
+            entry = new Entry(chunk, ChunkNavIntraPathfinder.tileWalkability(chunk));
+            entries.put(chunk.gridId, entry);
+        }
+        return entry;
+    }
+
+    /**
+     * Recompute the entrances of a chunk after it was recorded.
+     * The existing entry is kept if the tile walkability and portals did not change.
+     */
+    public void update(ChunkNavData chunk) {
+        boolean[] walk = ChunkNavIntraPathfinder.tileWalkability(chunk);
+        Entry entry = entries.get(chunk.gridId);
+        if (entry != null && entry.chunk == chunk && entry.portalsMatch(chunk)
+                && entry.walkHash == Arrays.hashCode(walk)) {
+            entry.stamp = chunk.lastUpdated;
+            return;
+        }
+        entries.put(chunk.gridId, new Entry(chunk, walk));
+    }
+
+    public void invalidate(long gridId) {
+        entries.remove(gridId);
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public static int tile(int x, int y) {
+        return x * CHUNK_SIZE + y;
+    }
+
+    public static Coord coord(int tile) {
+        return new Coord(tile / CHUNK_SIZE, tile % CHUNK_SIZE);
+    }
+
+    /**
+     * Border tile at a position along the given side of a chunk.
+     */
+    public static int borderTile(Direction side, int index) {
+        switch (side) {
+            case NORTH: return tile(index, 0);
+            case SOUTH: return tile(index, CHUNK_SIZE - 1);
+            case WEST: return tile(0, index);
+            default: return tile(CHUNK_SIZE - 1, index);
+        }
+    }
+
+    /**
+     * Entrances of one chunk and the cached distances between them.
+     */
+    public static class Entry {
+        public final ChunkNavData chunk;
+        private volatile long stamp;
+        private final int walkHash;
+        private final Coord[] portalCoords;
+
+        // Entrances, by index
+        public final int[] points;          // entrance tile
+        public final Direction[] sides;     // border side, null for portal entrances
+        public final int[] index;           // position along the border
+        public final int[] runLo, runHi;    // border run covered by the entrance
+        // Entrance index per portal (parallel to chunk.portals), -1 without localCoord
+        public final int[] portalPoints;
+        private final float[][] dist;       // dist[i][j] between entrances, filled per i on demand
+        private final float[][] border;     // border[i][k] from entrance i to position k on its side
+
+        private final Map<Integer, float[]> extraRows = new LinkedHashMap<Integer, float[]>(16, 0.75f, true) {
+            protected boolean removeEldestEntry(Map.Entry<Integer, float[]> eldest) {
+                return size() > MAX_EXTRA_ROWS;
+            }
+        };
+        private final Map<Long, short[]> legs = new LinkedHashMap<Long, short[]>(16, 0.75f, true) {
+            protected boolean removeEldestEntry(Map.Entry<Long, short[]> eldest) {
+                return size() > MAX_LEGS;
+            }
+        };
+        private boolean[] walk;
+
+        Entry(ChunkNavData chunk, boolean[] walk) {
+            this.chunk = chunk;
+            this.stamp = chunk.lastUpdated;
+            this.walkHash = Arrays.hashCode(walk);
+            this.walk = walk;
+
+            List<int[]> found = new ArrayList<>();  // {tile, side ordinal or -1, index, lo, hi}
+            for (Direction side : Direction.values()) {
+                int start = -1;
+                for (int i = 0; i <= CHUNK_SIZE; i++) {
+                    boolean open = i < CHUNK_SIZE && walk[borderTile(side, i)];
+                    if (open && start < 0) {
+                        start = i;
+                    } else if (!open && start >= 0) {
+                        // Split long runs so that crossings stay close to an entrance
+                        for (int lo = start; lo < i; lo += MAX_RUN) {
+                            int hi = Math.min(lo + MAX_RUN, i) - 1;
+                            int mid = (lo + hi) / 2;
+                            found.add(new int[]{borderTile(side, mid), side.ordinal(), mid, lo, hi});
+                        }
+                        start = -1;
+                    }
+                }
+            }
+
+            List<ChunkPortal> portals = chunk.portals;
+            portalCoords = new Coord[portals.size()];
+            portalPoints = new int[portals.size()];
+            for (int i = 0; i < portalCoords.length; i++) {
+                Coord pc = portals.get(i).localCoord;
+                portalCoords[i] = pc;
+                portalPoints[i] = -1;
+                if (pc == null) continue;
+                int t = nearestWalkable(walk, pc);
+                for (int j = 0; j < found.size(); j++) {
+                    if (found.get(j)[0] == t) {
+                        portalPoints[i] = j;
+                        break;
+                    }
+                }
+                if (portalPoints[i] < 0) {
+                    portalPoints[i] = found.size();
+                    found.add(new int[]{t, -1, -1, -1, -1});
+                }
+            }
+
+            int n = found.size();
+            points = new int[n];
+            sides = new Direction[n];
+            index = new int[n];
+            runLo = new int[n];
+            runHi = new int[n];
+            for (int i = 0; i < n; i++) {
+                int[] f = found.get(i);
+                points[i] = f[0];
+                sides[i] = f[1] < 0 ? null : Direction.values()[f[1]];
+                index[i] = f[2];
+                runLo[i] = f[3];
+                runHi[i] = f[4];
+            }
+
+            dist = new float[n][];
+            border = new float[n][];
+        }
+
+        boolean isStale(ChunkNavData chunk) {
+            return this.chunk != chunk || stamp != chunk.lastUpdated || !portalsMatch(chunk);
+        }
+
+        boolean portalsMatch(ChunkNavData chunk) {
+            List<ChunkPortal> portals = chunk.portals;
+            if (portals.size() != portalCoords.length) return false;
+            for (int i = 0; i < portalCoords.length; i++) {
+                if (!Objects.equals(portals.get(i).localCoord, portalCoords[i])) return false;
+            }
+            return true;
+        }
+
+        public int size() {
+            return points.length;
+        }
+
+        public int indexOf(int tile) {
+            for (int i = 0; i < points.length; i++) {
+                if (points[i] == tile) return i;
+            }
+            return -1;
+        }
+
+        /**
+         * Distances from a tile of this chunk to every entrance.
+         * Rows for tiles that are not entrances are computed on demand and cached.
+         */
+        public synchronized float[] row(int tile) {
+            int i = indexOf(tile);
+            if (i >= 0) {
+                search(i);
+                return dist[i];
+            }
+            float[] row = extraRows.get(tile);
+            if (row == null) {
+                float[] full = new float[TILES];
+                ChunkNavIntraPathfinder.tileDistances(walk(), tile, full, new IndexedMinHeap(TILES));
+                row = project(full);
+                extraRows.put(tile, row);
+            }
+            return row;
+        }
+
+        /**
+         * Distances from border entrance i to every position along its side, for pricing
+         * crossings exactly as refined legs cost them.
+         */
+        public synchronized float[] borderRow(int i) {
+            search(i);
+            return border[i];
+        }
+
+        private void search(int i) {
+            if (dist[i] != null) return;
+            float[] full = new float[TILES];
+            ChunkNavIntraPathfinder.tileDistances(walk(), points[i], full, new IndexedMinHeap(TILES));
+            dist[i] = project(full);
+            if (sides[i] != null) {
+                float[] b = new float[CHUNK_SIZE];
+                for (int k = 0; k < CHUNK_SIZE; k++) b[k] = full[borderTile(sides[i], k)];
+                border[i] = b;
+            }
+        }
+
+        /**
+         * Tile path between two tiles of this chunk, cached per (from, to) pair.
+         */
+        public synchronized short[] leg(int from, int to) {
+            long key = ((long) from << 32) | to;
+            short[] path = legs.get(key);
+            if (path == null && !legs.containsKey(key)) {
+                path = ChunkNavIntraPathfinder.tilePath(walk(), from, to);
+                legs.put(key, path);
+            }
+            return path;
+        }
+
+        private float[] project(float[] full) {
+            float[] row = new float[points.length];
+            for (int j = 0; j < points.length; j++) row[j] = full[points[j]];
+            return row;
+        }
+
+        private boolean[] walk() {
+            if (walk == null) walk = ChunkNavIntraPathfinder.tileWalkability(chunk);
+            return walk;
+        }
+
+        /**
+         * Walkable tile at or near a coordinate, searched in the same ring order
+         * as the planner's findWalkableTileNear().
+         */
+        private static int nearestWalkable(boolean[] walk, Coord target) {
+            if (target.x >= 0 && target.x < CHUNK_SIZE && target.y >= 0 && target.y < CHUNK_SIZE
+                    && walk[tile(target.x, target.y)]) {
+                return tile(target.x, target.y);
+            }
+            int[][] dirs = {{0, 1}, {1, 0}, {0, -1}, {-1, 0}, {1, 1}, {-1, 1}, {1, -1}, {-1, -1}};
+            for (int radius = 1; radius <= 3; radius++) {
+                for (int[] dir : dirs) {
+                    int nx = target.x + dir[0] * radius;
+                    int ny = target.y + dir[1] * radius;
+                    if (nx >= 0 && nx < CHUNK_SIZE && ny >= 0 && ny < CHUNK_SIZE && walk[tile(nx, ny)]) {
+                        return tile(nx, ny);
+                    }
+                }
+            }
+            int cx = Math.max(0, Math.min(CHUNK_SIZE - 1, target.x));
+            int cy = Math.max(0, Math.min(CHUNK_SIZE - 1, target.y));
+            return tile(cx, cy);
+        }
+    }
+}
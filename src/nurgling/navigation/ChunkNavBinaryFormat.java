@@ -7,6 +7,7 @@ import java.nio.charset.StandardCharsets;
 import java.util.*;
 
 import static nurgling.navigation.ChunkNavConfig.*;
+import static nurgling.navigation.ChunkNavData.Direction;
 
 /**
  * Binary serialization format for ChunkNavData.
@@ -19,6 +20,10 @@ import static nurgling.navigation.ChunkNavConfig.*;
  * - Portals (variable): count + portal data
  * - Connected chunks (variable): count + gridIds
  * - Reachable areas (variable): count + areaIds
+ *
+ * The chunk index (one file per directory) holds everything but the cell grids
+ * for every chunk, plus the size and modification time of the .chunk file it
+ * was taken from, so chunks can be loaded without decoding their grids.
  */
 public class ChunkNavBinaryFormat {
 
@@ -33,6 +38,10 @@ public class ChunkNavBinaryFormat {
     // Header size in bytes (V2: 72 bytes with instanceId)
     public static final int HEADER_SIZE = 72;
 
+    // Chunk index file
+    public static final int INDEX_MAGIC = 0x434E4958; // "CNIX" in ASCII
+    public static final short INDEX_VERSION = 1;
+
     // Grid sizes
     public static final int WALKABILITY_BYTES = CELLS_PER_EDGE * CELLS_PER_EDGE / 4; // 2 bits per cell
     public static final int OBSERVED_BYTES = CELLS_PER_EDGE * CELLS_PER_EDGE / 8;    // 1 bit per cell
@@ -84,10 +93,10 @@ public class ChunkNavBinaryFormat {
         out.writeByte(0);
 
         // Write walkability grid (bit-packed, 2 bits per cell)
-        writeWalkabilityGrid(chunk.walkability, out);
+        chunk.getCells().writeWalkability(out);
 
         // Write observed grid (bit-packed, 1 bit per cell)
-        writeObservedGrid(chunk.observed, out);
+        chunk.getCells().writeObserved(out);
 
         // Write edge arrays (bit-packed, 1 bit per point)
         writeEdges(chunk, out);
@@ -152,10 +161,10 @@ public class ChunkNavBinaryFormat {
         chunk.instanceId = instanceId;
 
         // Read walkability grid
-        readWalkabilityGrid(in, chunk.walkability);
+        chunk.getCells().readWalkability(in);
 
         // Read observed grid
-        readObservedGrid(in, chunk.observed);
+        chunk.getCells().readObserved(in);
 
         // Read edge arrays
         readEdges(in, chunk);
@@ -175,176 +184,136 @@ public class ChunkNavBinaryFormat {
         return chunk;
     }
 
-    // ============== Walkability Grid ==============
-
-    private static void writeWalkabilityGrid(byte[][] grid, DataOutputStream out) throws IOException {
-        // Pack 4 cells per byte (2 bits each, values 0-2)
-        // Order: iterate x then y, same as JSON flat array
-        byte[] packed = new byte[WALKABILITY_BYTES];
-        int byteIndex = 0;
-        int bitOffset = 6; // Start at high bits
-        byte currentByte = 0;
-
-        for (int x = 0; x < CELLS_PER_EDGE; x++) {
-            for (int y = 0; y < CELLS_PER_EDGE; y++) {
-                int value = grid[x][y] & 0x03; // Ensure 2 bits
-                currentByte |= (value << bitOffset);
-                bitOffset -= 2;
-
-                if (bitOffset < 0) {
-                    packed[byteIndex++] = currentByte;
-                    currentByte = 0;
-                    bitOffset = 6;
-                }
-            }
-        }
-
-        out.write(packed);
-    }
-
-    private static void readWalkabilityGrid(DataInputStream in, byte[][] grid) throws IOException {
-        byte[] packed = new byte[WALKABILITY_BYTES];
-        in.readFully(packed);
-
-        int byteIndex = 0;
-        int bitOffset = 6;
+    // Walkability and observed grids are stored exactly as ChunkNavCells packs them
+    // in memory, so they are copied without unpacking
 
-        for (int x = 0; x < CELLS_PER_EDGE; x++) {
-            for (int y = 0; y < CELLS_PER_EDGE; y++) {
-                int value = (packed[byteIndex] >> bitOffset) & 0x03;
-                grid[x][y] = (byte) value;
-                bitOffset -= 2;
+    // ============== Index ==============
 
-                if (bitOffset < 0) {
-                    byteIndex++;
-                    bitOffset = 6;
-                }
-            }
+    /**
+     * Index entry: a chunk without its cell grids, and the stamp of its .chunk file.
+     */
+    public static class IndexEntry {
+        public final ChunkNavData chunk;
+        public final long fileSize;
+        public final long fileModified;
+
+        public IndexEntry(ChunkNavData chunk, long fileSize, long fileModified) {
+            this.chunk = chunk;
+            this.fileSize = fileSize;
+            this.fileModified = fileModified;
         }
     }
 
-    // ============== Observed Grid ==============
-
-    private static void writeObservedGrid(boolean[][] grid, DataOutputStream out) throws IOException {
-        // Pack 8 cells per byte (1 bit each)
-        byte[] packed = new byte[OBSERVED_BYTES];
-        int byteIndex = 0;
-        int bitOffset = 7;
-        byte currentByte = 0;
-
-        for (int x = 0; x < CELLS_PER_EDGE; x++) {
-            for (int y = 0; y < CELLS_PER_EDGE; y++) {
-                if (grid[x][y]) {
-                    currentByte |= (1 << bitOffset);
-                }
-                bitOffset--;
-
-                if (bitOffset < 0) {
-                    packed[byteIndex++] = currentByte;
-                    currentByte = 0;
-                    bitOffset = 7;
-                }
+    /**
+     * Write the chunk index. The cell grids of the chunks are not touched,
+     * except for chunks without a cached average walkability.
+     */
+    public static void writeIndex(List<IndexEntry> entries, DataOutputStream out) throws IOException {
+        out.writeInt(INDEX_MAGIC);
+        out.writeShort(INDEX_VERSION);
+        out.writeInt(entries.size());
+
+        for (IndexEntry entry : entries) {
+            ChunkNavData chunk = entry.chunk;
+            out.writeLong(chunk.gridId);
+            out.writeLong(entry.fileSize);
+            out.writeLong(entry.fileModified);
+            out.writeLong(chunk.lastUpdated);
+            out.writeFloat(chunk.confidence);
+            out.writeByte(layerToByte(chunk.layer));
+            out.writeLong(chunk.neighborNorth);
+            out.writeLong(chunk.neighborSouth);
+            out.writeLong(chunk.neighborEast);
+            out.writeLong(chunk.neighborWest);
+            out.writeLong(chunk.instanceId);
+            out.writeFloat(chunk.averageWalkability());
+
+            for (int s = 0; s < ChunkNavData.TOTAL_SECTIONS; s++) {
+                out.writeShort(chunk.getSectionObservedCount(s));
             }
-        }
 
-        out.write(packed);
+            writeEdges(chunk, out);
+            writePortals(chunk.portals, out);
+            writeConnectedChunks(chunk.connectedChunks, out);
+            writeReachableAreas(chunk.reachableAreaIds, out);
+        }
     }
 
-    private static void readObservedGrid(DataInputStream in, boolean[][] grid) throws IOException {
-        byte[] packed = new byte[OBSERVED_BYTES];
-        in.readFully(packed);
+    /**
+     * Read the chunk index. The returned chunks have no cell grids;
+     * a cell loader has to be set before they are used.
+     */
+    public static List<IndexEntry> readIndex(DataInputStream in) throws IOException {
+        if (in.readInt() != INDEX_MAGIC) {
+            throw new IOException("Invalid chunk index: bad magic number");
+        }
+        short version = in.readShort();
+        if (version != INDEX_VERSION) {
+            throw new IOException("Unsupported chunk index version: " + version);
+        }
 
-        int byteIndex = 0;
-        int bitOffset = 7;
+        int count = in.readInt();
+        List<IndexEntry> entries = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ChunkNavData chunk = new ChunkNavData();
+            chunk.setCells(null);
+            chunk.gridId = in.readLong();
+            long fileSize = in.readLong();
+            long fileModified = in.readLong();
+            chunk.lastUpdated = in.readLong();
+            chunk.confidence = in.readFloat();
+            chunk.layer = byteToLayer(in.readByte());
+            chunk.neighborNorth = in.readLong();
+            chunk.neighborSouth = in.readLong();
+            chunk.neighborEast = in.readLong();
+            chunk.neighborWest = in.readLong();
+            chunk.instanceId = in.readLong();
+            chunk.setAverageWalkability(in.readFloat());
+
+            for (int s = 0; s < ChunkNavData.TOTAL_SECTIONS; s++) {
+                chunk.setSectionObservedCount(s, in.readShort());
+            }
 
-        for (int x = 0; x < CELLS_PER_EDGE; x++) {
-            for (int y = 0; y < CELLS_PER_EDGE; y++) {
-                grid[x][y] = ((packed[byteIndex] >> bitOffset) & 0x01) == 1;
-                bitOffset--;
+            readEdges(in, chunk);
+            chunk.portals = readPortals(in);
+            chunk.connectedChunks = readConnectedChunks(in);
+            chunk.reachableAreaIds = readReachableAreas(in);
 
-                if (bitOffset < 0) {
-                    byteIndex++;
-                    bitOffset = 7;
-                }
-            }
+            entries.add(new IndexEntry(chunk, fileSize, fileModified));
         }
+        return entries;
     }
 
     // ============== Edges ==============
 
     private static void writeEdges(ChunkNavData chunk, DataOutputStream out) throws IOException {
         // Pack all 4 edges, 200 booleans each = 800 bits = 100 bytes
+        // Order: north, south, east, west
         byte[] packed = new byte[EDGE_BYTES];
-        int byteIndex = 0;
-        int bitOffset = 7;
-        byte currentByte = 0;
-
-        EdgePoint[][] allEdges = {chunk.northEdge, chunk.southEdge, chunk.eastEdge, chunk.westEdge};
-
-        for (EdgePoint[] edge : allEdges) {
-            for (int i = 0; i < CELLS_PER_EDGE; i++) {
-                if (edge[i] != null && edge[i].walkable) {
-                    currentByte |= (1 << bitOffset);
-                }
-                bitOffset--;
-
-                if (bitOffset < 0) {
-                    packed[byteIndex++] = currentByte;
-                    currentByte = 0;
-                    bitOffset = 7;
+        int bit = 0;
+        for (Direction dir : EDGE_ORDER) {
+            for (int i = 0; i < CELLS_PER_EDGE; i++, bit++) {
+                if (chunk.isEdgeWalkable(dir, i)) {
+                    packed[bit >> 3] |= (byte) (1 << (7 - (bit & 7)));
                 }
             }
         }
-
         out.write(packed);
     }
 
     private static void readEdges(DataInputStream in, ChunkNavData chunk) throws IOException {
         byte[] packed = new byte[EDGE_BYTES];
         in.readFully(packed);
-
-        int byteIndex = 0;
-        int bitOffset = 7;
-
-        EdgePoint[][] allEdges = {chunk.northEdge, chunk.southEdge, chunk.eastEdge, chunk.westEdge};
-
-        // Edge local coordinates based on direction
-        int edgeIndex = 0;
-        for (EdgePoint[] edge : allEdges) {
-            for (int i = 0; i < CELLS_PER_EDGE; i++) {
-                boolean walkable = ((packed[byteIndex] >> bitOffset) & 0x01) == 1;
-
-                // Calculate local coordinates based on edge direction
-                Coord localCoord;
-                switch (edgeIndex) {
-                    case 0: // North
-                        localCoord = new Coord(i, 0);
-                        break;
-                    case 1: // South
-                        localCoord = new Coord(i, CELLS_PER_EDGE - 1);
-                        break;
-                    case 2: // East
-                        localCoord = new Coord(CELLS_PER_EDGE - 1, i);
-                        break;
-                    case 3: // West
-                        localCoord = new Coord(0, i);
-                        break;
-                    default:
-                        localCoord = new Coord(0, 0);
-                }
-
-                edge[i] = new EdgePoint(i, walkable, localCoord);
-
-                bitOffset--;
-                if (bitOffset < 0) {
-                    byteIndex++;
-                    bitOffset = 7;
-                }
+        int bit = 0;
+        for (Direction dir : EDGE_ORDER) {
+            for (int i = 0; i < CELLS_PER_EDGE; i++, bit++) {
+                chunk.setEdgeWalkable(dir, i, ((packed[bit >> 3] >> (7 - (bit & 7))) & 0x01) == 1);
             }
-            edgeIndex++;
         }
     }
 
+    private static final Direction[] EDGE_ORDER = {Direction.NORTH, Direction.SOUTH, Direction.EAST, Direction.WEST};
+
     // ============== Portals ==============
 
     private static void writePortals(List<ChunkPortal> portals, DataOutputStream out) throws IOException {
@@ -0,0 +1,173 @@
+package nurgling.navigation;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import static nurgling.navigation.ChunkNavConfig.*;
+
+/**
+ * Packed cell grids of one chunk: walkability at 2 bits and observed at 1 bit per cell,
+ * in the same layout as ChunkNavBinaryFormat (x-major, high bits first).
+ * The bytes live either in a heap buffer or in a read-only slice of a memory-mapped
+ * region file; the first write to a mapped grid inflates it into a private heap copy.
+ */
+public class ChunkNavCells {
+    public static final int WALKABILITY_BYTES = CELLS_PER_EDGE * CELLS_PER_EDGE / 4;
+    public static final int OBSERVED_BYTES = CELLS_PER_EDGE * CELLS_PER_EDGE / 8;
+    public static final int BYTES = WALKABILITY_BYTES + OBSERVED_BYTES;
+
+    // Four cells of walkability 2 (blocked), the state of cells never observed
+    private static final byte BLOCKED = (byte) 0xAA;
+
+    private volatile ByteBuffer data;
+    private volatile boolean mapped;
+    final int slot;                 // region slot the grid was stored in, -1 if never stored
+
+    // Write counter, and its value when the grids were last saved
+    private volatile int version = 0;
+    private volatile int savedVersion = 0;
+
+    private ChunkNavCells(ByteBuffer data, boolean mapped, int slot) {
+        this.data = data;
+        this.mapped = mapped;
+        this.slot = slot;
+    }
+
+    /**
+     * New heap grid with every cell blocked and unobserved.
+     */
+    public static ChunkNavCells blocked() {
+        byte[] buf = new byte[BYTES];
+        for (int i = 0; i < WALKABILITY_BYTES; i++) {
+            buf[i] = BLOCKED;
+        }
+        return new ChunkNavCells(ByteBuffer.wrap(buf), false, -1);
+    }
+
+    /**
+     * Read-only view over a region slot of BYTES packed bytes.
+     */
+    static ChunkNavCells mapped(ByteBuffer slice, int slot) {
+        return new ChunkNavCells(slice, true, slot);
+    }
+
+    public boolean isMapped() {
+        return mapped;
+    }
+
+    /**
+     * True if the grids were written since markSaved() was last called.
+     */
+    public boolean isDirty() {
+        return version != savedVersion;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Record that the grids as of getVersion() == v have been written to disk.
+     */
+    public void markSaved(int v) {
+        savedVersion = v;
+    }
+
+    /**
+     * Take over the write state of the grid this one was copied from.
+     */
+    void copyVersion(ChunkNavCells from) {
+        version = from.version;
+        savedVersion = from.savedVersion;
+    }
+
+    private static int index(int cx, int cy) {
+        return cx * CELLS_PER_EDGE + cy;
+    }
+
+    public byte getWalkability(int cx, int cy) {
+        int i = index(cx, cy);
+        return (byte) ((data.get(i >> 2) >> (6 - ((i & 3) << 1))) & 0x03);
+    }
+
+    public void setWalkability(int cx, int cy, byte value) {
+        if (mapped) inflate();
+        int i = index(cx, cy);
+        int shift = 6 - ((i & 3) << 1);
+        int b = data.get(i >> 2);
+        data.put(i >> 2, (byte) ((b & ~(0x03 << shift)) | ((value & 0x03) << shift)));
+        version++;
+    }
+
+    public boolean isObserved(int cx, int cy) {
+        int i = index(cx, cy);
+        return ((data.get(WALKABILITY_BYTES + (i >> 3)) >> (7 - (i & 7))) & 0x01) != 0;
+    }
+
+    public void setObserved(int cx, int cy, boolean value) {
+        if (mapped) inflate();
+        int i = index(cx, cy);
+        int at = WALKABILITY_BYTES + (i >> 3);
+        int bit = 1 << (7 - (i & 7));
+        int b = data.get(at);
+        data.put(at, (byte) (value ? (b | bit) : (b & ~bit)));
+        version++;
+    }
+
+    /**
+     * Sum of all walkability values, counted per packed byte.
+     */
+    public int walkabilitySum() {
+        int total = 0;
+        for (int i = 0; i < WALKABILITY_BYTES; i++) {
+            int b = data.get(i) & 0xff;
+            total += (b >> 6) + ((b >> 4) & 3) + ((b >> 2) & 3) + (b & 3);
+        }
+        return total;
+    }
+
+    /**
+     * Copy the packed bytes into a heap buffer so the grid can be modified.
+     */
+    public synchronized void inflate() {
+        if (!mapped) return;
+        byte[] buf = new byte[BYTES];
+        ByteBuffer src = data.duplicate();
+        src.position(0);
+        src.get(buf);
+        data = ByteBuffer.wrap(buf);
+        mapped = false;
+    }
+
+    /**
+     * Copy the packed bytes into dst at its current position.
+     */
+    public void copyTo(ByteBuffer dst) {
+        ByteBuffer src = data.duplicate();
+        src.position(0);
+        src.limit(BYTES);
+        dst.put(src);
+    }
+
+    public void writeWalkability(DataOutput out) throws IOException {
+        for (int i = 0; i < WALKABILITY_BYTES; i++) out.write(data.get(i));
+    }
+
+    public void writeObserved(DataOutput out) throws IOException {
+        for (int i = 0; i < OBSERVED_BYTES; i++) out.write(data.get(WALKABILITY_BYTES + i));
+    }
+
+    public void readWalkability(DataInput in) throws IOException {
+        if (mapped) inflate();
+        in.readFully(data.array(), 0, WALKABILITY_BYTES);
+        savedVersion = ++version;
+    }
+
+    public void readObserved(DataInput in) throws IOException {
+        if (mapped) inflate();
+        in.readFully(data.array(), WALKABILITY_BYTES, OBSERVED_BYTES);
+        savedVersion = ++version;
+    }
+}
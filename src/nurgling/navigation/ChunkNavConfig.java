@@ -26,4 +26,8 @@ public class ChunkNavConfig {
     // Storage
     public static final String STORAGE_FILENAME = "chunknav.nurgling.json";  // Legacy JSON file (for migration)
     public static final String STORAGE_DIRNAME = "chunknav";                  // Binary chunk directory
+    public static final boolean MAPPED_CELL_STORAGE = true;                   // Keep loaded cell grids in a mapped region file
+    public static final long PARK_IDLE_MS = 5 * 60 * 1000;                    // Re-map recorded chunks after 5 minutes idle
+    public static final int MAX_RESIDENT_CHUNKS = 256;                        // Chunks with cell grids in memory before unloading
+    public static final long INDEX_SAVE_INTERVAL_MS = 60000;                  // Rewrite the chunk index at most once a minute
 }
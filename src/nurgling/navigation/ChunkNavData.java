@@ -4,6 +4,7 @@ import haven.Coord;
 import org.json.JSONArray;
 import org.json.JSONObject;
 
+import java.io.IOException;
 import java.util.*;
 
 import static nurgling.navigation.ChunkNavConfig.*;
@@ -41,14 +42,23 @@ public class ChunkNavData {
     // (e.g., mine level chunks falsely connected to surface chunks).
     public long instanceId = 0;
 
-    // Walkability grid (half-tile resolution, matching NPFMap)
+    // Walkability and observed grids (half-tile resolution, matching NPFMap), bit-packed
     // Each cell represents 1/4 tile (200x200 grid = 2x2 cells per tile)
-    // Values: 0 = walkable, 1 = partially blocked, 2 = fully blocked
-    public byte[][] walkability = new byte[CELLS_PER_EDGE][CELLS_PER_EDGE];
+    // Walkability values: 0 = walkable, 1 = partially blocked, 2 = fully blocked
+    // Observed: true = cell was within visible range when recorded, false = not yet observed
+    // Loaded chunks may keep these in a memory-mapped region file until they are recorded again.
+    // Chunks loaded from the index have no grids until first use; the cell loader faults them in.
+    private volatile ChunkNavCells cells = ChunkNavCells.blocked();
+    private CellLoader cellLoader;
+    private boolean cellsTouched;           // Set on every access, cleared by the store's eviction sweep
+    private volatile float averageWalkability = -1; // Cached averageWalkability(), -1 when unknown
 
-    // Observed grid - tracks which tiles have been visually observed
-    // true = tile was within visible range when recorded, false = not yet observed
-    public boolean[][] observed = new boolean[CELLS_PER_EDGE][CELLS_PER_EDGE];
+    /**
+     * Loads the cell grids of a chunk whose grids are not resident.
+     */
+    public interface CellLoader {
+        ChunkNavCells load(ChunkNavData chunk) throws IOException;
+    }
 
     // Pre-computed section observation counts for O(1) overlay rendering
     // Grid is divided into 5x5 = 25 sections for finer granularity
@@ -74,12 +84,9 @@ public class ChunkNavData {
         return sy * SECTIONS_PER_SIDE + sx;
     }
 
-    // Edge connections to adjacent chunks
-    // Each array has CELLS_PER_EDGE entries (200 = one per half-tile along edge)
-    public EdgePoint[] northEdge = new EdgePoint[CELLS_PER_EDGE];
-    public EdgePoint[] southEdge = new EdgePoint[CELLS_PER_EDGE];
-    public EdgePoint[] eastEdge = new EdgePoint[CELLS_PER_EDGE];
-    public EdgePoint[] westEdge = new EdgePoint[CELLS_PER_EDGE];
+    // Edge crossing flags to adjacent chunks, CELLS_PER_EDGE bits per direction
+    // (200 = one per half-tile along edge), indexed by Direction ordinal
+    private final BitSet edgeWalkable = new BitSet(4 * CELLS_PER_EDGE);
 
     // Portals (doors, stairs, cellars) within this chunk
     public List<ChunkPortal> portals = new ArrayList<>();
@@ -93,21 +100,8 @@ public class ChunkNavData {
     public ChunkNavData() {
         this.confidence = INITIAL_CONFIDENCE;
         this.lastUpdated = System.currentTimeMillis();
-        initializeEdges();
-        initializeWalkability();
-    }
-
-    /**
-     * Initialize walkability to blocked (2) by default.
-     * Tiles are only marked walkable (0) when actually observed as walkable.
-     * This prevents unvisited tiles from being treated as walkable.
-     */
-    private void initializeWalkability() {
-        for (int x = 0; x < CELLS_PER_EDGE; x++) {
-            for (int y = 0; y < CELLS_PER_EDGE; y++) {
-                walkability[x][y] = 2;  // Blocked until observed
-            }
-        }
+        // Cells start blocked (2) and unobserved; they are only marked walkable (0)
+        // when actually observed as walkable
     }
 
     public ChunkNavData(long gridId) {
@@ -125,41 +119,141 @@ public class ChunkNavData {
         this.worldTileOrigin = worldTileOrigin;
     }
 
-    private void initializeEdges() {
+    /**
+     * Get edge points for a given direction.
+     * The points are built on demand from the packed edge flags; use
+     * setEdgeWalkable() to change them.
+     */
+    public EdgePoint[] getEdge(Direction dir) {
+        EdgePoint[] edge = new EdgePoint[CELLS_PER_EDGE];
         for (int i = 0; i < CELLS_PER_EDGE; i++) {
-            // With half-tile resolution, edge points are at exact cell positions
-            northEdge[i] = new EdgePoint(i, false, new Coord(i, 0));
-            southEdge[i] = new EdgePoint(i, false, new Coord(i, CELLS_PER_EDGE - 1));
-            westEdge[i] = new EdgePoint(i, false, new Coord(0, i));
-            eastEdge[i] = new EdgePoint(i, false, new Coord(CELLS_PER_EDGE - 1, i));
+            edge[i] = new EdgePoint(i, isEdgeWalkable(dir, i), edgeCoord(dir, i));
         }
+        return edge;
     }
 
     /**
-     * Get edge array for a given direction.
+     * Cell coordinate of an edge point. With half-tile resolution,
+     * edge points are at exact cell positions.
      */
-    public EdgePoint[] getEdge(Direction dir) {
+    public static Coord edgeCoord(Direction dir, int index) {
         switch (dir) {
-            case NORTH: return northEdge;
-            case SOUTH: return southEdge;
-            case EAST: return eastEdge;
-            case WEST: return westEdge;
-            default: return null;
+            case NORTH: return new Coord(index, 0);
+            case SOUTH: return new Coord(index, CELLS_PER_EDGE - 1);
+            case EAST: return new Coord(CELLS_PER_EDGE - 1, index);
+            default: return new Coord(0, index);
         }
     }
 
+    public boolean isEdgeWalkable(Direction dir, int index) {
+        return edgeWalkable.get(dir.ordinal() * CELLS_PER_EDGE + index);
+    }
+
+    public void setEdgeWalkable(Direction dir, int index, boolean walkable) {
+        edgeWalkable.set(dir.ordinal() * CELLS_PER_EDGE + index, walkable);
+    }
+
+    /**
+     * Get the packed cell grids, loading them first if they are not resident.
+     */
+    public ChunkNavCells getCells() {
+        ChunkNavCells c = cells;
+        if (c == null) {
+            c = faultCells();
+        }
+        cellsTouched = true;
+        return c;
+    }
+
+    private synchronized ChunkNavCells faultCells() {
+        if (cells == null) {
+            ChunkNavCells loaded = null;
+            try {
+                loaded = cellLoader.load(this);
+            } catch (IOException e) {
+                System.err.println("ChunkNav: Failed to load cells of chunk " + gridId + ": " + e.getMessage());
+            }
+            cells = loaded != null ? loaded : ChunkNavCells.blocked();
+        }
+        return cells;
+    }
+
+    /**
+     * Get the packed cell grids if resident, without loading or marking them used.
+     */
+    public ChunkNavCells peekCells() {
+        return cells;
+    }
+
+    public boolean hasCells() {
+        return cells != null;
+    }
+
+    /**
+     * Replace the packed cell grids, e.g. with a view into a mapped region file.
+     */
+    public void setCells(ChunkNavCells cells) {
+        this.cells = cells;
+        this.averageWalkability = -1;
+    }
+
+    /**
+     * Replace the cell grids only if they are still the expected ones.
+     */
+    public synchronized boolean replaceCells(ChunkNavCells expected, ChunkNavCells cells) {
+        if (this.cells != expected) return false;
+        this.cells = cells;
+        return true;
+    }
+
+    /**
+     * Set the loader used to bring the cell grids back after unloadCells().
+     */
+    public void setCellLoader(CellLoader loader) {
+        this.cellLoader = loader;
+    }
+
+    public boolean hasCellLoader() {
+        return cellLoader != null;
+    }
+
+    /**
+     * Drop the cell grids so they are loaded again on next use.
+     * Only grids that can be reloaded and have no unsaved writes are dropped.
+     * @return the dropped grids, or null if they were kept
+     */
+    public synchronized ChunkNavCells unloadCells() {
+        ChunkNavCells c = cells;
+        if (c == null || cellLoader == null || c.isDirty()) return null;
+        cells = null;
+        return c;
+    }
+
+    /**
+     * Return and clear the access flag used for second-chance eviction.
+     */
+    boolean takeCellsTouched() {
+        boolean touched = cellsTouched;
+        cellsTouched = false;
+        return touched;
+    }
+
     /**
      * Calculate average walkability score for this chunk.
      * 0.0 = fully walkable, 1.0 = fully blocked
+     * The value is cached, so it is available without loading the cell grids.
      */
     public float averageWalkability() {
-        int total = 0;
-        for (int x = 0; x < CELLS_PER_EDGE; x++) {
-            for (int y = 0; y < CELLS_PER_EDGE; y++) {
-                total += walkability[x][y];
-            }
+        float avg = averageWalkability;
+        if (avg < 0) {
+            avg = getCells().walkabilitySum() / (float) (CELLS_PER_EDGE * CELLS_PER_EDGE * 2); // Normalize to 0-1
+            averageWalkability = avg;
         }
-        return total / (float) (CELLS_PER_EDGE * CELLS_PER_EDGE * 2); // Normalize to 0-1
+        return avg;
+    }
+
+    void setAverageWalkability(float avg) {
+        this.averageWalkability = avg;
     }
 
     /**
@@ -169,7 +263,18 @@ public class ChunkNavData {
         if (cx < 0 || cx >= CELLS_PER_EDGE || cy < 0 || cy >= CELLS_PER_EDGE) {
             return 2; // Out of bounds = blocked
         }
-        return walkability[cx][cy];
+        return getCells().getWalkability(cx, cy);
+    }
+
+    /**
+     * Set walkability at a specific coarse cell.
+     */
+    public void setWalkability(int cx, int cy, byte value) {
+        if (cx < 0 || cx >= CELLS_PER_EDGE || cy < 0 || cy >= CELLS_PER_EDGE) {
+            return;
+        }
+        getCells().setWalkability(cx, cy, value);
+        averageWalkability = -1;
     }
 
     /**
@@ -179,7 +284,7 @@ public class ChunkNavData {
         if (cx < 0 || cx >= CELLS_PER_EDGE || cy < 0 || cy >= CELLS_PER_EDGE) {
             return false;
         }
-        return observed[cx][cy];
+        return getCells().isObserved(cx, cy);
     }
 
     /**
@@ -189,9 +294,10 @@ public class ChunkNavData {
         if (cx < 0 || cx >= CELLS_PER_EDGE || cy < 0 || cy >= CELLS_PER_EDGE) {
             return;
         }
-        boolean oldValue = observed[cx][cy];
+        ChunkNavCells c = getCells();
+        boolean oldValue = c.isObserved(cx, cy);
         if (oldValue != value) {
-            observed[cx][cy] = value;
+            c.setObserved(cx, cy, value);
             int section = getSectionIndex(cx, cy);
             if (value) {
                 sectionObservedCount[section]++;
@@ -219,15 +325,27 @@ public class ChunkNavData {
         for (int i = 0; i < TOTAL_SECTIONS; i++) {
             sectionObservedCount[i] = 0;
         }
+        ChunkNavCells c = getCells();
         for (int x = 0; x < CELLS_PER_EDGE; x++) {
             for (int y = 0; y < CELLS_PER_EDGE; y++) {
-                if (observed[x][y]) {
+                if (c.isObserved(x, y)) {
                     sectionObservedCount[getSectionIndex(x, y)]++;
                 }
             }
         }
     }
 
+    /**
+     * Observed cell count of a section, as stored in the chunk index.
+     */
+    int getSectionObservedCount(int section) {
+        return sectionObservedCount[section];
+    }
+
+    void setSectionObservedCount(int section, int count) {
+        sectionObservedCount[section] = count;
+    }
+
     /**
      * Calculate current confidence based on time decay.
      */
@@ -333,10 +451,11 @@ public class ChunkNavData {
         if (instanceId != 0) obj.put("instanceId", instanceId);
 
         // Walkability as flat array
+        ChunkNavCells c = getCells();
         JSONArray walkArr = new JSONArray();
         for (int x = 0; x < CELLS_PER_EDGE; x++) {
             for (int y = 0; y < CELLS_PER_EDGE; y++) {
-                walkArr.put(walkability[x][y]);
+                walkArr.put(c.getWalkability(x, y));
             }
         }
         obj.put("walkability", walkArr);
@@ -345,16 +464,16 @@ public class ChunkNavData {
         JSONArray obsArr = new JSONArray();
         for (int x = 0; x < CELLS_PER_EDGE; x++) {
             for (int y = 0; y < CELLS_PER_EDGE; y++) {
-                obsArr.put(observed[x][y] ? 1 : 0);
+                obsArr.put(c.isObserved(x, y) ? 1 : 0);
             }
         }
         obj.put("observed", obsArr);
 
         // Edges
-        obj.put("northEdge", edgeToJson(northEdge));
-        obj.put("southEdge", edgeToJson(southEdge));
-        obj.put("eastEdge", edgeToJson(eastEdge));
-        obj.put("westEdge", edgeToJson(westEdge));
+        obj.put("northEdge", edgeToJson(getEdge(Direction.NORTH)));
+        obj.put("southEdge", edgeToJson(getEdge(Direction.SOUTH)));
+        obj.put("eastEdge", edgeToJson(getEdge(Direction.EAST)));
+        obj.put("westEdge", edgeToJson(getEdge(Direction.WEST)));
 
         // Portals
         JSONArray portalsArr = new JSONArray();
@@ -423,7 +542,7 @@ public class ChunkNavData {
         int idx = 0;
         for (int x = 0; x < CELLS_PER_EDGE; x++) {
             for (int y = 0; y < CELLS_PER_EDGE; y++) {
-                data.walkability[x][y] = (byte) walkArr.getInt(idx++);
+                data.cells.setWalkability(x, y, (byte) walkArr.getInt(idx++));
             }
         }
 
@@ -433,7 +552,7 @@ public class ChunkNavData {
             idx = 0;
             for (int x = 0; x < CELLS_PER_EDGE; x++) {
                 for (int y = 0; y < CELLS_PER_EDGE; y++) {
-                    data.observed[x][y] = obsArr.getInt(idx++) != 0;
+                    data.cells.setObserved(x, y, obsArr.getInt(idx++) != 0);
                 }
             }
         } else {
@@ -444,7 +563,7 @@ public class ChunkNavData {
             // This will cause re-recording of blocked areas on next visit
             for (int x = 0; x < CELLS_PER_EDGE; x++) {
                 for (int y = 0; y < CELLS_PER_EDGE; y++) {
-                    data.observed[x][y] = data.walkability[x][y] < 2;
+                    data.cells.setObserved(x, y, data.cells.getWalkability(x, y) < 2);
                 }
             }
         }
@@ -453,10 +572,10 @@ public class ChunkNavData {
         data.recomputeSectionCounts();
 
         // Edges
-        data.northEdge = edgeFromJson(obj.getJSONArray("northEdge"));
-        data.southEdge = edgeFromJson(obj.getJSONArray("southEdge"));
-        data.eastEdge = edgeFromJson(obj.getJSONArray("eastEdge"));
-        data.westEdge = edgeFromJson(obj.getJSONArray("westEdge"));
+        data.edgeFromJson(Direction.NORTH, obj.getJSONArray("northEdge"));
+        data.edgeFromJson(Direction.SOUTH, obj.getJSONArray("southEdge"));
+        data.edgeFromJson(Direction.EAST, obj.getJSONArray("eastEdge"));
+        data.edgeFromJson(Direction.WEST, obj.getJSONArray("westEdge"));
 
         // Portals
         JSONArray portalsArr = obj.getJSONArray("portals");
@@ -510,10 +629,10 @@ public class ChunkNavData {
                 // Replicate to 2x2 block
                 int nx = ox * CELLS_PER_TILE;
                 int ny = oy * CELLS_PER_TILE;
-                data.walkability[nx][ny] = val;
-                data.walkability[nx + 1][ny] = val;
-                data.walkability[nx][ny + 1] = val;
-                data.walkability[nx + 1][ny + 1] = val;
+                data.cells.setWalkability(nx, ny, val);
+                data.cells.setWalkability(nx + 1, ny, val);
+                data.cells.setWalkability(nx, ny + 1, val);
+                data.cells.setWalkability(nx + 1, ny + 1, val);
             }
         }
 
@@ -526,17 +645,17 @@ public class ChunkNavData {
                     boolean val = obsArr.getInt(idx++) != 0;
                     int nx = ox * CELLS_PER_TILE;
                     int ny = oy * CELLS_PER_TILE;
-                    data.observed[nx][ny] = val;
-                    data.observed[nx + 1][ny] = val;
-                    data.observed[nx][ny + 1] = val;
-                    data.observed[nx + 1][ny + 1] = val;
+                    data.cells.setObserved(nx, ny, val);
+                    data.cells.setObserved(nx + 1, ny, val);
+                    data.cells.setObserved(nx, ny + 1, val);
+                    data.cells.setObserved(nx + 1, ny + 1, val);
                 }
             }
         } else {
             // Infer from walkability
             for (int x = 0; x < CELLS_PER_EDGE; x++) {
                 for (int y = 0; y < CELLS_PER_EDGE; y++) {
-                    data.observed[x][y] = data.walkability[x][y] < 2;
+                    data.cells.setObserved(x, y, data.cells.getWalkability(x, y) < 2);
                 }
             }
         }
@@ -546,10 +665,10 @@ public class ChunkNavData {
 
         // Migrate edges from 100 to 200 entries
         // Each old edge[i] maps to new edge[i*2] and edge[i*2+1]
-        data.northEdge = migrateEdgeFromV1(obj.getJSONArray("northEdge"));
-        data.southEdge = migrateEdgeFromV1(obj.getJSONArray("southEdge"));
-        data.eastEdge = migrateEdgeFromV1(obj.getJSONArray("eastEdge"));
-        data.westEdge = migrateEdgeFromV1(obj.getJSONArray("westEdge"));
+        data.migrateEdgeFromV1(Direction.NORTH, obj.getJSONArray("northEdge"));
+        data.migrateEdgeFromV1(Direction.SOUTH, obj.getJSONArray("southEdge"));
+        data.migrateEdgeFromV1(Direction.EAST, obj.getJSONArray("eastEdge"));
+        data.migrateEdgeFromV1(Direction.WEST, obj.getJSONArray("westEdge"));
 
         // Portals (no coordinate change needed - portal coords are in tile space)
         JSONArray portalsArr = obj.getJSONArray("portals");
@@ -573,46 +692,24 @@ public class ChunkNavData {
     }
 
     /**
-     * Migrate edge array from v1 (100 entries) to v2 (200 entries).
+     * Migrate edge flags from v1 (100 entries) to v2 (200 entries).
      * Each old edge point is duplicated to two adjacent cell positions.
      */
-    private static EdgePoint[] migrateEdgeFromV1(JSONArray arr) {
-        EdgePoint[] edge = new EdgePoint[CELLS_PER_EDGE];
+    private void migrateEdgeFromV1(Direction dir, JSONArray arr) {
         int oldSize = 100;
-
         for (int i = 0; i < arr.length() && i < oldSize; i++) {
             EdgePoint oldPoint = EdgePoint.fromJson(arr.getJSONObject(i));
-
             // Map old edge[i] to new edge[i*2] and edge[i*2+1]
             int newIdx = i * CELLS_PER_TILE;
-
-            // Create new edge points with updated local coordinates
-            // The local coordinate needs to be scaled as well
-            Coord newLocalCoord1 = oldPoint.localCoord != null ?
-                new Coord(oldPoint.localCoord.x * CELLS_PER_TILE, oldPoint.localCoord.y * CELLS_PER_TILE) : null;
-            Coord newLocalCoord2 = oldPoint.localCoord != null ?
-                new Coord(oldPoint.localCoord.x * CELLS_PER_TILE + 1, oldPoint.localCoord.y * CELLS_PER_TILE) : null;
-
-            edge[newIdx] = new EdgePoint(newIdx, oldPoint.walkable, newLocalCoord1);
-            edge[newIdx + 1] = new EdgePoint(newIdx + 1, oldPoint.walkable, newLocalCoord2);
+            setEdgeWalkable(dir, newIdx, oldPoint.walkable);
+            setEdgeWalkable(dir, newIdx + 1, oldPoint.walkable);
         }
-
-        // Fill any remaining entries (shouldn't happen but safety)
-        for (int i = 0; i < CELLS_PER_EDGE; i++) {
-            if (edge[i] == null) {
-                edge[i] = new EdgePoint(i, false, null);
-            }
-        }
-
-        return edge;
     }
 
-    private static EdgePoint[] edgeFromJson(JSONArray arr) {
-        EdgePoint[] edge = new EdgePoint[CELLS_PER_EDGE];
+    private void edgeFromJson(Direction dir, JSONArray arr) {
         for (int i = 0; i < arr.length() && i < CELLS_PER_EDGE; i++) {
-            edge[i] = EdgePoint.fromJson(arr.getJSONObject(i));
+            setEdgeWalkable(dir, i, EdgePoint.fromJson(arr.getJSONObject(i)).walkable);
         }
-        return edge;
     }
 
     public enum Direction {
@@ -0,0 +1,132 @@
+package nurgling.navigation;
+
+import haven.*;
+import nurgling.NHitBox;
+import nurgling.pf.NHitBoxD;
+
+import java.util.*;
+
+/**
+ * Collects the cells whose walkability may have changed since the last recording pass.
+ * Listens to gob additions, removals and changes in the object cache and remembers
+ * the cells each gob's hitbox covered, so moving or removing a gob dirties both its
+ * old and its new cells. Rectangles are in world cell coordinates (see Utils.toPfGrid).
+ */
+public class ChunkNavDirtyTracker implements OCache.ChangeCallback {
+    // Above this many pending rectangles everything is recorded again instead
+    private static final int MAX_PENDING = 4096;
+
+    /**
+     * Everything that changed since the last drain()
+     */
+    public static class Changes {
+        public final boolean all;           // Record all grids in full
+        public final boolean gobsChanged;   // Gobs were added or removed
+        public final List<int[]> rects;     // Dirty cells as {x0, y0, x1, y1}, inclusive
+
+        Changes(boolean all, boolean gobsChanged, List<int[]> rects) {
+            this.all = all;
+            this.gobsChanged = gobsChanged;
+            this.rects = rects;
+        }
+    }
+
+    private OCache oc;
+    // Guarded by this
+    private final Map<Gob, int[]> footprints = new IdentityHashMap<>();
+    private List<int[]> pending = new ArrayList<>();
+    private boolean all = true;
+    private boolean gobsChanged = true;
+
+    /**
+     * Start listening to an object cache, dropping what was collected for the previous one.
+     */
+    public void attach(OCache oc) {
+        OCache prev;
+        synchronized (this) {
+            if (this.oc == oc) return;
+            prev = this.oc;
+            this.oc = oc;
+            footprints.clear();
+            pending = new ArrayList<>();
+            all = true;
+        }
+        if (prev != null) prev.uncallback(this);
+        if (oc != null) oc.callback(this);
+    }
+
+    public void detach() {
+        attach(null);
+    }
+
+    /**
+     * Cells a gob's hitbox touches, with a one-cell margin, or null if it has no hitbox
+     */
+    private static int[] footprint(Gob gob) {
+        NHitBox hb = (gob.ngob != null) ? gob.ngob.hitBox : null;
+        if (hb == null || gob.rc == null) return null;
+        NHitBoxD box = new NHitBoxD(hb.begin, hb.end, gob.rc, gob.a);
+        Coord ul = nurgling.pf.Utils.toPfGrid(box.getCircumscribedUL());
+        Coord br = nurgling.pf.Utils.toPfGrid(box.getCircumscribedBR());
+        return new int[]{ul.x - 1, ul.y - 1, br.x + 1, br.y + 1};
+    }
+
+    private void dirty(int[] rect) {
+        if (all) return;
+        if (pending.size() >= MAX_PENDING) {
+            all = true;
+            pending = new ArrayList<>();
+            return;
+        }
+        pending.add(rect);
+    }
+
+    private void update(Gob gob, boolean added) {
+        int[] fp = footprint(gob);
+        synchronized (this) {
+            int[] old = (fp == null) ? footprints.remove(gob) : footprints.put(gob, fp);
+            // Dirty the old cells even if the gob did not move: gates open and close in place
+            if (old != null) dirty(old);
+            if (fp != null && !Arrays.equals(old, fp)) dirty(fp);
+            if (added) gobsChanged = true;
+        }
+    }
+
+    @Override
+    public void added(Gob gob) {
+        update(gob, true);
+    }
+
+    @Override
+    public void changed(Gob gob) {
+        update(gob, false);
+    }
+
+    @Override
+    public void removed(Gob gob) {
+        synchronized (this) {
+            int[] old = footprints.remove(gob);
+            if (old != null) dirty(old);
+            gobsChanged = true;
+        }
+    }
+
+    /**
+     * Mark everything dirty, e.g. after recording was paused
+     */
+    public synchronized void invalidate() {
+        all = true;
+        pending = new ArrayList<>();
+    }
+
+    /**
+     * Take the changes collected since the last call
+     */
+    public synchronized Changes drain() {
+        Changes ret = new Changes(all, gobsChanged, pending);
+        pending = new ArrayList<>();
+        all = false;
+        gobsChanged = false;
+        return ret;
+    }
+}
@@ -4,21 +4,42 @@ import nurgling.profiles.ProfileManager;
 
 import java.io.*;
 import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static nurgling.navigation.ChunkNavConfig.*;
 
 /**
  * Manages file storage for ChunkNav data.
  * Stores each chunk as a separate binary file in a directory.
+ * An index file holds the chunk metadata, so on startup only chunks whose file
+ * changed are decoded; cell grids are loaded on first use and unloaded again
+ * once more than MAX_RESIDENT_CHUNKS are in memory.
  */
 public class ChunkNavFileStore {
 
     private static final String CHUNK_EXTENSION = ".chunk";
+    private static final String INDEX_FILENAME = "chunks.index";
 
     private final String genus;
     private final Path chunkDirectory;
 
+    // Mapped region holding the packed cells of loaded chunks (null until first use or if unavailable)
+    private ChunkNavRegionFile region;
+    private boolean regionFailed = false;
+
+    // Size and modification time of each chunk file as last read or written, by gridId
+    private final Map<Long, long[]> fileStamps = new ConcurrentHashMap<>();
+    private final Object indexLock = new Object();
+
+    // Chunks whose cell grids can be unloaded, in second-chance (CLOCK) order
+    private final ArrayDeque<ChunkNavData> resident = new ArrayDeque<>();
+    private final AtomicBoolean trimPending = new AtomicBoolean(false);
+    private ExecutorService loaderPool;
+    private volatile boolean closed = false;
+
     public ChunkNavFileStore(String genus) {
         this.genus = genus;
         ProfileManager pm = new ProfileManager(genus);
@@ -56,19 +77,44 @@ public class ChunkNavFileStore {
         Path chunkFile = getChunkFile(chunk.gridId);
         Path tempFile = chunkFile.resolveSibling(chunk.gridId + ".tmp");
 
+        ChunkNavCells cells = chunk.getCells();
+        int version = cells.getVersion();
         try (DataOutputStream out = new DataOutputStream(
                 new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
             ChunkNavBinaryFormat.writeChunk(chunk, out);
         }
 
         // Atomic rename
+        moveAtomic(tempFile, chunkFile);
+
+        // The grids may have been parked meanwhile; a copy with the same version holds the same cells
+        cells.markSaved(version);
+        ChunkNavCells current = chunk.peekCells();
+        if (current != null && current != cells && current.getVersion() == version) {
+            current.markSaved(version);
+        }
+        stamp(chunk.gridId, chunkFile);
+
+        // Once on disk, the grids can be unloaded and loaded back from the file
+        if (!chunk.hasCellLoader()) {
+            chunk.setCellLoader(this::loadCells);
+            noteResident(chunk);
+        }
+    }
+
+    private static void moveAtomic(Path from, Path to) throws IOException {
         try {
-            Files.move(tempFile, chunkFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            Files.move(from, to, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
         } catch (java.nio.file.AtomicMoveNotSupportedException e) {
-            Files.move(tempFile, chunkFile, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(from, to, StandardCopyOption.REPLACE_EXISTING);
         }
     }
 
+    private void stamp(long gridId, Path file) throws IOException {
+        BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+        fileStamps.put(gridId, new long[]{attrs.size(), attrs.lastModifiedTime().toMillis()});
+    }
+
     /**
      * Load a single chunk from its binary file.
      * Returns null if file doesn't exist or is corrupted.
@@ -79,13 +125,45 @@ public class ChunkNavFileStore {
             return null;
         }
 
+        ChunkNavData chunk = readChunkFile(chunkFile);
+        if (chunk != null) {
+            park(chunk);
+        }
+        return chunk;
+    }
+
+    /**
+     * Decode a chunk file. Corrupted files are deleted and null is returned.
+     */
+    private ChunkNavData readChunkFile(Path file) {
         try (DataInputStream in = new DataInputStream(
-                new BufferedInputStream(Files.newInputStream(chunkFile)))) {
+                new BufferedInputStream(Files.newInputStream(file)))) {
             return ChunkNavBinaryFormat.readChunk(in);
         } catch (IOException e) {
-            System.err.println("ChunkNav: Failed to load chunk " + gridId + ": " + e.getMessage());
-            // Delete corrupted file
-            deleteCorruptedFile(chunkFile, gridId);
+            String filename = file.getFileName().toString();
+            System.err.println("ChunkNav: Failed to load " + filename + ": " + e.getMessage());
+            // Extract gridId from filename and delete
+            Long gridId = parseGridId(file);
+            if (gridId != null) {
+                deleteCorruptedFile(file, gridId);
+            } else {
+                // Can't parse filename, just delete it
+                try {
+                    Files.delete(file);
+                    System.out.println("ChunkNav: Deleted corrupted file: " + filename);
+                } catch (IOException deleteError) {
+                    System.err.println("ChunkNav: Failed to delete corrupted file: " + filename);
+                }
+            }
+            return null;
+        }
+    }
+
+    private static Long parseGridId(Path file) {
+        String filename = file.getFileName().toString();
+        try {
+            return Long.parseLong(filename.substring(0, filename.length() - CHUNK_EXTENSION.length()));
+        } catch (NumberFormatException e) {
             return null;
         }
     }
@@ -104,36 +182,299 @@ public class ChunkNavFileStore {
 
         try (DirectoryStream<Path> stream = Files.newDirectoryStream(chunkDirectory, "*" + CHUNK_EXTENSION)) {
             for (Path file : stream) {
-                try (DataInputStream in = new DataInputStream(
-                        new BufferedInputStream(Files.newInputStream(file)))) {
-                    ChunkNavData chunk = ChunkNavBinaryFormat.readChunk(in);
+                ChunkNavData chunk = readChunkFile(file);
+                if (chunk != null) {
+                    park(chunk);
                     chunks.add(chunk);
-                } catch (IOException e) {
-                    String filename = file.getFileName().toString();
-                    System.err.println("ChunkNav: Failed to load " + filename + ": " + e.getMessage());
-                    // Extract gridId from filename and delete
-                    try {
-                        String gridIdStr = filename.replace(CHUNK_EXTENSION, "");
-                        long gridId = Long.parseLong(gridIdStr);
-                        deleteCorruptedFile(file, gridId);
-                    } catch (NumberFormatException nfe) {
-                        // Can't parse filename, just delete it
-                        try {
-                            Files.delete(file);
-                            System.out.println("ChunkNav: Deleted corrupted file: " + filename);
-                        } catch (IOException deleteError) {
-                            System.err.println("ChunkNav: Failed to delete corrupted file: " + filename);
-                        }
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("ChunkNav: Failed to list chunk directory: " + e.getMessage());
+        }
+
+        return chunks;
+    }
+
+    /**
+     * Load all chunks through the index, without their cell grids.
+     * Chunks missing from the index or whose file changed since it was written
+     * are decoded in parallel; the index is rewritten if any were.
+     * Cell grids are loaded from the chunk files on first use.
+     */
+    public List<ChunkNavData> loadIndexedChunks() {
+        List<ChunkNavData> chunks = new ArrayList<>();
+
+        if (!Files.exists(chunkDirectory)) {
+            return chunks;
+        }
+
+        Map<Long, ChunkNavBinaryFormat.IndexEntry> index = readIndex();
+        List<Path> stale = new ArrayList<>();
+
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(chunkDirectory, "*" + CHUNK_EXTENSION)) {
+            for (Path file : stream) {
+                Long gridId = parseGridId(file);
+                ChunkNavBinaryFormat.IndexEntry entry = gridId != null ? index.get(gridId) : null;
+                if (entry != null) {
+                    BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+                    if (entry.fileSize == attrs.size() && entry.fileModified == attrs.lastModifiedTime().toMillis()) {
+                        fileStamps.put(gridId, new long[]{entry.fileSize, entry.fileModified});
+                        entry.chunk.setCellLoader(this::loadCells);
+                        chunks.add(entry.chunk);
+                        continue;
                     }
                 }
+                stale.add(file);
             }
         } catch (IOException e) {
             System.err.println("ChunkNav: Failed to list chunk directory: " + e.getMessage());
         }
 
+        boolean changed = !stale.isEmpty() || chunks.size() != index.size();
+
+        // Decode changed chunks in parallel, keeping only their metadata
+        List<java.util.concurrent.Future<ChunkNavData>> decoded = new ArrayList<>();
+        for (Path file : stale) {
+            decoded.add(pool().submit(() -> decodeForIndex(file)));
+        }
+        for (java.util.concurrent.Future<ChunkNavData> f : decoded) {
+            try {
+                ChunkNavData chunk = f.get();
+                if (chunk != null) {
+                    chunks.add(chunk);
+                }
+            } catch (InterruptedException | ExecutionException e) {
+                System.err.println("ChunkNav: Failed to decode chunk: " + e.getMessage());
+            }
+        }
+
+        if (changed) {
+            saveIndex(chunks);
+        }
+        if (!stale.isEmpty()) {
+            System.out.println("ChunkNav: Indexed " + stale.size() + " changed chunk files");
+        }
         return chunks;
     }
 
+    private ChunkNavData decodeForIndex(Path file) throws IOException {
+        BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+        ChunkNavData chunk = readChunkFile(file);
+        if (chunk == null) {
+            return null;
+        }
+        Long gridId = parseGridId(file);
+        if (gridId == null || gridId != chunk.gridId) {
+            // Not loadable by gridId later, so the grids stay in memory
+            return chunk;
+        }
+        fileStamps.put(gridId, new long[]{attrs.size(), attrs.lastModifiedTime().toMillis()});
+        chunk.averageWalkability();
+        chunk.setCellLoader(this::loadCells);
+        chunk.unloadCells();
+        return chunk;
+    }
+
+    private Map<Long, ChunkNavBinaryFormat.IndexEntry> readIndex() {
+        Map<Long, ChunkNavBinaryFormat.IndexEntry> index = new HashMap<>();
+        Path indexFile = chunkDirectory.resolve(INDEX_FILENAME);
+        if (!Files.exists(indexFile)) {
+            return index;
+        }
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(indexFile)))) {
+            for (ChunkNavBinaryFormat.IndexEntry entry : ChunkNavBinaryFormat.readIndex(in)) {
+                index.put(entry.chunk.gridId, entry);
+            }
+        } catch (IOException e) {
+            // Rebuilt from the chunk files
+            System.err.println("ChunkNav: Failed to read chunk index, rebuilding: " + e.getMessage());
+            index.clear();
+        }
+        return index;
+    }
+
+    /**
+     * Write the index for the given chunks. Chunks that were never saved
+     * are left out and get decoded from their file on the next load.
+     */
+    public void saveIndex(Collection<ChunkNavData> chunks) {
+        List<ChunkNavBinaryFormat.IndexEntry> entries = new ArrayList<>();
+        for (ChunkNavData chunk : chunks) {
+            long[] stamp = fileStamps.get(chunk.gridId);
+            if (stamp != null) {
+                entries.add(new ChunkNavBinaryFormat.IndexEntry(chunk, stamp[0], stamp[1]));
+            }
+        }
+
+        synchronized (indexLock) {
+            Path indexFile = chunkDirectory.resolve(INDEX_FILENAME);
+            Path tempFile = chunkDirectory.resolve(INDEX_FILENAME + ".tmp");
+            try {
+                ensureDirectoryExists();
+                try (DataOutputStream out = new DataOutputStream(
+                        new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+                    ChunkNavBinaryFormat.writeIndex(entries, out);
+                }
+                moveAtomic(tempFile, indexFile);
+            } catch (IOException e) {
+                System.err.println("ChunkNav: Failed to save chunk index: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Cell loader for indexed chunks: decode the chunk file and keep its grids in the region.
+     */
+    private ChunkNavCells loadCells(ChunkNavData chunk) throws IOException {
+        Path chunkFile = getChunkFile(chunk.gridId);
+        ChunkNavData disk;
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(chunkFile)))) {
+            disk = ChunkNavBinaryFormat.readChunk(in);
+        }
+        ChunkNavCells cells = disk.peekCells();
+        ChunkNavCells mapped = toRegion(cells);
+        noteResident(chunk);
+        return mapped != null ? mapped : cells;
+    }
+
+    /**
+     * Track a chunk with unloadable grids and schedule a trim when there are too many.
+     */
+    private void noteResident(ChunkNavData chunk) {
+        int size;
+        synchronized (resident) {
+            resident.addLast(chunk);
+            size = resident.size();
+        }
+        if (size > MAX_RESIDENT_CHUNKS && !closed && trimPending.compareAndSet(false, true)) {
+            // Trimming takes other chunks' locks, so never do it from inside a load
+            pool().submit(this::trimResident);
+        }
+    }
+
+    /**
+     * Unload the grids of the least recently used chunks, approximated with a
+     * second-chance sweep. Dirty grids and recently recorded chunks are kept.
+     */
+    private void trimResident() {
+        try {
+            List<ChunkNavData> victims = new ArrayList<>();
+            long cutoff = System.currentTimeMillis() - PARK_IDLE_MS;
+            synchronized (resident) {
+                int budget = resident.size() * 2;
+                while (resident.size() > MAX_RESIDENT_CHUNKS && budget-- > 0) {
+                    ChunkNavData chunk = resident.pollFirst();
+                    ChunkNavCells cells = chunk.peekCells();
+                    if (cells == null) {
+                        continue;
+                    }
+                    if (chunk.takeCellsTouched() || cells.isDirty() || chunk.lastUpdated > cutoff) {
+                        resident.addLast(chunk);
+                    } else {
+                        victims.add(chunk);
+                    }
+                }
+            }
+            for (ChunkNavData chunk : victims) {
+                ChunkNavCells cells = chunk.unloadCells();
+                if (cells != null) {
+                    release(cells);
+                } else if (chunk.hasCells()) {
+                    synchronized (resident) {
+                        resident.addLast(chunk);
+                    }
+                }
+            }
+        } finally {
+            trimPending.set(false);
+        }
+    }
+
+    /**
+     * Number of chunks whose grids are tracked as resident.
+     */
+    public int getResidentCount() {
+        synchronized (resident) {
+            return resident.size();
+        }
+    }
+
+    private synchronized ExecutorService pool() {
+        if (loaderPool == null) {
+            int threads = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+            loaderPool = Executors.newFixedThreadPool(threads, r -> {
+                Thread t = new Thread(r);
+                t.setName("ChunkNav-Loader");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        return loaderPool;
+    }
+
+    /**
+     * Move a chunk's packed cell grids into the mapped region file, off the heap.
+     * The grids are inflated back to the heap on the next write, so this is
+     * only worth doing for chunks that are not being recorded.
+     * Chunks stay on the heap if mapping is disabled or unavailable.
+     */
+    public void park(ChunkNavData chunk) {
+        ChunkNavCells cells = chunk.peekCells();
+        if (cells == null || cells.isMapped()) {
+            return;
+        }
+        ChunkNavCells mapped = toRegion(cells);
+        if (mapped == null) {
+            return;
+        }
+        // Skip if the grids were written or replaced while being copied
+        if (mapped.getVersion() != cells.getVersion() || !chunk.replaceCells(cells, mapped)) {
+            release(mapped);
+        } else {
+            // An inflated grid no longer uses the slot it was loaded into
+            release(cells);
+        }
+    }
+
+    private synchronized ChunkNavCells toRegion(ChunkNavCells cells) {
+        if (!MAPPED_CELL_STORAGE || regionFailed) {
+            return null;
+        }
+        try {
+            if (region == null) {
+                region = ChunkNavRegionFile.create(chunkDirectory);
+            }
+            return region.store(cells);
+        } catch (IOException e) {
+            System.err.println("ChunkNav: Cell region unavailable, keeping chunks on heap: " + e.getMessage());
+            regionFailed = true;
+            return null;
+        }
+    }
+
+    private synchronized void release(ChunkNavCells cells) {
+        if (region != null) {
+            region.release(cells);
+        }
+    }
+
+    /**
+     * Close the mapped region file and stop the loader threads.
+     */
+    public synchronized void close() {
+        closed = true;
+        if (loaderPool != null) {
+            loaderPool.shutdownNow();
+            loaderPool = null;
+        }
+        if (region != null) {
+            region.close();
+            region = null;
+        }
+    }
+
     /**
      * Delete a chunk file.
      */
@@ -141,6 +482,7 @@ public class ChunkNavFileStore {
         Path chunkFile = getChunkFile(gridId);
         try {
             Files.deleteIfExists(chunkFile);
+            fileStamps.remove(gridId);
         } catch (IOException e) {
             System.err.println("ChunkNav: Failed to delete chunk " + gridId + ": " + e.getMessage());
         }
@@ -22,6 +22,9 @@ public class ChunkNavGraph {
     // Portal index (gobHash -> ChunkPortal)
     private final Map<String, ChunkPortal> portalIndex = new ConcurrentHashMap<>();
 
+    // Entrance graph for hierarchical planning, cached per chunk
+    private final ChunkNavAbstractGraph abstractGraph = new ChunkNavAbstractGraph();
+
     public ChunkNavGraph() {
     }
 
@@ -29,7 +32,9 @@ public class ChunkNavGraph {
      * Add or update a chunk in the graph.
      */
     public void addChunk(ChunkNavData chunk) {
-        chunks.put(chunk.gridId, chunk);
+        if (chunks.put(chunk.gridId, chunk) != chunk) {
+            abstractGraph.invalidate(chunk.gridId);
+        }
         // Index portals
         for (ChunkPortal portal : chunk.portals) {
             portalIndex.put(portal.gobHash, portal);
@@ -43,6 +48,13 @@ public class ChunkNavGraph {
         return chunks.get(gridId);
     }
 
+    /**
+     * Get the entrance graph used for hierarchical planning.
+     */
+    public ChunkNavAbstractGraph getAbstractGraph() {
+        return abstractGraph;
+    }
+
     /**
      * Check if we have data for a chunk.
      */
@@ -158,8 +170,6 @@ public class ChunkNavGraph {
         Direction dir = getDirectionTo(fromChunk, toChunk);
         if (dir == null) return null;
 
-        EdgePoint[] fromEdge = fromChunk.getEdge(dir);
-
         // Find best walkable crossing
         // Use lenient check: unobserved edge tiles are assumed passable
         int bestIndex = -1;
@@ -179,7 +189,7 @@ public class ChunkNavGraph {
 
         if (bestIndex >= 0) {
             EdgeCrossing crossing = new EdgeCrossing();
-            crossing.crossingPoint = fromEdge[bestIndex].localCoord;
+            crossing.crossingPoint = ChunkNavData.edgeCoord(dir, bestIndex);
             crossing.direction = dir;
             return crossing;
         }
@@ -187,7 +197,7 @@ public class ChunkNavGraph {
         // Fallback: if no walkable crossing found, assume center is passable
         // This prevents isolation of chunks due to incomplete edge data
         EdgeCrossing fallback = new EdgeCrossing();
-        fallback.crossingPoint = fromEdge[centerIndex].localCoord;
+        fallback.crossingPoint = ChunkNavData.edgeCoord(dir, centerIndex);
         fallback.direction = dir;
         return fallback;
     }
@@ -288,9 +298,9 @@ public class ChunkNavGraph {
             if (chunk.instanceId == 0 || other.instanceId == 0) continue;
             if (chunk.instanceId != other.instanceId) continue;
 
-            // Check if they can connect (have walkable crossing)
-            EdgeCrossing crossing = findBestCrossing(chunk, other);
-            if (crossing != null) {
+            // Adjacent chunks always get a crossing (findBestCrossing falls back to the
+            // edge center), so only the direction is checked - this avoids loading cell grids
+            if (getDirectionTo(chunk, other) != null) {
                 chunk.connectedChunks.add(other.gridId);
                 other.connectedChunks.add(chunk.gridId);
             }
@@ -315,8 +325,7 @@ public class ChunkNavGraph {
                                      (dx == 0 && Math.abs(dy) == CHUNK_SIZE);
 
                 if (isAdjacent) {
-                    EdgeCrossing crossing = findBestCrossing(chunk, other);
-                    if (crossing != null) {
+                    if (getDirectionTo(chunk, other) != null) {
                         chunk.connectedChunks.add(other.gridId);
                         other.connectedChunks.add(chunk.gridId);
                     }
@@ -360,6 +369,7 @@ public class ChunkNavGraph {
     public void clear() {
         chunks.clear();
         portalIndex.clear();
+        abstractGraph.clear();
     }
 
     /**
@@ -435,6 +445,7 @@ public class ChunkNavGraph {
 
         // Remove the chunk itself
         chunks.remove(gridId);
+        abstractGraph.invalidate(gridId);
 
         return modifiedChunks;
     }
@@ -197,6 +197,107 @@ public class ChunkNavIntraPathfinder {
         return new IntraPath(path, true, goalNode.g);
     }
 
+    /**
+     * Tile walkability of a chunk (indexed x * CHUNK_SIZE + y).
+     * A tile is walkable if any of its 2x2 cells is walkable, the same rule
+     * the unified tile pathfinder uses.
+     */
+    public static boolean[] tileWalkability(ChunkNavData chunk) {
+        boolean[] walk = new boolean[CHUNK_SIZE * CHUNK_SIZE];
+        for (int x = 0; x < CHUNK_SIZE; x++) {
+            for (int y = 0; y < CHUNK_SIZE; y++) {
+                int cx = x * CELLS_PER_TILE, cy = y * CELLS_PER_TILE;
+                walk[x * CHUNK_SIZE + y] = chunk.getWalkability(cx, cy) == 0 || chunk.getWalkability(cx + 1, cy) == 0 ||
+                        chunk.getWalkability(cx, cy + 1) == 0 || chunk.getWalkability(cx + 1, cy + 1) == 0;
+            }
+        }
+        return walk;
+    }
+
+    /**
+     * Single-source Dijkstra over the tile grid of one chunk, with the 8-directional
+     * moves and costs of the unified tile pathfinder. Unreachable tiles are left at
+     * Float.POSITIVE_INFINITY.
+     *
+     * @param walk  Tile walkability from tileWalkability()
+     * @param start Start tile index (x * CHUNK_SIZE + y)
+     * @param dist  Output distances, CHUNK_SIZE * CHUNK_SIZE entries
+     */
+    public static void tileDistances(boolean[] walk, int start, float[] dist, IndexedMinHeap open) {
+        Arrays.fill(dist, Float.POSITIVE_INFINITY);
+        open.clear();
+        dist[start] = 0;
+        open.offer(start, 0);
+        while (!open.isEmpty()) {
+            int cur = open.poll();
+            int x = cur / CHUNK_SIZE, y = cur % CHUNK_SIZE;
+            for (int d = 0; d < TILE_DX.length; d++) {
+                int nx = x + TILE_DX[d], ny = y + TILE_DY[d];
+                if (nx < 0 || nx >= CHUNK_SIZE || ny < 0 || ny >= CHUNK_SIZE) continue;
+                int n = nx * CHUNK_SIZE + ny;
+                if (!walk[n]) continue;
+                float nd = dist[cur] + TILE_COST[d];
+                if (nd < dist[n]) {
+                    dist[n] = nd;
+                    open.offer(n, nd);
+                }
+            }
+        }
+    }
+
+    /**
+     * A* between two tiles of one chunk on the same tile grid as tileDistances().
+     *
+     * @return Tile indices from start to goal inclusive, or null if unreachable
+     */
+    public static short[] tilePath(boolean[] walk, int start, int goal) {
+        if (start == goal) {
+            return new short[]{(short) start};
+        }
+        int n = CHUNK_SIZE * CHUNK_SIZE;
+        float[] g = new float[n];
+        short[] parent = new short[n];
+        boolean[] closed = new boolean[n];
+        Arrays.fill(g, Float.POSITIVE_INFINITY);
+        IndexedMinHeap open = new IndexedMinHeap(n);
+        int gx = goal / CHUNK_SIZE, gy = goal % CHUNK_SIZE;
+
+        g[start] = 0;
+        parent[start] = -1;
+        open.offer(start, 0);
+        while (!open.isEmpty()) {
+            int cur = open.poll();
+            if (cur == goal) {
+                int len = 0;
+                for (int t = goal; t >= 0; t = parent[t]) len++;
+                short[] path = new short[len];
+                for (int t = goal; t >= 0; t = parent[t]) path[--len] = (short) t;
+                return path;
+            }
+            closed[cur] = true;
+            int x = cur / CHUNK_SIZE, y = cur % CHUNK_SIZE;
+            for (int d = 0; d < TILE_DX.length; d++) {
+                int nx = x + TILE_DX[d], ny = y + TILE_DY[d];
+                if (nx < 0 || nx >= CHUNK_SIZE || ny < 0 || ny >= CHUNK_SIZE) continue;
+                int nb = nx * CHUNK_SIZE + ny;
+                if (!walk[nb] || closed[nb]) continue;
+                float ng = g[cur] + TILE_COST[d];
+                if (ng < g[nb]) {
+                    g[nb] = ng;
+                    parent[nb] = (short) cur;
+                    int hx = nx - gx, hy = ny - gy;
+                    open.offer(nb, ng + Math.sqrt(hx * hx + hy * hy));
+                }
+            }
+        }
+        return null;
+    }
+
+    // 8-directional tile moves, in the order of UnifiedTilePathfinder
+    private static final int[] TILE_DX = {0, 0, -1, 1, -1, -1, 1, 1};
+    private static final int[] TILE_DY = {-1, 1, 0, 0, -1, 1, -1, 1};
+    private static final float[] TILE_COST = {1, 1, 1, 1, 1.4142135f, 1.4142135f, 1.4142135f, 1.4142135f};
+
     /**
      * Convert local tile coordinate to cell coordinate.
      * With half-tile resolution, each tile maps to CELLS_PER_TILE x CELLS_PER_TILE cells.
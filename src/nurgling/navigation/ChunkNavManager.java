@@ -24,6 +24,7 @@ import static nurgling.navigation.ChunkNavConfig.*;
 public class ChunkNavManager {
     private ChunkNavGraph graph;
     private ChunkNavRecorder recorder;
+    private final ChunkNavDirtyTracker dirtyTracker = new ChunkNavDirtyTracker();
     private ChunkNavPlanner planner;
     private PortalTraversalTracker portalTracker;
     private ChunkNavFileStore fileStore;
@@ -34,6 +35,7 @@ public class ChunkNavManager {
 
     // Throttle saves to avoid excessive disk writes
     private long lastSaveTime = 0;
+    private long lastIndexSave = 0;
     private static final long SAVE_THROTTLE_MS = 60000; // Save to disk once per minute
 
     // Throttle grid recording to avoid excessive CPU usage
@@ -128,6 +130,10 @@ public class ChunkNavManager {
             // Clear renderer cache to avoid stale textures from previous genus
             MinimapChunkNavRenderer.clearCache();
 
+            if (fileStore != null) {
+                fileStore.close();
+            }
+
             this.currentGenus = genus;
             this.graph = new ChunkNavGraph();
             this.recorder = new ChunkNavRecorder(graph);
@@ -174,14 +180,13 @@ public class ChunkNavManager {
     }
 
     /**
-     * Record all currently visible grids.
+     * Record what changed in the currently visible grids.
      * This catches grids that were already loaded when player walks through them.
      * Runs in a background thread to avoid FPS drops.
      */
     private void recordVisibleGrids() {
         // Skip if ChunkNav overlay is disabled
-        Object val = NConfig.get(NConfig.Key.chunkNavOverlay);
-        if (!(val instanceof Boolean) || !(Boolean) val) {
+        if (!NConfig.getBool(NConfig.Key.chunkNavOverlay)) {
             return;
         }
 
@@ -194,6 +199,7 @@ public class ChunkNavManager {
         try {
             MCache mcache = NUtils.getGameUI().map.glob.map;
             if (mcache == null) return;
+            dirtyTracker.attach(NUtils.getGameUI().map.glob.oc);
 
             // Capture list of grids to record (quick operation on main thread)
             List<MCache.Grid> gridsToRecord = new ArrayList<>();
@@ -209,14 +215,18 @@ public class ChunkNavManager {
 
             // Submit recording task to background thread
             recordingInProgress = true;
+            ChunkNavRecorder recorder = this.recorder;
             recordingExecutor.submit(() -> {
                 try {
-                    for (MCache.Grid grid : gridsToRecord) {
-                        recorder.recordGrid(grid);
+                    ChunkNavDirtyTracker.Changes changes = dirtyTracker.drain();
+                    if (!recorder.recordChanges(gridsToRecord, changes)) {
+                        dirtyTracker.invalidate();
                     }
                     saveThrottled();
+                    parkIdleChunks();
                 } catch (Exception e) {
-                    // Ignore background recording errors
+                    // Ignore background recording errors, but record everything next time
+                    dirtyTracker.invalidate();
                 } finally {
                     recordingInProgress = false;
                 }
@@ -234,8 +244,7 @@ public class ChunkNavManager {
      */
     private void ensurePlayerChunkRecorded() {
         // Skip if ChunkNav overlay is disabled
-        Object val = NConfig.get(NConfig.Key.chunkNavOverlay);
-        if (!(val instanceof Boolean) || !(Boolean) val) {
+        if (!NConfig.getBool(NConfig.Key.chunkNavOverlay)) {
             return;
         }
 
@@ -519,6 +528,9 @@ public class ChunkNavManager {
             return; // Background save in progress
         }
         saveInternal();
+        if (initialized && fileStore != null) {
+            fileStore.saveIndex(graph.getAllChunks());
+        }
     }
 
     /**
@@ -547,12 +559,36 @@ public class ChunkNavManager {
                 }
             }
 
+            // Chunks saved since the last index write are decoded again on the next load,
+            // so the index only needs to catch up now and then
+            long now = System.currentTimeMillis();
+            if (now - lastIndexSave >= INDEX_SAVE_INTERVAL_MS) {
+                lastIndexSave = now;
+                fileStore.saveIndex(graph.getAllChunks());
+            }
+
         } catch (Exception e) {
             System.err.println("ChunkNav: Failed to save data: " + e.getMessage());
             e.printStackTrace();
         }
     }
 
+    /**
+     * Move the cell grids of chunks that are no longer being recorded back into
+     * the mapped region file. Runs on the recording thread, so it never races
+     * with recordGrid().
+     */
+    private void parkIdleChunks() {
+        if (!MAPPED_CELL_STORAGE || fileStore == null) return;
+        long cutoff = System.currentTimeMillis() - PARK_IDLE_MS;
+        for (ChunkNavData chunk : graph.getAllChunks()) {
+            ChunkNavCells cells = chunk.peekCells();
+            if (cells != null && !cells.isMapped() && chunk.lastUpdated < cutoff) {
+                fileStore.park(chunk);
+            }
+        }
+    }
+
     /**
      * Load navigation data from disk.
      * Loads from binary chunk files, with migration from old JSON format if needed.
@@ -572,8 +608,8 @@ public class ChunkNavManager {
                 migrateFromJson();
             }
 
-            // Load all chunk files from directory
-            List<ChunkNavData> loadedChunks = fileStore.loadAllChunks();
+            // Load all chunks through the index; cell grids are loaded on first use
+            List<ChunkNavData> loadedChunks = fileStore.loadIndexedChunks();
 
             // Add chunks to graph
             for (ChunkNavData chunk : loadedChunks) {
@@ -697,6 +733,7 @@ public class ChunkNavManager {
 
         // Delete the chunk file from disk
         fileStore.deleteChunkFile(gridId);
+        fileStore.saveIndex(graph.getAllChunks());
 
         System.out.println("ChunkNav: Deleted chunk " + gridId + " (modified " + modifiedChunks.size() + " neighbors)");
         return true;
@@ -749,18 +786,27 @@ public class ChunkNavManager {
      */
     public void shutdown() {
         initialized = false;
+        dirtyTracker.detach();
 
-        // Shutdown recording executor
+        // Stop recording first: a recording still running parks chunks into the store
         if (recordingExecutor != null) {
             recordingExecutor.shutdown();
             try {
                 if (!recordingExecutor.awaitTermination(2, TimeUnit.SECONDS)) {
                     recordingExecutor.shutdownNow();
+                    if (!recordingExecutor.awaitTermination(2, TimeUnit.SECONDS)) {
+                        System.err.println("ChunkNav: Recording did not stop, closing the store anyway");
+                    }
                 }
             } catch (InterruptedException e) {
                 recordingExecutor.shutdownNow();
+                Thread.currentThread().interrupt();
             }
         }
+
+        if (fileStore != null) {
+            fileStore.close();
+        }
     }
 
     /**
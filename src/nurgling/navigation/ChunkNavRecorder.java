@@ -14,6 +14,7 @@ import static nurgling.navigation.ChunkNavData.Direction;
 /**
  * Records navigation data as the player explores the world.
  * Hooks into grid loading events and samples walkability.
+ * Grids already recorded are only re-sampled where a ChunkNavDirtyTracker saw changes.
  */
 public class ChunkNavRecorder {
     private final ChunkNavGraph graph;
@@ -53,6 +54,25 @@ public class ChunkNavRecorder {
         }
     }
 
+    /**
+     * What a loaded grid was last recorded from: its map data and the player's cell.
+     */
+    private static class Recorded {
+        final MCache.Grid grid;
+        int seq;            // Grid.seq of the sampled map data, -1 to sample in full again
+        Coord window;       // Center of the visibility window
+
+        Recorded(MCache.Grid grid, int seq, Coord window) {
+            this.grid = grid;
+            this.seq = seq;
+            this.window = window;
+        }
+    }
+
+    // Guarded by this
+    private final Map<Long, Recorded> recorded = new HashMap<>();
+    private Set<Long> loadedGrids = Collections.emptySet();
+
     public ChunkNavRecorder(ChunkNavGraph graph) {
         this.graph = graph;
     }
@@ -68,9 +88,13 @@ public class ChunkNavRecorder {
      * Record navigation data for a grid that just became visible.
      * Merges new observations with existing data - tiles observed as walkable update
      * tiles that were previously unknown (blocked due to not being visible).
-     * Re-samples every time to accumulate walkability as player moves around.
+     * Samples every visible cell of the grid; recordChanges() only re-samples what changed.
      */
-    public void recordGrid(MCache.Grid grid) {
+    public synchronized void recordGrid(MCache.Grid grid) {
+        recordGrid(grid, detectLayer());
+    }
+
+    private void recordGrid(MCache.Grid grid, String layer) {
         if (grid == null || grid.ul == null) return;
 
         try {
@@ -86,89 +110,139 @@ public class ChunkNavRecorder {
                 chunk = existing;
                 chunk.gridCoord = gridCoord;
                 chunk.worldTileOrigin = grid.ul;
-                mergeWalkability(grid, chunk);
             } else {
                 // New chunk - create fresh data
                 chunk = new ChunkNavData(grid.id, gridCoord, grid.ul);
-                sampleWalkability(grid, chunk);
             }
 
-            // Assign instanceId from current world context
-            if (manager != null) {
-                long currentInstance = manager.getCurrentInstanceId();
-                if (chunk.instanceId == 0 && currentInstance != 0) {
-                    chunk.instanceId = currentInstance;
-                }
+            int seq = grid.seq;
+            Coord playerCell = getPlayerCell();
+            if (playerCell != null) {
+                boolean resolved = rasterize(grid, chunk, playerCell, null);
+                // Grids with tiles that could not be resolved yet are sampled in full again
+                recorded.put(grid.id, new Recorded(grid, resolved ? seq : -1, playerCell));
             }
 
-            // Portals are recorded only when traversed (via PortalTraversalTracker)
-            // This eliminates phantom portal bugs from proximity-based detection
-            detectLayer(chunk);
-            updateEdgeWalkability(chunk);
-            discoverNeighbors(grid, chunk);
-            chunk.markUpdated();
-
-            graph.addChunk(chunk);
-            graph.updateConnections(chunk);
+            if (layer != null) chunk.layer = layer;
+            finish(grid, chunk, true);
 
         } catch (Exception e) {
         }
     }
 
     /**
-     * Merge new walkability observations with existing chunk data.
-     * Only records cells within gob visibility range (~50 cells = 25 tiles radius).
-     * Cells outside visibility remain unobserved (blocked by default).
+     * Bring the loaded grids up to date with the changes since the last pass.
+     * Grids seen for the first time or with new map data are sampled in full. For the
+     * others, only cells that entered the visibility window or that changed gobs touch
+     * are sampled again, and grids where nothing changed are skipped.
+     * @return false if nothing could be recorded and the changes should be kept
      */
-    private void mergeWalkability(MCache.Grid grid, ChunkNavData chunk) {
-        MCache mcache = getMCache();
-        if (mcache == null) return;
-
-        // Get player's cell position (half-tile resolution)
+    public synchronized boolean recordChanges(List<MCache.Grid> grids, ChunkNavDirtyTracker.Changes changes) {
         Coord playerCell = getPlayerCell();
-        if (playerCell == null) return;
+        if (playerCell == null) return false;
 
-        // Build set of cells blocked by gobs (only includes visible gobs)
-        Set<Long> gobBlockedCells = getGobBlockedCells(grid);
+        Set<Long> ids = new HashSet<>();
+        for (MCache.Grid grid : grids) {
+            ids.add(grid.id);
+        }
+        boolean gridsChanged = !ids.equals(loadedGrids);
+        loadedGrids = ids;
+        // Grids that were unloaded are sampled in full when they come back
+        recorded.keySet().retainAll(ids);
+
+        // The layer depends on all visible gobs, so it only changes with the set of gobs
+        String layer = (changes.all || changes.gobsChanged || gridsChanged) ? detectLayer() : null;
+        String fullLayer = layer;
+
+        for (MCache.Grid grid : grids) {
+            try {
+                Recorded rec = recorded.get(grid.id);
+                ChunkNavData chunk = graph.getChunk(grid.id);
+                if (changes.all || rec == null || rec.grid != grid || rec.seq != grid.seq || chunk == null) {
+                    if (fullLayer == null) fullLayer = detectLayer();
+                    recordGrid(grid, fullLayer);
+                    continue;
+                }
 
-        // Grid origin in cell coordinates
-        Coord gridCellOrigin = new Coord(grid.ul.x * CELLS_PER_TILE, grid.ul.y * CELLS_PER_TILE);
-
-        for (int cx = 0; cx < CELLS_PER_EDGE; cx++) {
-            for (int cy = 0; cy < CELLS_PER_EDGE; cy++) {
-                // Calculate world cell coordinate
-                Coord worldCell = gridCellOrigin.add(cx, cy);
-
-                // Skip cells outside visibility range
-                int dx = Math.abs(worldCell.x - playerCell.x);
-                int dy = Math.abs(worldCell.y - playerCell.y);
-                if (dx > VISIBLE_RADIUS_CELLS || dy > VISIBLE_RADIUS_CELLS) {
-                    continue;  // Leave as unobserved (blocked by default)
+                BitSet dirty = dirtyCells(grid, playerCell, rec.window, changes.rects);
+                rec.window = playerCell;
+                boolean sampled = !dirty.isEmpty();
+                if (sampled && !rasterize(grid, chunk, playerCell, dirty)) {
+                    rec.seq = -1;
+                }
+                if (sampled || layer != null || gridsChanged) {
+                    if (layer != null) chunk.layer = layer;
+                    finish(grid, chunk, gridsChanged);
                 }
+            } catch (Exception e) {
+            }
+        }
+        return true;
+    }
 
-                // Check terrain (terrain is at tile level, so convert cell to tile)
-                // IMPORTANT: Use floorDiv for correct rounding with negative coordinates
-                Coord worldTile = new Coord(Math.floorDiv(worldCell.x, CELLS_PER_TILE),
-                                            Math.floorDiv(worldCell.y, CELLS_PER_TILE));
-                boolean terrainBlocked = isTileBlocked(mcache, worldTile);
+    /**
+     * Update everything derived from the cells of a chunk and publish it to the graph.
+     */
+    private void finish(MCache.Grid grid, ChunkNavData chunk, boolean neighbors) {
+        // Assign instanceId from current world context
+        if (manager != null) {
+            long currentInstance = manager.getCurrentInstanceId();
+            if (chunk.instanceId == 0 && currentInstance != 0) {
+                chunk.instanceId = currentInstance;
+            }
+        }
 
-                // Check gobs
-                long cellKey = ((long) cx << 32) | (cy & 0xFFFFFFFFL);
-                boolean gobBlocked = gobBlockedCells.contains(cellKey);
+        // Portals are recorded only when traversed (via PortalTraversalTracker)
+        // This eliminates phantom portal bugs from proximity-based detection
+        updateEdgeWalkability(chunk);
+        if (neighbors) {
+            discoverNeighbors(grid, chunk);
+        }
+        chunk.markUpdated();
 
-                // Mark cell as observed (uses setObserved for section count tracking)
-                chunk.setObserved(cx, cy, true);
+        graph.addChunk(chunk);
+        graph.updateConnections(chunk);
+        graph.getAbstractGraph().update(chunk);
+    }
 
-                // Record what we observe
-                if (terrainBlocked) {
-                    chunk.walkability[cx][cy] = 2;  // Blocked by terrain
-                } else if (gobBlocked) {
-                    chunk.walkability[cx][cy] = 2;  // Blocked by gob
+    /**
+     * Cells of a grid to sample again, as local indices cx * CELLS_PER_EDGE + cy:
+     * those in the player's visibility window that were outside the window of the
+     * last pass, and those in the window covered by a dirty rectangle.
+     */
+    private BitSet dirtyCells(MCache.Grid grid, Coord playerCell, Coord lastWindow, List<int[]> rects) {
+        BitSet dirty = new BitSet(CELLS_PER_EDGE * CELLS_PER_EDGE);
+        int ox = grid.ul.x * CELLS_PER_TILE, oy = grid.ul.y * CELLS_PER_TILE;
+        int x0 = Math.max(0, playerCell.x - VISIBLE_RADIUS_CELLS - ox);
+        int x1 = Math.min(CELLS_PER_EDGE - 1, playerCell.x + VISIBLE_RADIUS_CELLS - ox);
+        int y0 = Math.max(0, playerCell.y - VISIBLE_RADIUS_CELLS - oy);
+        int y1 = Math.min(CELLS_PER_EDGE - 1, playerCell.y + VISIBLE_RADIUS_CELLS - oy);
+        if (x0 > x1 || y0 > y1) return dirty;
+
+        if (!playerCell.equals(lastWindow)) {
+            int ly0 = lastWindow.y - VISIBLE_RADIUS_CELLS - oy;
+            int ly1 = lastWindow.y + VISIBLE_RADIUS_CELLS - oy;
+            for (int x = x0; x <= x1; x++) {
+                int base = x * CELLS_PER_EDGE;
+                if (Math.abs(ox + x - lastWindow.x) > VISIBLE_RADIUS_CELLS || ly0 > y1 || ly1 < y0) {
+                    dirty.set(base + y0, base + y1 + 1);
                 } else {
-                    chunk.walkability[cx][cy] = 0;  // Walkable
+                    // Column was in the last window; only its ends are new
+                    if (y0 < ly0) dirty.set(base + y0, base + ly0);
+                    if (y1 > ly1) dirty.set(base + ly1 + 1, base + y1 + 1);
                 }
             }
         }
+
+        for (int[] r : rects) {
+            int rx0 = Math.max(x0, r[0] - ox), rx1 = Math.min(x1, r[2] - ox);
+            int ry0 = Math.max(y0, r[1] - oy), ry1 = Math.min(y1, r[3] - oy);
+            if (ry0 > ry1) continue;
+            for (int x = rx0; x <= rx1; x++) {
+                dirty.set(x * CELLS_PER_EDGE + ry0, x * CELLS_PER_EDGE + ry1 + 1);
+            }
+        }
+        return dirty;
     }
 
     /**
@@ -255,109 +329,134 @@ public class ChunkNavRecorder {
 
     /**
      * Sample walkability at half-tile resolution (4 cells per tile).
-     * Only samples cells within gob visibility range (~50 cells = 25 tiles radius).
+     * Only samples cells within gob visibility range (~50 cells = 25 tiles radius),
+     * and of those only the ones in dirty if it is given.
      * Cells outside visibility remain unobserved (blocked by default).
+     * @return false if some tiles could not be resolved yet and were recorded as blocked
      */
-    private void sampleWalkability(MCache.Grid grid, ChunkNavData chunk) {
+    private boolean rasterize(MCache.Grid grid, ChunkNavData chunk, Coord playerCell, BitSet dirty) {
         MCache mcache = getMCache();
-        if (mcache == null) return;
+        if (mcache == null) return false;
 
-        // Get player's cell position (half-tile resolution)
-        Coord playerCell = getPlayerCell();
-        if (playerCell == null) return;
+        // Grid origin in cell coordinates
+        int ox = grid.ul.x * CELLS_PER_TILE, oy = grid.ul.y * CELLS_PER_TILE;
+
+        // Visibility window in local cells
+        int x0 = Math.max(0, playerCell.x - VISIBLE_RADIUS_CELLS - ox);
+        int x1 = Math.min(CELLS_PER_EDGE - 1, playerCell.x + VISIBLE_RADIUS_CELLS - ox);
+        int y0 = Math.max(0, playerCell.y - VISIBLE_RADIUS_CELLS - oy);
+        int y1 = Math.min(CELLS_PER_EDGE - 1, playerCell.y + VISIBLE_RADIUS_CELLS - oy);
+        if (x0 > x1 || y0 > y1) return true;
+
+        if (dirty != null) {
+            // Only look for gobs around the dirty cells
+            int bx0 = CELLS_PER_EDGE, bx1 = -1, by0 = CELLS_PER_EDGE, by1 = -1;
+            for (int i = dirty.nextSetBit(0); i >= 0; i = dirty.nextSetBit(i + 1)) {
+                int cx = i / CELLS_PER_EDGE, cy = i % CELLS_PER_EDGE;
+                bx0 = Math.min(bx0, cx);
+                bx1 = Math.max(bx1, cx);
+                by0 = Math.min(by0, cy);
+                by1 = Math.max(by1, cy);
+            }
+            x0 = Math.max(x0, bx0);
+            x1 = Math.min(x1, bx1);
+            y0 = Math.max(y0, by0);
+            y1 = Math.min(y1, by1);
+            if (x0 > x1 || y0 > y1) return true;
+        }
 
-        // Build set of cells blocked by gobs
-        Set<Long> gobBlockedCells = getGobBlockedCells(grid);
+        // Build set of cells blocked by gobs (only includes visible gobs)
+        Set<Long> gobBlockedCells = getGobBlockedCells(grid, x0, y0, x1, y1);
 
-        // Grid origin in cell coordinates
-        Coord gridCellOrigin = new Coord(grid.ul.x * CELLS_PER_TILE, grid.ul.y * CELLS_PER_TILE);
-
-        for (int cx = 0; cx < CELLS_PER_EDGE; cx++) {
-            for (int cy = 0; cy < CELLS_PER_EDGE; cy++) {
-                // Calculate world cell coordinate
-                Coord worldCell = gridCellOrigin.add(cx, cy);
-
-                // Skip cells outside visibility range
-                int dx = Math.abs(worldCell.x - playerCell.x);
-                int dy = Math.abs(worldCell.y - playerCell.y);
-                if (dx > VISIBLE_RADIUS_CELLS || dy > VISIBLE_RADIUS_CELLS) {
-                    continue;  // Leave as unobserved (blocked by default)
+        boolean resolved = true;
+        if (dirty == null) {
+            for (int cx = x0; cx <= x1; cx++) {
+                for (int cy = y0; cy <= y1; cy++) {
+                    resolved &= sampleCell(mcache, grid, chunk, cx, cy, gobBlockedCells);
                 }
+            }
+        } else {
+            for (int i = dirty.nextSetBit(0); i >= 0; i = dirty.nextSetBit(i + 1)) {
+                int cx = i / CELLS_PER_EDGE, cy = i % CELLS_PER_EDGE;
+                if (cx < x0 || cx > x1 || cy < y0 || cy > y1) continue;
+                resolved &= sampleCell(mcache, grid, chunk, cx, cy, gobBlockedCells);
+            }
+        }
+        return resolved;
+    }
 
-                // Mark as observed (uses setObserved for section count tracking)
-                chunk.setObserved(cx, cy, true);
+    /**
+     * Observe one cell and record its walkability.
+     * @return false if its tile could not be resolved yet
+     */
+    private boolean sampleCell(MCache mcache, MCache.Grid grid, ChunkNavData chunk, int cx, int cy, Set<Long> gobBlockedCells) {
+        // Terrain is at tile level; the grid origin is tile aligned, so local cells map directly
+        int terrain = tileState(mcache, grid, cx / CELLS_PER_TILE, cy / CELLS_PER_TILE);
 
-                // Check terrain (terrain is at tile level, so convert cell to tile)
-                // IMPORTANT: Use floorDiv for correct rounding with negative coordinates
-                Coord worldTile = new Coord(Math.floorDiv(worldCell.x, CELLS_PER_TILE),
-                                            Math.floorDiv(worldCell.y, CELLS_PER_TILE));
-                boolean terrainBlocked = isTileBlocked(mcache, worldTile);
+        long cellKey = ((long) cx << 32) | (cy & 0xFFFFFFFFL);
+        boolean gobBlocked = gobBlockedCells.contains(cellKey);
 
-                // Check gob hitboxes (using local cell coordinates)
-                long cellKey = ((long) cx << 32) | (cy & 0xFFFFFFFFL);
-                boolean gobBlocked = gobBlockedCells.contains(cellKey);
+        // Mark cell as observed (uses setObserved for section count tracking)
+        chunk.setObserved(cx, cy, true);
 
-                // Classify cell: 0 = walkable, 2 = blocked
-                if (terrainBlocked) {
-                    chunk.walkability[cx][cy] = 2;  // Blocked
-                } else if (gobBlocked) {
-                    chunk.walkability[cx][cy] = 2;  // Blocked
-                } else {
-                    chunk.walkability[cx][cy] = 0;  // Walkable
-                }
-            }
+        // Classify cell: 0 = walkable, 2 = blocked (by terrain or gob)
+        if (terrain != TILE_OPEN || gobBlocked) {
+            chunk.setWalkability(cx, cy, (byte) 2);
+        } else {
+            chunk.setWalkability(cx, cy, (byte) 0);
         }
+        return terrain != TILE_UNKNOWN;
     }
 
+    private static final int TILE_OPEN = 0, TILE_BLOCKED = 1, TILE_UNKNOWN = 2;
+
     /**
-     * Check if a tile is blocked by terrain.
+     * Check if a tile of a grid is blocked by terrain.
+     * Tiles whose tileset is not known yet are reported as unknown.
      */
-    private boolean isTileBlocked(MCache mcache, Coord tileCoord) {
+    private int tileState(MCache mcache, MCache.Grid grid, int tx, int ty) {
         try {
-            String tileName = mcache.tilesetname(mcache.gettile(tileCoord));
-            if (tileName == null) return true;  // Unknown tile = blocked (safer default)
+            String tileName = mcache.tilesetname(grid.gettile(new Coord(tx, ty)));
+            if (tileName == null) return TILE_UNKNOWN;  // Blocked until known (safer default)
 
             for (String blocked : BLOCKED_TILES) {
                 if (tileName.startsWith(blocked) || tileName.equals(blocked)) {
-                    return true;
+                    return TILE_BLOCKED;
                 }
             }
-            return false;
+            return TILE_OPEN;
         } catch (Exception e) {
-            return true; // Tile not loaded = blocked (safer default)
+            return TILE_UNKNOWN;
         }
     }
 
     /**
-     * Get set of all cells blocked by gobs in this grid.
+     * Get set of cells blocked by gobs in a rectangle of local cells of this grid.
      * Returns cell keys as (localX << 32) | localY for efficient lookup.
      * Uses half-tile (cell) resolution matching NPFMap for precise hitbox projection.
      * Uses intersection testing for accurate rotated hitbox handling.
      */
-    private Set<Long> getGobBlockedCells(MCache.Grid grid) {
+    private Set<Long> getGobBlockedCells(MCache.Grid grid, int x0, int y0, int x1, int y1) {
         Set<Long> blockedCells = new HashSet<>();
 
         try {
             Glob glob = NUtils.getGameUI().ui.sess.glob;
             long playerId = NUtils.player() != null ? NUtils.player().id : -1;
 
-            // Grid bounds in world coordinates
-            Coord2d gridWorldUL = grid.ul.mul(MCache.tilesz);
-            Coord2d gridWorldBR = grid.ul.add(CHUNK_SIZE, CHUNK_SIZE).mul(MCache.tilesz);
-
             // Grid origin in cell coordinates
             Coord gridCellOrigin = new Coord(grid.ul.x * CELLS_PER_TILE, grid.ul.y * CELLS_PER_TILE);
 
-            // Quick copy of gob data while holding lock - minimizes lock time
+            // World bounds of the rectangle, widened so every gob whose hitbox reaches into it is found
+            double reach = NHitBox.maxReach() + MCache.tilesz.x;
+            Coord2d ul = nurgling.pf.Utils.pfGridToWorld(gridCellOrigin.add(x0, y0)).sub(reach, reach);
+            Coord2d br = nurgling.pf.Utils.pfGridToWorld(gridCellOrigin.add(x1, y1)).add(reach, reach);
+
             List<GobSnapshot> snapshots = new ArrayList<>();
-            synchronized (glob.oc) {
-                for (Gob gob : glob.oc) {
-                    if (gob.ngob == null || gob.ngob.hitBox == null) continue;
-                    snapshots.add(new GobSnapshot(gob));
-                }
+            for (Gob gob : glob.oc.index.area(ul, br)) {
+                if (gob.ngob == null || gob.ngob.hitBox == null) continue;
+                snapshots.add(new GobSnapshot(gob));
             }
 
-            // Process snapshots WITHOUT holding the lock - expensive operations here
             for (GobSnapshot snap : snapshots) {
                 if (snap.hitBox == null) continue;
                 if (snap.isFollowing) continue;
@@ -369,12 +468,6 @@ public class ChunkNavRecorder {
                 // Gates are only passable when open
                 if (isPassableGob(snap)) continue;
 
-                // Quick bounds check - skip gobs clearly outside this grid
-                if (snap.rc.x < gridWorldUL.x - 50 || snap.rc.x > gridWorldBR.x + 50 ||
-                    snap.rc.y < gridWorldUL.y - 50 || snap.rc.y > gridWorldBR.y + 50) {
-                    continue;
-                }
-
                 // Compute hitbox in world space with rotation
                 nurgling.pf.NHitBoxD worldHitBox = new nurgling.pf.NHitBoxD(
                     snap.hitBox.begin, snap.hitBox.end, snap.rc, snap.angle
@@ -384,13 +477,15 @@ public class ChunkNavRecorder {
                 Coord2d hitUL = worldHitBox.getCircumscribedUL();
                 Coord2d hitBR = worldHitBox.getCircumscribedBR();
 
-                // Convert to cell coordinates using NPFMap's conversion
+                // Convert to cell coordinates using NPFMap's conversion, clipped to the rectangle
                 Coord cellUL = nurgling.pf.Utils.toPfGrid(hitUL);
                 Coord cellBR = nurgling.pf.Utils.toPfGrid(hitBR);
+                int px0 = Math.max(cellUL.x, gridCellOrigin.x + x0), px1 = Math.min(cellBR.x, gridCellOrigin.x + x1);
+                int py0 = Math.max(cellUL.y, gridCellOrigin.y + y0), py1 = Math.min(cellBR.y, gridCellOrigin.y + y1);
 
                 // For each cell in the bounding box, do intersection test
-                for (int px = cellUL.x; px <= cellBR.x; px++) {
-                    for (int py = cellUL.y; py <= cellBR.y; py++) {
+                for (int px = px0; px <= px1; px++) {
+                    for (int py = py0; py <= py1; py++) {
                         // Create a unit square hitbox for this cell
                         nurgling.pf.NHitBoxD cellBox = new nurgling.pf.NHitBoxD(new Coord(px, py));
 
@@ -398,12 +493,8 @@ public class ChunkNavRecorder {
                         if (cellBox.intersects(worldHitBox, false)) {
                             int localX = px - gridCellOrigin.x;
                             int localY = py - gridCellOrigin.y;
-
-                            if (localX >= 0 && localX < CELLS_PER_EDGE &&
-                                localY >= 0 && localY < CELLS_PER_EDGE) {
-                                long cellKey = ((long) localX << 32) | (localY & 0xFFFFFFFFL);
-                                blockedCells.add(cellKey);
-                            }
+                            long cellKey = ((long) localX << 32) | (localY & 0xFFFFFFFFL);
+                            blockedCells.add(cellKey);
                         }
                     }
                 }
@@ -482,12 +573,13 @@ public class ChunkNavRecorder {
      * - "cellar" if we see cellarstairs
      * - "inside" if we see a door but no building exterior (we're inside a building)
      * - "outside" for everything else (surface, mines, etc.)
+     * @return the layer, or null if it cannot be detected yet
      */
-    private void detectLayer(ChunkNavData chunk) {
+    private String detectLayer() {
         try {
             NGameUI gui = NUtils.getGameUI();
             if (gui == null || gui.ui == null || gui.ui.sess == null || gui.ui.sess.glob == null) {
-                return; // GUI not ready, layer will be detected on next recording
+                return null; // GUI not ready, layer will be detected on next recording
             }
             Glob glob = gui.ui.sess.glob;
 
@@ -517,15 +609,16 @@ public class ChunkNavRecorder {
             }
 
             if (hasCellarStairs) {
-                chunk.layer = "cellar";
+                return "cellar";
             } else if (hasInsideIndicator && !hasBuildingExterior) {
-                chunk.layer = "inside";
+                return "inside";
             } else {
-                chunk.layer = "outside";
+                return "outside";
             }
 
         } catch (Exception e) {
             // Ignore layer detection errors
+            return null;
         }
     }
 
@@ -542,16 +635,16 @@ public class ChunkNavRecorder {
     private void updateEdgeWalkability(ChunkNavData chunk) {
         for (int i = 0; i < CELLS_PER_EDGE; i++) {
             // North edge (y = 0)
-            chunk.northEdge[i].walkable = chunk.walkability[i][0] <= 1;
+            chunk.setEdgeWalkable(Direction.NORTH, i, chunk.getWalkability(i, 0) <= 1);
 
             // South edge (y = max)
-            chunk.southEdge[i].walkable = chunk.walkability[i][CELLS_PER_EDGE - 1] <= 1;
+            chunk.setEdgeWalkable(Direction.SOUTH, i, chunk.getWalkability(i, CELLS_PER_EDGE - 1) <= 1);
 
             // West edge (x = 0)
-            chunk.westEdge[i].walkable = chunk.walkability[0][i] <= 1;
+            chunk.setEdgeWalkable(Direction.WEST, i, chunk.getWalkability(0, i) <= 1);
 
             // East edge (x = max)
-            chunk.eastEdge[i].walkable = chunk.walkability[CELLS_PER_EDGE - 1][i] <= 1;
+            chunk.setEdgeWalkable(Direction.EAST, i, chunk.getWalkability(CELLS_PER_EDGE - 1, i) <= 1);
         }
     }
 
@@ -577,15 +670,12 @@ public class ChunkNavRecorder {
         Direction dir = getDirection(chunkA.gridCoord, chunkB.gridCoord);
         if (dir == null) return; // Not adjacent
 
-        EdgePoint[] edgeA = chunkA.getEdge(dir);
-        EdgePoint[] edgeB = chunkB.getEdge(dir.opposite());
-
         boolean hasConnection = false;
         for (int i = 0; i < CELLS_PER_EDGE; i++) {
             // Both sides must be walkable
-            boolean canCross = edgeA[i].walkable && edgeB[i].walkable;
-            edgeA[i].walkable = canCross;
-            edgeB[i].walkable = canCross;
+            boolean canCross = chunkA.isEdgeWalkable(dir, i) && chunkB.isEdgeWalkable(dir.opposite(), i);
+            chunkA.setEdgeWalkable(dir, i, canCross);
+            chunkB.setEdgeWalkable(dir.opposite(), i, canCross);
 
             if (canCross) hasConnection = true;
         }
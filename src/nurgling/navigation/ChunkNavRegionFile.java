@@ -0,0 +1,144 @@
+package nurgling.navigation;
+
+import java.io.IOException;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Memory-mapped region file holding the packed cell grids of loaded chunks,
+ * one fixed-size slot per chunk, so they stay off the Java heap.
+ * The region is a per-session cache next to the .chunk files: each session
+ * starts a fresh file, and files left behind by earlier sessions are removed.
+ * The file is mapped in segments of SLOTS_PER_SEGMENT slots and only grows;
+ * released slots are reused once no reader can still be looking at them, that is
+ * once the released view has been garbage collected: the view is the only way to
+ * the slot's bytes.
+ */
+public class ChunkNavRegionFile {
+    private static final String REGION_PREFIX = "cells-";
+    private static final String REGION_EXTENSION = ".region";
+    private static final int SLOTS_PER_SEGMENT = 256;
+    private static final long SEGMENT_BYTES = (long) SLOTS_PER_SEGMENT * ChunkNavCells.BYTES;
+
+    private final Path file;
+    private final FileChannel channel;
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+    private int slots = 0;
+    // Released views that searches or caches may still hold, and slots free for reuse
+    private final Set<SlotRef> released = new HashSet<>();
+    private final ReferenceQueue<ChunkNavCells> collected = new ReferenceQueue<>();
+    private final ArrayDeque<Integer> free = new ArrayDeque<>();
+
+    private static class SlotRef extends WeakReference<ChunkNavCells> {
+        final int slot;
+
+        SlotRef(ChunkNavCells view, ReferenceQueue<ChunkNavCells> queue) {
+            super(view, queue);
+            this.slot = view.slot;
+        }
+    }
+
+    private ChunkNavRegionFile(Path file, FileChannel channel) {
+        this.file = file;
+        this.channel = channel;
+    }
+
+    /**
+     * Open a fresh region file in the chunk directory.
+     */
+    public static ChunkNavRegionFile create(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        cleanup(directory);
+        Path file = Files.createTempFile(directory, REGION_PREFIX, REGION_EXTENSION);
+        file.toFile().deleteOnExit();
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        return new ChunkNavRegionFile(file, channel);
+    }
+
+    /**
+     * Remove region files of earlier sessions. Files still mapped by another
+     * client cannot be deleted on some platforms and are left alone.
+     */
+    private static void cleanup(Path directory) {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, REGION_PREFIX + "*" + REGION_EXTENSION)) {
+            for (Path old : stream) {
+                try {
+                    Files.delete(old);
+                } catch (IOException e) {
+                    // Ignore - still in use
+                }
+            }
+        } catch (IOException e) {
+            // Ignore
+        }
+    }
+
+    /**
+     * Copy a chunk's packed grids into a new slot and return a mapped view of it.
+     */
+    public synchronized ChunkNavCells store(ChunkNavCells cells) throws IOException {
+        reclaim();
+        Integer reuse = free.pollFirst();
+        int slot = (reuse != null) ? reuse : slots++;
+        int seg = slot / SLOTS_PER_SEGMENT;
+        if (seg == segments.size()) {
+            segments.add(channel.map(FileChannel.MapMode.READ_WRITE, seg * SEGMENT_BYTES, SEGMENT_BYTES));
+        }
+        ByteBuffer buf = segments.get(seg).duplicate();
+        buf.position((slot % SLOTS_PER_SEGMENT) * ChunkNavCells.BYTES);
+        buf.limit(buf.position() + ChunkNavCells.BYTES);
+        ByteBuffer slice = buf.slice();
+        cells.copyTo(slice.duplicate());
+        ChunkNavCells view = ChunkNavCells.mapped(slice, slot);
+        view.copyVersion(cells);
+        return view;
+    }
+
+    /**
+     * Give back the slot of cells that were stored here and are no longer used.
+     */
+    public synchronized void release(ChunkNavCells cells) {
+        if (cells.slot >= 0) {
+            released.add(new SlotRef(cells, collected));
+        }
+    }
+
+    /**
+     * Free the slots of released views nobody holds any more.
+     */
+    private void reclaim() {
+        Reference<? extends ChunkNavCells> ref;
+        while ((ref = collected.poll()) != null) {
+            if (released.remove(ref)) {
+                free.addLast(((SlotRef) ref).slot);
+            }
+        }
+    }
+
+    public synchronized int getSlotCount() {
+        reclaim();
+        return slots - free.size() - released.size();
+    }
+
+    /**
+     * Close the channel. Mapped views stay readable until they are garbage collected.
+     */
+    public synchronized void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // Ignore
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            // Ignore - removed by the next session
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package nurgling.navigation;
+
+import java.util.Arrays;
+
+/**
+ * Binary min-heap over dense int ids with a position index, so that
+ * contains() is O(1) and decreasing a key is O(log n).
+ */
+public class IndexedMinHeap {
+    private int[] heap;
+    private int[] pos;      // heap position per id, -1 when not queued
+    private double[] keys;  // key per id
+    private int size = 0;
+
+    public IndexedMinHeap() {
+        this(1024);
+    }
+
+    public IndexedMinHeap(int capacity) {
+        capacity = Math.max(capacity, 16);
+        heap = new int[capacity];
+        pos = new int[capacity];
+        keys = new double[capacity];
+        Arrays.fill(pos, -1);
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean contains(int id) {
+        return id < pos.length && pos[id] >= 0;
+    }
+
+    public double key(int id) {
+        return keys[id];
+    }
+
+    /**
+     * Inserts {@code id}, or moves it up if it is already queued with a larger key.
+     */
+    public void offer(int id, double key) {
+        ensure(id);
+        int p = pos[id];
+        if (p < 0) {
+            if (size == heap.length)
+                heap = Arrays.copyOf(heap, heap.length * 2);
+            keys[id] = key;
+            heap[size] = id;
+            pos[id] = size;
+            up(size++);
+        } else if (key < keys[id]) {
+            keys[id] = key;
+            up(p);
+        }
+    }
+
+    public int poll() {
+        int res = heap[0];
+        pos[res] = -1;
+        if (--size > 0) {
+            heap[0] = heap[size];
+            pos[heap[0]] = 0;
+            down(0);
+        }
+        return res;
+    }
+
+    public void clear() {
+        for (int i = 0; i < size; i++)
+            pos[heap[i]] = -1;
+        size = 0;
+    }
+
+    private void ensure(int id) {
+        if (id >= pos.length) {
+            int ncap = Math.max(id + 1, pos.length * 2);
+            int ocap = pos.length;
+            pos = Arrays.copyOf(pos, ncap);
+            Arrays.fill(pos, ocap, ncap, -1);
+            keys = Arrays.copyOf(keys, ncap);
+        }
+    }
+
+    private void up(int i) {
+        int id = heap[i];
+        double key = keys[id];
+        while (i > 0) {
+            int p = (i - 1) >>> 1;
+            int pid = heap[p];
+            if (keys[pid] <= key)
+                break;
+            heap[i] = pid;
+            pos[pid] = i;
+            i = p;
+        }
+        heap[i] = id;
+        pos[id] = i;
+    }
+
+    private void down(int i) {
+        int id = heap[i];
+        double key = keys[id];
+        int half = size >>> 1;
+        while (i < half) {
+            int c = 2 * i + 1;
+            int r = c + 1;
+            if (r < size && keys[heap[r]] < keys[heap[c]])
+                c = r;
+            int cid = heap[c];
+            if (key <= keys[cid])
+                break;
+            heap[i] = cid;
+            pos[cid] = i;
+            i = c;
+        }
+        heap[i] = id;
+        pos[id] = i;
+    }
+}
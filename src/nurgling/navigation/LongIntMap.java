@@ -0,0 +1,97 @@
+package nurgling.navigation;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash map from long keys to int values, with linear probing.
+ * Used by the navigation searches to index nodes and chunks without boxing.
+ * Entries cannot be removed individually, only all at once with clear().
+ */
+public class LongIntMap {
+    private static final int FREE = 0;
+    private static final int USED = 1;
+
+    private long[] keys;
+    private int[] vals;
+    private byte[] state;
+    private int size = 0;
+    private int mask;
+
+    public LongIntMap() {
+        this(16);
+    }
+
+    public LongIntMap(int expected) {
+        int cap = Integer.highestOneBit(Math.max(expected * 2, 16) - 1) << 1;
+        alloc(cap);
+    }
+
+    private void alloc(int cap) {
+        keys = new long[cap];
+        vals = new int[cap];
+        state = new byte[cap];
+        mask = cap - 1;
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    public int get(long key, int def) {
+        for (int i = hash(key) & mask; ; i = (i + 1) & mask) {
+            if (state[i] == FREE)
+                return def;
+            if (keys[i] == key)
+                return vals[i];
+        }
+    }
+
+    public boolean containsKey(long key) {
+        for (int i = hash(key) & mask; ; i = (i + 1) & mask) {
+            if (state[i] == FREE)
+                return false;
+            if (keys[i] == key)
+                return true;
+        }
+    }
+
+    public void put(long key, int val) {
+        if ((size + 1) * 2 > keys.length)
+            rehash(keys.length * 2);
+        for (int i = hash(key) & mask; ; i = (i + 1) & mask) {
+            if (state[i] == FREE) {
+                state[i] = USED;
+                keys[i] = key;
+                vals[i] = val;
+                size++;
+                return;
+            }
+            if (keys[i] == key) {
+                vals[i] = val;
+                return;
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        Arrays.fill(state, (byte) FREE);
+        size = 0;
+    }
+
+    private void rehash(int cap) {
+        long[] okeys = keys;
+        int[] ovals = vals;
+        byte[] ostate = state;
+        alloc(cap);
+        size = 0;
+        for (int i = 0; i < okeys.length; i++) {
+            if (ostate[i] == USED)
+                put(okeys[i], ovals[i]);
+        }
+    }
+}
@@ -49,7 +49,7 @@ public class UnifiedTilePathfinder {
                 int cx = cellX + dx;
                 int cy = cellY + dy;
                 if (cx >= 0 && cx < CELLS_PER_EDGE && cy >= 0 && cy < CELLS_PER_EDGE) {
-                    if (chunk.walkability[cx][cy] == 0) {
+                    if (chunk.getWalkability(cx, cy) == 0) {
                         return true;  // At least one sub-cell is walkable
                     }
                 }
@@ -93,7 +93,7 @@ public class UnifiedTilePathfinder {
             int cx = cellX + offset[0];
             int cy = cellY + offset[1];
             if (cx >= 0 && cx < CELLS_PER_EDGE && cy >= 0 && cy < CELLS_PER_EDGE) {
-                if (chunk.walkability[cx][cy] == 0) {
+                if (chunk.getWalkability(cx, cy) == 0) {
                     // Count how many of the 8 neighbors are also walkable (higher = safer)
                     int score = 0;
                     for (int dx = -1; dx <= 1; dx++) {
@@ -102,7 +102,7 @@ public class UnifiedTilePathfinder {
                             int nx = cx + dx;
                             int ny = cy + dy;
                             if (nx >= 0 && nx < CELLS_PER_EDGE && ny >= 0 && ny < CELLS_PER_EDGE) {
-                                if (chunk.walkability[nx][ny] == 0) {
+                                if (chunk.getWalkability(nx, ny) == 0) {
                                     score++;
                                 }
                             }
@@ -178,217 +178,654 @@ public class UnifiedTilePathfinder {
         //     System.out.println("[UnifiedTilePathfinder] DIFFERENT LAYERS: " + startChunk.layer + " -> " + targetChunk.layer);
         // }
 
-        // A* data structures
-        PriorityQueue<AStarNode> openSet = new PriorityQueue<>(Comparator.comparingDouble(n -> n.f));
-        Map<TileNode, AStarNode> allNodes = new HashMap<>();
-        Set<TileNode> closedSet = new HashSet<>();
+        // Plan on the entrance graph first; the full tile search covers the cases
+        // the abstraction misses (e.g. diagonal-only chunk crossings)
+        if (inChunk(startLocal) && inChunk(targetLocal)) {
+            UnifiedPath path = new AbstractSearch(targetChunkId, targetChunk, targetLocal)
+                    .run(startChunkId, startChunk, startLocal);
+            if (path != null) {
+                return path;
+            }
+        }
+        return new Search(targetChunkId, targetChunk, targetLocal).run(startChunkId, startChunk, startLocal);
+    }
 
-        // Initialize start node
-        TileNode startTile = new TileNode(startChunkId, startLocal);
-        TileNode targetTile = new TileNode(targetChunkId, targetLocal);
+    private static boolean inChunk(Coord c) {
+        return c.x >= 0 && c.x < CHUNK_SIZE && c.y >= 0 && c.y < CHUNK_SIZE;
+    }
 
-        AStarNode startNode = new AStarNode(startTile);
-        startNode.g = 0;
-        startNode.h = heuristic(startTile, targetTile);
-        startNode.f = startNode.g + startNode.h;
+    private static final int MAX_ITERATIONS = 500000; // Safety limit - increased for large maps
+    private static final int UNKNOWN = Integer.MIN_VALUE;
 
-        openSet.add(startNode);
-        allNodes.put(startTile, startNode);
+    // 8-directional movement within chunk
+    private static final int[] DIR_X = {0, 0, -1, 1, -1, -1, 1, 1};
+    private static final int[] DIR_Y = {-1, 1, 0, 0, -1, 1, -1, 1};
 
-        int iterations = 0;
-        int maxIterations = 500000; // Safety limit - increased for large maps
+    /**
+     * State of one findPath() call. Nodes are identified by a packed long key
+     * (dense chunk index plus local tile) and stored in parallel arrays
+     * indexed by a dense node id, so expansion allocates no per-node objects.
+     */
+    private final class Search {
+        // Chunks touched by the search, by dense index
+        private final LongIntMap chunkIndex = new LongIntMap(64);
+        private long[] chunkIds = new long[16];
+        private ChunkNavData[] chunks = new ChunkNavData[16];
+        private int[] portalDepth = new int[16];
+        private int[] neighborDist = new int[16];
+        private int nchunks = 0;
+
+        // Nodes, by dense id
+        private final LongIntMap nodeIndex = new LongIntMap(4096);
+        private long[] keys = new long[1024];
+        private double[] g = new double[1024];
+        private int[] parent = new int[1024];
+        private boolean[] viaPortal = new boolean[1024];
+        private boolean[] closed = new boolean[1024];
+        private int nnodes = 0;
+        private final IndexedMinHeap openSet = new IndexedMinHeap(1024);
+
+        private final int targetIdx;
+        private final ChunkNavData targetChunk;
+        private final int tx, ty;
+
+        Search(long targetChunkId, ChunkNavData targetChunk, Coord targetLocal) {
+            this.targetChunk = targetChunk;
+            this.targetIdx = chunkIdx(targetChunkId, targetChunk);
+            this.tx = targetLocal.x;
+            this.ty = targetLocal.y;
+        }
 
-        // Track unique chunks explored for diagnostics
-        Set<Long> chunksExplored = new HashSet<>();
+        UnifiedPath run(long startChunkId, ChunkNavData startChunk, Coord startLocal) {
+            int startIdx = chunkIdx(startChunkId, startChunk);
+            int start = node(startIdx, startLocal.x, startLocal.y);
+            g[start] = 0;
+            openSet.offer(start, heuristic(startIdx, startLocal.x, startLocal.y));
 
-        // System.out.println("[UnifiedTilePathfinder] Starting A* search...");
-        // long searchStartTime = System.currentTimeMillis();
+            int iterations = 0;
+            while (!openSet.isEmpty() && iterations < MAX_ITERATIONS) {
+                iterations++;
 
-        while (!openSet.isEmpty() && iterations < maxIterations) {
-            iterations++;
+                int current = openSet.poll();
+                long key = keys[current];
+                int cidx = unpackChunk(key), x = unpackX(key), y = unpackY(key);
 
-            AStarNode current = openSet.poll();
-            chunksExplored.add(current.tile.chunkId);
+                if (cidx == targetIdx && x == tx && y == ty) {
+                    // Found path - reconstruct it
+                    return reconstructPath(current);
+                }
 
-            if (current.tile.equals(targetTile)) {
-                // Found path - reconstruct it
-                // System.out.println("[UnifiedTilePathfinder] PATH FOUND! Iterations: " + iterations + ", chunks: " + chunksExplored.size());
-                return reconstructPath(current);
+                closed[current] = true;
+                expand(current, cidx, x, y);
             }
 
-            closedSet.add(current.tile);
+            // Path not found
+            return null;
+        }
+
+        /**
+         * Relax all walkable neighbors of a tile:
+         * 1. Adjacent tiles in the same chunk
+         * 2. Tiles in adjacent chunks (edge crossings)
+         * 3. Portal destinations
+         */
+        private void expand(int current, int cidx, int x, int y) {
+            ChunkNavData chunk = chunks[cidx];
 
-            // Expand neighbors
-            List<TileNode> neighbors = getNeighbors(current.tile);
+            for (int d = 0; d < DIR_X.length; d++) {
+                int nx = x + DIR_X[d];
+                int ny = y + DIR_Y[d];
 
-            for (TileNode neighborTile : neighbors) {
-                if (closedSet.contains(neighborTile)) {
-                    continue;
+                if (nx >= 0 && nx < CHUNK_SIZE && ny >= 0 && ny < CHUNK_SIZE) {
+                    // Same chunk - check tile walkability (any of 2x2 cells walkable)
+                    if (isTileWalkable(chunk, nx, ny)) {
+                        relax(current, cidx, x, y, cidx, nx, ny, false);
+                    }
+                } else {
+                    // Edge crossing - find adjacent chunk
+                    crossChunk(current, cidx, x, y, nx, ny);
                 }
+            }
 
-                // Calculate cost to neighbor
-                double tentativeG = current.g + moveCost(current.tile, neighborTile);
-
-                AStarNode neighborNode = allNodes.get(neighborTile);
-                if (neighborNode == null) {
-                    neighborNode = new AStarNode(neighborTile);
-                    neighborNode.g = Double.MAX_VALUE;
-                    allNodes.put(neighborTile, neighborNode);
+            // Portal connections
+            long chunkId = chunkIds[cidx];
+            if (!excludedPortalChunks.isEmpty() && excludedPortalChunks.contains(chunkId))
+                return;
+            for (ChunkPortal portal : chunk.portals) {
+                if (portal.localCoord != null && portal.connectsToGridId != -1) {
+                    double pdx = x - portal.localCoord.x, pdy = y - portal.localCoord.y;
+                    double dist = Math.sqrt(pdx * pdx + pdy * pdy);
+                    // Building exteriors use larger proximity (6 tiles vs 2)
+                    boolean exterior = ChunkPortal.isBuildingExterior(portal.gobName);
+                    int portalProximity = exterior ? 6 : 2;
+                    if (dist <= portalProximity) {
+                        // Skip "phantom" building exterior portals at chunk edges
+                        if (exterior && isAtChunkEdge(portal.localCoord, 5)) {
+                            continue;
+                        }
+                        int didx = chunkIdx(portal.connectsToGridId);
+                        if (didx >= 0) {
+                            ChunkNavData destChunk = chunks[didx];
+                            // Validate portal type vs target layer
+                            if (!isPortalTargetLayerValid(portal.type, destChunk.layer)) {
+                                continue; // Stale connection - skip
+                            }
+                            Coord exitCoord = findPortalExitCoord(destChunk, portal, chunkId);
+                            if (exitCoord != null) {
+                                relax(current, cidx, x, y, didx, exitCoord.x, exitCoord.y, true);
+                            }
+                        }
+                    }
                 }
+            }
+        }
 
-                if (tentativeG < neighborNode.g) {
-                    neighborNode.parent = current;
-                    neighborNode.viaPortalFromParent = neighborTile.viaPortal;  // Store how we got here
-                    neighborNode.g = tentativeG;
-                    neighborNode.h = heuristic(neighborTile, targetTile);
-                    neighborNode.f = neighborNode.g + neighborNode.h;
+        /**
+         * Relax the tile in an adjacent chunk when crossing an edge.
+         * Uses neighbor relationships (persistent) instead of gridCoord (session-based).
+         * All coordinates are in tile space (0-99).
+         */
+        private void crossChunk(int current, int cidx, int x, int y, int nx, int ny) {
+            ChunkNavData fromChunk = chunks[cidx];
+            // Determine which direction we're crossing and find neighbor
+            int newX = nx, newY = ny;
+            long neighborId = -1;
+
+            if (nx < 0) {
+                neighborId = fromChunk.neighborWest;
+                newX = CHUNK_SIZE - 1;
+            } else if (nx >= CHUNK_SIZE) {
+                neighborId = fromChunk.neighborEast;
+                newX = 0;
+            }
 
-                    if (!openSet.contains(neighborNode)) {
-                        openSet.add(neighborNode);
+            if (ny < 0) {
+                // If also crossing horizontally, this is diagonal - need to handle specially
+                if (neighborId != -1) {
+                    // Diagonal crossing - get the diagonal neighbor through corner
+                    // For simplicity, prefer horizontal then vertical
+                    ChunkNavData horzNeighbor = graph.getChunk(neighborId);
+                    if (horzNeighbor != null) {
+                        neighborId = horzNeighbor.neighborNorth;
                     }
+                } else {
+                    neighborId = fromChunk.neighborNorth;
                 }
+                newY = CHUNK_SIZE - 1;
+            } else if (ny >= CHUNK_SIZE) {
+                if (neighborId != -1) {
+                    ChunkNavData horzNeighbor = graph.getChunk(neighborId);
+                    if (horzNeighbor != null) {
+                        neighborId = horzNeighbor.neighborSouth;
+                    }
+                } else {
+                    neighborId = fromChunk.neighborSouth;
+                }
+                newY = 0;
             }
-        }
 
-        // Path not found
-        // System.out.println("[UnifiedTilePathfinder] NO PATH FOUND! Iterations: " + iterations + ", chunks explored: " + chunksExplored.size());
-        // if (openSet.isEmpty()) {
-        //     System.out.println("[UnifiedTilePathfinder] Search exhausted - no connection to target");
-        // }
+            if (neighborId == -1) return;
 
-        return null;
-    }
+            int nidx = chunkIdx(neighborId);
+            if (nidx < 0) return;
+            ChunkNavData neighborChunk = chunks[nidx];
 
-    /**
-     * Get all walkable neighbors of a tile.
-     * This includes:
-     * 1. Adjacent tiles in the same chunk
-     * 2. Tiles in adjacent chunks (edge crossings)
-     * 3. Portal destinations
-     */
-    private List<TileNode> getNeighbors(TileNode tile) {
-        List<TileNode> neighbors = new ArrayList<>();
+            // Must be same layer
+            if (!fromChunk.layer.equals(neighborChunk.layer)) return;
 
-        ChunkNavData chunk = graph.getChunk(tile.chunkId);
-        if (chunk == null) return neighbors;
+            // Must be same known instance (prevents cross-instance walking)
+            if (fromChunk.instanceId == 0 || neighborChunk.instanceId == 0) return;
+            if (fromChunk.instanceId != neighborChunk.instanceId) return;
 
-        int x = tile.localCoord.x;
-        int y = tile.localCoord.y;
+            // Check if target tile is walkable (any of 2x2 cells)
+            if (isTileWalkable(neighborChunk, newX, newY)) {
+                relax(current, cidx, x, y, nidx, newX, newY, false);
+            }
+        }
 
-        // 8-directional movement within chunk
-        int[][] dirs = {{0, -1}, {0, 1}, {-1, 0}, {1, 0}, {-1, -1}, {-1, 1}, {1, -1}, {1, 1}};
+        private void relax(int current, int cidx, int x, int y, int nidx, int nx, int ny, boolean portal) {
+            int neighbor = node(nidx, nx, ny);
+            if (closed[neighbor]) {
+                return;
+            }
 
-        for (int[] dir : dirs) {
-            int nx = x + dir[0];
-            int ny = y + dir[1];
+            // Calculate cost to neighbor
+            double tentativeG = g[current] + moveCost(cidx, x, y, nidx, nx, ny);
+            if (tentativeG < g[neighbor]) {
+                parent[neighbor] = current;
+                viaPortal[neighbor] = portal;  // Store how we got here
+                g[neighbor] = tentativeG;
+                openSet.offer(neighbor, tentativeG + heuristic(nidx, nx, ny));
+            }
+        }
 
-            if (nx >= 0 && nx < CHUNK_SIZE && ny >= 0 && ny < CHUNK_SIZE) {
-                // Same chunk - check tile walkability (any of 2x2 cells walkable)
-                if (isTileWalkable(chunk, nx, ny)) {
-                    neighbors.add(new TileNode(tile.chunkId, new Coord(nx, ny)));
-                }
-            } else {
-                // Edge crossing - find adjacent chunk
-                TileNode crossedTile = getCrossChunkTile(chunk, nx, ny);
-                if (crossedTile != null) {
-                    neighbors.add(crossedTile);
-                }
+        /**
+         * Calculate movement cost between two tiles.
+         */
+        private double moveCost(int fidx, int fx, int fy, int tidx, int tx, int ty) {
+            if (fidx == tidx) {
+                // Same chunk - distance-based cost
+                double dx = fx - tx, dy = fy - ty;
+                return Math.sqrt(dx * dx + dy * dy);
+            }
+
+            // Cross-chunk movement
+            if (!chunks[fidx].layer.equals(chunks[tidx].layer)) {
+                // Portal traversal - use config cost
+                return ChunkNavConfig.PORTAL_TRAVERSAL_COST;
             }
+
+            // Edge crossing - small cost
+            return 1.5;
         }
 
-        // Portal connections
-        boolean chunkExcluded = !excludedPortalChunks.isEmpty() && excludedPortalChunks.contains(tile.chunkId);
-        for (ChunkPortal portal : chunk.portals) {
-            if (portal.localCoord != null && portal.connectsToGridId != -1) {
-                double dist = tile.localCoord.dist(portal.localCoord);
-                // Building exteriors use larger proximity (6 tiles vs 2)
-                int portalProximity = ChunkPortal.isBuildingExterior(portal.gobName) ? 6 : 2;
-                if (dist <= portalProximity) {
-                    if (chunkExcluded) continue;
+        /**
+         * Heuristic function for A* - estimates distance from a tile to the target.
+         * Uses chunk-aware distance calculation; the chunk-level parts
+         * (portal depth, neighbor distance) are computed once per chunk.
+         * IMPORTANT: gridCoord and worldTileOrigin are session-based and may be null
+         * for chunks loaded from save files. Use neighbor-based estimation as fallback.
+         */
+        private double heuristic(int cidx, int x, int y) {
+            if (cidx == targetIdx) {
+                // Same chunk - simple Euclidean distance
+                double dx = x - tx, dy = y - ty;
+                return Math.sqrt(dx * dx + dy * dy);
+            }
 
-                    // Skip "phantom" building exterior portals at chunk edges
-                    if (ChunkPortal.isBuildingExterior(portal.gobName) && isAtChunkEdge(portal.localCoord, 5)) {
-                        continue;
-                    }
-                    ChunkNavData destChunk = graph.getChunk(portal.connectsToGridId);
-                    if (destChunk != null) {
-                        // Validate portal type vs target layer
-                        if (!isPortalTargetLayerValid(portal.type, destChunk.layer)) {
-                            continue; // Stale connection - skip
-                        }
-                        Coord exitCoord = findPortalExitCoord(destChunk, portal, tile.chunkId);
-                        if (exitCoord != null) {
-                            neighbors.add(new TileNode(portal.connectsToGridId, exitCoord, true));
-                        }
-                    }
+            ChunkNavData fromChunk = chunks[cidx];
+
+            // Check if same layer - if not, add portal traversal cost estimate
+            // Also for different instances on the same layer
+            if (!fromChunk.layer.equals(targetChunk.layer) ||
+                    (fromChunk.instanceId != 0 && targetChunk.instanceId != 0
+                            && fromChunk.instanceId != targetChunk.instanceId)) {
+                if (portalDepth[cidx] == UNKNOWN)
+                    portalDepth[cidx] = getPortalPathDepth(fromChunk, targetChunk, new HashSet<>());
+                int depth = portalDepth[cidx];
+                if (depth == -1) {
+                    return 999999.0; // Dead end - this building doesn't connect to target
                 }
+                return 100.0 + (depth - 1) * 400.0;
+            }
+
+            // Try world coordinates if both chunks have been seen this session
+            // ONLY valid when chunks are in the same instance
+            if (fromChunk.worldTileOrigin != null && targetChunk.worldTileOrigin != null) {
+                double dx = (fromChunk.worldTileOrigin.x + x) - (targetChunk.worldTileOrigin.x + tx);
+                double dy = (fromChunk.worldTileOrigin.y + y) - (targetChunk.worldTileOrigin.y + ty);
+                return Math.sqrt(dx * dx + dy * dy);
+            }
+
+            // Fallback: estimate based on neighbor-based distance
+            // BFS to find shortest path through neighbor relationships
+            if (neighborDist[cidx] == UNKNOWN)
+                neighborDist[cidx] = getNeighborDistance(chunkIds[cidx], chunkIds[targetIdx]);
+            int dist = neighborDist[cidx];
+            if (dist >= 0) {
+                // Each chunk is CHUNK_SIZE tiles, estimate walking across half of each
+                int c = CHUNK_SIZE / 2;
+                double fdx = x - c, fdy = y - c, tdx = tx - c, tdy = ty - c;
+                return dist * CHUNK_SIZE + Math.sqrt(fdx * fdx + fdy * fdy) + Math.sqrt(tdx * tdx + tdy * tdy);
+            }
+
+            // No path through neighbors - might need portal
+            // Return large but not infinite estimate
+            return 5000.0;
+        }
+
+        /**
+         * Reconstruct the path from the goal node back to the start.
+         */
+        private UnifiedPath reconstructPath(int goal) {
+            UnifiedPath path = new UnifiedPath();
+            path.reachable = true;
+
+            for (int current = goal; current >= 0; current = parent[current]) {
+                // Create TileNode with correct viaPortal based on how we got to this node
+                long key = keys[current];
+                path.steps.add(new TileNode(chunkIds[unpackChunk(key)],
+                        new Coord(unpackX(key), unpackY(key)), viaPortal[current]));
             }
+
+            // Reverse to get start-to-goal order
+            Collections.reverse(path.steps);
+            path.cost = g[goal];
+
+            return path;
         }
 
-        return neighbors;
+        private int chunkIdx(long chunkId, ChunkNavData chunk) {
+            int idx = chunkIndex.get(chunkId, -1);
+            if (idx >= 0)
+                return idx;
+            if (nchunks == chunks.length) {
+                chunkIds = Arrays.copyOf(chunkIds, nchunks * 2);
+                chunks = Arrays.copyOf(chunks, nchunks * 2);
+                portalDepth = Arrays.copyOf(portalDepth, nchunks * 2);
+                neighborDist = Arrays.copyOf(neighborDist, nchunks * 2);
+            }
+            idx = nchunks++;
+            chunkIds[idx] = chunkId;
+            chunks[idx] = chunk;
+            portalDepth[idx] = UNKNOWN;
+            neighborDist[idx] = UNKNOWN;
+            chunkIndex.put(chunkId, idx);
+            return idx;
+        }
+
+        private int chunkIdx(long chunkId) {
+            int idx = chunkIndex.get(chunkId, -1);
+            if (idx >= 0)
+                return idx;
+            ChunkNavData chunk = graph.getChunk(chunkId);
+            return chunk == null ? -1 : chunkIdx(chunkId, chunk);
+        }
+
+        private int node(int cidx, int x, int y) {
+            long key = pack(cidx, x, y);
+            int id = nodeIndex.get(key, -1);
+            if (id >= 0)
+                return id;
+            if (nnodes == keys.length) {
+                int ncap = nnodes * 2;
+                keys = Arrays.copyOf(keys, ncap);
+                g = Arrays.copyOf(g, ncap);
+                parent = Arrays.copyOf(parent, ncap);
+                viaPortal = Arrays.copyOf(viaPortal, ncap);
+                closed = Arrays.copyOf(closed, ncap);
+            }
+            id = nnodes++;
+            keys[id] = key;
+            g[id] = Double.MAX_VALUE;
+            parent[id] = -1;
+            nodeIndex.put(key, id);
+            return id;
+        }
     }
 
+    private static final int VIA_INTRA = -1;
+    private static final int VIA_PORTAL = -2;
+    private static final double EDGE_CROSSING_COST = 1.5;
+
     /**
-     * Get a tile in an adjacent chunk when crossing an edge.
-     * Uses neighbor relationships (persistent) instead of gridCoord (session-based).
-     * All coordinates are in tile space (0-99).
+     * Hierarchical search: Dijkstra over the chunk entrances of ChunkNavAbstractGraph,
+     * then tile-level refinement of each leg. Only the legs touching the start and
+     * target tiles are new per query; legs between entrances come from the per-chunk
+     * cache. Returns null if no route is found, so the caller can fall back to the
+     * full tile search.
      */
-    private TileNode getCrossChunkTile(ChunkNavData fromChunk, int nx, int ny) {
-        // Determine which direction we're crossing and find neighbor
-        int newX = nx, newY = ny;
-        long neighborId = -1;
-
-        if (nx < 0) {
-            neighborId = fromChunk.neighborWest;
-            newX = CHUNK_SIZE - 1;
-        } else if (nx >= CHUNK_SIZE) {
-            neighborId = fromChunk.neighborEast;
-            newX = 0;
-        }
-
-        if (ny < 0) {
-            // If also crossing horizontally, this is diagonal - need to handle specially
-            if (neighborId != -1) {
-                // Diagonal crossing - get the diagonal neighbor through corner
-                // For simplicity, prefer horizontal then vertical
-                ChunkNavData horzNeighbor = graph.getChunk(neighborId);
-                if (horzNeighbor != null) {
-                    neighborId = horzNeighbor.neighborNorth;
+    private final class AbstractSearch {
+        private final ChunkNavAbstractGraph abstractGraph = graph.getAbstractGraph();
+
+        // Chunks touched by the search, by dense index
+        private final LongIntMap chunkIndex = new LongIntMap(64);
+        private long[] chunkIds = new long[16];
+        private ChunkNavData[] chunks = new ChunkNavData[16];
+        private ChunkNavAbstractGraph.Entry[] entries = new ChunkNavAbstractGraph.Entry[16];
+        private int nchunks = 0;
+
+        // Nodes (chunk index + tile), by dense id; the goal has its own id
+        private final LongIntMap nodeIndex = new LongIntMap(1024);
+        private long[] keys = new long[256];
+        private double[] g = new double[256];
+        private int[] parent = new int[256];
+        private int[] via = new int[256];      // VIA_INTRA, VIA_PORTAL or the crossing position
+        private boolean[] closed = new boolean[256];
+        private int nnodes = 0;
+        private final IndexedMinHeap openSet = new IndexedMinHeap(256);
+
+        private final int targetIdx, targetTile;
+        private final float[] targetDist = new float[ChunkNavAbstractGraph.TILES];
+        private final float[] startDist = new float[ChunkNavAbstractGraph.TILES];
+        private int start, goal;
+
+        AbstractSearch(long targetChunkId, ChunkNavData targetChunk, Coord targetLocal) {
+            this.targetIdx = chunkIdx(targetChunkId, targetChunk);
+            this.targetTile = ChunkNavAbstractGraph.tile(targetLocal.x, targetLocal.y);
+        }
+
+        UnifiedPath run(long startChunkId, ChunkNavData startChunk, Coord startLocal) {
+            int startIdx = chunkIdx(startChunkId, startChunk);
+            int startTile = ChunkNavAbstractGraph.tile(startLocal.x, startLocal.y);
+            IndexedMinHeap scratch = new IndexedMinHeap(ChunkNavAbstractGraph.TILES);
+            ChunkNavIntraPathfinder.tileDistances(ChunkNavIntraPathfinder.tileWalkability(startChunk), startTile, startDist, scratch);
+            ChunkNavIntraPathfinder.tileDistances(ChunkNavIntraPathfinder.tileWalkability(chunks[targetIdx]), targetTile, targetDist, scratch);
+
+            goal = node(-1, 0);
+            start = node(startIdx, startTile);
+            g[start] = 0;
+            openSet.offer(start, 0);
+
+            int iterations = 0;
+            while (!openSet.isEmpty() && iterations < MAX_ITERATIONS) {
+                iterations++;
+                int current = openSet.poll();
+                if (current == goal) {
+                    return refine();
+                }
+                closed[current] = true;
+                expand(current);
+            }
+            return null;
+        }
+
+        private void expand(int current) {
+            long key = keys[current];
+            int cidx = (int) (key >>> 16), tile = (int) key & 0xffff;
+            ChunkNavData chunk = chunks[cidx];
+            ChunkNavAbstractGraph.Entry entry = entries[cidx];
+
+            // Intra-chunk edges to every entrance, and to the goal in the target chunk
+            float[] row = current == start ? null : entry.row(tile);
+            for (int j = 0; j < entry.size(); j++) {
+                float cost = row != null ? row[j] : startDist[entry.points[j]];
+                if (entry.points[j] != tile && cost != Float.POSITIVE_INFINITY) {
+                    relax(current, node(cidx, entry.points[j]), cost, VIA_INTRA);
                 }
-            } else {
-                neighborId = fromChunk.neighborNorth;
-            }
-            newY = CHUNK_SIZE - 1;
-        } else if (ny >= CHUNK_SIZE) {
-            if (neighborId != -1) {
-                ChunkNavData horzNeighbor = graph.getChunk(neighborId);
-                if (horzNeighbor != null) {
-                    neighborId = horzNeighbor.neighborSouth;
+            }
+            if (cidx == targetIdx) {
+                float cost = current == start ? startDist[targetTile] : targetDist[tile];
+                if (cost != Float.POSITIVE_INFINITY) {
+                    relax(current, goal, cost, VIA_INTRA);
+                }
+            }
+
+            int p = entry.indexOf(tile);
+            if (p < 0) return;
+
+            // Edge crossings from border entrances
+            ChunkNavData.Direction side = entry.sides[p];
+            if (side != null) {
+                long neighborId = side == ChunkNavData.Direction.NORTH ? chunk.neighborNorth :
+                        side == ChunkNavData.Direction.SOUTH ? chunk.neighborSouth :
+                        side == ChunkNavData.Direction.EAST ? chunk.neighborEast : chunk.neighborWest;
+                int nidx = neighborId == -1 ? -1 : chunkIdx(neighborId);
+                if (nidx >= 0) {
+                    ChunkNavData other = chunks[nidx];
+                    if (chunk.layer.equals(other.layer) && chunk.instanceId != 0
+                            && chunk.instanceId == other.instanceId) {
+                        crossEdge(current, entry, p, nidx);
+                    }
+                }
+            }
+
+            // Portal connections
+            long chunkId = chunkIds[cidx];
+            if (!excludedPortalChunks.isEmpty() && excludedPortalChunks.contains(chunkId))
+                return;
+            for (int i = 0; i < entry.portalPoints.length && i < chunk.portals.size(); i++) {
+                if (entry.portalPoints[i] != p) continue;
+                ChunkPortal portal = chunk.portals.get(i);
+                if (portal.localCoord == null || portal.connectsToGridId == -1) continue;
+                // Skip "phantom" building exterior portals at chunk edges
+                if (ChunkPortal.isBuildingExterior(portal.gobName) && isAtChunkEdge(portal.localCoord, 5)) continue;
+                int didx = chunkIdx(portal.connectsToGridId);
+                if (didx < 0) continue;
+                ChunkNavData destChunk = chunks[didx];
+                if (!isPortalTargetLayerValid(portal.type, destChunk.layer)) continue;
+                Coord exitCoord = findPortalExitCoord(destChunk, portal, chunkId);
+                if (exitCoord != null && inChunk(exitCoord)) {
+                    relax(current, node(didx, ChunkNavAbstractGraph.tile(exitCoord.x, exitCoord.y)),
+                            ChunkNavConfig.PORTAL_TRAVERSAL_COST, VIA_PORTAL);
                 }
-            } else {
-                neighborId = fromChunk.neighborSouth;
             }
-            newY = 0;
         }
 
-        if (neighborId == -1) return null;
+        /**
+         * Relax the entrances on the facing side of a neighbor chunk whose border
+         * runs overlap the run of entrance p. The crossing is priced as refine()
+         * walks it: the leg from p to the exit tile, the step across and the leg
+         * from the entry tile to the neighbor's entrance, at the cheapest position.
+         */
+        private void crossEdge(int current, ChunkNavAbstractGraph.Entry entry, int p, int nidx) {
+            ChunkNavAbstractGraph.Entry other = entries[nidx];
+            ChunkNavData.Direction facing = entry.sides[p].opposite();
+            float[] from = entry.borderRow(p);
+            for (int q = 0; q < other.size(); q++) {
+                if (other.sides[q] != facing) continue;
+                int lo = Math.max(entry.runLo[p], other.runLo[q]);
+                int hi = Math.min(entry.runHi[p], other.runHi[q]);
+                if (lo > hi) continue;
+                float[] to = other.borderRow(q);
+                int best = -1;
+                double bestCost = Double.POSITIVE_INFINITY;
+                for (int k = lo; k <= hi; k++) {
+                    double cost = (double) from[k] + to[k];
+                    if (cost < bestCost) {
+                        bestCost = cost;
+                        best = k;
+                    }
+                }
+                if (best >= 0) {
+                    relax(current, node(nidx, other.points[q]), EDGE_CROSSING_COST + bestCost, best);
+                }
+            }
+        }
 
-        ChunkNavData neighborChunk = graph.getChunk(neighborId);
-        if (neighborChunk == null) return null;
+        private void relax(int current, int neighbor, double cost, int how) {
+            if (closed[neighbor]) return;
+            double tentativeG = g[current] + cost;
+            if (tentativeG < g[neighbor]) {
+                g[neighbor] = tentativeG;
+                parent[neighbor] = current;
+                via[neighbor] = how;
+                openSet.offer(neighbor, tentativeG);
+            }
+        }
 
-        // Must be same layer
-        if (!fromChunk.layer.equals(neighborChunk.layer)) return null;
+        /**
+         * Turn the entrance route into tile steps, one leg per chunk visit.
+         */
+        private UnifiedPath refine() {
+            List<Integer> route = new ArrayList<>();
+            for (int n = goal; n >= 0; n = parent[n]) route.add(n);
+            Collections.reverse(route);
 
-        // Must be same known instance (prevents cross-instance walking)
-        if (fromChunk.instanceId == 0 || neighborChunk.instanceId == 0) return null;
-        if (fromChunk.instanceId != neighborChunk.instanceId) return null;
+            UnifiedPath path = new UnifiedPath();
+            path.reachable = true;
+            int prev = route.get(0);
+            int cidx = (int) (keys[prev] >>> 16), tile = (int) keys[prev] & 0xffff;
+            path.steps.add(new TileNode(chunkIds[cidx], ChunkNavAbstractGraph.coord(tile)));
+
+            for (int r = 1; r < route.size(); r++) {
+                int n = route.get(r);
+                int ncidx = n == goal ? targetIdx : (int) (keys[n] >>> 16);
+                int ntile = n == goal ? targetTile : (int) keys[n] & 0xffff;
+                if (via[n] == VIA_PORTAL) {
+                    path.steps.add(new TileNode(chunkIds[ncidx], ChunkNavAbstractGraph.coord(ntile), true));
+                    path.cost += ChunkNavConfig.PORTAL_TRAVERSAL_COST;
+                } else if (via[n] == VIA_INTRA) {
+                    if (!leg(path, cidx, tile, ntile)) return null;
+                } else {
+                    ChunkNavData.Direction side = entries[cidx].sides[entries[cidx].indexOf(tile)];
+                    int exit = ChunkNavAbstractGraph.borderTile(side, via[n]);
+                    int enter = ChunkNavAbstractGraph.borderTile(side.opposite(), via[n]);
+                    if (!leg(path, cidx, tile, exit)) return null;
+                    path.steps.add(new TileNode(chunkIds[ncidx], ChunkNavAbstractGraph.coord(enter)));
+                    path.cost += EDGE_CROSSING_COST;
+                    if (!leg(path, ncidx, enter, ntile)) return null;
+                }
+                cidx = ncidx;
+                tile = ntile;
+            }
+            return path;
+        }
 
-        // Check if target tile is walkable (any of 2x2 cells)
-        if (isTileWalkable(neighborChunk, newX, newY)) {
-            return new TileNode(neighborChunk.gridId, new Coord(newX, newY));
+        private boolean leg(UnifiedPath path, int cidx, int from, int to) {
+            if (from == to) return true;
+            short[] tiles = entries[cidx].leg(from, to);
+            if (tiles == null) return false;
+            for (int i = 1; i < tiles.length; i++) {
+                int a = tiles[i - 1], b = tiles[i];
+                path.cost += (a / CHUNK_SIZE != b / CHUNK_SIZE && a % CHUNK_SIZE != b % CHUNK_SIZE) ? Math.sqrt(2) : 1;
+                path.steps.add(new TileNode(chunkIds[cidx], ChunkNavAbstractGraph.coord(b)));
+            }
+            return true;
         }
 
-        return null;
+        private int chunkIdx(long chunkId, ChunkNavData chunk) {
+            int idx = chunkIndex.get(chunkId, -1);
+            if (idx >= 0)
+                return idx;
+            if (nchunks == chunks.length) {
+                chunkIds = Arrays.copyOf(chunkIds, nchunks * 2);
+                chunks = Arrays.copyOf(chunks, nchunks * 2);
+                entries = Arrays.copyOf(entries, nchunks * 2);
+            }
+            idx = nchunks++;
+            chunkIds[idx] = chunkId;
+            chunks[idx] = chunk;
+            entries[idx] = abstractGraph.get(chunk);
+            chunkIndex.put(chunkId, idx);
+            return idx;
+        }
+
+        private int chunkIdx(long chunkId) {
+            int idx = chunkIndex.get(chunkId, -1);
+            if (idx >= 0)
+                return idx;
+            ChunkNavData chunk = graph.getChunk(chunkId);
+            return chunk == null ? -1 : chunkIdx(chunkId, chunk);
+        }
+
+        private int node(int cidx, int tile) {
+            long key = cidx < 0 ? -1L : ((long) cidx << 16) | tile;
+            int id = nodeIndex.get(key, -1);
+            if (id >= 0)
+                return id;
+            if (nnodes == keys.length) {
+                int ncap = nnodes * 2;
+                keys = Arrays.copyOf(keys, ncap);
+                g = Arrays.copyOf(g, ncap);
+                parent = Arrays.copyOf(parent, ncap);
+                via = Arrays.copyOf(via, ncap);
+                closed = Arrays.copyOf(closed, ncap);
+            }
+            id = nnodes++;
+            keys[id] = key;
+            g[id] = Double.MAX_VALUE;
+            parent[id] = -1;
+            via[id] = VIA_INTRA;
+            nodeIndex.put(key, id);
+            return id;
+        }
+    }
+
+    private static long pack(int cidx, int x, int y) {
+        return ((long) cidx << 16) | (x << 8) | y;
+    }
+
+    private static int unpackChunk(long key) {
+        return (int) (key >>> 16);
+    }
+
+    private static int unpackX(long key) {
+        return (int) (key >>> 8) & 0xff;
+    }
+
+    private static int unpackY(long key) {
+        return (int) key & 0xff;
     }
 
     /**
@@ -489,65 +926,6 @@ public class UnifiedTilePathfinder {
         return null;
     }
 
-    /**
-     * Heuristic function for A* - estimates distance between two tiles.
-     * Uses chunk-aware distance calculation.
-     * IMPORTANT: gridCoord and worldTileOrigin are session-based and may be null
-     * for chunks loaded from save files. Use neighbor-based estimation as fallback.
-     */
-    private double heuristic(TileNode from, TileNode to) {
-        if (from.chunkId == to.chunkId) {
-            // Same chunk - simple Euclidean distance
-            return from.localCoord.dist(to.localCoord);
-        }
-
-        // Different chunks
-        ChunkNavData fromChunk = graph.getChunk(from.chunkId);
-        ChunkNavData toChunk = graph.getChunk(to.chunkId);
-
-        if (fromChunk == null || toChunk == null) {
-            return 1000.0; // Unknown chunk
-        }
-
-        // Check if same layer - if not, add portal traversal cost estimate
-        if (!fromChunk.layer.equals(toChunk.layer)) {
-            int depth = getPortalPathDepth(fromChunk, toChunk, new HashSet<>());
-            if (depth == -1) {
-                return 999999.0; // Dead end - this building doesn't connect to target
-            }
-            return 100.0 + (depth - 1) * 400.0;
-        }
-
-        // Check if different instances on same layer
-        if (fromChunk.instanceId != 0 && toChunk.instanceId != 0
-                && fromChunk.instanceId != toChunk.instanceId) {
-            int depth = getPortalPathDepth(fromChunk, toChunk, new HashSet<>());
-            if (depth == -1) return 999999.0;
-            return 100.0 + (depth - 1) * 400.0;
-        }
-
-        // Try world coordinates if both chunks have been seen this session
-        // ONLY valid when chunks are in the same instance
-        if (fromChunk.worldTileOrigin != null && toChunk.worldTileOrigin != null) {
-            Coord fromWorld = fromChunk.worldTileOrigin.add(from.localCoord);
-            Coord toWorld = toChunk.worldTileOrigin.add(to.localCoord);
-            return fromWorld.dist(toWorld);
-        }
-
-        // Fallback: estimate based on neighbor-based distance
-        // BFS to find shortest path through neighbor relationships
-        int neighborDist = getNeighborDistance(from.chunkId, to.chunkId);
-        if (neighborDist >= 0) {
-            // Each chunk is CHUNK_SIZE tiles, estimate walking across half of each
-            Coord chunkCenter = new Coord(CHUNK_SIZE / 2, CHUNK_SIZE / 2);
-            return neighborDist * CHUNK_SIZE + from.localCoord.dist(chunkCenter) + to.localCoord.dist(chunkCenter);
-        }
-
-        // No path through neighbors - might need portal
-        // Return large but not infinite estimate
-        return 5000.0;
-    }
-
     /**
      * Get shortest path distance between chunks using neighbor relationships.
      * Returns number of chunks to traverse, or -1 if not connected through neighbors.
@@ -634,59 +1012,6 @@ public class UnifiedTilePathfinder {
         return minDepth;
     }
 
-    /**
-     * Calculate movement cost between two tiles.
-     */
-    private double moveCost(TileNode from, TileNode to) {
-        if (from.chunkId == to.chunkId) {
-            // Same chunk - distance-based cost
-            return from.localCoord.dist(to.localCoord);
-        }
-
-        // Cross-chunk movement
-        ChunkNavData fromChunk = graph.getChunk(from.chunkId);
-        ChunkNavData toChunk = graph.getChunk(to.chunkId);
-
-        if (fromChunk != null && toChunk != null) {
-            if (!fromChunk.layer.equals(toChunk.layer)) {
-                // Portal traversal - use config cost
-                return ChunkNavConfig.PORTAL_TRAVERSAL_COST;
-            }
-        }
-
-        // Edge crossing - small cost
-        return 1.5;
-    }
-
-    /**
-     * Reconstruct the path from the goal node back to the start.
-     */
-    private UnifiedPath reconstructPath(AStarNode goalNode) {
-        UnifiedPath path = new UnifiedPath();
-        path.reachable = true;
-
-        List<TileNode> reversePath = new ArrayList<>();
-        AStarNode current = goalNode;
-
-        while (current != null) {
-            // Create TileNode with correct viaPortal based on how we got to this node
-            TileNode tileWithPortalInfo = new TileNode(
-                current.tile.chunkId,
-                current.tile.localCoord,
-                current.viaPortalFromParent
-            );
-            reversePath.add(tileWithPortalInfo);
-            current = current.parent;
-        }
-
-        // Reverse to get start-to-goal order
-        Collections.reverse(reversePath);
-        path.steps.addAll(reversePath);
-        path.cost = goalNode.g;
-
-        return path;
-    }
-
     /**
      * A tile in the unified graph.
      */
@@ -724,26 +1049,6 @@ public class UnifiedTilePathfinder {
         }
     }
 
-    /**
-     * A* node wrapper.
-     */
-    private static class AStarNode {
-        TileNode tile;
-        AStarNode parent;
-        boolean viaPortalFromParent;  // True if this node was reached via portal from parent
-        double g; // Cost from start
-        double h; // Heuristic to goal
-        double f; // Total (g + h)
-
-        AStarNode(TileNode tile) {
-            this.tile = tile;
-            this.g = Double.MAX_VALUE;
-            this.h = 0;
-            this.f = Double.MAX_VALUE;
-            this.viaPortalFromParent = false;
-        }
-    }
-
     /**
      * Result of unified pathfinding.
      */
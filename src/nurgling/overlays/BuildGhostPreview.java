@@ -4,8 +4,7 @@ import haven.*;
 import haven.render.*;
 import nurgling.GhostAlpha;
 import nurgling.NHitBox;
-import nurgling.NUtils;
-import nurgling.pf.NHitBoxD;
+import nurgling.tools.Finder;
 
 import java.awt.Color;
 import java.util.*;
@@ -55,49 +54,16 @@ public class BuildGhostPreview extends GAttrib {
             return;
         }
 
-        // Find all obstacles in the area (same as Finder.getFreePlace)
-        ArrayList<NHitBoxD> obstacles = findObstacles();
-
-        // Track placed buildings to avoid showing overlaps
-        ArrayList<NHitBoxD> placedBuildings = new ArrayList<>();
-
-        Coord inchMax = area.b.sub(area.a).floor();
-        Coord margin = buildingHitBox.end.sub(buildingHitBox.begin).floor(2, 2);
-
-        // Simulate Finder.getFreePlace() behavior: pixel-by-pixel search
-        for (int i = margin.x; i <= inchMax.x - margin.x; i++) {
-            for (int j = margin.y; j <= inchMax.y - margin.y; j++) {
-                Coord2d testPos = area.a.add(i, j);
-                NHitBoxD testBox = new NHitBoxD(buildingHitBox.begin, buildingHitBox.end, testPos, 0);
-
-                // Check collisions with obstacles AND already-placed buildings
-                boolean passed = true;
-
-                for (NHitBoxD obstacle : obstacles) {
-                    if (obstacle.intersects(testBox, false)) {
-                        passed = false;
-                        break;
-                    }
-                }
-
-                if (passed) {
-                    for (NHitBoxD placed : placedBuildings) {
-                        if (placed.intersects(testBox, false)) {
-                            passed = false;
-                            break;
-                        }
-                    }
-                }
-
-                if (passed) {
-                    // This position is valid - create a ghost Gob
-                    Coord2d worldPos = new Coord2d(testBox.rc.x, testBox.rc.y);
-                    createGhostGob(worldPos);
-
-                    // Add this building to placed list so we don't overlap it
-                    placedBuildings.add(new NHitBoxD(buildingHitBox.begin, buildingHitBox.end, testPos, 0));
-                }
-            }
+        // Every position Build would use in turn, each one blocking the ones after it
+        List<Coord2d> positions;
+        try {
+            positions = Finder.getFreePlaces(area, buildingHitBox, 0, Integer.MAX_VALUE);
+        } catch (Exception e) {
+            // Silently handle exceptions finding obstacles
+            return;
+        }
+        for (Coord2d pos : positions) {
+            createGhostGob(pos);
         }
     }
 
@@ -146,35 +112,6 @@ public class BuildGhostPreview extends GAttrib {
         }
     }
 
-    /**
-     * Find obstacles in area (same logic as Finder.getFreePlace)
-     */
-    private ArrayList<NHitBoxD> findObstacles() {
-        ArrayList<NHitBoxD> obstacles = new ArrayList<>();
-        NHitBoxD areaBox = new NHitBoxD(area.a, area.b);
-
-        try {
-            synchronized (NUtils.getGameUI().ui.sess.glob.oc) {
-                for (Gob gob : NUtils.getGameUI().ui.sess.glob.oc) {
-                    if (!(gob instanceof OCache.Virtual || gob.attr.isEmpty() ||
-                          gob.getClass().getName().contains("GlobEffector"))) {
-                        if (gob.ngob.hitBox != null && gob.getattr(Following.class) == null &&
-                            gob.id != NUtils.player().id) {
-                            NHitBoxD gobBox = new NHitBoxD(gob);
-                            if (gobBox.intersects(areaBox, true)) {
-                                obstacles.add(gobBox);
-                            }
-                        }
-                    }
-                }
-            }
-        } catch (Exception e) {
-            // Silently handle exceptions finding obstacles
-        }
-
-        return obstacles;
-    }
-
     public void dispose() {
         System.out.println("[BuildGhostPreview] dispose() called, removing " + ghostGobs.size() + " ghosts");
         List<Gob> toRemove;
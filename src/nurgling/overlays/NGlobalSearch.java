@@ -18,12 +18,8 @@ public class NGlobalSearch extends GAttrib implements Gob.SetupMod
     private static final MixColor HIGHLIGHT_COLOR = new MixColor(COLOR.getRed(), COLOR.getGreen(), COLOR.getBlue(), 255);
 
     public Pipe.Op gobstate() {
-        if (gob.ngob.hash != null) {
-            synchronized (NGlobalSearchItems.containerHashes) {
-                if (NGlobalSearchItems.containerHashes.contains(gob.ngob.hash)) {
-                    return HIGHLIGHT_COLOR;
-                }
-            }
+        if (NGlobalSearchItems.isFound(gob.ngob.key)) {
+            return HIGHLIGHT_COLOR;
         }
         return null;
     }
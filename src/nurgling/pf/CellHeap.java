@@ -0,0 +1,123 @@
+package nurgling.pf;
+
+import java.util.Arrays;
+
+/**
+ * Binary min-heap over int cell indices keyed by a double priority.
+ * Entries with equal priority are popped in insertion order, which keeps
+ * the search results identical to the old stable-sorted candidate list.
+ * The backing arrays only grow, so an instance can be reused between searches.
+ */
+public class CellHeap
+{
+    private int[] cells;
+    private double[] keys;
+    private int[] seqs;
+    private int size = 0;
+    private int seq = 0;
+
+    public CellHeap()
+    {
+        this(256);
+    }
+
+    public CellHeap(int capacity)
+    {
+        capacity = Math.max(capacity, 16);
+        cells = new int[capacity];
+        keys = new double[capacity];
+        seqs = new int[capacity];
+    }
+
+    public void clear()
+    {
+        size = 0;
+        seq = 0;
+    }
+
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    public int size()
+    {
+        return size;
+    }
+
+    public void push(int cell, double key)
+    {
+        if (size == cells.length)
+            grow();
+        int i = size++;
+        int s = seq++;
+        while (i > 0)
+        {
+            int p = (i - 1) >>> 1;
+            if (!less(key, s, keys[p], seqs[p]))
+                break;
+            cells[i] = cells[p];
+            keys[i] = keys[p];
+            seqs[i] = seqs[p];
+            i = p;
+        }
+        cells[i] = cell;
+        keys[i] = key;
+        seqs[i] = s;
+    }
+
+    public int peek()
+    {
+        return cells[0];
+    }
+
+    public double peekKey()
+    {
+        return keys[0];
+    }
+
+    public int pop()
+    {
+        int res = cells[0];
+        int last = --size;
+        if (last > 0)
+        {
+            int cell = cells[last];
+            double key = keys[last];
+            int s = seqs[last];
+            int i = 0;
+            int half = last >>> 1;
+            while (i < half)
+            {
+                int c = 2 * i + 1;
+                int r = c + 1;
+                if (r < last && less(keys[r], seqs[r], keys[c], seqs[c]))
+                    c = r;
+                if (!less(keys[c], seqs[c], key, s))
+                    break;
+                cells[i] = cells[c];
+                keys[i] = keys[c];
+                seqs[i] = seqs[c];
+                i = c;
+            }
+            cells[i] = cell;
+            keys[i] = key;
+            seqs[i] = s;
+        }
+        return res;
+    }
+
+    private static boolean less(double k1, int s1, double k2, int s2)
+    {
+        int res = Double.compare(k1, k2);
+        return res < 0 || (res == 0 && s1 < s2);
+    }
+
+    private void grow()
+    {
+        int ncap = cells.length * 2;
+        cells = Arrays.copyOf(cells, ncap);
+        keys = Arrays.copyOf(keys, ncap);
+        seqs = Arrays.copyOf(seqs, ncap);
+    }
+}
@@ -0,0 +1,220 @@
+package nurgling.pf;
+
+import haven.*;
+import nurgling.NHitBox;
+
+import java.util.*;
+
+/**
+ * Search for free positions of a footprint in an area, over the positions
+ * Finder.getFreePlace tries: whole world units from the area's corner, x-major.
+ * Axis-aligned obstacles are rasterized once into the rectangle of positions they
+ * block through a difference table, so testing a position is an array lookup.
+ * Rotated obstacles, or all of them when the footprint is rotated, only get their
+ * bounding range bucketed and are tested exactly at the positions inside it.
+ */
+public class FreePlacer
+{
+    // Side of the buckets for rotated obstacles, in positions
+    private static final int BUCKET = 8;
+
+    private final Coord2d origin;
+    private final NHitBox hitBox;
+    private final double angle;
+    private final boolean ortho;
+    // Footprint corners relative to its position
+    private final Coord2d ful, fbr;
+    private final int i0, i1, j0, j1, w, h;
+
+    private final boolean[] blocked;
+    private final ArrayList<NHitBoxD> rotated = new ArrayList<>();
+    private final ArrayList<int[]> rotatedRange = new ArrayList<>();
+    private final ArrayList<Integer>[] buckets;
+    private final int bw;
+    private int next = 0;
+
+    @SuppressWarnings("unchecked")
+    public FreePlacer(Pair<Coord2d, Coord2d> area, NHitBox hitBox, double angle, Collection<NHitBoxD> obstacles)
+    {
+        this.origin = area.a;
+        this.hitBox = hitBox;
+        this.angle = angle;
+        NHitBoxD fp = new NHitBoxD(hitBox.begin, hitBox.end, Coord2d.of(0), angle);
+        this.ortho = fp.ortho;
+        if (ortho) {
+            ful = fp.c[0];
+            fbr = fp.c[2];
+        } else {
+            Coord2d[] b = reach(fp);
+            ful = b[0];
+            fbr = b[1];
+        }
+
+        Coord inchMax = area.b.sub(area.a).floor();
+        Coord margin = fp.getCircumscribedBR().sub(fp.getCircumscribedUL()).floor(2, 2);
+        i0 = margin.x;
+        i1 = inchMax.x - margin.x;
+        j0 = margin.y;
+        j1 = inchMax.y - margin.y;
+        w = Math.max(0, i1 - i0 + 1);
+        h = Math.max(0, j1 - j0 + 1);
+        blocked = new boolean[w * h];
+        bw = (w + BUCKET - 1) / BUCKET;
+        buckets = new ArrayList[bw * ((h + BUCKET - 1) / BUCKET)];
+
+        int[] diff = new int[(w + 1) * (h + 1)];
+        boolean any = false;
+        for (NHitBoxD o : obstacles) {
+            if (ortho && o.ortho) {
+                int[] r = exactRange(o);
+                if (r != null) {
+                    diff[r[0] * (h + 1) + r[2]]++;
+                    diff[r[0] * (h + 1) + r[3] + 1]--;
+                    diff[(r[1] + 1) * (h + 1) + r[2]]--;
+                    diff[(r[1] + 1) * (h + 1) + r[3] + 1]++;
+                    any = true;
+                }
+            } else {
+                addRotated(o);
+            }
+        }
+        if (any) {
+            // Prefix sums of the difference table give the number of obstacles at each position
+            for (int i = 0; i <= w; i++) {
+                for (int j = 0; j <= h; j++) {
+                    int k = i * (h + 1) + j;
+                    if (i > 0) diff[k] += diff[k - (h + 1)];
+                    if (j > 0) diff[k] += diff[k - 1];
+                    if (i > 0 && j > 0) diff[k] -= diff[k - (h + 1) - 1];
+                    if (i < w && j < h && diff[k] > 0)
+                        blocked[i * h + j] = true;
+                }
+            }
+        }
+    }
+
+    /** The same strict overlap test NHitBoxD.intersects does for two axis-aligned boxes, per axis */
+    private boolean overlapsX(int i, NHitBoxD o)
+    {
+        double x = origin.x + i;
+        return (fbr.x + x > o.c[0].x) && (ful.x + x < o.c[2].x);
+    }
+
+    private boolean overlapsY(int j, NHitBoxD o)
+    {
+        double y = origin.y + j;
+        return (fbr.y + y > o.c[0].y) && (ful.y + y < o.c[2].y);
+    }
+
+    /**
+     * Positions an axis-aligned obstacle blocks, as {i from, i to, j from, j to}
+     * relative to the first position, or null if it blocks none.
+     */
+    private int[] exactRange(NHitBoxD o)
+    {
+        int ilo = Math.max(i0, (int) Math.floor(o.c[0].x - fbr.x - origin.x) - 1);
+        int ihi = Math.min(i1, (int) Math.ceil(o.c[2].x - ful.x - origin.x) + 1);
+        while (ilo <= ihi && !overlapsX(ilo, o)) ilo++;
+        while (ihi >= ilo && !overlapsX(ihi, o)) ihi--;
+        int jlo = Math.max(j0, (int) Math.floor(o.c[0].y - fbr.y - origin.y) - 1);
+        int jhi = Math.min(j1, (int) Math.ceil(o.c[2].y - ful.y - origin.y) + 1);
+        while (jlo <= jhi && !overlapsY(jlo, o)) jlo++;
+        while (jhi >= jlo && !overlapsY(jhi, o)) jhi--;
+        if (ilo > ihi || jlo > jhi)
+            return null;
+        return new int[]{ilo - i0, ihi - i0, jlo - j0, jhi - j0};
+    }
+
+    /**
+     * Bounding box of everything NHitBoxD.intersects looks at for a box: its corners
+     * and, for rotated boxes, its edge check points, which can lie past the corners.
+     */
+    private static Coord2d[] reach(NHitBoxD o)
+    {
+        Coord2d ul = o.getCircumscribedUL(), br = o.getCircumscribedBR();
+        if (!o.ortho && o.checkPoints != null) {
+            for (Coord2d p : o.checkPoints) {
+                ul = Coord2d.of(Math.min(ul.x, p.x), Math.min(ul.y, p.y));
+                br = Coord2d.of(Math.max(br.x, p.x), Math.max(br.y, p.y));
+            }
+        }
+        return new Coord2d[]{ul, br};
+    }
+
+    /** Bucket an obstacle by the positions its bounding box may block */
+    private void addRotated(NHitBoxD o)
+    {
+        Coord2d[] b = reach(o);
+        Coord2d ul = b[0], br = b[1];
+        int ilo = Math.max(i0, (int) Math.floor(ul.x - fbr.x - origin.x) - 1) - i0;
+        int ihi = Math.min(i1, (int) Math.ceil(br.x - ful.x - origin.x) + 1) - i0;
+        int jlo = Math.max(j0, (int) Math.floor(ul.y - fbr.y - origin.y) - 1) - j0;
+        int jhi = Math.min(j1, (int) Math.ceil(br.y - ful.y - origin.y) + 1) - j0;
+        if (ilo > ihi || jlo > jhi)
+            return;
+        int idx = rotated.size();
+        rotated.add(o);
+        rotatedRange.add(new int[]{ilo, ihi, jlo, jhi});
+        for (int bi = ilo / BUCKET; bi <= ihi / BUCKET; bi++) {
+            for (int bj = jlo / BUCKET; bj <= jhi / BUCKET; bj++) {
+                int k = bi + bj * bw;
+                if (buckets[k] == null)
+                    buckets[k] = new ArrayList<>(4);
+                buckets[k].add(idx);
+            }
+        }
+    }
+
+    private boolean free(int i, int j)
+    {
+        if (blocked[i * h + j])
+            return false;
+        ArrayList<Integer> bucket = buckets[i / BUCKET + (j / BUCKET) * bw];
+        if (bucket == null)
+            return true;
+        NHitBoxD test = null;
+        for (int idx : bucket) {
+            int[] r = rotatedRange.get(idx);
+            if (i < r[0] || i > r[1] || j < r[2] || j > r[3])
+                continue;
+            if (test == null)
+                test = new NHitBoxD(hitBox.begin, hitBox.end, origin.add(i + i0, j + j0), angle);
+            if (rotated.get(idx).intersects(test, false))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * The next free position in search order, or null when there is none left.
+     * Positions before the one returned are not tried again.
+     */
+    public Coord2d next()
+    {
+        int n = w * h;
+        while (next < n) {
+            int i = next / h, j = next % h;
+            next++;
+            if (free(i, j))
+                return origin.add(i + i0, j + j0);
+        }
+        return null;
+    }
+
+    /**
+     * Make the footprint placed at pos an obstacle for the positions still to come.
+     */
+    public void occupy(Coord2d pos)
+    {
+        NHitBoxD placed = new NHitBoxD(hitBox.begin, hitBox.end, pos, angle);
+        if (ortho) {
+            int[] r = exactRange(placed);
+            if (r != null) {
+                for (int i = r[0]; i <= r[1]; i++)
+                    Arrays.fill(blocked, i * h + r[2], i * h + r[3] + 1, true);
+            }
+        } else {
+            addRotated(placed);
+        }
+    }
+}
@@ -6,231 +6,295 @@ import nurgling.NUtils;
 import nurgling.tools.Finder;
 
 import java.util.*;
+import java.util.concurrent.*;
 
 public class Graph implements Runnable
 {
+    static final int STRAIGHT = 100;
+    static final int DIAGONAL = 141;
+
+    private static final ExecutorService workers = Executors.newFixedThreadPool(
+            Math.max(2, Runtime.getRuntime().availableProcessors() / 2), r -> {
+                Thread t = new Thread(r);
+                t.setName("PathFinder-" + t.getId());
+                t.setDaemon(true);
+                return t;
+            });
+
+    /**
+     * Runs the search on the shared pathfinding pool and waits for it.
+     */
+    public static Graph search(Graph graph) throws InterruptedException
+    {
+        java.util.concurrent.Future<?> f = workers.submit(graph);
+        try
+        {
+            f.get();
+        }
+        catch (InterruptedException e)
+        {
+            f.cancel(true);
+            throw e;
+        }
+        catch (ExecutionException e)
+        {
+            throw new RuntimeException(e.getCause());
+        }
+        return graph;
+    }
+
+    /**
+     * Flat search state shared between runs. Instances are pooled, so
+     * concurrent searches each get their own buffers without reallocating
+     * them for every path request.
+     */
+    static class Scratch
+    {
+        private static final ConcurrentLinkedQueue<Scratch> pool = new ConcurrentLinkedQueue<>();
+
+        short[] val = new short[0];
+        int[] len = new int[0];
+        final CellHeap heap = new CellHeap();
+
+        static Scratch acquire(int n)
+        {
+            Scratch s = pool.poll();
+            if (s == null)
+                s = new Scratch();
+            if (s.val.length < n)
+            {
+                s.val = new short[n];
+                s.len = new int[n];
+            }
+            s.heap.clear();
+            return s;
+        }
+
+        static void release(Scratch s)
+        {
+            pool.offer(s);
+        }
+    }
 
     @Override
     public void run()
     {
+        Scratch s = Scratch.acquire(size * size);
+        try
+        {
+            search(s.val, s.len, s.heap);
+        }
+        finally
+        {
+            Scratch.release(s);
+        }
+    }
+
+    private void search(short[] val, int[] len, CellHeap candidates)
+    {
+        NPFMap.Cell[][] cells = map.getCells();
         for (int i = 0; i < size; i++)
         {
+            int row = i * size;
             for (int j = 0; j < size; j++)
             {
-                vert[i][j] = new Vertex(map.getCells()[i][j].pos, map.getCells()[i][j].val);
-                Coord c = new Coord(i, j);
-                vert[i][j].dist = c.dist(end);
-                vert[i][j].i = i;
-                vert[i][j].j = j;
+                short v = cells[i][j].val;
+                val[row + j] = (v == 7) ? 0 : v;
+                len[row + j] = -1;
             }
         }
-        Vertex next = vert[begin.x][begin.y];
-        next.len = 0;
-        candidates.add(next);
-        do
+        int next = begin.x * size + begin.y;
+        len[next] = 0;
+        Thread self = Thread.currentThread();
+        for (int step = 0; ; step++)
         {
-            analise(next);
-            candidates.remove(next);
-
-            candidates.sort(new Comparator<Vertex>()
-            {
-                @Override
-                public int compare(Vertex o1, Vertex o2)
-                {
-                    return (Double.compare(o1.dist * 100 + o1.len, o2.dist * 100 + o2.len));
-                    //return ((res = Double.compare(o1.dist, o2.dist)) == 0 ? Integer.compare(o1.len, o2.len) : res);
-                }
-            });
-            if (candidates.size() > 0)
-                next = candidates.get(0);
-            else
-            {
-                if(vert[end.x][end.y].val == 4)
-                    break;
+            // Abandoned by search(): stop instead of finishing on the shared pool
+            if ((step & 0xff) == 0 && self.isInterrupted())
                 return;
-            }
+            analise(next, val, len, candidates);
+            if (isGoal(next))
+                break;
+            if (candidates.isEmpty())
+                return;
+            next = candidates.pop();
+        }
+        end = new Coord(next / size, next % size);
+        pathLen = len[next];
+        buildPath(next, val, len);
+    }
+
+    private boolean isGoal(int c)
+    {
+        for (int goal : goals)
+        {
+            if (goal == c)
+                return true;
         }
-        while (vert[end.x][end.y].val != 4);
+        return false;
+    }
 
-        addToPath(vert[end.x][end.y]);
+    /**
+     * Distance to the nearest goal, in the same units as the path length.
+     */
+    private double estimate(int i, int j)
+    {
+        double best = Double.MAX_VALUE;
+        for (int goal : goals)
+        {
+            double dx = i - goal / size, dy = j - goal % size;
+            best = Math.min(best, Math.sqrt(dx * dx + dy * dy));
+        }
+        return best * 100;
     }
 
-    private void analise(Vertex v)
+    private static boolean free(short[] val, int idx)
     {
-        v.val = 4;
-        if (v.i > 0)
+        return (val[idx] & 3) == 0;
+    }
+
+    /**
+     * Expands a cell. The neighbour order matters: candidates with equal
+     * priority are taken in the order they were queued.
+     */
+    private void analise(int v, short[] val, int[] len, CellHeap candidates)
+    {
+        val[v] = 4;
+        int i = v / size, j = v % size;
+        if (i > 0)
         {
-            if (v.j > 0)
+            if (j > 0)
             {
-                if ((vert[v.i][v.j - 1].val & 3) == 0 && (vert[v.i - 1][v.j].val & 3) == 0)
-                    check(vert[v.i - 1][v.j - 1]);
+                if (free(val, v - 1) && free(val, v - size))
+                    check(v - size - 1, val, len, candidates);
             }
-            check(vert[v.i - 1][v.j]);
-            if (v.j < size - 1)
+            check(v - size, val, len, candidates);
+            if (j < size - 1)
             {
-                if ((vert[v.i][v.j + 1].val & 3) == 0 && (vert[v.i - 1][v.j].val & 3) == 0)
-                    check(vert[v.i - 1][v.j + 1]);
+                if (free(val, v + 1) && free(val, v - size))
+                    check(v - size + 1, val, len, candidates);
             }
         }
-        if (v.j > 0)
+        if (j > 0)
         {
-            check(vert[v.i][v.j - 1]);
-            if (v.i < size - 1)
+            check(v - 1, val, len, candidates);
+            if (i < size - 1)
             {
-                if ((vert[v.i][v.j - 1].val & 3) == 0 && (vert[v.i + 1][v.j].val & 3) == 0)
-                    check(vert[v.i + 1][v.j - 1]);
+                if (free(val, v - 1) && free(val, v + size))
+                    check(v + size - 1, val, len, candidates);
             }
         }
-        if (v.i < size - 1)
+        if (i < size - 1)
         {
-            check(vert[v.i + 1][v.j]);
-            if (v.j < size - 1)
+            check(v + size, val, len, candidates);
+            if (j < size - 1)
             {
-                if ((vert[v.i][v.j + 1].val & 3) == 0 && (vert[v.i + 1][v.j].val & 3) == 0)
-                    check(vert[v.i + 1][v.j + 1]);
+                if (free(val, v + 1) && free(val, v + size))
+                    check(v + size + 1, val, len, candidates);
             }
         }
-        if (v.j < size - 1)
+        if (j < size - 1)
         {
-            check(vert[v.i][v.j + 1]);
+            check(v + 1, val, len, candidates);
         }
     }
 
-    private void check(Vertex c)
+    private int relax(int best, int n, int cost, int[] len)
     {
-        if (c.val == 0 && c.len == -1)
-        {
-            c.len = Integer.MAX_VALUE;
-            if(c.i>0)
-            {
+        int tlen = len[n];
+        return (tlen != -1 && tlen + cost < best) ? tlen + cost : best;
+    }
 
-                if(c.j>0 && (vert[c.i][c.j - 1].val & 3) == 0 && (vert[c.i - 1][c.j].val & 3) == 0)
-                {
-                    int tlen = vert[c.i-1][c.j - 1].len;
-                    if(tlen !=-1 && tlen+141<c.len)
-                    {
-                        c.len = tlen+141;
-                    }
-                }
-                int tlen = vert[c.i-1][c.j].len;
-                if(tlen !=-1 && tlen+100<c.len)
-                {
-                    c.len = tlen+100;
-                }
-                if(c.j<size-1  && (vert[c.i][c.j + 1].val & 3) == 0 && (vert[c.i - 1][c.j].val & 3) == 0)
-                {
-                    tlen = vert[c.i-1][c.j+1].len;
-                    if(tlen !=-1 && tlen+141<c.len)
-                    {
-                        c.len = tlen+141;
-                    }
-                }
-            }
-            if(c.j>0)
-            {
-                int tlen = vert[c.i][c.j - 1].len;
-                if(tlen !=-1 && tlen+100<c.len)
-                {
-                    c.len = tlen+100;
-                }
-            }
-            if(c.j<size-1)
-            {
-                int tlen = vert[c.i][c.j+1].len;
-                if(tlen !=-1 && tlen+100<c.len)
-                {
-                    c.len = tlen+100;
-                }
-            }
-            if(c.i<size-1)
-            {
-                if(c.j>0  && (vert[c.i][c.j - 1].val & 3) == 0 && (vert[c.i + 1][c.j].val & 3) == 0)
-                {
-                    int tlen = vert[c.i+1][c.j - 1].len;
-                    if(tlen !=-1 && tlen+141<c.len)
-                    {
-                        c.len = tlen+141;
-                    }
-                }
-                int tlen = vert[c.i+1][c.j].len;
-                if(tlen !=-1 && tlen+100<c.len)
-                {
-                    c.len = tlen+100;
-                }
-                if(c.j<size-1  && (vert[c.i][c.j + 1].val & 3) == 0 && (vert[c.i + 1][c.j].val & 3) == 0)
-                {
-                    tlen = vert[c.i+1][c.j+1].len;
-                    if(tlen !=-1 && tlen+141<c.len)
-                    {
-                        c.len = tlen+141;
-                    }
-                }
-            }
-            candidates.add(c);
+    private void check(int c, short[] val, int[] len, CellHeap candidates)
+    {
+        if (val[c] != 0 || len[c] != -1)
+            return;
+        int i = c / size, j = c % size;
+        int best = Integer.MAX_VALUE;
+        if (i > 0)
+        {
+            if (j > 0 && free(val, c - 1) && free(val, c - size))
+                best = relax(best, c - size - 1, DIAGONAL, len);
+            best = relax(best, c - size, STRAIGHT, len);
+            if (j < size - 1 && free(val, c + 1) && free(val, c - size))
+                best = relax(best, c - size + 1, DIAGONAL, len);
         }
+        if (j > 0)
+            best = relax(best, c - 1, STRAIGHT, len);
+        if (j < size - 1)
+            best = relax(best, c + 1, STRAIGHT, len);
+        if (i < size - 1)
+        {
+            if (j > 0 && free(val, c - 1) && free(val, c + size))
+                best = relax(best, c + size - 1, DIAGONAL, len);
+            best = relax(best, c + size, STRAIGHT, len);
+            if (j < size - 1 && free(val, c + 1) && free(val, c + size))
+                best = relax(best, c + size + 1, DIAGONAL, len);
+        }
+        len[c] = best;
+        candidates.push(c, estimate(i, j) + best);
     }
 
     public int getPathLen()
     {
-        return vert[end.x][end.y].len != -1 ? vert[end.x][end.y].len : Integer.MAX_VALUE;
+        return pathLen != -1 ? pathLen : Integer.MAX_VALUE;
     }
 
     public LinkedList<Vertex> path = new LinkedList<>();
 
-    boolean addToPath(Vertex v)
+    private boolean checkPath(int c, int clen, short[] val, int[] len)
     {
-        path.add(0, v);
-        v.val = 8;
-        if (v.len == 0)
-            return true;
-        if (v.i > 0)
-        {
-            if (v.j > 0 && ((vert[v.i-1][v.j].val & 3) == 0) && ((vert[v.i][v.j-1].val & 3) == 0))
-            {
-                if (checkPath(vert[v.i - 1][v.j - 1], v.len - 141))
-                    return addToPath(vert[v.i - 1][v.j - 1]);
-            }
-            if (checkPath(vert[v.i - 1][v.j], v.len - 100))
-                return addToPath(vert[v.i - 1][v.j]);
-            if (v.j < size - 1 && ((vert[v.i-1][v.j].val & 3) == 0) && ((vert[v.i][v.j+1].val & 3) == 0))
-            {
-                if (checkPath(vert[v.i - 1][v.j + 1], v.len - 141))
-                    return addToPath(vert[v.i - 1][v.j + 1]);
-            }
-        }
-        if (v.j > 0)
+        return val[c] == 4 && len[c] == clen;
+    }
+
+    /**
+     * Walks back from the target along cells whose length drops by exactly
+     * one step cost, preferring neighbours in a fixed order.
+     */
+    private void buildPath(int v, short[] val, int[] len)
+    {
+        NPFMap.Cell[][] cells = map.getCells();
+        while (v >= 0)
         {
-            if (checkPath(vert[v.i][v.j - 1], v.len - 100))
-                return addToPath(vert[v.i][v.j - 1]);
+            int i = v / size, j = v % size;
+            Vertex vert = new Vertex(cells[i][j].pos, (short) 8);
+            vert.i = i;
+            vert.j = j;
+            vert.len = len[v];
+            vert.dist = new Coord(i, j).dist(end);
+            path.addFirst(vert);
+            val[v] = 8;
+            if (len[v] == 0)
+                break;
+            v = predecessor(v, i, j, val, len);
         }
-        if (v.j < size - 1)
+    }
+
+    private int predecessor(int v, int i, int j, short[] val, int[] len)
+    {
+        int l = len[v];
+        if (i > 0)
         {
-            if (checkPath(vert[v.i][v.j + 1], v.len - 100))
-                return addToPath(vert[v.i][v.j + 1]);
+            if (j > 0 && free(val, v - size) && free(val, v - 1) && checkPath(v - size - 1, l - DIAGONAL, val, len))
+                return v - size - 1;
+            if (checkPath(v - size, l - STRAIGHT, val, len))
+                return v - size;
+            if (j < size - 1 && free(val, v - size) && free(val, v + 1) && checkPath(v - size + 1, l - DIAGONAL, val, len))
+                return v - size + 1;
         }
-        if (v.i < size - 1)
+        if (j > 0 && checkPath(v - 1, l - STRAIGHT, val, len))
+            return v - 1;
+        if (j < size - 1 && checkPath(v + 1, l - STRAIGHT, val, len))
+            return v + 1;
+        if (i < size - 1)
         {
-            if (v.j>0)
-            {
-                if (checkPath(vert[v.i + 1][v.j - 1], v.len - 141)&& ((vert[v.i+1][v.j].val & 3) == 0) && ((vert[v.i][v.j-1].val & 3) == 0))
-                    return addToPath(vert[v.i + 1][v.j - 1]);
-            }
-            if (checkPath(vert[v.i + 1][v.j], v.len - 100))
-                return addToPath(vert[v.i + 1][v.j]);
-            if (v.j < size - 1 && ((vert[v.i+1][v.j].val & 3) == 0) && ((vert[v.i][v.j+1].val & 3) == 0))
-            {
-                if (checkPath(vert[v.i + 1][v.j + 1], v.len - 141))
-                    return addToPath(vert[v.i + 1][v.j + 1]);
-            }
-
+            if (j > 0 && checkPath(v + size - 1, l - DIAGONAL, val, len) && free(val, v + size) && free(val, v - 1))
+                return v + size - 1;
+            if (checkPath(v + size, l - STRAIGHT, val, len))
+                return v + size;
+            if (j < size - 1 && free(val, v + size) && free(val, v + 1) && checkPath(v + size + 1, l - DIAGONAL, val, len))
+                return v + size + 1;
         }
-
-        return false;
-    }
-
-    private boolean checkPath(Vertex c, int len)
-    {
-        return c.val == 4 && c.len == len;
+        return -1;
     }
 
     public static LinkedList<Vertex> getPath(NPFMap map, LinkedList<Vertex> path)
@@ -343,26 +407,33 @@ public class Graph implements Runnable
         }
     }
 
-    public Vertex[][] getVert()
-    {
-        return vert;
-    }
-
-    LinkedList<Vertex> candidates = new LinkedList<>();
-
-    Vertex[][] vert;
-
     final NPFMap map;
 
-    final Coord begin, end;
+    final Coord begin;
+    // The goal that was reached, or the first one until then
+    Coord end;
+    final int[] goals;
     int size;
+    int pathLen = -1;
 
     public Graph(NPFMap map, Coord begin, Coord end)
+    {
+        this(map, begin, Collections.singletonList(end));
+    }
+
+    /**
+     * Search towards whichever of {@code ends} is settled first. The
+     * heuristic is the distance to the nearest goal, so a single search
+     * replaces one search per approach point.
+     */
+    public Graph(NPFMap map, Coord begin, List<Coord> ends)
     {
         size = map.getSize();
-        vert = new Vertex[map.getSize()][map.getSize()];
         this.map = map;
         this.begin = begin;
-        this.end = end;
+        this.end = ends.isEmpty() ? begin : ends.get(0);
+        this.goals = new int[ends.size()];
+        for (int i = 0; i < goals.length; i++)
+            goals[i] = ends.get(i).x * size + ends.get(i).y;
     }
 }
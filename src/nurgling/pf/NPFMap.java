@@ -29,6 +29,12 @@ public class NPFMap
     public int size;
     long currentTransport = -1;
     public boolean bad = false;
+    private final Coord2d src, tgt;
+    // Interior taken over from the previous map when growing, in cell indices
+    private Area keep = null;
+    // Cell values and content sizes right after build()
+    private short[] baseVal = null;
+    private int[] baseCount = null;
 
     private boolean isGate(Gob gob) {
         if (gob.ngob == null || gob.ngob.name == null) return false;
@@ -39,6 +45,14 @@ public class NPFMap
     }
 
     public CellsArray addGob(Gob gob) {
+        return addGob(gob, null);
+    }
+
+    /**
+     * Rasterizes a gob into the grid, leaving the cells inside {@code keep}
+     * (already rasterized by a previous, smaller map) untouched.
+     */
+    private CellsArray addGob(Gob gob, Area keep) {
         CellsArray ca;
 
         if (gob.ngob != null && gob.ngob.hitBox != null && (ca = getCa(gob)) != null && NUtils.player() != null && gob.id != NUtils.player().id && gob.getattr(Following.class) == null) {
@@ -47,11 +61,15 @@ public class NPFMap
             old.end = ca.end;
             if (ca.end.x >= begin.x && ca.begin.x <= end.x &&
                     ca.end.y >= begin.y && ca.begin.y <= end.y) {
+                if (keep != null && keep.contains(Area.corni(ca.begin.sub(begin), ca.end.sub(begin))))
+                    return old;
                 for (int i = 0; i < ca.x_len; i++)
                     for (int j = 0; j < ca.y_len; j++) {
                         int ii = i + ca.begin.x - begin.x;
                         int jj = j + ca.begin.y - begin.y;
                         if (ii > 0 && (ii + 1) < size && jj > 0 && (jj + 1) < size) {
+                            if (kept(keep, ii, jj))
+                                continue;
                             old.cells[i][j] = cells[ii][jj].val;
 
                             if (ca.cells[i][j] != 0) {
@@ -212,13 +230,66 @@ public class NPFMap
 
 
     public NPFMap(Coord2d src, Coord2d tgt, int mul) {
+        this.src = src;
+        this.tgt = tgt;
+        layout(mul);
+        cells = new Cell[size][size];
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                cells[i][j] = new Cell(begin.add(i, j));
+                if (i == 0 || j == 0 || i == size - 1 || j == size - 1)
+                    cells[i][j].val = 2;
+            }
+        }
+
+    }
+
+    /**
+     * Grown copy of {@code prev}: the Cell objects of the previous interior
+     * are moved over as they were right after its build(), only the rest is
+     * allocated. {@link #keep} is left null when the layouts don't nest.
+     */
+    private NPFMap(NPFMap prev, int mul) {
+        this.src = prev.src;
+        this.tgt = prev.tgt;
+        this.waterMode = prev.waterMode;
+        this.gatesAlwaysClosed = prev.gatesAlwaysClosed;
+        layout(mul);
+        cells = new Cell[size][size];
+        Coord off = prev.begin.sub(begin);
+        if (!lastMul && !prev.lastMul && prev.baseVal != null && off.x >= 0 && off.y >= 0 &&
+                off.x + prev.size <= size && off.y + prev.size <= size) {
+            prev.restore();
+            keep = Area.sized(off.add(1, 1), Coord.of(prev.size - 2, prev.size - 2));
+            for (int i = 1; i < prev.size - 1; i++)
+                System.arraycopy(prev.cells[i], 1, cells[i + off.x], off.y + 1, prev.size - 2);
+        }
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                if (cells[i][j] == null) {
+                    cells[i][j] = new Cell(begin.add(i, j));
+                    if (i == 0 || j == 0 || i == size - 1 || j == size - 1)
+                        cells[i][j].val = 2;
+                }
+            }
+        }
+    }
+
+    private int dsize(int mul) {
+        return Math.max(8,((int) Math.ceil(tgt.dist(src) / MCache.tilehsz.x)) * mul);
+    }
+
+    private static boolean kept(Area keep, int i, int j) {
+        return keep != null && i >= keep.ul.x && j >= keep.ul.y && i < keep.br.x && j < keep.br.y;
+    }
+
+    private void layout(int mul) {
         Coord2d a = new Coord2d(Math.min(src.x, tgt.x), Math.min(src.y, tgt.y));
         Coord2d b = new Coord2d(Math.max(src.x, tgt.x), Math.max(src.y, tgt.y));
         Coord center = Utils.toPfGrid((a.add(b)).div(2));
-        dsize = Math.max(8,((int) Math.ceil(b.dist(a) / MCache.tilehsz.x)) * mul);
+        dsize = dsize(mul);
         size = 2 * dsize + 1;
 
-        cells = new Cell[size][size];
         begin = center.sub(dsize, dsize);
         end = center.add(dsize, dsize);
         if(!Utils.inVisibleArea(Utils.pfGridToWorld(begin)) || !Utils.inVisibleArea(Utils.pfGridToWorld(end)))
@@ -233,18 +304,55 @@ public class NPFMap
                 end = Utils.toPfGrid(ul);
                 begin = Utils.toPfGrid(br);
                 size = end.x-begin.x;
-                cells = new Cell[size][size];
                 lastMul = true;
             }
         }
+    }
+
+    /**
+     * Returns the built map for the next {@code mul} step. Only the cells
+     * outside this map's interior are rasterized again; if the layout did
+     * not change this map is returned with its approach marks reset.
+     */
+    public NPFMap grow(int mul) {
+        if (!lastMul && baseVal != null && dsize(mul) == dsize) {
+            restore();
+            return this;
+        }
+        NPFMap res = new NPFMap(this, mul);
+        res.build();
+        return res;
+    }
+
+    /**
+     * Undoes everything done to the cells after build(): approach point
+     * marks, temporary obstacles and their content entries.
+     */
+    private void restore() {
+        if (baseVal == null)
+            return;
         for (int i = 0; i < size; i++) {
+            int row = i * size;
             for (int j = 0; j < size; j++) {
-                cells[i][j] = new Cell(begin.add(i, j));
-                if (i == 0 || j == 0 || i == size - 1 || j == size - 1)
-                    cells[i][j].val = 2;
+                Cell cell = cells[i][j];
+                cell.val = baseVal[row + j];
+                ArrayList<Long> content = cell.content;
+                for (int k = content.size() - 1; k >= baseCount[row + j]; k--)
+                    content.remove(k);
             }
         }
+    }
 
+    private void snapshot() {
+        baseVal = new short[size * size];
+        baseCount = new int[size * size];
+        for (int i = 0; i < size; i++) {
+            int row = i * size;
+            for (int j = 0; j < size; j++) {
+                baseVal[row + j] = cells[i][j].val;
+                baseCount[row + j] = cells[i][j].content.size();
+            }
+        }
     }
 
     public NPFMap(Coord2d src, Coord2d dst, int mul, boolean waterMode)throws InterruptedException
@@ -282,19 +390,21 @@ public class NPFMap
                 currentTransport = fl.tgt;
             }
         }
-        synchronized (NUtils.getGameUI().ui.sess.glob.oc)
+        // Gobs whose hitbox can reach into the map
+        double reach = NHitBox.maxReach() + MCache.tilesz.x;
+        Coord2d ul = Utils.pfGridToWorld(begin).sub(reach, reach);
+        Coord2d br = Utils.pfGridToWorld(end).add(reach, reach);
+        for (Gob gob : NUtils.getGameUI().ui.sess.glob.oc.index.area(ul, br))
         {
-
-            for (Gob gob : NUtils.getGameUI().ui.sess.glob.oc)
-            {
-                if(gob.id!=currentTransport)
-                    addGob(gob);
-            }
+            if(gob.id!=currentTransport)
+                addGob(gob, keep);
         }
         for (int i = 0; i < size; i += 1)
         {
             for (int j = 0; j < size; j += 1)
             {
+                if (kept(keep, i, j))
+                    continue;
 
                 if (cells[i][j].val == 0)
                 {
@@ -321,6 +431,7 @@ public class NPFMap
                 }
             }
         }
+        snapshot();
     }
 
     public ArrayList<Coord> checkCA(CellsArray ca) {
@@ -3,6 +3,7 @@ package nurgling.scenarios;
 import nurgling.NConfig;
 import nurgling.NGameUI;
 import nurgling.NUtils;
+import nurgling.actions.BotRuntime;
 import org.json.JSONArray;
 import org.json.JSONObject;
 
@@ -79,20 +80,20 @@ public class ScenarioManager {
     public void executeScenarioByName(String scenarioName, NGameUI gui) {
         for(Scenario scenario : this.getScenarios().values()) {
             if(scenario.getName().equals(scenarioName)) {
-                Thread t = new Thread(() -> {
+                BotRuntime.Bot bot = BotRuntime.create("ScenarioRunner-" + scenarioName, gui, g -> {
                     try {
                         nurgling.actions.bots.ScenarioRunner runner = new nurgling.actions.bots.ScenarioRunner(scenario);
-                        runner.run(gui);
+                        runner.run(g);
                     } catch (InterruptedException e) {
                         Thread.currentThread().interrupt();
                     } catch (Exception e) {
                         NUtils.getGameUI().error("Scenario execution failed: " + e.getMessage());
 
                     }
-                }, "ScenarioRunner-" + scenarioName);
+                });
 
-                NUtils.getGameUI().biw.addObserve(t);
-                t.start();
+                NUtils.getGameUI().biw.addObserve(bot.thread);
+                bot.start();
                 return;
             }
         }
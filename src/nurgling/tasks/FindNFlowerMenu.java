@@ -11,6 +11,8 @@ public class FindNFlowerMenu extends NTask
     {
         startTime = System.currentTimeMillis();
         startFrame = NUtils.getTickId();
+        // The timeouts are seen on the fallback poll
+        events = WIDGET;
     }
 
     @Override
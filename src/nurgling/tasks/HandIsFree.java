@@ -8,6 +8,7 @@ public class HandIsFree extends NTask
     public HandIsFree(NInventory inventory)
     {
         this.inventory = inventory;
+        events = WIDGET | INVENTORY;
     }
 
 
@@ -11,10 +11,13 @@ public class IsMoving extends NTask
 
     Coord2d coord;
 
+    // Ticks waited so far
     int count = 0;
+    final long startFrame = NUtils.getTickId();
     public IsMoving(Coord2d coord)
     {
         this.coord = coord;
+        events = MOVEMENT;
     }
 
     int th = 200;
@@ -22,12 +25,13 @@ public class IsMoving extends NTask
     {
         this.coord = coord;
         this.th = th;
+        events = MOVEMENT;
     }
 
     @Override
     public boolean check()
     {
-        count++;
+        count = (int) (NUtils.getTickId() - startFrame);
         if (NUtils.getGameUI() != null && NUtils.getGameUI().map != null && NUtils.getGameUI().map.player() != null)
         {
             if (NUtils.getGameUI().map.player().rc.dist(coord) <= pfmdelta)
@@ -10,10 +10,11 @@ public class MovingCompleted extends NTask
 {
     Coord2d target;
 
-    int count = 0;
+    final long startFrame = NUtils.getTickId();
     public MovingCompleted(Coord2d target)
     {
         this.target = target;
+        events = MOVEMENT;
     }
 
     @Override
@@ -22,8 +23,7 @@ public class MovingCompleted extends NTask
         if (NUtils.getGameUI() != null && NUtils.getGameUI().map != null && NUtils.getGameUI().map.player() != null)
         {
             Drawable drawable = (Drawable) NUtils.getGameUI().map.player().getattr(Drawable.class);
-            count++;
-            if(count>=1000)
+            if(NUtils.getTickId() - startFrame >= 1000)
                 return true;
             if (drawable != null)
             {
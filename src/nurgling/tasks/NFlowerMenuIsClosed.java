@@ -7,6 +7,7 @@ public class NFlowerMenuIsClosed extends NTask
 
     public NFlowerMenuIsClosed()
     {
+        events = WIDGET;
     }
 
     @Override
@@ -1,8 +1,30 @@
 package nurgling.tasks;
 
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A condition a bot thread waits for through NCore.addTask. The core checks it on
+ * the UI thread; by default every tick, or, for tasks that set events, only on
+ * ticks after one of those events was signalled (see NCore.signal), on their first
+ * tick and on a slow fallback poll.
+ */
 public abstract class NTask
 {
-    public boolean baseCheck()
+    // Widget created, added to a parent or destroyed
+    public static final int WIDGET = 1;
+    // Deltas applied to a gob, gob added or removed
+    public static final int GOB = 2;
+    // Item added to or removed from an inventory or stockpile, or item updated
+    public static final int INVENTORY = 4;
+    // A gob started or stopped moving or changed its pose
+    public static final int MOVEMENT = 8;
+    // Every tick, for conditions that depend on time or on the number of checks
+    public static final int TICK = 16;
+
+    /**
+     * Counts a tick towards maxCounter without checking the task
+     */
+    public boolean expired()
     {
         if(!infinite)
         {
@@ -12,12 +34,73 @@ public abstract class NTask
                 return true;
             }
         }
+        return false;
+    }
+
+    public boolean baseCheck()
+    {
+        if(expired())
+            return true;
+        checks++;
         return check();
     }
     public abstract boolean check();
 
+    /**
+     * Called by NCore once per tick with the events signalled since the last one
+     */
+    public boolean tick(int signalled, boolean poll)
+    {
+        if(poll || again || (events & (signalled | TICK)) != 0)
+        {
+            again = false;
+            return baseCheck();
+        }
+        return expired();
+    }
+
+    /**
+     * Have the task checked on the next tick whatever happens, e.g. when the
+     * check found something that is still loading
+     */
+    protected void again()
+    {
+        again = true;
+    }
+
+    /**
+     * Called by NCore when a bot thread starts waiting on the task
+     */
+    public void queued()
+    {
+        released = false;
+        again = true;
+        checks = 0;
+        queuedAt = System.nanoTime();
+        waiter = Thread.currentThread();
+    }
+
+    /**
+     * Called by NCore when the task completes or is dropped, to wake the waiting thread
+     */
+    public void release()
+    {
+        released = true;
+        LockSupport.unpark(waiter);
+    }
+
     public boolean criticalExit = false;
     protected int counter = 0;
     protected int maxCounter = 200;
     protected boolean infinite = true;
+    // What check() depends on
+    protected int events = TICK;
+
+    // Kept by NCore
+    public volatile boolean released = false;
+    // Parked rather than in Object.wait, which would pin a virtual thread to its carrier
+    volatile Thread waiter;
+    public long queuedAt;
+    public int checks = 0;
+    private boolean again = true;
 }
@@ -13,6 +13,7 @@ public class NoGob extends NTask
     public NoGob(long id)
     {
         this.id = id;
+        events = GOB;
     }
 
 
@@ -0,0 +1,95 @@
+package nurgling.tasks;
+
+import java.util.*;
+
+/**
+ * How long bot threads wait on each kind of task and how often the core has to
+ * check it until it completes.
+ */
+public class TaskStats
+{
+    public static class Entry
+    {
+        public final String name;
+        public long waits = 0;
+        public long checks = 0;
+        public double totalMs = 0;
+        public double maxMs = 0;
+
+        Entry(String name)
+        {
+            this.name = name;
+        }
+
+        public double avgMs()
+        {
+            return (waits == 0) ? 0 : totalMs / waits;
+        }
+
+        public double checksPerWait()
+        {
+            return (waits == 0) ? 0 : (double) checks / waits;
+        }
+    }
+
+    private static final Map<String, Entry> entries = new HashMap<>();
+
+    /**
+     * Short name of a task class for display, e.g. "MovingCompleted" or "Harvest$1"
+     */
+    public static String name(Class<?> cl)
+    {
+        String name = cl.getName();
+        // Shorten package names
+        name = name.replace("nurgling.actions.", "");
+        name = name.replace("nurgling.tasks.", "");
+        // For anonymous classes, show parent class
+        if (name.contains("$")) {
+            int dollarIdx = name.indexOf('$');
+            String parent = name.substring(0, dollarIdx);
+            String suffix = name.substring(dollarIdx);
+            // Get just class name from parent
+            int lastDot = parent.lastIndexOf('.');
+            if (lastDot > 0) {
+                parent = parent.substring(lastDot + 1);
+            }
+            name = parent + suffix;
+        }
+        return name;
+    }
+
+    public static void record(NTask task)
+    {
+        double ms = (System.nanoTime() - task.queuedAt) / 1e6;
+        synchronized (entries)
+        {
+            Entry e = entries.computeIfAbsent(name(task.getClass()), Entry::new);
+            e.waits++;
+            e.checks += task.checks;
+            e.totalMs += ms;
+            e.maxMs = Math.max(e.maxMs, ms);
+        }
+    }
+
+    /**
+     * Copies of the entries, those with the most time waited first
+     */
+    public static List<Entry> snapshot()
+    {
+        List<Entry> ret = new ArrayList<>();
+        synchronized (entries)
+        {
+            for (Entry e : entries.values())
+            {
+                Entry c = new Entry(e.name);
+                c.waits = e.waits;
+                c.checks = e.checks;
+                c.totalMs = e.totalMs;
+                c.maxMs = e.maxMs;
+                ret.add(c);
+            }
+        }
+        ret.sort((a, b) -> Double.compare(b.totalMs, a.totalMs));
+        return ret;
+    }
+}
@@ -9,6 +9,7 @@ public class WaitFreeHand extends NTask
     public WaitFreeHand()
     {
         infinite = false;
+        events = WIDGET;
     }
 
     @Override
@@ -10,6 +10,7 @@ public class WaitGobModelAttr extends NTask {
     public WaitGobModelAttr(Gob gob, int flag) {
         this.gob = gob;
         this.flag = flag;
+        events = GOB;
     }
 
 
@@ -7,6 +7,7 @@ public class WaitGobRemoval extends NTask {
 
     public WaitGobRemoval(long gobId) {
         this.gobId = gobId;
+        events = GOB;
     }
 
     @Override
@@ -13,7 +13,12 @@ public class WaitItems extends NTask
     NAlias name = null;
     Widget inventory;
 
-    int count = 0;
+    // Ticks rather than checks, which only happen when the inventory changes
+    final long startFrame = NUtils.getTickId();
+
+    {
+        events = INVENTORY;
+    }
 
     GItem target = null;
     
@@ -59,7 +64,6 @@ public class WaitItems extends NTask
     @Override
     public boolean check()
     {
-        count++;
         if (target != null)
             if (((NGItem) target).name() != null)
                 name = new NAlias(((NGItem) target).name());
@@ -70,14 +74,18 @@ public class WaitItems extends NTask
         {
             result.clear();
 
-            if (checkSize(inventory.child)) return false;
+            if (checkSize(inventory.child)) {
+                // Item info that is still loading signals nothing
+                again();
+                return false;
+            }
             
             int actualCount = 0;
             for (WItem item : result) {
                 actualCount += getActualItemCount(item);
             }
             
-            if(count == 1000) {
+            if(NUtils.getTickId() - startFrame >= 1000) {
                 NUtils.getGameUI().error("WAIT ITEMS ERROR result.size():" + String.valueOf(result.size()) + " actual count: " + actualCount + " req target size:" + String.valueOf(target_size) + " WITEMS: " + ((name != null && name.keys.size() > 0) ? name.keys.get(0) : "null"));
                 return true;
             }
@@ -18,6 +18,11 @@ public class WaitMoreItems extends NTask
     Widget inventory;
 
     GItem target = null;
+
+    {
+        events = INVENTORY;
+    }
+
     public WaitMoreItems(NInventory inventory, NAlias name, int size)
     {
         this.name = name;
@@ -17,6 +17,11 @@ public class WaitNoItems extends NTask
     Widget inventory;
 
     GItem target = null;
+
+    {
+        events = INVENTORY;
+    }
+
     public WaitNoItems(NInventory inventory, NAlias name)
     {
         this.name = name;
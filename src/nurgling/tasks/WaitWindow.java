@@ -20,7 +20,7 @@ public class WaitWindow extends NTask
     public WaitWindow(String name)
     {
         this.name = name;
-
+        events = WIDGET;
     }
 
     @Override
@@ -10,6 +10,7 @@ public class WindowIsClosed extends NTask
     public WindowIsClosed(Window wnd)
     {
         this.wnd = wnd;
+        events = WIDGET;
     }
 
     @Override
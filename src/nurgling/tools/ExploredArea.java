@@ -6,24 +6,36 @@ import nurgling.widgets.NMiniMap;
 import org.json.JSONArray;
 import org.json.JSONObject;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.RandomAccessFile;
-import java.nio.channels.FileChannel;
+import java.nio.ByteBuffer;
 import java.nio.channels.FileLock;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Stream;
+import java.util.zip.CRC32;
 
 /**
  * Tracks explored (visible) area on the minimap.
- * Uses grid-based boolean masks for efficient storage and fast updates.
- * Each grid (100x100 tiles) has its own mask marking explored tiles.
- * 
+ * Uses grid-based bitsets for efficient storage and fast updates.
+ * Each grid (100x100 tiles) has its own mask of MASK_SIZE bits, tile x + y * 100,
+ * marking explored tiles.
+ *
+ * The persistent masks are kept in a binary journal: every save appends the grids
+ * changed since the last one, and the journal is compacted to one record per grid
+ * once it has grown well past that. Clients sharing a profile read what the others
+ * appended before writing, so explored tiles from all of them are kept.
+ *
  * Supports session layers - temporary explored areas that can be created
  * and deleted without affecting the main persistent explored area.
  */
@@ -32,22 +44,31 @@ public class ExploredArea {
     public static volatile long seq = 0;
     // Separate version tracking for session layer
     public static volatile long sessionSeq = 0;
-    
+
     private static final int GRID_SIZE = 100; // MCache.cmaps.x
     private static final int MASK_SIZE = GRID_SIZE * GRID_SIZE;
-    
+    private static final int WORDS = (MASK_SIZE + 63) / 64;
+
+    // Journal layout: a header of magic and generation, then records of
+    // segment, grid x, grid y, the mask words and a CRC32 of all that
+    private static final int JOURNAL_MAGIC = 0x4e455831; // "NEX1"
+    private static final int HEADER_SIZE = 4 + 8;
+    private static final int RECORD_SIZE = 8 + 4 + 4 + WORDS * 8 + 4;
+    // Records beyond twice the number of grids before the journal is compacted
+    private static final int COMPACT_SLACK = 256;
+
     /**
      * Key for identifying a grid in a specific segment.
      */
     private static class GridKey {
         final long segmentId;
         final Coord gridCoord;  // Grid coordinate at data level 0
-        
+
         GridKey(long segmentId, Coord gridCoord) {
             this.segmentId = segmentId;
             this.gridCoord = gridCoord;
         }
-        
+
         @Override
         public boolean equals(Object o) {
             if (this == o) return true;
@@ -55,24 +76,33 @@ public class ExploredArea {
             GridKey key = (GridKey) o;
             return segmentId == key.segmentId && gridCoord.equals(key.gridCoord);
         }
-        
+
         @Override
         public int hashCode() {
             return Objects.hash(segmentId, gridCoord);
         }
     }
-    
+
     final NMiniMap miniMap;
-    
+
     // Main storage: grid-based masks (persistent)
-    private final ConcurrentHashMap<GridKey, boolean[]> gridMasks = new ConcurrentHashMap<>();
-    
+    private final ConcurrentHashMap<GridKey, long[]> gridMasks = new ConcurrentHashMap<>();
+
     // Session layer storage: grid-based masks (temporary, not saved)
-    private final ConcurrentHashMap<GridKey, boolean[]> sessionGridMasks = new ConcurrentHashMap<>();
-    
+    private final ConcurrentHashMap<GridKey, long[]> sessionGridMasks = new ConcurrentHashMap<>();
+
+    // Grids of the main layer changed since they were last appended to the journal
+    private final Set<GridKey> dirty = ConcurrentHashMap.newKeySet();
+
+    // How much of the journal on disk is already merged into gridMasks.
+    // A different generation means another client compacted it since.
+    private long journalGen = 0;
+    private long journalPos = 0;
+    private int journalRecords = 0;
+
     // Flag indicating if session layer is active
     private volatile boolean sessionActive = false;
-    
+
     /**
      * Get the appropriate NConfig instance (profile-specific if available)
      */
@@ -86,22 +116,111 @@ public class ExploredArea {
         }
         return NConfig.current;
     }
-    
+
     // Track last update position to avoid redundant updates
     private Coord lastTileUL, lastTileBR;
     private long lastSegmentId = -1;
-    
+
     public ExploredArea(NMiniMap miniMap) {
         this.miniMap = miniMap;
         // Note: Don't load from file here! The profile may not be initialized yet.
         // Data is loaded later via reloadFromFile() when the profile is ready.
         // This prevents loading from the wrong path and losing profile-specific data.
     }
-    
+
+    /**
+     * Whether tile (x, y) of a grid is set in a mask.
+     */
+    public static boolean isExplored(long[] mask, int x, int y) {
+        return bit(mask, x + y * GRID_SIZE);
+    }
+
+    private static boolean bit(long[] mask, int idx) {
+        return (mask[idx >>> 6] & (1L << idx)) != 0;
+    }
+
+    /**
+     * Check if mask has any explored tiles.
+     */
+    public static boolean isEmpty(long[] mask) {
+        for (long w : mask) {
+            if (w != 0) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Set bits [from, to) of a mask a word at a time.
+     * Returns whether any of them was not set before.
+     */
+    private static boolean setRange(long[] mask, int from, int to) {
+        boolean changed = false;
+        int w0 = from >>> 6, w1 = (to - 1) >>> 6;
+        for (int w = w0; w <= w1; w++) {
+            long m = -1L;
+            if (w == w0) m &= -1L << (from & 63);
+            if (w == w1) m &= -1L >>> (63 - ((to - 1) & 63));
+            if ((mask[w] & m) != m) {
+                mask[w] |= m;
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Mark tiles [ulx, brx) x [uly, bry) of a grid in a mask.
+     */
+    private static boolean setRect(long[] mask, int ulx, int uly, int brx, int bry) {
+        if (ulx >= brx || uly >= bry) {
+            return false;
+        }
+        if (ulx == 0 && brx == GRID_SIZE) {
+            // Full rows are contiguous in the mask
+            return setRange(mask, uly * GRID_SIZE, bry * GRID_SIZE);
+        }
+        boolean changed = false;
+        for (int y = uly; y < bry; y++) {
+            changed |= setRange(mask, y * GRID_SIZE + ulx, y * GRID_SIZE + brx);
+        }
+        return changed;
+    }
+
+    /**
+     * OR src into dst, returning whether dst changed.
+     */
+    private static boolean or(long[] dst, long[] src) {
+        boolean changed = false;
+        for (int i = 0; i < WORDS; i++) {
+            long v = dst[i] | src[i];
+            if (v != dst[i]) {
+                dst[i] = v;
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * OR all masks of data into gridMasks, returning whether anything changed.
+     */
+    private boolean merge(Map<GridKey, long[]> data) {
+        boolean changed = false;
+        for (Map.Entry<GridKey, long[]> entry : data.entrySet()) {
+            long[] mask = gridMasks.putIfAbsent(entry.getKey(), entry.getValue());
+            if (mask == null) {
+                changed = true;
+            } else {
+                changed |= or(mask, entry.getValue());
+            }
+        }
+        return changed;
+    }
+
     /**
      * Update explored area with current view bounds.
      * This is called every tick when player moves.
-     * Very fast - just sets bits in the mask, no complex Rectangle operations.
+     * Very fast - just ORs the covered rows into the mask, no complex Rectangle operations.
      * Also updates session layer if active.
      */
     public void updateExploredTiles(Coord tileUL, Coord tileBR, long segmentId) {
@@ -109,59 +228,46 @@ public class ExploredArea {
         if (Objects.equals(tileUL, lastTileUL) && Objects.equals(tileBR, lastTileBR) && segmentId == lastSegmentId) {
             return;
         }
-        
+
         lastTileUL = tileUL;
         lastTileBR = tileBR;
         lastSegmentId = segmentId;
-        
+
         // Calculate which grids are affected
         Coord gridUL = tileUL.div(GRID_SIZE);
         Coord gridBR = tileBR.sub(1, 1).div(GRID_SIZE); // Inclusive end
-        
+
         boolean changed = false;
         boolean sessionChanged = false;
-        
+
         // Update each affected grid
         for (int gy = gridUL.y; gy <= gridBR.y; gy++) {
             for (int gx = gridUL.x; gx <= gridBR.x; gx++) {
                 Coord gridCoord = new Coord(gx, gy);
                 GridKey key = new GridKey(segmentId, gridCoord);
-                
-                // Get or create mask for this grid (main persistent layer)
-                boolean[] mask = gridMasks.computeIfAbsent(key, k -> new boolean[MASK_SIZE]);
-                
-                // Get or create mask for session layer if active
-                boolean[] sessionMask = null;
-                if (sessionActive) {
-                    sessionMask = sessionGridMasks.computeIfAbsent(key, k -> new boolean[MASK_SIZE]);
-                }
-                
+
                 // Calculate tile bounds within this grid
                 Coord gridTileStart = gridCoord.mul(GRID_SIZE);
                 int localULX = Math.max(0, tileUL.x - gridTileStart.x);
                 int localULY = Math.max(0, tileUL.y - gridTileStart.y);
                 int localBRX = Math.min(GRID_SIZE, tileBR.x - gridTileStart.x);
                 int localBRY = Math.min(GRID_SIZE, tileBR.y - gridTileStart.y);
-                
-                // Mark tiles as explored
-                for (int y = localULY; y < localBRY; y++) {
-                    for (int x = localULX; x < localBRX; x++) {
-                        int idx = x + y * GRID_SIZE;
-                        // Update main layer
-                        if (!mask[idx]) {
-                            mask[idx] = true;
-                            changed = true;
-                        }
-                        // Update session layer if active
-                        if (sessionMask != null && !sessionMask[idx]) {
-                            sessionMask[idx] = true;
-                            sessionChanged = true;
-                        }
-                    }
+
+                // Main persistent layer
+                long[] mask = gridMasks.computeIfAbsent(key, k -> new long[WORDS]);
+                if (setRect(mask, localULX, localULY, localBRX, localBRY)) {
+                    dirty.add(key);
+                    changed = true;
+                }
+
+                // Session layer if active
+                if (sessionActive) {
+                    long[] sessionMask = sessionGridMasks.computeIfAbsent(key, k -> new long[WORDS]);
+                    sessionChanged |= setRect(sessionMask, localULX, localULY, localBRX, localBRY);
                 }
             }
         }
-        
+
         if (changed) {
             seq++;
             NConfig.needExploredUpdate();
@@ -171,33 +277,34 @@ public class ExploredArea {
             needSessionUpdate = true;
         }
     }
-    
+
     // Flag for session save
     private volatile boolean needSessionUpdate = false;
     private long lastSessionSaveTime = 0;
     private static final long SESSION_SAVE_INTERVAL = 5000; // Save every 5 seconds max
-    
+
     /**
      * Get explored mask for a specific grid at base level (dataLevel 0).
      * Used by MinimapExploredAreaRenderer for rendering.
      * Very fast - just returns the stored mask.
-     * 
+     *
      * @param gridCoord Grid coordinate at base level
      * @param segmentId Segment ID
      * @param dataLevel Must be 0 (aggregation is done by renderer)
-     * @return boolean[] mask or null if no data
+     * @return mask bits (see isExplored) or null if no data
      */
-    public boolean[] getExploredMaskForGrid(Coord gridCoord, long segmentId, int dataLevel) {
+    public long[] getExploredMaskForGrid(Coord gridCoord, long segmentId, int dataLevel) {
         GridKey key = new GridKey(segmentId, gridCoord);
         return gridMasks.get(key);
     }
-    
+
     /**
      * Clear all explored data.
      */
     public void clear() {
         if (!gridMasks.isEmpty()) {
             gridMasks.clear();
+            dirty.clear();
             lastTileUL = null;
             lastTileBR = null;
             lastSegmentId = -1;
@@ -205,14 +312,14 @@ public class ExploredArea {
             NConfig.needExploredUpdate();
         }
     }
-    
+
     /**
      * Check if session layer is currently active.
      */
     public boolean isSessionActive() {
         return sessionActive;
     }
-    
+
     /**
      * Start a new session layer.
      * Clears any existing session data and starts fresh.
@@ -229,7 +336,7 @@ public class ExploredArea {
         // Save session state
         saveSessionToFile();
     }
-    
+
     /**
      * End and delete the session layer.
      * All session data is discarded.
@@ -241,23 +348,23 @@ public class ExploredArea {
         // Delete session file
         deleteSessionFile();
     }
-    
+
     /**
      * Get session mask for a specific grid at base level (dataLevel 0).
      * Used by MinimapExploredAreaRenderer for rendering session overlay.
-     * 
+     *
      * @param gridCoord Grid coordinate at base level
      * @param segmentId Segment ID
-     * @return boolean[] mask or null if no data or session not active
+     * @return mask bits (see isExplored) or null if no data or session not active
      */
-    public boolean[] getSessionMaskForGrid(Coord gridCoord, long segmentId) {
+    public long[] getSessionMaskForGrid(Coord gridCoord, long segmentId) {
         if (!sessionActive) {
             return null;
         }
         GridKey key = new GridKey(segmentId, gridCoord);
         return sessionGridMasks.get(key);
     }
-    
+
     /**
      * Tick method - handles periodic session saving.
      */
@@ -272,7 +379,7 @@ public class ExploredArea {
             }
         }
     }
-    
+
     /**
      * Reload explored area data from file.
      * Call this after profile initialization to load profile-specific data.
@@ -280,150 +387,140 @@ public class ExploredArea {
      */
     public void reloadFromFile() {
         // Save current in-memory data before loading
-        Map<GridKey, boolean[]> currentData = new HashMap<>(gridMasks);
-        
+        Map<GridKey, long[]> currentData = new HashMap<>(gridMasks);
+
         // Load from file
         gridMasks.clear();
+        dirty.clear();
         loadFromFile();
-        
-        // Merge in-memory data back (OR operation - keep explored tiles from both)
-        for (Map.Entry<GridKey, boolean[]> entry : currentData.entrySet()) {
-            GridKey key = entry.getKey();
-            boolean[] memoryMask = entry.getValue();
-            
-            boolean[] fileMask = gridMasks.get(key);
-            if (fileMask == null) {
-                // Grid only in memory, add it
-                gridMasks.put(key, memoryMask);
-            } else {
-                // Merge: OR the masks
-                for (int i = 0; i < MASK_SIZE; i++) {
-                    fileMask[i] = fileMask[i] || memoryMask[i];
-                }
-            }
-        }
-        
+
+        // Merge in-memory data back (OR - keep explored tiles from both);
+        // it is not in this profile's journal yet
+        merge(currentData);
+        dirty.addAll(currentData.keySet());
+
         // Also reload session data (session doesn't need merge - it's temporary)
         sessionGridMasks.clear();
         loadSessionFromFile();
-        
+
         seq++;
     }
-    
+
     /**
-     * Load explored area from JSON file.
+     * Load explored area from the journal, or from the JSON file of profiles
+     * saved before there was one. The first save then writes the journal.
      */
     private void loadFromFile() {
         // Use profile-specific config from NCore if available, otherwise fallback to global
         NConfig config = getConfig();
-        File file = new File(config.getExploredPath());
-        if (!file.exists()) {
-            return;
-        }
-        
+        journalGen = 0;
+        journalPos = 0;
+        journalRecords = 0;
         try {
-            StringBuilder contentBuilder = new StringBuilder();
-            try (Stream<String> stream = Files.lines(Paths.get(file.getAbsolutePath()), StandardCharsets.UTF_8)) {
-                stream.forEach(s -> contentBuilder.append(s).append("\n"));
-            }
-            
-            if (contentBuilder.length() == 0) {
-                return;
-            }
-            
-            JSONObject json = new JSONObject(contentBuilder.toString());
-            if (!json.has("grids")) {
-                return;
-            }
-            
-            JSONArray gridsArray = json.getJSONArray("grids");
-            for (int i = 0; i < gridsArray.length(); i++) {
-                JSONObject gridJson = gridsArray.getJSONObject(i);
-                
-                long segmentId = gridJson.getLong("seg");
-                int gx = gridJson.getInt("gx");
-                int gy = gridJson.getInt("gy");
-                
-                GridKey key = new GridKey(segmentId, new Coord(gx, gy));
-                
-                // Decode RLE compressed mask
-                String rle = gridJson.getString("mask");
-                boolean[] mask = decodeRLE(rle);
-                
-                if (mask != null) {
-                    gridMasks.put(key, mask);
-                }
+            File journal = new File(config.getExploredJournalPath());
+            if (journal.exists()) {
+                gridMasks.putAll(readJournal(journal));
+            } else {
+                gridMasks.putAll(readLegacyFile(new File(config.getExploredPath())));
             }
-            
             seq++;
         } catch (Exception e) {
             // Ignore load errors
         }
     }
-    
+
     /**
-     * Save explored area to JSON file.
+     * Read a whole journal, remembering how far it was read.
      */
-    public JSONObject toJson() {
-        JSONArray gridsArray = new JSONArray();
-        
-        for (Map.Entry<GridKey, boolean[]> entry : gridMasks.entrySet()) {
-            GridKey key = entry.getKey();
-            boolean[] mask = entry.getValue();
-            
-            // Skip empty masks
-            if (!hasAnyExploredTiles(mask)) {
-                continue;
+    private Map<GridKey, long[]> readJournal(File file) throws IOException {
+        ByteBuffer buf = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+        if (buf.remaining() < HEADER_SIZE || buf.getInt() != JOURNAL_MAGIC) {
+            throw new IOException("Not an explored area journal: " + file);
+        }
+        long gen = buf.getLong();
+        Map<GridKey, long[]> result = new HashMap<>();
+        int n = readRecords(buf, result);
+        journalGen = gen;
+        journalPos = buf.position();
+        journalRecords = n;
+        return result;
+    }
+
+    /**
+     * OR the records from the position of buf into result. Stops at the first
+     * incomplete or damaged record, which can only be the tail left by a client
+     * that died while appending, and leaves buf positioned there.
+     */
+    private static int readRecords(ByteBuffer buf, Map<GridKey, long[]> result) {
+        CRC32 crc = new CRC32();
+        int n = 0;
+        while (buf.remaining() >= RECORD_SIZE) {
+            int start = buf.position();
+            crc.reset();
+            crc.update(buf.array(), buf.arrayOffset() + start, RECORD_SIZE - 4);
+            if ((int) crc.getValue() != buf.getInt(start + RECORD_SIZE - 4)) {
+                break;
             }
-            
-            JSONObject gridJson = new JSONObject();
-            gridJson.put("seg", key.segmentId);
-            gridJson.put("gx", key.gridCoord.x);
-            gridJson.put("gy", key.gridCoord.y);
-            
-            // Encode mask with RLE compression
-            gridJson.put("mask", encodeRLE(mask));
-            
-            gridsArray.put(gridJson);
+            long segmentId = buf.getLong();
+            int gx = buf.getInt();
+            int gy = buf.getInt();
+            long[] mask = new long[WORDS];
+            for (int i = 0; i < WORDS; i++) {
+                mask[i] = buf.getLong();
+            }
+            buf.getInt();
+            long[] prev = result.putIfAbsent(new GridKey(segmentId, new Coord(gx, gy)), mask);
+            if (prev != null) {
+                or(prev, mask);
+            }
+            n++;
         }
-        
-        JSONObject doc = new JSONObject();
-        doc.put("grids", gridsArray);
-        return doc;
+        return n;
+    }
+
+    private static void putRecord(ByteBuffer buf, GridKey key, long[] mask) {
+        int start = buf.position();
+        buf.putLong(key.segmentId).putInt(key.gridCoord.x).putInt(key.gridCoord.y);
+        for (long w : mask) {
+            buf.putLong(w);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buf.array(), buf.arrayOffset() + start, RECORD_SIZE - 4);
+        buf.putInt((int) crc.getValue());
     }
-    
+
     /**
      * Convert session data to JSON for saving.
      */
     private JSONObject sessionToJson() {
         JSONArray gridsArray = new JSONArray();
-        
-        for (Map.Entry<GridKey, boolean[]> entry : sessionGridMasks.entrySet()) {
+
+        for (Map.Entry<GridKey, long[]> entry : sessionGridMasks.entrySet()) {
             GridKey key = entry.getKey();
-            boolean[] mask = entry.getValue();
-            
+            long[] mask = entry.getValue();
+
             // Skip empty masks
-            if (!hasAnyExploredTiles(mask)) {
+            if (isEmpty(mask)) {
                 continue;
             }
-            
+
             JSONObject gridJson = new JSONObject();
             gridJson.put("seg", key.segmentId);
             gridJson.put("gx", key.gridCoord.x);
             gridJson.put("gy", key.gridCoord.y);
-            
+
             // Encode mask with RLE compression
             gridJson.put("mask", encodeRLE(mask));
-            
+
             gridsArray.put(gridJson);
         }
-        
+
         JSONObject doc = new JSONObject();
         doc.put("active", sessionActive);
         doc.put("grids", gridsArray);
         return doc;
     }
-    
+
     /**
      * Save session data to file.
      */
@@ -437,63 +534,74 @@ public class ExploredArea {
             // Ignore save errors
         }
     }
-    
+
+    /**
+     * Read a JSON document of RLE encoded grids, as the session file and the
+     * explored area file of older versions are written.
+     */
+    private JSONObject readJsonFile(File file) throws IOException {
+        if (!file.exists()) {
+            return null;
+        }
+        StringBuilder contentBuilder = new StringBuilder();
+        try (Stream<String> stream = Files.lines(Paths.get(file.getAbsolutePath()), StandardCharsets.UTF_8)) {
+            stream.forEach(s -> contentBuilder.append(s).append("\n"));
+        }
+        if (contentBuilder.length() == 0) {
+            return null;
+        }
+        return new JSONObject(contentBuilder.toString());
+    }
+
+    private Map<GridKey, long[]> gridsFromJson(JSONObject json) {
+        Map<GridKey, long[]> result = new HashMap<>();
+        if (json == null || !json.has("grids")) {
+            return result;
+        }
+        JSONArray gridsArray = json.getJSONArray("grids");
+        for (int i = 0; i < gridsArray.length(); i++) {
+            JSONObject gridJson = gridsArray.getJSONObject(i);
+
+            long segmentId = gridJson.getLong("seg");
+            int gx = gridJson.getInt("gx");
+            int gy = gridJson.getInt("gy");
+
+            // Decode RLE compressed mask
+            long[] mask = decodeRLE(gridJson.getString("mask"));
+            if (mask != null) {
+                result.put(new GridKey(segmentId, new Coord(gx, gy)), mask);
+            }
+        }
+        return result;
+    }
+
+    private Map<GridKey, long[]> readLegacyFile(File file) throws IOException {
+        return gridsFromJson(readJsonFile(file));
+    }
+
     /**
      * Load session data from file.
      */
     private void loadSessionFromFile() {
         NConfig config = getConfig();
-        File file = new File(config.getSessionExploredPath());
-        if (!file.exists()) {
-            return;
-        }
-        
         try {
-            StringBuilder contentBuilder = new StringBuilder();
-            try (Stream<String> stream = Files.lines(Paths.get(file.getAbsolutePath()), StandardCharsets.UTF_8)) {
-                stream.forEach(s -> contentBuilder.append(s).append("\n"));
-            }
-            
-            if (contentBuilder.length() == 0) {
+            JSONObject json = readJsonFile(new File(config.getSessionExploredPath()));
+            if (json == null) {
                 return;
             }
-            
-            JSONObject json = new JSONObject(contentBuilder.toString());
-            
+
             // Load active state
             if (json.has("active")) {
                 sessionActive = json.getBoolean("active");
             }
-            
-            if (!json.has("grids")) {
-                return;
-            }
-            
-            JSONArray gridsArray = json.getJSONArray("grids");
-            for (int i = 0; i < gridsArray.length(); i++) {
-                JSONObject gridJson = gridsArray.getJSONObject(i);
-                
-                long segmentId = gridJson.getLong("seg");
-                int gx = gridJson.getInt("gx");
-                int gy = gridJson.getInt("gy");
-                
-                GridKey key = new GridKey(segmentId, new Coord(gx, gy));
-                
-                // Decode RLE compressed mask
-                String rle = gridJson.getString("mask");
-                boolean[] mask = decodeRLE(rle);
-                
-                if (mask != null) {
-                    sessionGridMasks.put(key, mask);
-                }
-            }
-            
+
+            sessionGridMasks.putAll(gridsFromJson(json));
             sessionSeq++;
         } catch (Exception e) {
             // Ignore load errors
         }
     }
-    
+
     /**
      * Delete session file.
      */
@@ -508,283 +616,210 @@ public class ExploredArea {
             // Ignore delete errors
         }
     }
-    
-    /**
-     * Check if mask has any explored tiles.
-     */
-    private boolean hasAnyExploredTiles(boolean[] mask) {
-        for (boolean tile : mask) {
-            if (tile) return true;
-        }
-        return false;
-    }
-    
+
     /**
-     * Encode boolean mask with RLE (Run-Length Encoding) for compression.
+     * Encode mask with RLE (Run-Length Encoding) for compression.
      * Format: "startBit:count1,count2,count3..." where startBit (0 or 1) indicates first value.
      */
-    private String encodeRLE(boolean[] mask) {
+    private String encodeRLE(long[] mask) {
         StringBuilder sb = new StringBuilder();
-        
+
         // Store the starting value (0 for false, 1 for true)
-        sb.append(mask[0] ? '1' : '0').append(':');
-        
-        boolean currentValue = mask[0];
+        boolean currentValue = bit(mask, 0);
+        sb.append(currentValue ? '1' : '0').append(':');
+
         int count = 1;
-        
-        for (int i = 1; i < mask.length; i++) {
-            if (mask[i] == currentValue) {
+
+        for (int i = 1; i < MASK_SIZE; i++) {
+            if (bit(mask, i) == currentValue) {
                 count++;
             } else {
                 sb.append(count).append(',');
-                currentValue = mask[i];
+                currentValue = !currentValue;
                 count = 1;
             }
         }
         sb.append(count); // Last run
-        
+
         return sb.toString();
     }
-    
+
     /**
      * Decode RLE compressed mask.
      */
-    private boolean[] decodeRLE(String rle) {
+    private long[] decodeRLE(String rle) {
         try {
             // Split by colon to get starting bit and run counts
             String[] mainParts = rle.split(":", 2);
             if (mainParts.length != 2) {
                 return null;
             }
-            
+
             // Get starting value (0 = false, 1 = true)
             boolean currentValue = mainParts[0].equals("1");
-            
+
             // Parse run counts
             String[] parts = mainParts[1].split(",");
-            boolean[] mask = new boolean[MASK_SIZE];
-            
+            long[] mask = new long[WORDS];
+
             int idx = 0;
-            
+
             for (String part : parts) {
-                int count = Integer.parseInt(part.trim());
-                for (int i = 0; i < count && idx < MASK_SIZE; i++) {
-                    mask[idx++] = currentValue;
+                int end = Math.min(MASK_SIZE, idx + Integer.parseInt(part.trim()));
+                if (currentValue && end > idx) {
+                    setRange(mask, idx, end);
                 }
+                idx = Math.max(idx, end);
                 currentValue = !currentValue; // Toggle
             }
-            
+
             return mask;
         } catch (Exception e) {
             return null;
         }
     }
-    
+
     /**
-     * Merge in-memory data with existing file data and save with file locking.
+     * Merge in-memory data with the journal on disk and save, with file locking.
      * This prevents data loss when multiple clients run simultaneously.
-     * 
+     *
      * Algorithm:
-     * 1. Acquire exclusive file lock
-     * 2. Read existing data from file
-     * 3. Merge: for each grid, OR the masks together (explored in file OR explored in memory)
-     * 4. Write merged result
-     * 5. Update in-memory data with merged result
-     * 6. Release lock
+     * 1. Acquire exclusive file lock, or give up until the next save
+     * 2. OR the records other clients appended since our last save into memory;
+     *    everything, if one of them compacted the journal meanwhile
+     * 3. Append the grids changed here since the last save
+     * 4. Compact once there are many more records than grids: write one record
+     *    per grid to a new journal with a new generation and move it in place
+     * 5. Release lock
+     *
+     * @return false if another client holds the lock
      */
-    public void mergeAndSaveToFile(String filePath) throws IOException {
+    public boolean mergeAndSaveToFile(String filePath) throws IOException {
         File file = new File(filePath);
         File parentDir = file.getParentFile();
         if (parentDir != null && !parentDir.exists()) {
             parentDir.mkdirs();
         }
-        
-        // Create lock file to coordinate access
-        File lockFile = new File(filePath + ".lock");
-        
-        try (RandomAccessFile raf = new RandomAccessFile(lockFile, "rw");
-             FileChannel channel = raf.getChannel()) {
-            
-            // Acquire exclusive lock (blocks until available)
-            FileLock lock = null;
-            try {
-                lock = channel.tryLock();
-                if (lock == null) {
-                    // Could not acquire lock immediately, wait a bit and try again
-                    try {
-                        Thread.sleep(100);
-                    } catch (InterruptedException e) {
-                        Thread.currentThread().interrupt();
-                    }
-                    lock = channel.tryLock();
-                }
-                
-                if (lock == null) {
-                    // Still no lock, fall back to simple save
-                    System.err.println("Could not acquire file lock, saving without merge");
-                    saveWithoutMerge(filePath);
-                    return;
-                }
-                
-                // Read existing data from file
-                Map<GridKey, boolean[]> diskData = readFromDisk(filePath);
-                
-                // Merge: OR the masks together
-                // First, copy disk data to merged result
-                Map<GridKey, boolean[]> mergedData = new HashMap<>();
-                for (Map.Entry<GridKey, boolean[]> entry : diskData.entrySet()) {
-                    boolean[] copy = new boolean[MASK_SIZE];
-                    System.arraycopy(entry.getValue(), 0, copy, 0, MASK_SIZE);
-                    mergedData.put(entry.getKey(), copy);
-                }
-                
-                // Then, merge in-memory data
-                for (Map.Entry<GridKey, boolean[]> entry : gridMasks.entrySet()) {
-                    GridKey key = entry.getKey();
-                    boolean[] memoryMask = entry.getValue();
-                    
-                    boolean[] existingMask = mergedData.get(key);
-                    if (existingMask == null) {
-                        // New grid, just add it
-                        boolean[] copy = new boolean[MASK_SIZE];
-                        System.arraycopy(memoryMask, 0, copy, 0, MASK_SIZE);
-                        mergedData.put(key, copy);
-                    } else {
-                        // Merge: OR the masks
-                        for (int i = 0; i < MASK_SIZE; i++) {
-                            existingMask[i] = existingMask[i] || memoryMask[i];
-                        }
-                    }
-                }
-                
-                // Write merged result to file
-                JSONObject doc = toJsonFromData(mergedData);
-                try (FileWriter f = new FileWriter(filePath, StandardCharsets.UTF_8)) {
-                    doc.write(f);
-                }
-                
-                // Update in-memory data with merged result (so we have the latest data)
-                // This is important to prevent re-saving stale data
-                for (Map.Entry<GridKey, boolean[]> entry : mergedData.entrySet()) {
-                    GridKey key = entry.getKey();
-                    boolean[] mergedMask = entry.getValue();
-                    boolean[] currentMask = gridMasks.get(key);
-                    
-                    if (currentMask == null) {
-                        // Grid from disk that we didn't have
-                        gridMasks.put(key, mergedMask);
-                    } else {
-                        // Update our mask with merged data
-                        for (int i = 0; i < MASK_SIZE; i++) {
-                            currentMask[i] = mergedMask[i];
-                        }
-                    }
-                }
-                
-            } finally {
-                if (lock != null) {
-                    try {
-                        lock.release();
-                    } catch (Exception e) {
-                        // Ignore
-                    }
-                }
+
+        // Lock file to coordinate access
+        try (RandomAccessFile raf = new RandomAccessFile(filePath + ".lock", "rw");
+             FileLock lock = raf.getChannel().tryLock()) {
+            if (lock == null) {
+                return false;
             }
-        } catch (Exception e) {
-            // If locking fails, fall back to simple save
-            System.err.println("Error during merge-save, falling back to simple save: " + e.getMessage());
-            saveWithoutMerge(filePath);
-        }
-    }
-    
-    /**
-     * Simple save without merge (fallback when locking fails).
-     */
-    private void saveWithoutMerge(String filePath) throws IOException {
-        try (FileWriter f = new FileWriter(filePath, StandardCharsets.UTF_8)) {
-            toJson().write(f);
+            boolean compact = true;
+            if (file.exists() && file.length() >= HEADER_SIZE) {
+                compact = append(file);
+            }
+            if (compact) {
+                compact(file);
+            }
+            return true;
         }
     }
-    
+
     /**
-     * Read grid data from disk file.
+     * Steps 2 and 3 of mergeAndSaveToFile. Returns whether the journal should be
+     * compacted, or rewritten because it is not one.
      */
-    private Map<GridKey, boolean[]> readFromDisk(String filePath) {
-        Map<GridKey, boolean[]> result = new HashMap<>();
-        
-        File file = new File(filePath);
-        if (!file.exists()) {
-            return result;
-        }
-        
-        try {
-            StringBuilder contentBuilder = new StringBuilder();
-            try (Stream<String> stream = Files.lines(Paths.get(file.getAbsolutePath()), StandardCharsets.UTF_8)) {
-                stream.forEach(s -> contentBuilder.append(s).append("\n"));
+    private boolean append(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            if (raf.readInt() != JOURNAL_MAGIC) {
+                return true;
             }
-            
-            if (contentBuilder.length() == 0) {
-                return result;
+            long gen = raf.readLong();
+            long len = raf.length();
+            if (gen != journalGen || len < journalPos) {
+                journalGen = gen;
+                journalPos = HEADER_SIZE;
+                journalRecords = 0;
             }
-            
-            JSONObject json = new JSONObject(contentBuilder.toString());
-            if (!json.has("grids")) {
-                return result;
+
+            if (len > journalPos) {
+                byte[] tail = new byte[(int) (len - journalPos)];
+                raf.seek(journalPos);
+                raf.readFully(tail);
+                ByteBuffer buf = ByteBuffer.wrap(tail);
+                Map<GridKey, long[]> disk = new HashMap<>();
+                journalRecords += readRecords(buf, disk);
+                journalPos += buf.position();
+                if (merge(disk)) {
+                    seq++;
+                }
             }
-            
-            JSONArray gridsArray = json.getJSONArray("grids");
-            for (int i = 0; i < gridsArray.length(); i++) {
-                JSONObject gridJson = gridsArray.getJSONObject(i);
-                
-                long segmentId = gridJson.getLong("seg");
-                int gx = gridJson.getInt("gx");
-                int gy = gridJson.getInt("gy");
-                
-                GridKey key = new GridKey(segmentId, new Coord(gx, gy));
-                
-                // Decode RLE compressed mask
-                String rle = gridJson.getString("mask");
-                boolean[] mask = decodeRLE(rle);
-                
+
+            List<GridKey> keys = new ArrayList<>(dirty);
+            ByteBuffer out = ByteBuffer.allocate(keys.size() * RECORD_SIZE);
+            for (GridKey key : keys) {
+                long[] mask = gridMasks.get(key);
                 if (mask != null) {
-                    result.put(key, mask);
+                    putRecord(out, key, mask);
                 }
             }
-        } catch (Exception e) {
-            // Ignore load errors, return what we have
+            // Grids dirtied meanwhile stay dirty for the next save; a failed write puts these back
+            dirty.removeAll(keys);
+            try {
+                // Cut off a damaged tail, if any, before appending
+                raf.setLength(journalPos);
+                raf.seek(journalPos);
+                raf.write(out.array(), 0, out.position());
+            } catch (IOException e) {
+                dirty.addAll(keys);
+                throw e;
+            }
+            journalPos += out.position();
+            journalRecords += out.position() / RECORD_SIZE;
+
+            return journalRecords > gridMasks.size() * 2 + COMPACT_SLACK;
         }
-        
-        return result;
     }
-    
+
     /**
-     * Convert given data to JSON (for saving merged data).
+     * Step 4 of mergeAndSaveToFile: rewrite the journal from memory, which
+     * holds everything in it by now.
      */
-    private JSONObject toJsonFromData(Map<GridKey, boolean[]> data) {
-        JSONArray gridsArray = new JSONArray();
-        
-        for (Map.Entry<GridKey, boolean[]> entry : data.entrySet()) {
-            GridKey key = entry.getKey();
-            boolean[] mask = entry.getValue();
-            
-            // Skip empty masks
-            if (!hasAnyExploredTiles(mask)) {
-                continue;
+    private void compact(File file) throws IOException {
+        File tmp = new File(file.getPath() + ".tmp");
+        Random rnd = new Random();
+        long gen;
+        do {
+            gen = rnd.nextLong();
+        } while (gen == 0 || gen == journalGen);
+
+        // Taken before writing, as in append: grids dirtied meanwhile stay dirty for the next save
+        List<GridKey> keys = new ArrayList<>(dirty);
+        dirty.removeAll(keys);
+        try {
+            writeCompacted(file, tmp, gen);
+        } catch (IOException e) {
+            dirty.addAll(keys);
+            throw e;
+        }
+    }
+
+    private void writeCompacted(File file, File tmp, long gen) throws IOException {
+        int n = 0;
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(tmp))) {
+            ByteBuffer buf = ByteBuffer.allocate(RECORD_SIZE);
+            buf.putInt(JOURNAL_MAGIC).putLong(gen);
+            out.write(buf.array(), 0, HEADER_SIZE);
+            for (Map.Entry<GridKey, long[]> entry : gridMasks.entrySet()) {
+                if (isEmpty(entry.getValue())) {
+                    continue;
+                }
+                buf.clear();
+                putRecord(buf, entry.getKey(), entry.getValue());
+                out.write(buf.array(), 0, RECORD_SIZE);
+                n++;
             }
-            
-            JSONObject gridJson = new JSONObject();
-            gridJson.put("seg", key.segmentId);
-            gridJson.put("gx", key.gridCoord.x);
-            gridJson.put("gy", key.gridCoord.y);
-            
-            // Encode mask with RLE compression
-            gridJson.put("mask", encodeRLE(mask));
-            
-            gridsArray.put(gridJson);
         }
-        
-        JSONObject doc = new JSONObject();
-        doc.put("grids", gridsArray);
-        return doc;
+        try {
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        journalGen = gen;
+        journalPos = HEADER_SIZE + (long) n * RECORD_SIZE;
+        journalRecords = n;
     }
 }
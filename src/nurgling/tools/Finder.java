@@ -56,6 +56,37 @@ public class Finder
         }
     }
 
+    static GobIndex index()
+    {
+        return NUtils.getGameUI().ui.sess.glob.oc.index;
+    }
+
+    /** Gobs that are real world objects: not virtual, not effectors and with attributes */
+    static boolean isReal(Gob gob)
+    {
+        return !(gob instanceof OCache.Virtual || gob.attr.isEmpty() || gob.getClass().getName().contains("GlobEffector"));
+    }
+
+    static Pair<Coord2d,Coord2d> tileSpace(Coord pos)
+    {
+        return new Pair<>(new Coord2d(pos.x*MCache.tilesz.x,pos.y*MCache.tilesz.y),new Coord2d((pos.x + 1) *MCache.tilesz.x,(pos.y+1)*MCache.tilesz.y));
+    }
+
+    /** The gobs of a query result that are the named object */
+    static ArrayList<Gob> isIt(List<Gob> gobs, NAlias name) throws InterruptedException
+    {
+        ArrayList<Gob> result = new ArrayList<>();
+        for (Gob gob : gobs)
+            if (NParser.isIt(gob, name))
+                result.add(gob);
+        return result;
+    }
+
+    static Gob first(List<Gob> gobs)
+    {
+        return gobs.isEmpty() ? null : gobs.get(0);
+    }
+
     public static ArrayList<Gob> findGobs(NArea area, NAlias name) throws InterruptedException
     {
         Pair<Coord2d,Coord2d> space = area.getRCArea();
@@ -65,18 +96,12 @@ public class Finder
     public static ArrayList<Gob> findGobs(Pair<Coord2d,Coord2d> space, NAlias name) throws InterruptedException
     {
         ArrayList<Gob> result = new ArrayList<> ();
-        synchronized ( NUtils.getGameUI().ui.sess.glob.oc ) {
-            for ( Gob gob : NUtils.getGameUI().ui.sess.glob.oc ) {
-                if (!(gob instanceof OCache.Virtual) && space!=null)
-                {
-                    if (gob.rc.x >= space.a.x && gob.rc.y >= space.a.y && gob.rc.x <= space.b.x && gob.rc.y <= space.b.y)
-                    {
-                        if ((name == null && gob.id!=NUtils.playerID()) || NParser.isIt(gob, name))
-                        {
-                            result.add(gob);
-                        }
-                    }
-                }
+        if (space != null)
+        {
+            for (Gob gob : index().area(space.a, space.b, gob -> !(gob instanceof OCache.Virtual)))
+            {
+                if ((name == null && gob.id != NUtils.playerID()) || NParser.isIt(gob, name))
+                    result.add(gob);
             }
         }
         sort(result);
@@ -84,24 +109,9 @@ public class Finder
     }
 
     public static ArrayList<Gob> findGobs(Coord pos) {
-        ArrayList<Gob> result = new ArrayList<> ();
-        Pair<Coord2d,Coord2d> space = new Pair<>(new Coord2d(pos.x*MCache.tilesz.x,pos.y*MCache.tilesz.y),new Coord2d((pos.x + 1) *MCache.tilesz.x,(pos.y+1)*MCache.tilesz.y));
-//        NUtils.getGameUI().msg(space.a + " " +  space.b);
-        synchronized (NUtils.getGameUI().ui.sess.glob.oc)
-        {
-            for (Gob gob : NUtils.getGameUI().ui.sess.glob.oc)
-            {
-                if (!(gob instanceof OCache.Virtual || gob.attr.isEmpty() || gob.getClass().getName().contains("GlobEffector")))
-                {
-                    // Только внутри тайла, без пересечений
-                    if (gob.id!= NUtils.playerID() && gob.rc.x >=space.a.x && gob.rc.y >=space.a.y && gob.rc.x <=space.b.x && gob.rc.y <=space.b.y)
-                    {
-                        result.add(gob);
-                    }
-                }
-            }
-        }
-        return result;
+        Pair<Coord2d,Coord2d> space = tileSpace(pos);
+        // Только внутри тайла, без пересечений
+        return new ArrayList<>(index().area(space.a, space.b, gob -> isReal(gob) && gob.id != NUtils.playerID()));
     }
 
     public static ArrayList<Coord2d> findTilesInArea (
@@ -140,22 +150,7 @@ public class Finder
     {
         Coord2d b = area.ul.mul(MCache.tilesz);
         Coord2d e = area.br.mul(MCache.tilesz).add(MCache.tilesz);
-        Pair<Coord2d,Coord2d> space = new Pair<>(b,e);
-        ArrayList<Gob> result = new ArrayList<> ();
-        synchronized ( NUtils.getGameUI().ui.sess.glob.oc ) {
-            for ( Gob gob : NUtils.getGameUI().ui.sess.glob.oc ) {
-                if (!(gob instanceof OCache.Virtual))
-                {
-                    if (gob.rc.x >= space.a.x && gob.rc.y >= space.a.y && gob.rc.x <= space.b.x && gob.rc.y <= space.b.y)
-                    {
-                        if (NParser.isIt(gob, name))
-                        {
-                            result.add(gob);
-                        }
-                    }
-                }
-            }
-        }
+        ArrayList<Gob> result = isIt(index().area(b, e, gob -> !(gob instanceof OCache.Virtual)), name);
         sort(result);
         return result;
     }
@@ -163,21 +158,8 @@ public class Finder
     public static ArrayList<Gob> findGobs(NArea area, NAlias name, int mattr) throws InterruptedException
     {
         Pair<Coord2d,Coord2d> space = area.getRCArea();
-        ArrayList<Gob> result = new ArrayList<> ();
-        synchronized ( NUtils.getGameUI().ui.sess.glob.oc ) {
-            for ( Gob gob : NUtils.getGameUI().ui.sess.glob.oc ) {
-                if (!(gob instanceof OCache.Virtual))
-                {
-                    if (gob.rc.x >= space.a.x && gob.rc.y >= space.a.y && gob.rc.x <= space.b.x && gob.rc.y <= space.b.y)
-                    {
-                        if (NParser.isIt(gob, name) && gob.ngob.getModelAttribute() == mattr)
-                        {
-                            result.add(gob);
-                        }
-                    }
-                }
-            }
-        }
+        ArrayList<Gob> result = isIt(index().area(space.a, space.b,
+                gob -> !(gob instanceof OCache.Virtual) && gob.ngob != null && gob.ngob.getModelAttribute() == mattr), name);
         sort(result);
         return result;
     }
@@ -186,18 +168,7 @@ public class Finder
     public static ArrayList<Gob> findGobs(NArea area) throws InterruptedException
     {
         Pair<Coord2d,Coord2d> space = area.getRCArea();
-        ArrayList<Gob> result = new ArrayList<> ();
-        synchronized ( NUtils.getGameUI().ui.sess.glob.oc ) {
-            for ( Gob gob : NUtils.getGameUI().ui.sess.glob.oc ) {
-                if (!(gob instanceof OCache.Virtual))
-                {
-                    if (gob.rc.x >= space.a.x && gob.rc.y >= space.a.y && gob.rc.x <= space.b.x && gob.rc.y <= space.b.y)
-                    {
-                        result.add(gob);
-                    }
-                }
-            }
-        }
+        ArrayList<Gob> result = new ArrayList<> (index().area(space.a, space.b, gob -> !(gob instanceof OCache.Virtual)));
         sort(result);
         return result;
     }
@@ -212,23 +183,15 @@ public class Finder
 
         Gob result = null;
         double dist = 10000;
-        synchronized ( NUtils.getGameUI().ui.sess.glob.oc ) {
-            for ( Gob gob : NUtils.getGameUI().ui.sess.glob.oc ) {
-                if (!(gob instanceof OCache.Virtual))
-                {
-                    if (gob.rc.x >= space.a.x && gob.rc.y >= space.a.y && gob.rc.x <= space.b.x && gob.rc.y <= space.b.y)
-                    {
-                        if (NParser.isIt(gob, name) && NUtils.player()!=null)
-                        {
-                            double new_dist;
-                            if((new_dist = gob.rc.dist(NUtils.player().rc))<dist)
-                            {
-                                dist = new_dist;
-                                result = gob;
-                            }
-                        }
-                    }
-                }
+        Gob player = NUtils.player();
+        if (player == null)
+            return null;
+        for ( Gob gob : isIt(index().area(space.a, space.b, gob -> !(gob instanceof OCache.Virtual)), name) ) {
+            double new_dist;
+            if((new_dist = gob.rc.dist(player.rc))<dist)
+            {
+                dist = new_dist;
+                result = gob;
             }
         }
         return result;
@@ -249,36 +212,17 @@ public class Finder
 
     public static Gob findGob(Coord2d coord2d, NAlias name, NAlias poses, double dist) throws InterruptedException
     {
+        Gob player = NUtils.player();
+        if (player == null)
+            return null;
         Gob result = null;
-        synchronized (NUtils.getGameUI().ui.sess.glob.oc)
+        for (Gob gob : isIt(index().radius(coord2d, dist, gob -> isReal(gob) && gob.id != player.id &&
+                (poses == null || (gob.pose() != null && NParser.checkName(gob.pose(), poses)))), name))
         {
-            for (Gob gob : NUtils.getGameUI().ui.sess.glob.oc)
-            {
-                if (!(gob instanceof OCache.Virtual || gob.attr.isEmpty() || gob.getClass().getName().contains("GlobEffector")))
-                {
-                    if (NParser.isIt(gob, name) && NUtils.player() != null && gob.id!=NUtils.player().id)
-                    {
-                        if(poses!=null) {
-                            if (gob.pose() != null) {
-                                if (NParser.checkName(gob.pose(), poses)) {
-                                    double new_dist;
-                                    if ((new_dist = gob.rc.dist(coord2d)) < dist) {
-                                        dist = new_dist;
-                                        result = gob;
-                                    }
-                                }
-                            }
-                        }
-                        else
-                        {
-                            double new_dist;
-                            if ((new_dist = gob.rc.dist(coord2d)) < dist) {
-                                dist = new_dist;
-                                result = gob;
-                            }
-                        }
-                    }
-                }
+            double new_dist;
+            if ((new_dist = gob.rc.dist(coord2d)) < dist) {
+                dist = new_dist;
+                result = gob;
             }
         }
         return result;
@@ -286,36 +230,17 @@ public class Finder
 
     public static Gob findGob(Coord2d coord2d, NAlias name, NAlias poses, double dist, ArrayList<Long> exceptions) throws InterruptedException
     {
+        Gob player = NUtils.player();
+        if (player == null)
+            return null;
         Gob result = null;
-        synchronized (NUtils.getGameUI().ui.sess.glob.oc)
+        for (Gob gob : isIt(index().radius(coord2d, dist, gob -> isReal(gob) && gob.id != player.id && !exceptions.contains(gob.id) &&
+                (poses == null || (gob.pose() != null && NParser.checkName(gob.pose(), poses)))), name))
         {
-            for (Gob gob : NUtils.getGameUI().ui.sess.glob.oc)
-            {
-                if (!(gob instanceof OCache.Virtual || gob.attr.isEmpty() || gob.getClass().getName().contains("GlobEffector")))
-                {
-                    if (NParser.isIt(gob, name) && NUtils.player() != null && gob.id!=NUtils.player().id && !exceptions.contains(gob.id))
-                    {
-                        if(poses!=null) {
-                            if (gob.pose() != null) {
-                                if (NParser.checkName(gob.pose(), poses)) {
-                                    double new_dist;
-                                    if ((new_dist = gob.rc.dist(coord2d)) < dist) {
-                                        dist = new_dist;
-                                        result = gob;
-                                    }
-                                }
-                            }
-                        }
-                        else
-                        {
-                            double new_dist;
-                            if ((new_dist = gob.rc.dist(coord2d)) < dist) {
-                                dist = new_dist;
-                                result = gob;
-                            }
-                        }
-                    }
-                }
+            double new_dist;
+            if ((new_dist = gob.rc.dist(coord2d)) < dist) {
+                dist = new_dist;
+                result = gob;
             }
         }
         return result;
@@ -324,33 +249,10 @@ public class Finder
     public static ArrayList<Gob> findGobs(Coord2d coord2d, NAlias name, NAlias poses, double dist) throws InterruptedException
     {
 
-        ArrayList<Gob> result = new ArrayList<>();
-        synchronized (NUtils.getGameUI().ui.sess.glob.oc)
-        {
-            for (Gob gob : NUtils.getGameUI().ui.sess.glob.oc)
-            {
-                if (!(gob instanceof OCache.Virtual || gob.attr.isEmpty() || gob.getClass().getName().contains("GlobEffector")))
-                {
-                    if (NParser.isIt(gob, name) && NUtils.player() != null)
-                    {
-                        if(poses!=null) {
-                            if (gob.pose() != null) {
-                                if (NParser.checkName(gob.pose(), poses)) {
-                                    if(gob.rc.dist(coord2d)<dist)
-                                        result.add(gob);
-                                }
-                            }
-                        }
-                        else
-                        {
-                            if(gob.rc.dist(coord2d)<dist)
-                                result.add(gob);
-                        }
-                    }
-                }
-            }
-        }
-        return result;
+        if (NUtils.player() == null)
+            return new ArrayList<>();
+        return isIt(index().radius(coord2d, dist, gob -> isReal(gob) &&
+                (poses == null || (gob.pose() != null && NParser.checkName(gob.pose(), poses)))), name);
     }
 
     public static Gob findGob(long gobid)
@@ -370,62 +272,21 @@ public class Finder
     }
 
     public static Gob findGob(Coord pos) {
-        Pair<Coord2d,Coord2d> space = new Pair<>(new Coord2d(pos.x*MCache.tilesz.x,pos.y*MCache.tilesz.y),new Coord2d((pos.x + 1) *MCache.tilesz.x,(pos.y+1)*MCache.tilesz.y));
-//        NUtils.getGameUI().msg(space.a + " " +  space.b);
-        synchronized (NUtils.getGameUI().ui.sess.glob.oc)
-        {
-            for (Gob gob : NUtils.getGameUI().ui.sess.glob.oc)
-            {
-                if (!(gob instanceof OCache.Virtual || gob.attr.isEmpty() || gob.getClass().getName().contains("GlobEffector")))
-                {
-                    // Только внутри тайла, без пересечений
-                    if (gob.id!= NUtils.playerID() && gob.rc.x >=space.a.x && gob.rc.y >=space.a.y && gob.rc.x <=space.b.x && gob.rc.y <=space.b.y)
-                    {
-                        return gob;
-                    }
-                }
-            }
-        }
-        return null;
+        Pair<Coord2d,Coord2d> space = tileSpace(pos);
+        // Только внутри тайла, без пересечений
+        return first(index().area(space.a, space.b, gob -> isReal(gob) && gob.id != NUtils.playerID()));
     }
 
     public static Gob findGob(Coord2d pos) {
-        synchronized (NUtils.getGameUI().ui.sess.glob.oc)
-        {
-            for (Gob gob : NUtils.getGameUI().ui.sess.glob.oc)
-            {
-                if (!(gob instanceof OCache.Virtual || gob.attr.isEmpty() || gob.getClass().getName().contains("GlobEffector")))
-                {
-                    if (gob.id!= NUtils.playerID() && gob.rc.dist(pos)<0.5 && !(gob instanceof MapView.Plob) && gob.id>0)
-                    {
-                        return gob;
-                    }
-                }
-            }
-        }
-        return null;
+        return first(index().radius(pos, 0.5, gob -> isReal(gob) && gob.id != NUtils.playerID() && !(gob instanceof MapView.Plob) && gob.id > 0));
     }
 
 
 
     public static Gob findGob(Coord pos, NAlias exc){
-        Pair<Coord2d,Coord2d> space = new Pair<>(new Coord2d(pos.x*MCache.tilesz.x,pos.y*MCache.tilesz.y),new Coord2d((pos.x + 1) *MCache.tilesz.x,(pos.y+1)*MCache.tilesz.y));
-//        NUtils.getGameUI().msg(space.a + " " +  space.b);
-        synchronized (NUtils.getGameUI().ui.sess.glob.oc)
-        {
-            for (Gob gob : NUtils.getGameUI().ui.sess.glob.oc)
-            {
-                if(gob.ngob!=null && gob.ngob.name!=null && !NParser.checkName(gob.ngob.name,exc)) {
-                    if (!(gob instanceof OCache.Virtual || gob.attr.isEmpty() || gob.getClass().getName().contains("GlobEffector"))) {
-                        // Только внутри тайла, без пересечений
-                        if (gob.id != NUtils.playerID() && gob.rc.x >= space.a.x && gob.rc.y >= space.a.y && gob.rc.x <= space.b.x && gob.rc.y <= space.b.y) {
-                            return gob;
-                        }
-                    }
-                }
-            }
-        }
-        return null;
+        Pair<Coord2d,Coord2d> space = tileSpace(pos);
+        // Только внутри тайла, без пересечений
+        return first(index().area(space.a, space.b, nm -> !NParser.checkName(nm, exc), gob -> isReal(gob) && gob.id != NUtils.playerID()));
     }
 
 
@@ -448,44 +309,17 @@ public class Finder
     }
 
     public static Gob findGob(Coord pos, NAlias crop, int stage) {
-        Pair<Coord2d,Coord2d> space = new Pair<>(new Coord2d(pos.x*MCache.tilesz.x,pos.y*MCache.tilesz.y),new Coord2d((pos.x + 1) *MCache.tilesz.x,(pos.y+1)*MCache.tilesz.y));
-//        NUtils.getGameUI().msg(space.a + " " +  space.b);
-        synchronized (NUtils.getGameUI().ui.sess.glob.oc)
-        {
-            for (Gob gob : NUtils.getGameUI().ui.sess.glob.oc)
-            {
-                if (!(gob instanceof OCache.Virtual || gob.attr.isEmpty() || gob.getClass().getName().contains("GlobEffector")))
-                {
-                    // Только внутри тайла, без пересечений
-                    if (gob.id!= NUtils.playerID() && gob.rc.x >=space.a.x && gob.rc.y >=space.a.y && gob.rc.x <=space.b.x && gob.rc.y <=space.b.y && NParser.checkName(gob.ngob.name,crop) && gob.ngob.getModelAttribute()==stage)
-                    {
-                        return gob;
-                    }
-                }
-            }
-        }
-        return null;
+        Pair<Coord2d,Coord2d> space = tileSpace(pos);
+        // Только внутри тайла, без пересечений
+        return first(index().area(space.a, space.b, nm -> NParser.checkName(nm, crop),
+                gob -> isReal(gob) && gob.id != NUtils.playerID() && gob.ngob.getModelAttribute() == stage));
     }
 
     public static ArrayList<Gob> findGobs(Area area, NAlias name, int stage) {
         Coord2d b = area.ul.mul(MCache.tilesz);
         Coord2d e = area.br.mul(MCache.tilesz).add(MCache.tilesz);
-        Pair<Coord2d,Coord2d> space = new Pair<>(b,e);
-        ArrayList<Gob> result = new ArrayList<> ();
-        synchronized ( NUtils.getGameUI().ui.sess.glob.oc ) {
-            for ( Gob gob : NUtils.getGameUI().ui.sess.glob.oc ) {
-                if (!(gob instanceof OCache.Virtual))
-                {
-                    if (gob.rc.x >= space.a.x && gob.rc.y >= space.a.y && gob.rc.x <= space.b.x && gob.rc.y <= space.b.y)
-                    {
-                        if (gob.ngob.name!=null && NParser.checkName(gob.ngob.name, name) && gob.ngob.getModelAttribute() == stage )
-                        {
-                            result.add(gob);
-                        }
-                    }
-                }
-            }
-        }
+        ArrayList<Gob> result = new ArrayList<> (index().area(b, e, nm -> NParser.checkName(nm, name),
+                gob -> !(gob instanceof OCache.Virtual) && gob.ngob.getModelAttribute() == stage));
         sort(result);
         return result;
     }
@@ -499,9 +333,28 @@ public class Finder
     }
     
     public static Coord2d getFreePlace(Pair<Coord2d,Coord2d> area, NHitBox hitBox, double angle) {
-        Coord2d pos = null;
+        FreePlacer placer = freePlacer(area, hitBox, angle);
+        return placer == null ? null : placer.next();
+    }
 
+    /**
+     * Up to max free positions for the hitbox in the area that do not overlap each other,
+     * in the order getFreePlace would return them if each were taken in turn.
+     */
+    public static ArrayList<Coord2d> getFreePlaces(Pair<Coord2d,Coord2d> area, NHitBox hitBox, double angle, int max) {
+        ArrayList<Coord2d> result = new ArrayList<>();
+        FreePlacer placer = freePlacer(area, hitBox, angle);
+        if (placer == null)
+            return result;
+        Coord2d pos;
+        while (result.size() < max && (pos = placer.next()) != null) {
+            result.add(pos);
+            placer.occupy(pos);
+        }
+        return result;
+    }
 
+    private static FreePlacer freePlacer(Pair<Coord2d,Coord2d> area, NHitBox hitBox, double angle) {
         ArrayList<NHitBoxD> significantGobs = new ArrayList<> ();
         NHitBoxD chekerOfArea = new NHitBoxD(area.a, area.b);
 
@@ -511,53 +364,30 @@ public class Finder
                 chekerOfArea.c[2].sub(chekerOfArea.c[0]).y < temporalGobBox.getCircumscribedBR().sub(temporalGobBox.getCircumscribedUL()).y )
             return null;
 
-        synchronized ( NUtils.getGameUI().ui.sess.glob.oc ) {
-            for ( Gob gob : NUtils.getGameUI().ui.sess.glob.oc ) {
-                if (!(gob instanceof OCache.Virtual || gob.attr.isEmpty() || gob.getClass().getName().contains("GlobEffector"))) {
-                    // Skip ghost gobs from preview (they have GhostAlpha)
-                    if (gob.getattr(GhostAlpha.class) != null) {
-                        continue;
-                    }
-                    
-                    NHitBox effectiveHitBox = gob.ngob.hitBox;
+        // Only gobs close enough for their hitbox to reach into the area
+        double reach = NHitBox.maxReach();
+        for ( Gob gob : index().area(area.a.sub(reach, reach), area.b.add(reach, reach), Finder::isReal) ) {
+            // Skip ghost gobs from preview (they have GhostAlpha)
+            if (gob.getattr(GhostAlpha.class) != null) {
+                continue;
+            }
 
-                    // If gob has no hitbox, check if there's a custom hitbox defined for it
-                    // (useful for things like mound beds that have null hitboxes but need collision during building)
-                    if (effectiveHitBox == null && gob.ngob.name != null) {
-                        effectiveHitBox = NHitBox.findCustom(gob.ngob.name);
-                    }
+            NHitBox effectiveHitBox = gob.ngob.hitBox;
 
-                    if(effectiveHitBox != null && gob.getattr(Following.class)==null  && gob.id!= NUtils.player().id){
-                        NHitBoxD gobBox = new NHitBoxD(effectiveHitBox.begin, effectiveHitBox.end, gob.rc, gob.a);
-                        if (gobBox.intersects(chekerOfArea,true))
-                            significantGobs.add(gobBox);
-                    }
-                }
+            // If gob has no hitbox, check if there's a custom hitbox defined for it
+            // (useful for things like mound beds that have null hitboxes but need collision during building)
+            if (effectiveHitBox == null && gob.ngob.name != null) {
+                effectiveHitBox = NHitBox.findCustom(gob.ngob.name);
             }
-        }
 
-        Coord inchMax = area.b.sub(area.a).floor();
-        
-        // Create a test box to get actual rotated dimensions for margin calculation
-        NHitBoxD tempBox = new NHitBoxD(hitBox.begin, hitBox.end, Coord2d.of(0), angle);
-        Coord2d rotatedUL = tempBox.getCircumscribedUL();
-        Coord2d rotatedBR = tempBox.getCircumscribedBR();
-        Coord margin = rotatedBR.sub(rotatedUL).floor(2, 2);
-        
-        for (int i = margin.x; i <= inchMax.x - margin.x; i++)
-        {
-            for (int j = margin.y; j <= inchMax.y - margin.y; j++)
-            {
-                boolean passed = true;
-                NHitBoxD testGobBox = new NHitBoxD(hitBox.begin, hitBox.end, area.a.add(i,j), angle);
-                for ( NHitBoxD significantHitbox : significantGobs )
-                    if(significantHitbox.intersects(testGobBox,false))
-                        passed = false;
-                if(passed)
-                    return Coord2d.of(testGobBox.rc.x, testGobBox.rc.y);
+            if(effectiveHitBox != null && gob.getattr(Following.class)==null  && gob.id!= NUtils.player().id){
+                NHitBoxD gobBox = new NHitBoxD(effectiveHitBox.begin, effectiveHitBox.end, gob.rc, gob.a);
+                if (gobBox.intersects(chekerOfArea,true))
+                    significantGobs.add(gobBox);
             }
         }
-        return pos;
+
+        return new FreePlacer(area, hitBox, angle, significantGobs);
     }
 
 
@@ -619,21 +449,14 @@ public class Finder
 
     public static ArrayList<Gob> findGobByPatterns(ArrayList<Pattern> qaPatterns, double dist) {
         ArrayList<Gob> result = new ArrayList<>();
-        synchronized (NUtils.getGameUI().ui.sess.glob.oc)
+        for (Gob gob : index().radius(NUtils.player().rc, dist, Finder::isReal))
         {
-            for (Gob gob : NUtils.getGameUI().ui.sess.glob.oc)
-            {
-                if (!(gob instanceof OCache.Virtual || gob.attr.isEmpty() || gob.getClass().getName().contains("GlobEffector")))
-                {
-                    if(gob.ngob!=null && gob.ngob.name!=null) {
-                        for(Pattern pattern : qaPatterns) {
-                            if(pattern.matcher(gob.ngob.name).matches()) {
-                                double new_dist;
-                                if (gob.id != NUtils.playerID() && (new_dist = gob.rc.dist(NUtils.player().rc)) < dist) {
-                                    if(!(Boolean)NConfig.get(NConfig.Key.q_visitor) || (!(NParser.checkName(gob.ngob.name, new NAlias("palisadebiggate","palisadegate"))) || gob.findol(Equed.class)==null)) {
-                                        result.add(gob);
-                                    }
-                                }
+            if(gob.ngob!=null && gob.ngob.name!=null) {
+                for(Pattern pattern : qaPatterns) {
+                    if(pattern.matcher(gob.ngob.name).matches()) {
+                        if (gob.id != NUtils.playerID()) {
+                            if(!(Boolean)NConfig.get(NConfig.Key.q_visitor) || (!(NParser.checkName(gob.ngob.name, new NAlias("palisadebiggate","palisadegate"))) || gob.findol(Equed.class)==null)) {
+                                result.add(gob);
                             }
                         }
                     }
@@ -645,21 +468,14 @@ public class Finder
 
     public static ArrayList<Gob> findGobByPatternsAroundPoint(ArrayList<Pattern> qaPatterns, double dist, Coord2d centerPoint) {
         ArrayList<Gob> result = new ArrayList<>();
-        synchronized (NUtils.getGameUI().ui.sess.glob.oc)
+        for (Gob gob : index().radius(centerPoint, dist, Finder::isReal))
         {
-            for (Gob gob : NUtils.getGameUI().ui.sess.glob.oc)
-            {
-                if (!(gob instanceof OCache.Virtual || gob.attr.isEmpty() || gob.getClass().getName().contains("GlobEffector")))
-                {
-                    if(gob.ngob!=null && gob.ngob.name!=null) {
-                        for(Pattern pattern : qaPatterns) {
-                            if(pattern.matcher(gob.ngob.name).matches()) {
-                                double new_dist;
-                                if (gob.id != NUtils.playerID() && (new_dist = gob.rc.dist(centerPoint)) < dist) {
-                                    if(!(Boolean)NConfig.get(NConfig.Key.q_visitor) || (!(NParser.checkName(gob.ngob.name, new NAlias("palisadebiggate","palisadegate"))) || gob.findol(Equed.class)==null)) {
-                                        result.add(gob);
-                                    }
-                                }
+            if(gob.ngob!=null && gob.ngob.name!=null) {
+                for(Pattern pattern : qaPatterns) {
+                    if(pattern.matcher(gob.ngob.name).matches()) {
+                        if (gob.id != NUtils.playerID()) {
+                            if(!(Boolean)NConfig.get(NConfig.Key.q_visitor) || (!(NParser.checkName(gob.ngob.name, new NAlias("palisadebiggate","palisadegate"))) || gob.findol(Equed.class)==null)) {
+                                result.add(gob);
                             }
                         }
                     }
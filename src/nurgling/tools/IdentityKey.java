@@ -0,0 +1,78 @@
+package nurgling.tools;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * 64-bit identity keys for gobs and stored items.
+ * A key is the first 8 bytes of the SHA-256 digest the old hex identities were
+ * made of, so the key of a legacy 64-character hex identity is its first 16
+ * characters and stored identities can be converted without their inputs.
+ * Keys are stored as 16 lowercase hex characters. 0 stands for no key.
+ */
+public final class IdentityKey {
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    });
+
+    private IdentityKey() {
+    }
+
+    public static byte[] sha256(String input) {
+        return SHA256.get().digest(input.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Lowercase hex of a whole digest, as the legacy identities are written
+     */
+    public static String hex(byte[] digest) {
+        char[] buf = new char[digest.length * 2];
+        for (int i = 0; i < digest.length; i++) {
+            buf[i * 2] = HEX[(digest[i] >> 4) & 0xf];
+            buf[i * 2 + 1] = HEX[digest[i] & 0xf];
+        }
+        return new String(buf);
+    }
+
+    public static long of(byte[] digest) {
+        long key = 0;
+        for (int i = 0; i < 8; i++) {
+            key = (key << 8) | (digest[i] & 0xff);
+        }
+        return key;
+    }
+
+    public static long of(String input) {
+        return of(sha256(input));
+    }
+
+    /**
+     * Key of a stored identity, either a key as written by text() or a
+     * legacy hex digest. Returns 0 for anything else.
+     */
+    public static long parse(String text) {
+        if (text == null || text.length() < 16) return 0;
+        long key = 0;
+        for (int i = 0; i < 16; i++) {
+            int d = Character.digit(text.charAt(i), 16);
+            if (d < 0) return 0;
+            key = (key << 4) | d;
+        }
+        return key;
+    }
+
+    public static String text(long key) {
+        char[] buf = new char[16];
+        for (int i = 15; i >= 0; i--) {
+            buf[i] = HEX[(int) (key & 0xf)];
+            key >>>= 4;
+        }
+        return new String(buf);
+    }
+}
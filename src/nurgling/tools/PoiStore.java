@@ -0,0 +1,375 @@
+package nurgling.tools;
+
+import haven.Coord;
+import haven.MCache;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Points of interest on the map (saved trees, fish, labeled marks, resource timers),
+ * indexed by segment and grid so the minimap only looks at what is in view.
+ * <p>
+ * The data file keeps its JSON format as a snapshot; changes are appended to
+ * "&lt;data file&gt;.log" as JSON lines ({"put": entry} or {"del": id}) and folded
+ * into the snapshot on a background thread once the log grows longer than the
+ * store. All file work of all stores happens in order on one writer thread.
+ */
+public class PoiStore<T extends PoiStore.Poi> {
+    public interface Poi {
+        String poiId();
+
+        long poiSegment();
+
+        /** Tile coordinates within the segment */
+        Coord poiTile();
+
+        JSONObject toJson();
+    }
+
+    private static final int MIN_COMPACT = 64;
+
+    private static final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "PoiStore-Writer");
+        t.setDaemon(true);
+        return t;
+    });
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            writer.shutdown();
+            try {
+                writer.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException ignored) {
+            }
+        }, "PoiStore-Flush"));
+    }
+
+    private final String arrayKey;
+    private final Function<JSONObject, T> parser;
+    private final Predicate<T> persist;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, T> byId = new HashMap<>();
+    // Segment -> grid -> entries in that grid
+    private final Map<Long, Map<Coord, List<T>>> index = new HashMap<>();
+    private String dataFile;
+    // Lines in the log, only touched on the writer thread
+    private int logLines = 0;
+    private volatile boolean compacting = false;
+
+    /**
+     * @param arrayKey name of the entry array in the snapshot, e.g. "treeLocations"
+     * @param parser   reads an entry written by Poi.toJson
+     * @param persist  entries to keep on disk; others are dropped when loading and compacting
+     */
+    public PoiStore(String arrayKey, Function<JSONObject, T> parser, Predicate<T> persist) {
+        this.arrayKey = arrayKey;
+        this.parser = parser;
+        this.persist = persist;
+    }
+
+    public PoiStore(String arrayKey, Function<JSONObject, T> parser) {
+        this(arrayKey, parser, e -> true);
+    }
+
+    private static Coord grid(Coord tc) {
+        return tc.div(MCache.cmaps);
+    }
+
+    private void link(T e) {
+        T old = byId.put(e.poiId(), e);
+        if (old != null)
+            unlink(old, false);
+        index.computeIfAbsent(e.poiSegment(), k -> new HashMap<>())
+                .computeIfAbsent(grid(e.poiTile()), k -> new ArrayList<>()).add(e);
+    }
+
+    private void unlink(T e, boolean byid) {
+        if (byid)
+            byId.remove(e.poiId());
+        Map<Coord, List<T>> seg = index.get(e.poiSegment());
+        if (seg == null)
+            return;
+        Coord gc = grid(e.poiTile());
+        List<T> cell = seg.get(gc);
+        if (cell == null)
+            return;
+        cell.remove(e);
+        if (cell.isEmpty()) {
+            seg.remove(gc);
+            if (seg.isEmpty())
+                index.remove(e.poiSegment());
+        }
+    }
+
+    /**
+     * Replaces the contents with those stored in dataFile, which is used from now on.
+     */
+    public void open(String dataFile) {
+        Map<String, T> loaded = new LinkedHashMap<>();
+        int lines = 0;
+        File snap = new File(dataFile);
+        if (snap.exists()) {
+            try {
+                String text = new String(Files.readAllBytes(snap.toPath()), StandardCharsets.UTF_8);
+                if (!text.trim().isEmpty()) {
+                    JSONArray array = new JSONObject(text).getJSONArray(arrayKey);
+                    for (int i = 0; i < array.length(); i++) {
+                        try {
+                            T e = parser.apply(array.getJSONObject(i));
+                            loaded.put(e.poiId(), e);
+                        } catch (Exception ex) {
+                            System.err.println("Failed to parse " + arrayKey + " entry: " + ex.getMessage());
+                        }
+                    }
+                }
+            } catch (Exception ex) {
+                System.err.println("Failed to load " + arrayKey + ": " + ex.getMessage());
+            }
+        }
+        File log = new File(dataFile + ".log");
+        if (log.exists()) {
+            try (BufferedReader in = Files.newBufferedReader(log.toPath(), StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = in.readLine()) != null) {
+                    if (line.trim().isEmpty())
+                        continue;
+                    lines++;
+                    try {
+                        JSONObject rec = new JSONObject(line);
+                        if (rec.has("put")) {
+                            T e = parser.apply(rec.getJSONObject("put"));
+                            loaded.put(e.poiId(), e);
+                        } else if (rec.has("del")) {
+                            loaded.remove(rec.getString("del"));
+                        }
+                    } catch (Exception ex) {
+                        // A line cut short by a crash; the rest of the log is still good
+                        System.err.println("Skipping bad " + arrayKey + " log line: " + ex.getMessage());
+                    }
+                }
+            } catch (IOException ex) {
+                System.err.println("Failed to read " + arrayKey + " log: " + ex.getMessage());
+            }
+        }
+
+        lock.writeLock().lock();
+        try {
+            this.dataFile = dataFile;
+            byId.clear();
+            index.clear();
+            for (T e : loaded.values()) {
+                if (persist.test(e))
+                    link(e);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        final int n = lines;
+        writer.execute(() -> logLines = n);
+        if (n > 0)
+            compactLater();
+    }
+
+    public void put(T e) {
+        String file;
+        lock.writeLock().lock();
+        try {
+            link(e);
+            file = dataFile;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        JSONObject rec = new JSONObject();
+        rec.put("put", e.toJson());
+        append(file, rec);
+    }
+
+    public boolean remove(String id) {
+        String file;
+        lock.writeLock().lock();
+        try {
+            T e = byId.get(id);
+            if (e == null)
+                return false;
+            unlink(e, true);
+            file = dataFile;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        JSONObject rec = new JSONObject();
+        rec.put("del", id);
+        append(file, rec);
+        return true;
+    }
+
+    /**
+     * Removes the entries of a segment within radius tiles of tc (square) that match filter.
+     */
+    public int removeNear(long seg, Coord tc, int radius, Predicate<T> filter) {
+        int n = 0;
+        for (T e : range(seg, tc.sub(radius, radius), tc.add(radius, radius))) {
+            if (filter.test(e) && remove(e.poiId()))
+                n++;
+        }
+        return n;
+    }
+
+    public T get(String id) {
+        lock.readLock().lock();
+        try {
+            return byId.get(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<T> all() {
+        lock.readLock().lock();
+        try {
+            return new ArrayList<>(byId.values());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return byId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<T> segment(long seg) {
+        List<T> ret = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            Map<Coord, List<T>> grids = index.get(seg);
+            if (grids != null) {
+                for (List<T> cell : grids.values())
+                    ret.addAll(cell);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return ret;
+    }
+
+    /**
+     * Entries of a segment with tile coordinates within ul..br, both inclusive.
+     */
+    public List<T> range(long seg, Coord ul, Coord br) {
+        List<T> ret = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            Map<Coord, List<T>> grids = index.get(seg);
+            if (grids == null)
+                return ret;
+            Coord gul = grid(ul), gbr = grid(br);
+            long cells = (long) (gbr.x - gul.x + 1) * (gbr.y - gul.y + 1);
+            if (cells > grids.size()) {
+                // Zoomed far out: fewer occupied grids than grids in view
+                for (List<T> cell : grids.values())
+                    collect(cell, ul, br, ret);
+            } else {
+                for (int gy = gul.y; gy <= gbr.y; gy++) {
+                    for (int gx = gul.x; gx <= gbr.x; gx++) {
+                        List<T> cell = grids.get(Coord.of(gx, gy));
+                        if (cell != null)
+                            collect(cell, ul, br, ret);
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return ret;
+    }
+
+    private static <T extends Poi> void collect(List<T> cell, Coord ul, Coord br, List<T> ret) {
+        for (T e : cell) {
+            Coord tc = e.poiTile();
+            if (tc.x >= ul.x && tc.x <= br.x && tc.y >= ul.y && tc.y <= br.y)
+                ret.add(e);
+        }
+    }
+
+    private void append(String file, JSONObject rec) {
+        if (file == null)
+            return;
+        String line = rec.toString() + "\n";
+        writer.execute(() -> {
+            try (Writer out = new OutputStreamWriter(new FileOutputStream(file + ".log", true), StandardCharsets.UTF_8)) {
+                out.write(line);
+                logLines++;
+            } catch (IOException e) {
+                System.err.println("Failed to append to " + arrayKey + " log: " + e.getMessage());
+                return;
+            }
+            if (logLines > Math.max(MIN_COMPACT, size()))
+                compactLater();
+        });
+    }
+
+    private void compactLater() {
+        if (compacting)
+            return;
+        compacting = true;
+        writer.execute(this::compact);
+    }
+
+    /**
+     * Writes the snapshot and empties the log, on the writer thread.
+     */
+    public void save() {
+        writer.execute(this::compact);
+    }
+
+    private void compact() {
+        compacting = false;
+        JSONArray entries = new JSONArray();
+        String file;
+        lock.readLock().lock();
+        try {
+            file = dataFile;
+            if (file == null)
+                return;
+            for (T e : byId.values()) {
+                if (persist.test(e))
+                    entries.put(e.toJson());
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        JSONObject main = new JSONObject();
+        main.put(arrayKey, entries);
+        main.put("version", 1);
+        main.put("lastSaved", java.time.Instant.now().toString());
+        try {
+            Path target = Paths.get(file);
+            Path tmp = Paths.get(file + ".tmp");
+            Files.write(tmp, main.toString(2).getBytes(StandardCharsets.UTF_8));
+            try {
+                Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            // Appends queued behind this only repeat what the snapshot already has
+            Files.deleteIfExists(Paths.get(file + ".log"));
+            logLines = 0;
+        } catch (IOException e) {
+            System.err.println("Failed to save " + arrayKey + ": " + e.getMessage());
+        }
+    }
+}
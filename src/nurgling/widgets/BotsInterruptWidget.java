@@ -5,6 +5,7 @@ import nurgling.NInventory;
 import nurgling.NStyle;
 import nurgling.NUtils;
 import nurgling.actions.AutoDrink;
+import nurgling.actions.BotRuntime;
 import nurgling.areas.NContext;
 import nurgling.NConfig;
 import nurgling.NCore;
@@ -60,7 +61,10 @@ public class BotsInterruptWidget extends Widget {
                 }
             };
             if(el!=null)
-                cancelb.settip("Bot: " + t.getName() + " Op: " + el.toString());
+            {
+                BotRuntime.Bot bot = BotRuntime.of(t);
+                cancelb.settip("Bot: " + t.getName() + " Op: " + el.toString() + ((bot != null) ? " (" + bot.summary() + ")" : ""));
+            }
         }
 
         @Override
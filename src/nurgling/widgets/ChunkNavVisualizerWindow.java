@@ -575,8 +575,8 @@ public class ChunkNavVisualizerWindow extends Window {
         float cellSize = (float) texSize / CELLS_PER_EDGE;
         for (int cy = 0; cy < CELLS_PER_EDGE; cy++) {
             for (int cx = 0; cx < CELLS_PER_EDGE; cx++) {
-                boolean obs = chunk.observed[cx][cy];
-                byte walk = chunk.walkability[cx][cy];
+                boolean obs = chunk.isObserved(cx, cy);
+                byte walk = chunk.getWalkability(cx, cy);
 
                 Color color;
                 if (!obs) {
@@ -680,8 +680,8 @@ public class ChunkNavVisualizerWindow extends Window {
                 if (srcX >= CELLS_PER_EDGE) srcX = CELLS_PER_EDGE - 1;
                 if (srcY >= CELLS_PER_EDGE) srcY = CELLS_PER_EDGE - 1;
 
-                boolean obs = chunk.observed[srcX][srcY];
-                byte walk = chunk.walkability[srcX][srcY];
+                boolean obs = chunk.isObserved(srcX, srcY);
+                byte walk = chunk.getWalkability(srcX, srcY);
 
                 Color color;
                 if (!obs) {
@@ -830,7 +830,7 @@ public class ChunkNavVisualizerWindow extends Window {
             int observedCount = 0;
             for (int x = 0; x < CELLS_PER_EDGE; x++) {
                 for (int y = 0; y < CELLS_PER_EDGE; y++) {
-                    if (chunk.observed[x][y]) observedCount++;
+                    if (chunk.isObserved(x, y)) observedCount++;
                 }
             }
             int obsPct = observedCount * 100 / (CELLS_PER_EDGE * CELLS_PER_EDGE);
@@ -3,7 +3,10 @@ package nurgling.widgets;
 import haven.*;
 import nurgling.NConfig;
 import nurgling.NUtils;
+import nurgling.actions.BotRuntime;
 import nurgling.db.DatabaseManager;
+import nurgling.db.StorageItemWriteQueue;
+import nurgling.tasks.TaskStats;
 
 import java.awt.Color;
 import java.util.ArrayList;
@@ -68,6 +71,10 @@ public class DbStatsOverlay extends Widget {
                     for (BotsInterruptWidget.Gear gear : biw.obs) {
                         String actionInfo = getBotActionInfo(gear.t);
                         addLine("  " + actionInfo, TASK_COLOR);
+                        BotRuntime.Bot bot = BotRuntime.of(gear.t);
+                        if (bot != null) {
+                            addLine("    " + bot.summary(), TEXT_COLOR);
+                        }
                     }
                 }
             }
@@ -85,6 +92,13 @@ public class DbStatsOverlay extends Widget {
                         addLine(String.format("  +%d more...", taskNames.length - 5), TASK_COLOR);
                     }
                 }
+                // Slowest kinds of waits so far
+                List<TaskStats.Entry> taskStats = TaskStats.snapshot();
+                for (int i = 0; i < Math.min(taskStats.size(), 3); i++) {
+                    TaskStats.Entry e = taskStats.get(i);
+                    addLine(String.format("  %s: %d x %.0fms (max %.0fms), %.1f checks",
+                        e.name, e.waits, e.avgMs(), e.maxMs, e.checksPerWait()), TEXT_COLOR);
+                }
             }
             
             // === DATABASE ===
@@ -106,6 +120,12 @@ public class DbStatsOverlay extends Widget {
                     stats.skippedContainer, stats.skippedRecipe, stats.skippedSearch), TEXT_COLOR);
                 addLine(String.format("Cache: C:%d Q:%d R:%d", 
                     containerCacheSize, quickCacheSize, recipeCacheSize), TEXT_COLOR);
+                StorageItemWriteQueue.Stats wq = stats.writeQueue;
+                addLine(String.format("Write: Q:%d | Batch: %d | Merged: %d | Fail: %d",
+                    wq.queued, wq.lastBatch, wq.coalesced, wq.failed),
+                    wq.failed > 0 ? WARN_COLOR : TEXT_COLOR);
+                addLine(String.format("Commit: %dms (avg %dms)", wq.lastCommitMs, wq.avgCommitMs),
+                    wq.avgCommitMs > 500 ? WARN_COLOR : TEXT_COLOR);
             } else {
                 addLine("--- DATABASE: OFF ---", WARN_COLOR);
             }
@@ -1,6 +1,7 @@
 package nurgling.widgets;
 
 import haven.*;
+import nurgling.tools.PoiStore;
 import org.json.JSONObject;
 
 import javax.imageio.ImageIO;
@@ -15,7 +16,7 @@ import java.util.Base64;
  * Used by Checker bots (Water, Soil) to display resource quality on the map.
  * Shows an icon with a label underneath (e.g., "q20" for quality 20).
  */
-public class LabeledMinimapMark {
+public class LabeledMinimapMark implements PoiStore.Poi {
     private final String locationId;     // Unique ID for this mark
     public final String label;           // The text label (e.g., "q20", "q95")
     public final String resourceType;    // Resource type (e.g., "Water", "Clay", "Soil")
@@ -186,6 +187,21 @@ public class LabeledMinimapMark {
     public String getLocationId() {
         return locationId;
     }
+
+    @Override
+    public String poiId() {
+        return locationId;
+    }
+
+    @Override
+    public long poiSegment() {
+        return segmentId;
+    }
+
+    @Override
+    public Coord poiTile() {
+        return tileCoords;
+    }
     
     /**
      * Check if this mark is at the same location as another.
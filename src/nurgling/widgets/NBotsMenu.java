@@ -315,56 +315,32 @@ public class NBotsMenu extends Widget
                    gui.recentActionsPanel.addBotAction(path, action);
                }
 
-            Thread t;
-            t = new Thread(new Runnable()
+            if(gui == null)
+                return;
+            BotRuntime.Bot bot = BotRuntime.create(path, gui, action.getSupp(), g ->
             {
-                ArrayList<Thread> supports = new ArrayList<>();
-                @Override
-                public void run()
+                try
                 {
-                    try
-                    {
-                        showLayouts();
-                        NGameUI gui = NUtils.getGameUI();
-                        if(gui!=null) {
-                            for (Action sup : action.getSupp()) {
-                                Thread st;
-                                supports.add(st = new Thread(new Runnable() {
-                                    @Override
-                                    public void run() {
-                                        try {
-                                            sup.run(gui);
-                                        } catch (InterruptedException e) {
-                                        }
-                                    }
-                                }));
-                                st.start();
-                            }
-                            action.run(gui);
-                        }
-                    }
-                    catch (InterruptedException e)
+                    showLayouts();
+                    action.run(g);
+                }
+                catch (InterruptedException e)
+                {
+                    g.msg(path + ":" + "STOPPED");
+                }
+                finally
+                {
+                    if(action instanceof ActionWithFinal)
                     {
-                        NUtils.getGameUI().msg(path + ":" + "STOPPED");
+                        ((ActionWithFinal)action).endAction();
                     }
-                    finally
-                    {
-                        if(action instanceof ActionWithFinal)
-                        {
-                            ((ActionWithFinal)action).endAction();
-                        }
-                        for(Thread st: supports)
-                        {
-                            st.interrupt();
-                        }
-                        }
                 }
-            }, path);
+            });
             if(disStacks)
-                NUtils.getGameUI().biw.addObserve(t, true);
+                gui.biw.addObserve(bot.thread, true);
             else
-                NUtils.getGameUI().biw.addObserve(t);
-            t.start();
+                gui.biw.addObserve(bot.thread);
+            bot.start();
         }
 
 
@@ -386,18 +362,19 @@ public class NBotsMenu extends Widget
                             gui.recentActionsPanel.addBotAction(path, action);
                         }
 
-                        thread = new Thread(() -> {
+                        BotRuntime.Bot bot = BotRuntime.create(path + "-ToggleThread", gui, g -> {
                             try {
-                                action.run(gui);
+                                action.run(g);
                             } catch (InterruptedException e) {
-                                gui.msg(path + ": STOPPED");
+                                g.msg(path + ": STOPPED");
                             }
-                        }, path + "-ToggleThread");
+                        });
+                        thread = bot.thread;
                         if (disStacks)
                             gui.biw.addObserve(thread, true);
                         else
                             gui.biw.addObserve(thread);
-                        thread.start();
+                        bot.start();
                         gui.msg("Started: " + path);
                     } else {
                         if (thread != null && thread.isAlive()) {
@@ -61,6 +61,7 @@ public class NCharacterInfo extends Widget {
                 lpExplorer.get(name).add(var);
             }
         }
+        NGob.wakeAll();
     }
 
     public int LpExplorerGetSize(String name)
@@ -99,6 +100,8 @@ public class NCharacterInfo extends Widget {
             path = NUtils.getDataFile(filename);
         }
         read();
+        // Gobs asleep before the LP explorer state was known have to recheck it
+        NGob.wakeAll();
     }
 
     void read() {
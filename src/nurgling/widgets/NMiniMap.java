@@ -955,7 +955,7 @@ NMiniMap extends MiniMap {
         NGameUI gui = NUtils.getGameUI();
         if(gui == null || gui.labeledMarkService == null) return;
         
-        java.util.List<LabeledMinimapMark> marks = gui.labeledMarkService.getMarksForSegment(dloc.seg.id);
+        java.util.List<LabeledMinimapMark> marks = gui.labeledMarkService.getMarksInRange(dloc.seg.id, viewul(), viewbr());
         
         Coord hsz = sz.div(2);
         
@@ -1261,8 +1261,8 @@ NMiniMap extends MiniMap {
                         parentWidget = parentWidget.parent;
                     }
 
-                    java.util.List<nurgling.TreeLocation> treeLocations = gui.treeLocationService.getTreeLocationsForSegment(sessloc.seg.id);
                     int threshold = UI.scale(10); // Screen pixels
+                    java.util.List<nurgling.TreeLocation> treeLocations = gui.treeLocationService.getTreeLocationsInRange(sessloc.seg.id, aroundul(c, threshold), aroundbr(c, threshold));
 
                     for(nurgling.TreeLocation loc : treeLocations) {
                         // Apply marker search pattern filter
@@ -1300,8 +1300,8 @@ NMiniMap extends MiniMap {
                         parentWidget = parentWidget.parent;
                     }
 
-                    java.util.List<nurgling.FishLocation> locations = gui.fishLocationService.getFishLocationsForSegment(sessloc.seg.id);
                     int threshold = UI.scale(10); // Screen pixels
+                    java.util.List<nurgling.FishLocation> locations = gui.fishLocationService.getFishLocationsInRange(sessloc.seg.id, aroundul(c, threshold), aroundbr(c, threshold));
 
                     for(nurgling.FishLocation loc : locations) {
                         // Apply marker search pattern filter
@@ -1447,7 +1447,7 @@ NMiniMap extends MiniMap {
         NGameUI gui = NUtils.getGameUI();
         if(gui == null || gui.localizedResourceTimerService == null) return;
 
-        java.util.List<LocalizedResourceTimer> timers = gui.localizedResourceTimerService.getTimersForSegment(dloc.seg.id);
+        java.util.List<LocalizedResourceTimer> timers = gui.localizedResourceTimerService.getTimersInRange(dloc.seg.id, viewul(), viewbr());
 
         Coord hsz = sz.div(2);
 
@@ -1511,7 +1511,7 @@ NMiniMap extends MiniMap {
         }
 
         // Use sessloc.seg.id like waypoints and markers do
-        java.util.List<nurgling.FishLocation> fishLocations = gui.fishLocationService.getFishLocationsForSegment(sessloc.seg.id);
+        java.util.List<nurgling.FishLocation> fishLocations = gui.fishLocationService.getFishLocationsInRange(sessloc.seg.id, viewul(), viewbr());
 
         Coord hsz = sz.div(2);
 
@@ -1590,7 +1590,7 @@ NMiniMap extends MiniMap {
         }
 
         // Use sessloc.seg.id like waypoints and markers do
-        java.util.List<nurgling.TreeLocation> treeLocations = gui.treeLocationService.getTreeLocationsForSegment(sessloc.seg.id);
+        java.util.List<nurgling.TreeLocation> treeLocations = gui.treeLocationService.getTreeLocationsInRange(sessloc.seg.id, viewul(), viewbr());
 
         Coord hsz = sz.div(2);
 
@@ -1649,12 +1649,34 @@ NMiniMap extends MiniMap {
         }
     }
 
+    /**
+     * Corners of the tile rectangle shown on the map, for querying saved locations in view.
+     */
+    private Coord viewul() {
+        return dloc.tc.sub(sz.div(2).mul(scalef())).sub(1, 1);
+    }
+
+    private Coord viewbr() {
+        return dloc.tc.add(sz.sub(sz.div(2)).mul(scalef())).add(1, 1);
+    }
+
+    /**
+     * Corners of the tile rectangle within r screen pixels of screen coordinate c.
+     */
+    private Coord aroundul(Coord c, int r) {
+        return c.sub(sz.div(2)).sub(r, r).mul(scalef()).add(dloc.tc).sub(1, 1);
+    }
+
+    private Coord aroundbr(Coord c, int r) {
+        return c.sub(sz.div(2)).add(r, r).mul(scalef()).add(dloc.tc).add(1, 1);
+    }
+
     private nurgling.FishLocation fishLocationAt(Coord tc) {
         NGameUI gui = NUtils.getGameUI();
         if(gui == null || gui.fishLocationService == null || dloc == null) return null;
 
-        java.util.List<nurgling.FishLocation> locations = gui.fishLocationService.getFishLocationsForSegment(dloc.seg.id);
         int threshold = UI.scale(10); // Click radius
+        java.util.List<nurgling.FishLocation> locations = gui.fishLocationService.getFishLocationsInRange(dloc.seg.id, tc.sub(threshold, threshold), tc.add(threshold, threshold));
 
         for(nurgling.FishLocation loc : locations) {
             if(loc.getTileCoords().dist(tc) < threshold) {
@@ -1674,10 +1696,10 @@ NMiniMap extends MiniMap {
         NGameUI gui = NUtils.getGameUI();
         if(gui == null || gui.labeledMarkService == null) return null;
         
-        java.util.List<LabeledMinimapMark> marks = gui.labeledMarkService.getMarksForSegment(dloc.seg.id);
+        int threshold = UI.scale(12); // Click radius
+        java.util.List<LabeledMinimapMark> marks = gui.labeledMarkService.getMarksInRange(dloc.seg.id, aroundul(screenCoord, threshold), aroundbr(screenCoord, threshold));
         
         Coord hsz = sz.div(2);
-        int threshold = UI.scale(12); // Click radius
         
         for(LabeledMinimapMark mark : marks) {
             // Calculate screen position for this mark
@@ -1844,8 +1866,8 @@ NMiniMap extends MiniMap {
             NGameUI gui = NUtils.getGameUI();
             if(gui != null && gui.treeLocationService != null) {
                 // Check for tree location at click position (in screen space)
-                java.util.List<nurgling.TreeLocation> treeLocations = gui.treeLocationService.getTreeLocationsForSegment(sessloc.seg.id);
                 int threshold = UI.scale(10);
+                java.util.List<nurgling.TreeLocation> treeLocations = gui.treeLocationService.getTreeLocationsInRange(sessloc.seg.id, aroundul(ev.c, threshold), aroundbr(ev.c, threshold));
                 Coord hsz = sz.div(2);
 
                 for(nurgling.TreeLocation loc : treeLocations) {
@@ -1876,8 +1898,8 @@ NMiniMap extends MiniMap {
             NGameUI gui = NUtils.getGameUI();
             if(gui != null && gui.fishLocationService != null) {
                 // Check for fish location at click position (in screen space)
-                java.util.List<nurgling.FishLocation> locations = gui.fishLocationService.getFishLocationsForSegment(sessloc.seg.id);
                 int threshold = UI.scale(10);
+                java.util.List<nurgling.FishLocation> locations = gui.fishLocationService.getFishLocationsInRange(sessloc.seg.id, aroundul(ev.c, threshold), aroundbr(ev.c, threshold));
                 Coord hsz = sz.div(2);
 
                 for(nurgling.FishLocation loc : locations) {
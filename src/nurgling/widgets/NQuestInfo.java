@@ -4,6 +4,7 @@ import haven.*;
 import haven.Window;
 import nurgling.NConfig;
 import nurgling.NGItem;
+import nurgling.NGob;
 import nurgling.NStyle;
 import nurgling.NUtils;
 
@@ -52,6 +53,12 @@ public class NQuestInfo extends Widget
     HashMap<Condition.State,Targets> taskconds = new HashMap<Condition.State,Targets>();
     private Tex glowon = null;
     public static final AtomicInteger lastUpdate = new AtomicInteger(0);
+
+    private static void markersChanged()
+    {
+        lastUpdate.incrementAndGet();
+        NGob.wakeAll();
+    }
     private final Set<String> items = new HashSet<>();
     class Targets
     {
@@ -267,7 +274,7 @@ public class NQuestInfo extends Widget
         if (parent != null)
             parent.resize(sz.add(NDraggableWidget.delta));
         needUpdate.set(false);
-        lastUpdate.set(lastUpdate.get()+1);
+        markersChanged();
     }
 
     static class QuestImage {
@@ -703,7 +710,7 @@ public class NQuestInfo extends Widget
             }
             markers.add(new MarkerInfo(nm, tmp, seg));
         }
-        lastUpdate.set(lastUpdate.get()+1);
+        markersChanged();
     }
 
     public static MarkerInfo getMarkerInfo(Gob gob)
@@ -735,7 +742,7 @@ public class NQuestInfo extends Widget
             MarkerInfo mi = new MarkerInfo(name, null, -1);
             mi.prop = props;
             markers.add(mi);
-            lastUpdate.set(lastUpdate.get()+1);
+            markersChanged();
         }
     }
 
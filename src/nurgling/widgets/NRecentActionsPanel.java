@@ -4,6 +4,7 @@ import haven.*;
 import nurgling.*;
 import nurgling.actions.Action;
 import nurgling.actions.ActionWithFinal;
+import nurgling.actions.BotRuntime;
 import nurgling.conf.*;
 import java.awt.*;
 import java.awt.image.BufferedImage;
@@ -249,47 +250,27 @@ public class NRecentActionsPanel extends Widget {
                             }
                         } else if (recentAction.botAction != null) {
                             // Handle bot action - mirror the behavior from NBotsMenu.start()
-                            Thread t = new Thread(() -> {
-                                ArrayList<Thread> supports = new ArrayList<>();
-                                try {
-                                    NGameUI gui = NUtils.getGameUI();
-                                    if (gui != null) {
-                                        // Start support actions first
-                                        for (Action sup : recentAction.botAction.getSupp()) {
-                                            Thread st = new Thread(() -> {
-                                                try {
-                                                    sup.run(gui);
-                                                } catch (InterruptedException e) {
-                                                    // Support action interrupted
-                                                }
-                                            });
-                                            supports.add(st);
-                                            st.start();
+                            NGameUI gui = NUtils.getGameUI();
+                            if (gui != null) {
+                                Action action = recentAction.botAction;
+                                BotRuntime.Bot bot = BotRuntime.create(recentAction.botPath + "-RecentAction", gui, action.getSupp(), g -> {
+                                    try {
+                                        action.run(g);
+                                    } catch (InterruptedException e) {
+                                        g.msg(recentAction.botPath + ": STOPPED");
+                                    } finally {
+                                        if (action instanceof ActionWithFinal) {
+                                            ((ActionWithFinal) action).endAction();
                                         }
-                                        // Run main action
-                                        recentAction.botAction.run(gui);
-                                    }
-                                } catch (InterruptedException e) {
-                                    if (NUtils.getGameUI() != null) {
-                                        NUtils.getGameUI().msg(recentAction.botPath + ": STOPPED");
-                                    }
-                                } finally {
-                                    // Clean up like the original
-                                    if (recentAction.botAction instanceof ActionWithFinal) {
-                                        ((ActionWithFinal) recentAction.botAction).endAction();
-                                    }
-                                    for (Thread st : supports) {
-                                        st.interrupt();
                                     }
+                                });
+
+                                // Add to bot interrupt widget so the gear appears
+                                if (gui.biw != null) {
+                                    gui.biw.addObserve(bot.thread);
                                 }
-                            }, recentAction.botPath + "-RecentAction");
-                            
-                            // Add to bot interrupt widget so the gear appears
-                            NGameUI gui = NUtils.getGameUI();
-                            if (gui != null && gui.biw != null) {
-                                gui.biw.addObserve(t);
+                                bot.start();
                             }
-                            t.start();
                         }
                     } catch (Exception e) {
                         // Silently ignore errors in action execution